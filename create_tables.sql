@@ -24,6 +24,7 @@ CREATE TABLE IF NOT EXISTS planning_carrier_compliance (
 -- Alter Fleet Vehicles Table to add new columns
 ALTER TABLE planning_fleet_vehicles ADD COLUMN IF NOT EXISTS profile_id VARCHAR(255);
 ALTER TABLE planning_fleet_vehicles ADD COLUMN IF NOT EXISTS carrier_id VARCHAR(255);
+ALTER TABLE planning_fleet_vehicles ADD COLUMN IF NOT EXISTS home_hub_id VARCHAR(255);
 
 -- Add available column (nullable with default)
 ALTER TABLE planning_fleet_vehicles ADD COLUMN IF NOT EXISTS available BOOLEAN;
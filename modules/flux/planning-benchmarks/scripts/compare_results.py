@@ -0,0 +1,91 @@
+#!/usr/bin/env python3
+"""
+Compare two JMH JSON result files (-rf json) and flag regressions.
+
+    python3 scripts/compare_results.py baseline.json current.json [--threshold 10]
+
+A benchmark counts as regressed when it got worse by more than --threshold
+percent AND by more than the combined error margins of both runs (so noise
+within the confidence intervals is not reported). Lower is better for
+avgt/sample/ss modes, higher is better for thrpt.
+
+Exit code: 0 = no regressions, 1 = regressions found, 2 = bad input.
+"""
+import argparse
+import json
+import sys
+
+LOWER_IS_BETTER = {"avgt", "sample", "ss"}
+
+
+def load(path):
+    try:
+        with open(path, encoding="utf-8") as f:
+            runs = json.load(f)
+    except (OSError, ValueError) as e:
+        print(f"Cannot read {path}: {e}", file=sys.stderr)
+        sys.exit(2)
+
+    results = {}
+    for run in runs:
+        params = run.get("params") or {}
+        key = run["benchmark"].rsplit(".", 2)[-2:]
+        name = ".".join(key)
+        if params:
+            name += " [" + ", ".join(f"{k}={v}" for k, v in sorted(params.items())) + "]"
+        metric = run["primaryMetric"]
+        error = metric.get("scoreError")
+        results[name] = {
+            "mode": run["mode"],
+            "score": float(metric["score"]),
+            "error": float(error) if error not in (None, "NaN") else 0.0,
+            "unit": metric["scoreUnit"],
+        }
+    return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Compare JMH results and flag regressions")
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="regression threshold in percent (default 10)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+
+    regressions = []
+    width = max((len(name) for name in baseline.keys() | current.keys()), default=20)
+    print(f"{'benchmark':<{width}}  {'baseline':>14}  {'current':>14}  {'change':>8}  unit")
+    for name in sorted(baseline.keys() | current.keys()):
+        before, after = baseline.get(name), current.get(name)
+        if before is None or after is None:
+            status = "only in current" if before is None else "only in baseline"
+            print(f"{name:<{width}}  {status}")
+            continue
+        if before["unit"] != after["unit"] or before["mode"] != after["mode"]:
+            print(f"{name:<{width}}  mode/unit changed ({before['mode']} {before['unit']} -> "
+                  f"{after['mode']} {after['unit']}) - not compared")
+            continue
+
+        change = (after["score"] - before["score"]) / before["score"] * 100.0 if before["score"] else 0.0
+        worse = change if before["mode"] in LOWER_IS_BETTER else -change
+        beyond_noise = abs(after["score"] - before["score"]) > before["error"] + after["error"]
+        regressed = worse > args.threshold and beyond_noise
+
+        marker = "  REGRESSION" if regressed else ("  improved" if worse < -args.threshold and beyond_noise else "")
+        print(f"{name:<{width}}  {before['score']:>14.3f}  {after['score']:>14.3f}  {change:>+7.1f}%  "
+              f"{after['unit']}{marker}")
+        if regressed:
+            regressions.append(name)
+
+    if regressions:
+        print(f"\n{len(regressions)} regression(s) above {args.threshold:.0f}%: {', '.join(regressions)}")
+        return 1
+    print(f"\nNo regressions above {args.threshold:.0f}%")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
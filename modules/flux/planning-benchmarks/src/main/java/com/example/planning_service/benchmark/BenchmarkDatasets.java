@@ -0,0 +1,331 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.domain.timefold.Location;
+import com.example.planning_service.domain.timefold.RouteStop;
+import com.example.planning_service.domain.timefold.ScaledUnits;
+import com.example.planning_service.domain.timefold.Standstill;
+import com.example.planning_service.domain.timefold.Vehicle;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import com.example.planning_service.dto.RouteStopDto;
+import com.example.planning_service.entity.LocationPoint;
+import com.example.planning_service.entity.PostalCodeRuleEntity;
+import com.example.planning_service.entity.RouteEntity;
+import com.example.planning_service.entity.RouteStopEntity;
+import com.example.planning_service.entity.ZoneDefinitionEntity;
+import com.example.planning_service.optimization.VrpOptimizerService;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Deterministic synthetic datasets for the benchmarks - the same seed always
+ * gives the same problem, so results of two runs (or two commits) are comparable.
+ *
+ * Stops are scattered around Warsaw (0.6 x 0.9 degree box), hubs over Poland,
+ * postal codes use the Polish XX-XXX format.
+ */
+public final class BenchmarkDatasets {
+
+    public static final long SEED = 42L;
+
+    private static final double DEPOT_LAT = 52.2297;
+    private static final double DEPOT_LON = 21.0122;
+    private static final GeometryFactory GEOMETRY = new GeometryFactory();
+
+    /**
+     * Fixed planning start (2026-01-05T07:00:00Z) so arrival times are reproducible
+     */
+    public static final long PLANNING_START = 1_767_596_400L;
+
+    private BenchmarkDatasets() {
+    }
+
+    // ===== Routing problems =====
+
+    /**
+     * Unassigned routing problem with a precomputed haversine distance matrix;
+     * fleet capacity is 1.2x the total demand
+     */
+    public static VehicleRoutingSolution routingProblem(int stopCount, int vehicleCount, long seed) {
+        Random random = new Random(seed);
+
+        List<RouteStop> stops = new ArrayList<>(stopCount);
+        long totalDemandGrams = 0L;
+        for (int i = 0; i < stopCount; i++) {
+            long weightGrams = ScaledUnits.kilogramsToGrams(BigDecimal.valueOf(1 + random.nextInt(50)));
+            totalDemandGrams += weightGrams;
+            stops.add(RouteStop.builder()
+                    .id(new UUID(seed, i).toString())
+                    .latitude(DEPOT_LAT + (random.nextDouble() - 0.5) * 0.6)
+                    .longitude(DEPOT_LON + (random.nextDouble() - 0.5) * 0.9)
+                    .demandWeightGrams(weightGrams)
+                    .demandVolumeCm3(0L)
+                    .serviceDurationSeconds(300)
+                    .build());
+        }
+
+        long capacityKg = (long) Math.ceil(
+                totalDemandGrams * 1.2 / Math.max(1, vehicleCount) / ScaledUnits.GRAMS_PER_KILOGRAM);
+        List<Vehicle> vehicles = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            vehicles.add(Vehicle.builder()
+                    .id(new UUID(~seed, i).toString())
+                    .name("Vehicle " + i)
+                    .location(Location.builder().latitude(DEPOT_LAT).longitude(DEPOT_LON).build())
+                    .capacityWeightGrams(capacityKg * ScaledUnits.GRAMS_PER_KILOGRAM)
+                    .capacityVolumeCm3(0L)
+                    .departureTime(PLANNING_START)
+                    .shiftStartTime(PLANNING_START)
+                    .shiftEndTime(PLANNING_START + 10 * 3600)
+                    .available(true)
+                    .build());
+        }
+
+        VehicleRoutingSolution problem = new VehicleRoutingSolution();
+        problem.setOptimizationId("benchmark-" + seed);
+        problem.setVehicles(vehicles);
+        problem.setStops(stops);
+        problem.setAllStops(stops);
+        problem.setOrders(List.of());
+        problem.setDepot(vehicles.isEmpty() ? null : vehicles.get(0).getLocation());
+        problem.setDistanceMatrix(DistanceMatrix.build(vehicles, stops));
+        return problem;
+    }
+
+    /**
+     * Chain every stop to a random vehicle in random order. Shadow variables are
+     * set by hand so the solution can be scored without solving.
+     */
+    public static VehicleRoutingSolution assignRandomly(VehicleRoutingSolution solution, long seed) {
+        Random random = new Random(seed);
+        List<Vehicle> vehicles = solution.getVehicles();
+        Standstill[] tails = vehicles.toArray(new Standstill[0]);
+        vehicles.forEach(vehicle -> vehicle.setNextStop(null));
+
+        List<RouteStop> shuffled = new ArrayList<>(solution.getStops());
+        Collections.shuffle(shuffled, random);
+        for (RouteStop stop : shuffled) {
+            int vehicleIndex = random.nextInt(vehicles.size());
+            Standstill tail = tails[vehicleIndex];
+            stop.setPreviousStandstill(tail);
+            stop.setVehicle(vehicles.get(vehicleIndex));
+            stop.setNextStop(null);
+            tail.setNextStop(stop);
+            tails[vehicleIndex] = stop;
+        }
+        return solution;
+    }
+
+    /**
+     * Stops of one route (as sent to the resequence endpoint), in random order
+     */
+    public static List<RouteStopDto> routeStops(int stopCount, long seed) {
+        Random random = new Random(seed);
+        List<RouteStopDto> stops = new ArrayList<>(stopCount);
+        for (int i = 0; i < stopCount; i++) {
+            stops.add(RouteStopDto.builder()
+                    .stopId("STOP-" + i)
+                    .type("DELIVERY")
+                    .orderId(new UUID(seed, i))
+                    .lat(DEPOT_LAT + (random.nextDouble() - 0.5) * 0.6)
+                    .lon(DEPOT_LON + (random.nextDouble() - 0.5) * 0.9)
+                    .build());
+        }
+        return stops;
+    }
+
+    public static double depotLatitude() {
+        return DEPOT_LAT;
+    }
+
+    public static double depotLongitude() {
+        return DEPOT_LON;
+    }
+
+    // ===== Hubs =====
+
+    /**
+     * Hubs spread over Poland, catchment radius 5-60 km
+     */
+    public static List<AutoPlanProperties.HubConfig> hubs(int count, long seed) {
+        Random random = new Random(seed);
+        List<AutoPlanProperties.HubConfig> hubs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AutoPlanProperties.HubConfig.LocationConfig location = new AutoPlanProperties.HubConfig.LocationConfig();
+            location.setLat(49.0 + random.nextDouble() * 5.8);
+            location.setLon(14.1 + random.nextDouble() * 10.0);
+            AutoPlanProperties.HubConfig hub = new AutoPlanProperties.HubConfig();
+            hub.setId("HUB_" + i);
+            hub.setName("Hub " + i);
+            hub.setLocation(location);
+            hub.setCatchmentRadiusKm(5 + random.nextInt(56));
+            hubs.add(hub);
+        }
+        return hubs;
+    }
+
+    /**
+     * Lookup points in a box slightly larger than the hub box, so part of the
+     * lookups falls back to the nearest hub
+     *
+     * @return [latitudes, longitudes]
+     */
+    public static double[][] points(int count, long seed) {
+        Random random = new Random(seed);
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = 48.0 + random.nextDouble() * 8.0;
+            longitudes[i] = 13.0 + random.nextDouble() * 12.0;
+        }
+        return new double[][] { latitudes, longitudes };
+    }
+
+    // ===== Road routing =====
+
+    /**
+     * Delivery points around the Warsaw depot (~33 x 35 km), inside the bundled road extract
+     */
+    public static List<com.example.planning_service.domain.Location> roadLocations(int count, long seed) {
+        Random random = new Random(seed);
+        List<com.example.planning_service.domain.Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            locations.add(com.example.planning_service.domain.Location.builder()
+                    .latitude(DEPOT_LAT + (random.nextDouble() - 0.5) * 0.3)
+                    .longitude(DEPOT_LON + (random.nextDouble() - 0.5) * 0.5)
+                    .build());
+        }
+        return locations;
+    }
+
+    // ===== Active routes =====
+
+    /**
+     * Active routes with a driver position and {@code stopCount} stops each, ~33 x 50 km around the depot
+     */
+    public static List<RouteEntity> activeRoutes(int count, int stopCount, long seed) {
+        Random random = new Random(seed);
+        List<RouteEntity> routes = new ArrayList<>(count);
+        for (int r = 0; r < count; r++) {
+            RouteEntity route = new RouteEntity();
+            route.setId(new UUID(seed, r));
+            route.setCurrentLocation(locationPoint(random));
+            List<RouteStopEntity> stops = new ArrayList<>(stopCount);
+            for (int i = 1; i <= stopCount; i++) {
+                RouteStopEntity stop = new RouteStopEntity();
+                stop.setId(new UUID(~seed, (long) r * stopCount + i));
+                stop.setRoute(route);
+                stop.setSequence(i);
+                stop.setOrderId(new UUID(seed, (long) r * stopCount + i));
+                stop.setLocation(locationPoint(random));
+                stops.add(stop);
+            }
+            route.setStops(stops);
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    private static LocationPoint locationPoint(Random random) {
+        LocationPoint point = new LocationPoint();
+        point.setCoordinates(GEOMETRY.createPoint(new Coordinate(DEPOT_LON + (random.nextDouble() - 0.5) * 0.45,
+                DEPOT_LAT + (random.nextDouble() - 0.5) * 0.3)));
+        return point;
+    }
+
+    // ===== Postal codes =====
+
+    /**
+     * PL postal code rules: {@code zones} zones, each owning a few random ranges;
+     * ranges overlap, priority decides
+     */
+    public static List<PostalCodeRuleEntity> postalCodeRules(int zones, int rulesPerZone, long seed) {
+        Random random = new Random(seed);
+        List<PostalCodeRuleEntity> rules = new ArrayList<>(zones * rulesPerZone);
+        for (int z = 0; z < zones; z++) {
+            ZoneDefinitionEntity zone = ZoneDefinitionEntity.builder()
+                    .id(new UUID(seed, z))
+                    .code("ZONE_" + z)
+                    .name("Zone " + z)
+                    .countryCode("PL")
+                    .build();
+            for (int r = 0; r < rulesPerZone; r++) {
+                int start = random.nextInt(100_000);
+                int end = Math.min(99_999, start + random.nextInt(2_000));
+                rules.add(PostalCodeRuleEntity.builder()
+                        .id(new UUID(~seed, (long) z * rulesPerZone + r))
+                        .zone(zone)
+                        .postalCodeStart(postalCode(start))
+                        .postalCodeEnd(postalCode(end))
+                        .priority(random.nextInt(10))
+                        .build());
+            }
+        }
+        return rules;
+    }
+
+    public static List<String> postalCodes(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(postalCode(random.nextInt(100_000)));
+        }
+        return codes;
+    }
+
+    private static String postalCode(int value) {
+        String digits = String.format("%05d", value);
+        return digits.substring(0, 2) + "-" + digits.substring(2);
+    }
+
+    // ===== Manifests =====
+
+    /**
+     * VRP route of one vehicle with {@code activities} deliveries, 5 minutes apart
+     */
+    public static VrpOptimizerService.VehicleRoutingSolution.Route vrpRoute(int activities, long seed) {
+        Random random = new Random(seed);
+        List<VrpOptimizerService.VehicleRoutingSolution.Activity> route = new ArrayList<>(activities);
+        long arrival = PLANNING_START * 1000;
+        for (int i = 0; i < activities; i++) {
+            arrival += 300_000;
+            route.add(new VrpOptimizerService.VehicleRoutingSolution.Activity(
+                    new UUID(seed, i),
+                    VrpOptimizerService.VehicleRoutingSolution.ActivityType.DELIVERY,
+                    DEPOT_LAT + (random.nextDouble() - 0.5) * 0.6,
+                    DEPOT_LON + (random.nextDouble() - 0.5) * 0.9,
+                    arrival,
+                    arrival + 300_000));
+        }
+        return new VrpOptimizerService.VehicleRoutingSolution.Route(new UUID(~seed, 0), route,
+                activities * 1_500.0, activities * 600_000L);
+    }
+
+    // ===== Repository stubs =====
+
+    /**
+     * In-memory stand-in for a Spring Data repository: calls are answered by
+     * {@code handler(methodName, args)}, Object methods behave as usual
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "Stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> handler.apply(method.getName(), args);
+            };
+        });
+    }
+}
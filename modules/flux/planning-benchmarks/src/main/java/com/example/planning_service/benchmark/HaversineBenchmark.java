@@ -0,0 +1,86 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.domain.timefold.RouteStop;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance from the previous stop over a whole plan: haversine fallback in
+ * RouteStop (no matrix) vs the precomputed DistanceMatrix lookup the solver uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HaversineBenchmark {
+
+    @Param({ "200", "1000" })
+    public int stops;
+
+    private List<RouteStop> withMatrix;
+    private List<RouteStop> withoutMatrix;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        withMatrix = chainedStops();
+        withoutMatrix = chainedStops();
+        withoutMatrix.forEach(stop -> stop.setDistanceMatrix(null));
+
+        latitudes = withoutMatrix.stream().mapToDouble(RouteStop::getLatitude).toArray();
+        longitudes = withoutMatrix.stream().mapToDouble(RouteStop::getLongitude).toArray();
+    }
+
+    private List<RouteStop> chainedStops() {
+        VehicleRoutingSolution problem = BenchmarkDatasets.routingProblem(stops, 10, BenchmarkDatasets.SEED);
+        return BenchmarkDatasets.assignRandomly(problem, BenchmarkDatasets.SEED).getStops();
+    }
+
+    @Benchmark
+    public double routeStopHaversine() {
+        double total = 0.0;
+        for (RouteStop stop : withoutMatrix) {
+            total += stop.getDistanceFromPreviousMeters();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double routeStopMatrix() {
+        double total = 0.0;
+        for (RouteStop stop : withMatrix) {
+            total += stop.getDistanceFromPreviousMeters();
+        }
+        return total;
+    }
+
+    /**
+     * Raw formula, consecutive stop pairs
+     */
+    @Benchmark
+    public double haversineMeters() {
+        double total = 0.0;
+        for (int i = 1; i < latitudes.length; i++) {
+            total += DistanceMatrix.haversineMeters(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+        }
+        return total;
+    }
+}
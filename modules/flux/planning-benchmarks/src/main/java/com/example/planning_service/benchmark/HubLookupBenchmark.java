@@ -0,0 +1,99 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.service.HubService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HubService.findHubForLocation - 10k lookups per operation, part of them
+ * outside every catchment (nearest-hub fallback) - indexed vs the previous
+ * linear scan (hub list rebuilt from properties, catchment scan, nearest-hub
+ * scan).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HubLookupBenchmark {
+
+    private static final int LOOKUPS = 10_000;
+
+    @Param({ "20", "200" })
+    public int hubs;
+
+    private AutoPlanProperties properties;
+    private HubService hubService;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        properties = new AutoPlanProperties();
+        properties.setHubs(BenchmarkDatasets.hubs(hubs, BenchmarkDatasets.SEED));
+        hubService = new HubService(properties);
+
+        double[][] points = BenchmarkDatasets.points(LOOKUPS, BenchmarkDatasets.SEED);
+        latitudes = points[0];
+        longitudes = points[1];
+    }
+
+    @Benchmark
+    public void findHubForLocation(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(hubService.findHubForLocation(latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            // Previous behaviour: HubConfiguration list rebuilt from properties on every call
+            List<HubConfiguration> activeHubs = properties.getHubs().stream()
+                    .map(config -> HubConfiguration.builder()
+                            .id(config.getId())
+                            .location(HubConfiguration.Location.builder()
+                                    .latitude(config.getLocation().getLat())
+                                    .longitude(config.getLocation().getLon())
+                                    .build())
+                            .catchmentRadiusKm(config.getCatchmentRadiusKm())
+                            .maxVehicles(16)
+                            .active(true)
+                            .build())
+                    .filter(HubConfiguration::isOperational)
+                    .toList();
+            blackhole.consume(linearHubForLocation(activeHubs, latitudes[i], longitudes[i]));
+        }
+    }
+
+    private static Optional<HubConfiguration> linearHubForLocation(List<HubConfiguration> activeHubs, double lat,
+            double lon) {
+        HubConfiguration.Location point = HubConfiguration.Location.builder().latitude(lat).longitude(lon).build();
+        Optional<HubConfiguration> inCatchment = activeHubs.stream()
+                .filter(hub -> hub.isWithinCatchmentArea(point))
+                .findFirst();
+        if (inCatchment.isPresent()) {
+            return inCatchment;
+        }
+        return activeHubs.stream().min(Comparator.comparingDouble(hub -> hub.getLocation().distanceToKm(point)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.dto.ManifestResponseDto;
+import com.example.planning_service.entity.ManifestEntity;
+import com.example.planning_service.optimization.VrpOptimizerService;
+import com.example.planning_service.repository.ManifestBatchWriter;
+import com.example.planning_service.repository.ManifestRepository;
+import com.example.planning_service.service.ManifestService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ManifestService: manifest built from one VRP route and mapped to its DTO.
+ * The repository is an in-memory stub (save returns the entity), so only the
+ * building itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManifestBuildBenchmark {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 5);
+
+    @Param({ "50", "500" })
+    public int stops;
+
+    private ManifestService manifestService;
+    private VrpOptimizerService.VehicleRoutingSolution.Route route;
+    private ManifestEntity manifest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ManifestRepository repository = BenchmarkDatasets.repository(ManifestRepository.class, (method, args) -> {
+            if (method.equals("save")) {
+                return args[0];
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        manifestService = new ManifestService(repository, new ManifestBatchWriter(null), new AppProperties());
+        route = BenchmarkDatasets.vrpRoute(stops, BenchmarkDatasets.SEED);
+        manifest = manifestService.createManifestFromVehicleRoutingSolution(route, DATE);
+    }
+
+    @Benchmark
+    public ManifestEntity buildManifest() {
+        return manifestService.createManifestFromVehicleRoutingSolution(route, DATE);
+    }
+
+    @Benchmark
+    public ManifestResponseDto toDto() {
+        return manifestService.toDto(manifest);
+    }
+}
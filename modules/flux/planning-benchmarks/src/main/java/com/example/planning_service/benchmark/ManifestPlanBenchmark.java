@@ -0,0 +1,114 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.entity.ManifestEntity;
+import com.example.planning_service.entity.ManifestRouteEntity;
+import com.example.planning_service.entity.ManifestStatus;
+import com.example.planning_service.optimization.VrpOptimizerService;
+import com.example.planning_service.service.ManifestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Manifests of a whole plan (ManifestService.createManifestsForPlan without
+ * the database write):
+ *
+ * - legacy: the previous per-route mapping (indexOf per activity, String.format
+ * per address and arrival),
+ * - builder: ManifestBuilder (single-pass sequence, StringBuilder formatting).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManifestPlanBenchmark {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 5);
+
+    @Param({ "500" })
+    public int routes;
+
+    @Param({ "30", "120" })
+    public int stopsPerRoute;
+
+    @Param({ "legacy", "builder" })
+    public String algorithm;
+
+    private List<VrpOptimizerService.VehicleRoutingSolution.Route> plan;
+    private ManifestBuilder builder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plan = new ArrayList<>(routes);
+        for (int i = 0; i < routes; i++) {
+            plan.add(BenchmarkDatasets.vrpRoute(stopsPerRoute, BenchmarkDatasets.SEED + i));
+        }
+        builder = new ManifestBuilder(ZoneId.systemDefault(),
+                ManifestBuilder.shiftWindow(LocalTime.of(8, 0), LocalTime.of(18, 0)));
+    }
+
+    @Benchmark
+    public List<ManifestEntity> buildPlan() {
+        List<ManifestEntity> manifests = new ArrayList<>(plan.size());
+        for (VrpOptimizerService.VehicleRoutingSolution.Route route : plan) {
+            manifests.add("legacy".equals(algorithm) ? legacyManifest(route, DATE) : builder.build(route, DATE));
+        }
+        return manifests;
+    }
+
+    /**
+     * createManifestFromVehicleRoutingSolution before ManifestBuilder - kept as the baseline
+     */
+    static ManifestEntity legacyManifest(VrpOptimizerService.VehicleRoutingSolution.Route vrpRoute, LocalDate date) {
+        ManifestEntity manifest = ManifestEntity.builder()
+                .id(UUID.randomUUID())
+                .vehicleId(vrpRoute.vehicleId())
+                .date(date)
+                .status(ManifestStatus.DRAFT)
+                .totalDistanceMeters(vrpRoute.totalDistance())
+                .estimatedDurationMillis(vrpRoute.totalTimeMillis())
+                .optimizationScore(Math.max(0, 100.0 - vrpRoute.totalDistance() / 1000.0 * 0.5))
+                .externalReference("MAN-" + date.toString().replace("-", "") + "-"
+                        + vrpRoute.vehicleId().toString().substring(0, 4).toUpperCase())
+                .metadata("{\"ecrm_version\": \"v1.0\", \"source\": \"vrp_optimizer\"}")
+                .build();
+
+        List<ManifestRouteEntity> routes = vrpRoute.activities().stream()
+                .map(activity -> ManifestRouteEntity.builder()
+                        .id(UUID.randomUUID())
+                        .manifest(manifest)
+                        .orderId(activity.orderId())
+                        .sequence(vrpRoute.activities().indexOf(activity) + 1)
+                        .address(String.format("%.6f, %.6f", activity.latitude(), activity.longitude()))
+                        .timeWindow("09:00-17:00")
+                        .estimatedArrival(String.format("%02d:%02d",
+                                (activity.arrivalTimeMillis() / (1000 * 60 * 60)) % 24,
+                                (activity.arrivalTimeMillis() / (1000 * 60)) % 60))
+                        .status("PENDING")
+                        .build())
+                .collect(Collectors.toList());
+
+        manifest.setRoutes(routes);
+        return manifest;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.dto.RouteStopDto;
+import com.example.planning_service.optimization.impl.RouteResequencer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-route resequencing (TimefoldOptimizer.resequenceRoutes) for small,
+ * typical and very long routes:
+ *
+ * - legacy: the previous full-scan nearest neighbour (list scan + remove),
+ * - grid: RouteResequencer nearest neighbour only,
+ * - improved: grid + 2-opt / Or-opt with the default 200 ms cap.
+ *
+ * Only runtime is measured here; tour length at the same sizes is asserted in
+ * RouteResequencerTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResequenceBenchmark {
+
+    @Param({ "50", "200", "1000" })
+    public int stops;
+
+    @Param({ "legacy", "grid", "improved" })
+    public String algorithm;
+
+    private List<RouteStopDto> route;
+    private RouteResequencer resequencer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        route = BenchmarkDatasets.routeStops(stops, BenchmarkDatasets.SEED);
+        resequencer = new RouteResequencer(!"grid".equals(algorithm), Duration.ofMillis(200), LocalTime.of(8, 0),
+                300, DistanceMatrix.AVERAGE_SPEED_KMH);
+    }
+
+    @Benchmark
+    public List<RouteStopDto> resequence() {
+        return "legacy".equals(algorithm)
+                ? legacyNearestNeighbour(route, BenchmarkDatasets.depotLatitude(), BenchmarkDatasets.depotLongitude())
+                : resequencer.resequence(route, BenchmarkDatasets.depotLatitude(), BenchmarkDatasets.depotLongitude());
+    }
+
+    /**
+     * resequenceRoutes before RouteResequencer - kept as the baseline
+     */
+    static List<RouteStopDto> legacyNearestNeighbour(List<RouteStopDto> stops, double startLat, double startLon) {
+        List<RouteStopDto> optimized = new ArrayList<>();
+        List<RouteStopDto> remaining = new ArrayList<>(stops);
+        double currentLat = startLat;
+        double currentLon = startLon;
+        while (!remaining.isEmpty()) {
+            RouteStopDto nearest = null;
+            double minDist = Double.MAX_VALUE;
+            for (RouteStopDto candidate : remaining) {
+                double dist = DistanceMatrix.haversineMeters(currentLat, currentLon, candidate.getLat(),
+                        candidate.getLon());
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearest = candidate;
+                }
+            }
+            optimized.add(nearest);
+            remaining.remove(nearest);
+            currentLat = nearest.getLat();
+            currentLon = nearest.getLon();
+        }
+        return optimized;
+    }
+}
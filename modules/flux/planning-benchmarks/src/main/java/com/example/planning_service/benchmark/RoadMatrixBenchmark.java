@@ -0,0 +1,88 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.config.RoutingProperties;
+import com.example.planning_service.domain.Location;
+import com.example.planning_service.routing.GraphHopperDistanceProvider;
+import com.example.planning_service.routing.HaversineDistanceProvider;
+import com.example.planning_service.routing.TravelMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Road distances from the offline GraphHopper graph: 100x100 / 500x500
+ * matrices (shortest-path tree per row), one row, and the consecutive legs of
+ * the first 25 points (route ETA) vs the haversine fallback.
+ *
+ * The graph is read from ../planning-service/routing-data (override with
+ * -Drouting.data=<dir>); it is imported from the OSM extract on the first run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RoadMatrixBenchmark {
+
+    private static final int ROUTE_STOPS = 25;
+
+    @Param({ "100", "500" })
+    public int size;
+
+    private List<Location> points;
+    private List<Location> route;
+    private GraphHopperDistanceProvider graphHopper;
+    private HaversineDistanceProvider haversine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = BenchmarkDatasets.roadLocations(size, BenchmarkDatasets.SEED);
+        route = points.subList(0, ROUTE_STOPS + 1);
+        haversine = new HaversineDistanceProvider(40.0, 1.3);
+
+        String routingData = System.getProperty("routing.data", "../planning-service/routing-data");
+        RoutingProperties.GraphHopper config = new RoutingProperties.GraphHopper();
+        config.setOsmFile(routingData + "/poland-latest.osm.pbf");
+        config.setGraphLocation(routingData + "/graphhopper");
+        graphHopper = GraphHopperDistanceProvider.load(config, haversine);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphHopper.close();
+    }
+
+    @Benchmark
+    public TravelMatrix roadManyToMany() {
+        return graphHopper.manyToMany(points, points);
+    }
+
+    @Benchmark
+    public TravelMatrix roadOneToMany() {
+        return graphHopper.oneToMany(points.get(0), points);
+    }
+
+    @Benchmark
+    public TravelMatrix roadLegs() {
+        return graphHopper.legs(route);
+    }
+
+    @Benchmark
+    public TravelMatrix haversineManyToMany() {
+        return haversine.manyToMany(points, points);
+    }
+}
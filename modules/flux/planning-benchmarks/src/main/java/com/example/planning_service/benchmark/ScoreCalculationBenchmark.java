@@ -0,0 +1,57 @@
+package com.example.planning_service.benchmark;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full VoidConstraintProvider score calculation of a complete plan: the score
+ * director built from solverConfig.xml recomputes shadow variables (arrival
+ * times) and every constraint stream from scratch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ScoreCalculationBenchmark {
+
+    @Param({ "200", "1000" })
+    public int stops;
+
+    private SolutionManager<VehicleRoutingSolution, HardSoftLongScore> solutionManager;
+    private VehicleRoutingSolution solution;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SolverFactory<VehicleRoutingSolution> solverFactory = SolverFactory
+                .create(SolverConfig.createFromXmlResource("solverConfig.xml"));
+        solutionManager = SolutionManager.create(solverFactory);
+
+        int vehicles = Math.max(2, stops / 25);
+        solution = BenchmarkDatasets.assignRandomly(
+                BenchmarkDatasets.routingProblem(stops, vehicles, BenchmarkDatasets.SEED), BenchmarkDatasets.SEED);
+    }
+
+    @Benchmark
+    public HardSoftLongScore calculateScore() {
+        return solutionManager.update(solution);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.Location;
+import com.example.planning_service.entity.LocationPoint;
+import com.example.planning_service.entity.RouteEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.repository.RouteRepository;
+import com.example.planning_service.routing.DistanceProvider;
+import com.example.planning_service.routing.HaversineDistanceProvider;
+import com.example.planning_service.routing.TravelMatrix;
+import com.example.planning_service.service.AlertService;
+import com.example.planning_service.service.SentinelService;
+import com.example.planning_service.service.TravelTimeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * SentinelService: ETA sweep over 2,000 active routes of 25 stops - sequential
+ * (parallelism 1) vs the bounded pool, with every driver moved or only 10% of
+ * them. The distance engine is haversine behind a fixed per-request latency
+ * standing in for the road graph; the repository and the transaction manager
+ * are in-memory stubs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SentinelSweepBenchmark {
+
+    private static final int ROUTES = 2_000;
+    private static final int STOPS = 25;
+
+    @Param({ "1", "8" })
+    public int parallelism;
+
+    @Param({ "100", "10" })
+    public int movedPercent;
+
+    @Param({ "1000" })
+    public long matrixLatencyMicros;
+
+    private List<RouteEntity> routes;
+    private ExecutorService executor;
+    private SentinelService sentinelService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        routes = BenchmarkDatasets.activeRoutes(ROUTES, STOPS, BenchmarkDatasets.SEED);
+        Map<UUID, RouteEntity> byId = routes.stream()
+                .collect(Collectors.toMap(RouteEntity::getId, Function.identity()));
+        List<UUID> ids = List.copyOf(byId.keySet());
+        RouteRepository routeRepository = BenchmarkDatasets.repository(RouteRepository.class,
+                (method, args) -> switch (method) {
+                    case "findIdsWithCurrentLocation" -> ids;
+                    case "findById" -> Optional.ofNullable(byId.get(args[0]));
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method);
+                });
+
+        AppProperties appProperties = new AppProperties();
+        appProperties.getSentinel().setParallelism(parallelism);
+        executor = Executors.newFixedThreadPool(parallelism);
+        TravelTimeService travelTimeService = new TravelTimeService(
+                new LatencyDistanceProvider(new HaversineDistanceProvider(40.0, 1.3), matrixLatencyMicros));
+        // No SLA windows in the dataset - AlertService never sends
+        sentinelService = new SentinelService(routeRepository, travelTimeService, new AlertService(null),
+                appProperties, new OptimizationMetrics(new SimpleMeterRegistry()), new NoOpTransactionManager(),
+                executor);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPositions() {
+        // Moved drivers have no ETA origin yet; the rest were recalculated a moment ago on the spot
+        LocalDateTime now = LocalDateTime.now();
+        int moved = ROUTES * movedPercent / 100;
+        for (int i = 0; i < ROUTES; i++) {
+            RouteEntity route = routes.get(i);
+            if (i < moved) {
+                route.setEtaOrigin(null);
+            } else {
+                LocationPoint origin = new LocationPoint();
+                origin.setCoordinates(route.getCurrentLocation().getCoordinates());
+                route.setEtaOrigin(origin);
+                route.setEtaCalculatedAt(now);
+                route.setLastUpdated(now);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public SentinelService.SweepResult sweep() {
+        return sentinelService.recalculateActiveRoutes();
+    }
+
+    /**
+     * Haversine with a fixed delay per matrix / legs request (road graph / remote engine stand-in)
+     */
+    private record LatencyDistanceProvider(DistanceProvider delegate, long latencyMicros) implements DistanceProvider {
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public TravelMatrix manyToMany(List<Location> origins, List<Location> destinations) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+            return delegate.manyToMany(origins, destinations);
+        }
+
+        @Override
+        public TravelMatrix legs(List<Location> points) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+            return delegate.legs(points);
+        }
+    }
+
+    /**
+     * Every route runs in its own TransactionTemplate - only the callback matters here
+     */
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.planning_service.benchmark;
+
+import com.example.planning_service.entity.PostalCodeRuleEntity;
+import com.example.planning_service.entity.ZoneDefinitionEntity;
+import com.example.planning_service.repository.PostalCodeRuleRepository;
+import com.example.planning_service.service.ZoneResolutionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZoneResolutionService: single lookups and the bulk batch-planning lookup
+ * against an in-memory rule repository (index compiled once, in setup).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZoneResolutionBenchmark {
+
+    private static final String COUNTRY = "PL";
+    private static final int LOOKUPS = 10_000;
+
+    @Param({ "1000", "10000" })
+    public int rules;
+
+    private ZoneResolutionService zoneResolutionService;
+    private List<String> postalCodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<PostalCodeRuleEntity> ruleSet = BenchmarkDatasets.postalCodeRules(rules / 10, 10,
+                BenchmarkDatasets.SEED);
+        PostalCodeRuleRepository repository = BenchmarkDatasets.repository(PostalCodeRuleRepository.class,
+                (method, args) -> {
+                    if (method.equals("findAllByCountryCode")) {
+                        return ruleSet;
+                    }
+                    throw new UnsupportedOperationException(method);
+                });
+        zoneResolutionService = new ZoneResolutionService(repository);
+        postalCodes = BenchmarkDatasets.postalCodes(LOOKUPS, BenchmarkDatasets.SEED);
+        zoneResolutionService.rebuild(COUNTRY);
+    }
+
+    @Benchmark
+    public void resolveZone(Blackhole blackhole) {
+        for (String postalCode : postalCodes) {
+            blackhole.consume(zoneResolutionService.resolveZone(COUNTRY, postalCode));
+        }
+    }
+
+    @Benchmark
+    public Map<String, ZoneDefinitionEntity> resolveAll() {
+        return zoneResolutionService.resolveAll(COUNTRY, postalCodes);
+    }
+}
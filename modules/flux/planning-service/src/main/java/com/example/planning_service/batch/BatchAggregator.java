@@ -1,49 +1,145 @@
 package com.example.planning_service.batch;
 
+import com.example.planning_service.entity.BatchQueueEntryEntity;
+import com.example.planning_service.repository.BatchQueueEntryRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * ARCHITEKTURA: Thread-Safe Batch Aggregator dla zamówień oczekujących na
- * optymalizację
- * 
- * Przechowuje order IDs w thread-safe kolejce i umożliwia atomiczne operacje
- * poll-and-clear dla schedulera. Wspiera również metadata tracking (timestamps,
- * priority).
- * 
- * Thread-safe: ConcurrentLinkedQueue zapewnia bezpieczeństwo wielowątkowe bez
- * synchronization
+ * ARCHITEKTURA: Durable, priority-indexed Batch Aggregator dla zamówień
+ * oczekujących na optymalizację
+ *
+ * Storage:
+ * - order_batch_queue (Postgres): source of truth, przeżywa restart,
+ * - in-memory index: jeden zbiór per OrderPriority posortowany po czasie
+ *   dodania (oldest first), plus mapa orderId -> entry.
+ *
+ * Operacje:
+ * - add: zapis do bazy, potem index (duplikaty są ignorowane),
+ * - claim: atomicznie oznacza najstarsze zamówienia (URGENT -> NORMAL -> LOW)
+ *   jako CLAIMED i zwraca BatchClaim,
+ * - pending + claim(orderIds): podgląd kolejki (z lokalizacją dostawy) i claim
+ *   wybranych zamówień - BatchExecutionPipeline dzieli batch po hubach zanim
+ *   cokolwiek zostanie zablokowane,
+ * - ack: usuwa zamówienia po udanej optymalizacji (ack z listą zwraca
+ *   niezaplanowane zamówienia claimu do kolejki, resztę usuwa),
+ * - release: zwraca zamówienia do kolejki z oryginalnym timestampem,
+ * - replay (startup): niezakończone claimy wracają do PENDING, PENDING są
+ *   ładowane do pamięci - crash w trakcie processBatch nie gubi zamówień.
+ *
+ * Oldest lookup is O(1): the head of each priority index.
+ * Assumes a single planning-service instance owns the queue.
  */
 @Slf4j
 @Component
 public class BatchAggregator {
 
-    private final ConcurrentLinkedQueue<OrderBatchEntry> pendingOrders = new ConcurrentLinkedQueue<>();
-    private final Map<UUID, Instant> orderTimestamps = new ConcurrentHashMap<>();
+    /**
+     * Max order IDs per claim UPDATE (keeps the IN list well below driver limits)
+     */
+    private static final int CLAIM_CHUNK_SIZE = 1000;
+
+    private static final Comparator<OrderBatchEntry> OLDEST_FIRST = Comparator
+            .comparing(OrderBatchEntry::timestamp)
+            .thenComparingLong(OrderBatchEntry::sequence)
+            .thenComparing(OrderBatchEntry::orderId);
+
+    private final BatchQueueEntryRepository queueRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<OrderPriority, ConcurrentSkipListSet<OrderBatchEntry>> pendingByPriority = new EnumMap<>(
+            OrderPriority.class);
+    private final Map<UUID, OrderBatchEntry> pendingById = new ConcurrentHashMap<>();
+    private final Map<UUID, List<OrderBatchEntry>> inFlightClaims = new ConcurrentHashMap<>();
+    private final Set<UUID> inFlightOrderIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object lock = new Object();
+
+    public BatchAggregator(BatchQueueEntryRepository queueRepository, PlatformTransactionManager transactionManager) {
+        this.queueRepository = queueRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (OrderPriority priority : OrderPriority.values()) {
+            pendingByPriority.put(priority, new ConcurrentSkipListSet<>(OLDEST_FIRST));
+        }
+    }
 
     /**
-     * Dodaje zamówienie do batcha oczekującego na optymalizację
-     * 
-     * @param orderId  ID zamówienia
-     * @param priority Priorytet (URGENT orders mogą być przetwarzane osobno)
+     * Replay persisted queue on startup: claims left by a crash go back to
+     * PENDING, all PENDING orders are indexed in memory.
      */
-    public void add(UUID orderId, OrderPriority priority) {
-        var entry = new OrderBatchEntry(orderId, priority, Instant.now());
-        pendingOrders.add(entry);
-        orderTimestamps.put(orderId, Instant.now());
+    @PostConstruct
+    public void replay() {
+        int released = transactionTemplate.execute(
+                status -> queueRepository.releaseAllClaims(BatchQueueEntryEntity.Status.PENDING));
+        List<BatchQueueEntryEntity> pending = queueRepository.findAllByStatus(BatchQueueEntryEntity.Status.PENDING);
+
+        synchronized (lock) {
+            pending.forEach(row -> index(new OrderBatchEntry(row.getOrderId(), row.getPriority(),
+                    row.getEnqueuedAt(), sequence.incrementAndGet(), row.getLatitude(), row.getLongitude())));
+        }
+        log.info("Replayed {} pending orders from batch queue ({} released from unfinished claims)",
+                pending.size(), released);
+    }
+
+    /**
+     * Dodaje zamówienie do batcha oczekującego na optymalizację.
+     * Zamówienie jest zapisane w bazie zanim metoda wróci (Kafka offset commit
+     * happens after a durable write).
+     *
+     * @param orderId   ID zamówienia
+     * @param priority  Priorytet (URGENT orders mogą być przetwarzane osobno)
+     * @param latitude  Delivery latitude (nullable)
+     * @param longitude Delivery longitude (nullable)
+     */
+    public void add(UUID orderId, OrderPriority priority, Double latitude, Double longitude) {
+        if (pendingById.containsKey(orderId) || inFlightOrderIds.contains(orderId)) {
+            log.debug("Order {} already queued, ignoring duplicate", orderId);
+            return;
+        }
+
+        var entry = new OrderBatchEntry(orderId, priority, Instant.now(), sequence.incrementAndGet(),
+                latitude, longitude);
+        queueRepository.save(BatchQueueEntryEntity.builder()
+                .orderId(orderId)
+                .priority(priority)
+                .enqueuedAt(entry.timestamp())
+                .latitude(latitude)
+                .longitude(longitude)
+                .status(BatchQueueEntryEntity.Status.PENDING)
+                .build());
+
+        synchronized (lock) {
+            index(entry);
+        }
 
         log.debug("Added order {} to batch aggregator (priority: {}, total pending: {})",
-                orderId, priority, pendingOrders.size());
+                orderId, priority, pendingById.size());
+    }
+
+    /**
+     * Dodaje zamówienie bez lokalizacji (trafi do chunka UNASSIGNED przy podziale)
+     */
+    public void add(UUID orderId, OrderPriority priority) {
+        add(orderId, priority, null, null);
     }
 
     /**
@@ -54,96 +150,267 @@ public class BatchAggregator {
     }
 
     /**
-     * Atomic poll-and-clear operation
-     * Zwraca wszystkie order IDs i czyści kolejkę w jednej operacji
-     * 
-     * @return Lista order IDs gotowych do optymalizacji
+     * Atomically claims up to maxOrders oldest orders, URGENT first.
+     * Claimed orders stay in the database until ack(); release() or a restart
+     * returns them to the queue.
      */
-    public List<UUID> pollAndClear() {
-        List<OrderBatchEntry> entries = pollAllEntries();
-        return entries.stream()
-                .map(OrderBatchEntry::orderId)
-                .collect(Collectors.toList());
+    public BatchClaim claim(int maxOrders) {
+        return claim(List.of(OrderPriority.values()), maxOrders);
     }
 
     /**
-     * Poll specific priority orders (np. tylko URGENT dla immediate processing)
+     * Claim only orders of one priority (np. tylko URGENT dla immediate processing)
      */
-    public List<UUID> pollByPriority(OrderPriority priority) {
-        List<OrderBatchEntry> allEntries = pollAllEntries();
+    public BatchClaim claim(OrderPriority priority, int maxOrders) {
+        return claim(List.of(priority), maxOrders);
+    }
 
-        // Filter requested priority
-        List<UUID> filtered = allEntries.stream()
-                .filter(e -> e.priority() == priority)
-                .map(OrderBatchEntry::orderId)
-                .toList();
+    private BatchClaim claim(List<OrderPriority> priorities, int maxOrders) {
+        synchronized (lock) {
+            return claimEntries(oldest(priorities, maxOrders));
+        }
+    }
 
-        // Re-add non-matching entries
-        allEntries.stream()
-                .filter(e -> e.priority() != priority)
-                .forEach(pendingOrders::add);
+    /**
+     * Claims the given orders; IDs that are no longer pending (claimed by another
+     * batch, acked, cleared) are skipped.
+     */
+    public BatchClaim claim(Collection<UUID> orderIds) {
+        synchronized (lock) {
+            List<OrderBatchEntry> entries = new ArrayList<>(orderIds.size());
+            for (UUID orderId : orderIds) {
+                OrderBatchEntry entry = pendingById.get(orderId);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            return claimEntries(entries);
+        }
+    }
 
-        log.info("Polled {} {} priority orders, {} remain in queue",
-                filtered.size(), priority, pendingOrders.size());
+    /**
+     * Read-only view of up to maxOrders oldest pending orders, URGENT first
+     * (nothing is claimed - use claim(orderIds) afterwards)
+     */
+    public List<PendingOrder> pending(int maxOrders) {
+        synchronized (lock) {
+            return oldest(List.of(OrderPriority.values()), maxOrders).stream()
+                    .map(entry -> new PendingOrder(entry.orderId(), entry.priority(), entry.timestamp(),
+                            entry.latitude(), entry.longitude()))
+                    .toList();
+        }
+    }
 
-        return filtered;
+    private List<OrderBatchEntry> oldest(List<OrderPriority> priorities, int maxOrders) {
+        List<OrderBatchEntry> entries = new ArrayList<>();
+        for (OrderPriority priority : priorities) {
+            Iterator<OrderBatchEntry> oldest = pendingByPriority.get(priority).iterator();
+            while (entries.size() < maxOrders && oldest.hasNext()) {
+                entries.add(oldest.next());
+            }
+        }
+        return entries;
+    }
+
+    private BatchClaim claimEntries(List<OrderBatchEntry> entries) {
+        if (entries.isEmpty()) {
+            return new BatchClaim(null, List.of());
+        }
+
+        UUID claimId = UUID.randomUUID();
+        Instant claimedAt = Instant.now();
+        List<UUID> orderIds = entries.stream().map(OrderBatchEntry::orderId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < orderIds.size(); from += CLAIM_CHUNK_SIZE) {
+                queueRepository.claim(orderIds.subList(from, Math.min(orderIds.size(), from + CLAIM_CHUNK_SIZE)),
+                        claimId, claimedAt,
+                        BatchQueueEntryEntity.Status.PENDING, BatchQueueEntryEntity.Status.CLAIMED);
+            }
+        });
+
+        entries.forEach(this::unindex);
+        inFlightOrderIds.addAll(orderIds);
+        inFlightClaims.put(claimId, entries);
+
+        log.info("Claimed {} orders (claim {}), {} remain in queue", orderIds.size(), claimId, pendingById.size());
+        return new BatchClaim(claimId, orderIds);
     }
 
     /**
-     * Zwraca bieżącą liczbę zamówień w kolejce (non-blocking, eventual consistency)
+     * Optimization succeeded - remove claimed orders permanently
+     */
+    public void ack(UUID claimId) {
+        if (claimId == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> queueRepository.deleteByClaimId(claimId));
+        synchronized (lock) {
+            List<OrderBatchEntry> entries = inFlightClaims.remove(claimId);
+            if (entries != null) {
+                entries.forEach(entry -> inFlightOrderIds.remove(entry.orderId()));
+            }
+        }
+    }
+
+    /**
+     * Optimization succeeded for part of the claim - return the given orders to
+     * the queue (original timestamps), remove the rest permanently
+     */
+    public void ack(UUID claimId, Collection<UUID> unplannedOrderIds) {
+        if (claimId == null) {
+            return;
+        }
+        if (unplannedOrderIds.isEmpty()) {
+            ack(claimId);
+            return;
+        }
+        List<UUID> released = List.copyOf(unplannedOrderIds);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < released.size(); from += CLAIM_CHUNK_SIZE) {
+                queueRepository.releaseOrders(claimId,
+                        released.subList(from, Math.min(released.size(), from + CLAIM_CHUNK_SIZE)),
+                        BatchQueueEntryEntity.Status.PENDING);
+            }
+            queueRepository.deleteByClaimId(claimId);
+        });
+        synchronized (lock) {
+            List<OrderBatchEntry> entries = inFlightClaims.remove(claimId);
+            if (entries != null) {
+                Set<UUID> releasedIds = Set.copyOf(released);
+                entries.forEach(entry -> {
+                    inFlightOrderIds.remove(entry.orderId());
+                    if (releasedIds.contains(entry.orderId())) {
+                        index(entry);
+                    }
+                });
+                log.warn("Acked claim {}: {} unplanned orders returned to queue", claimId, releasedIds.size());
+            }
+        }
+    }
+
+    /**
+     * Optimization failed - return claimed orders to the queue (original
+     * timestamps, so they keep their place)
+     */
+    public void release(UUID claimId) {
+        if (claimId == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(
+                status -> queueRepository.release(claimId, BatchQueueEntryEntity.Status.PENDING));
+        synchronized (lock) {
+            List<OrderBatchEntry> entries = inFlightClaims.remove(claimId);
+            if (entries != null) {
+                entries.forEach(entry -> {
+                    inFlightOrderIds.remove(entry.orderId());
+                    index(entry);
+                });
+                log.warn("Released claim {}: {} orders returned to queue", claimId, entries.size());
+            }
+        }
+    }
+
+    /**
+     * Zwraca bieżącą liczbę zamówień w kolejce (bez claimed)
      */
     public int size() {
-        return pendingOrders.size();
+        return pendingById.size();
+    }
+
+    /**
+     * Liczba zamówień w aktualnie przetwarzanych batchach
+     */
+    public int inFlightSize() {
+        return inFlightOrderIds.size();
     }
 
     /**
      * Czy kolejka jest pusta
      */
     public boolean isEmpty() {
-        return pendingOrders.isEmpty();
+        return pendingById.isEmpty();
     }
 
     /**
-     * Zwraca najstarszy timestamp w kolejce (dla monitoring purposes)
+     * Zwraca najstarszy timestamp w kolejce (dla monitoring purposes) - O(1),
+     * head of each priority index
      */
     public LocalDateTime getOldestOrderTimestamp() {
-        return pendingOrders.stream()
-                .map(OrderBatchEntry::timestamp)
-                .min(Instant::compareTo)
-                .map(instant -> LocalDateTime.ofInstant(instant, ZoneId.systemDefault()))
-                .orElse(null);
+        Instant oldest = null;
+        for (ConcurrentSkipListSet<OrderBatchEntry> entries : pendingByPriority.values()) {
+            Iterator<OrderBatchEntry> head = entries.iterator();
+            if (head.hasNext()) {
+                Instant timestamp = head.next().timestamp();
+                if (oldest == null || timestamp.isBefore(oldest)) {
+                    oldest = timestamp;
+                }
+            }
+        }
+        return oldest != null ? LocalDateTime.ofInstant(oldest, ZoneId.systemDefault()) : null;
     }
 
     /**
-     * Czyści wszystkie zamówienia (np. dla testów lub emergency reset)
+     * Czyści wszystkie oczekujące zamówienia (np. dla testów lub emergency reset).
+     * Claimed batches are left to finish (ack/release).
      */
     public void clear() {
-        int clearedCount = pendingOrders.size();
-        pendingOrders.clear();
-        orderTimestamps.clear();
-        log.warn("Batch aggregator cleared, removed {} pending orders", clearedCount);
+        synchronized (lock) {
+            int clearedCount = pendingById.size();
+            transactionTemplate.executeWithoutResult(status -> queueRepository.deleteAllPending());
+            pendingByPriority.values().forEach(ConcurrentSkipListSet::clear);
+            pendingById.clear();
+            log.warn("Batch aggregator cleared, removed {} pending orders", clearedCount);
+        }
+    }
+
+    private void index(OrderBatchEntry entry) {
+        if (pendingById.putIfAbsent(entry.orderId(), entry) == null) {
+            pendingByPriority.get(entry.priority()).add(entry);
+        }
+    }
+
+    private void unindex(OrderBatchEntry entry) {
+        pendingById.remove(entry.orderId());
+        pendingByPriority.get(entry.priority()).remove(entry);
     }
 
     /**
-     * Internal helper - atomically polls all entries
+     * Claimed batch - pass claimId back to ack() or release()
      */
-    private List<OrderBatchEntry> pollAllEntries() {
-        List<OrderBatchEntry> entries = new java.util.ArrayList<>();
-        OrderBatchEntry entry;
-        while ((entry = pendingOrders.poll()) != null) {
-            entries.add(entry);
-            orderTimestamps.remove(entry.orderId());
+    public record BatchClaim(
+            UUID claimId,
+            List<UUID> orderIds) {
+
+        public boolean isEmpty() {
+            return orderIds.isEmpty();
+        }
+    }
+
+    /**
+     * Pending order as seen by the batch pipeline (coordinates may be null)
+     */
+    public record PendingOrder(
+            UUID orderId,
+            OrderPriority priority,
+            Instant enqueuedAt,
+            Double latitude,
+            Double longitude) {
+
+        public boolean hasLocation() {
+            return latitude != null && longitude != null;
         }
-        return entries;
     }
 
     /**
-     * Internal record dla order metadata
+     * Internal record dla order metadata (sequence keeps arrival order for equal timestamps)
      */
     private record OrderBatchEntry(
             UUID orderId,
             OrderPriority priority,
-            Instant timestamp) {
+            Instant timestamp,
+            long sequence,
+            Double latitude,
+            Double longitude) {
     }
 
     public enum OrderPriority {
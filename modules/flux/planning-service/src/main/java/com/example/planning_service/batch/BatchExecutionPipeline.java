@@ -0,0 +1,247 @@
+package com.example.planning_service.batch;
+
+import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.execution.PlanningExecutionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ARCHITEKTURA: Batch Execution Pipeline (split -> claim -> solve -> ack/release)
+ *
+ * 1. pending: podgląd kolejki BatchAggregator (nic nie jest jeszcze claimed),
+ * 2. split: BatchSplitter dzieli batch po hubach i geografii na chunki
+ *    <= auto-plan.max-batch-size,
+ * 3. dispatch: każdy chunk dostaje własny claim i slot (Semaphore,
+ *    auto-plan.max-concurrent-solves) i jest rozwiązywany w batchSolverPool,
+ * 4. ack po sukcesie, release po błędzie - żadne zamówienie nie ginie.
+ *    Zamówienia, których order-service nie zwrócił, wracają do kolejki także
+ *    po sukcesie chunka.
+ *
+ * Backpressure: gdy wszystkie sloty są zajęte, pozostałe chunki NIE są
+ * claimowane - zostają w kolejce (durable). Chunk zakończony sukcesem od razu
+ * uruchamia kolejny dispatch na zwolnionym slocie (bez czekania na crona);
+ * po błędzie (release) zamówienia czekają na następny cykl schedulera, żeby
+ * awaria solvera nie kręciła pętli retry.
+ *
+ * Każdy chunk leasuje pojazdy swojego huba (PlanningExecutionService: home hub,
+ * potem pojazdy bez home hub) w części proporcjonalnej do swojego udziału w
+ * zamówieniach huba (fleetShare), żeby równoległe solve'y nie planowały tych
+ * samych pojazdów ani pojazdów z innego huba.
+ *
+ * Metrics: planning.batch.latency (claim -> ack/release, tagi hub + outcome),
+ * planning.batch.chunk.size, planning.batch.solves.inflight,
+ * planning.batch.deferred.orders.
+ */
+@Slf4j
+@Component
+public class BatchExecutionPipeline {
+
+    private final BatchAggregator batchAggregator;
+    private final BatchSplitter batchSplitter;
+    private final PlanningExecutionService planningExecutionService;
+    private final AutoPlanProperties autoPlanProperties;
+    private final Executor batchSolverPool;
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore solveSlots;
+    private final AtomicInteger inFlightSolves = new AtomicInteger();
+    private final AtomicBoolean hasDeferredChunks = new AtomicBoolean();
+    private final DistributionSummary chunkSizeSummary;
+    private final Counter deferredOrdersCounter;
+
+    public BatchExecutionPipeline(BatchAggregator batchAggregator,
+            BatchSplitter batchSplitter,
+            PlanningExecutionService planningExecutionService,
+            AutoPlanProperties autoPlanProperties,
+            @Qualifier("batchSolverPool") Executor batchSolverPool,
+            MeterRegistry meterRegistry) {
+        this.batchAggregator = batchAggregator;
+        this.batchSplitter = batchSplitter;
+        this.planningExecutionService = planningExecutionService;
+        this.autoPlanProperties = autoPlanProperties;
+        this.batchSolverPool = batchSolverPool;
+        this.meterRegistry = meterRegistry;
+        this.solveSlots = new Semaphore(Math.max(1, autoPlanProperties.getMaxConcurrentSolves()));
+
+        this.chunkSizeSummary = DistributionSummary.builder("planning.batch.chunk.size")
+                .description("Orders per dispatched batch chunk")
+                .tag("service", "planning")
+                .register(meterRegistry);
+
+        this.deferredOrdersCounter = Counter.builder("planning.batch.deferred.orders")
+                .description("Orders left in the queue because all solve slots were busy")
+                .tag("service", "planning")
+                .register(meterRegistry);
+
+        Gauge.builder("planning.batch.solves.inflight", inFlightSolves, AtomicInteger::get)
+                .description("Batch chunks currently being solved")
+                .tag("service", "planning")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Splits the pending queue and dispatches as many chunks as there are free
+     * solve slots. Returns immediately; solves run on batchSolverPool.
+     */
+    public DispatchResult dispatch(UUID profileId) {
+        List<BatchSplitter.BatchChunk> chunks = batchSplitter.split(
+                batchAggregator.pending(Integer.MAX_VALUE),
+                Math.max(1, autoPlanProperties.getMaxBatchSize()));
+        if (chunks.isEmpty()) {
+            hasDeferredChunks.set(false);
+            return new DispatchResult(0, 0, 0);
+        }
+
+        int plannedChunks = Math.min(chunks.size(), solveSlots.availablePermits());
+        Map<String, Integer> plannedOrdersByHub = new HashMap<>();
+        chunks.subList(0, plannedChunks)
+                .forEach(chunk -> plannedOrdersByHub.merge(chunk.hubId(), chunk.size(), Integer::sum));
+
+        int dispatchedChunks = 0;
+        int dispatchedOrders = 0;
+        int next = 0;
+        for (; next < chunks.size(); next++) {
+            if (!solveSlots.tryAcquire()) {
+                break;
+            }
+            BatchSplitter.BatchChunk chunk = chunks.get(next);
+            BatchAggregator.BatchClaim claim = batchAggregator.claim(chunk.orderIds());
+            if (claim.isEmpty()) {
+                solveSlots.release();
+                continue;
+            }
+
+            int plannedOrders = plannedOrdersByHub.getOrDefault(chunk.hubId(), 0);
+            double fleetShare = plannedOrders > 0 ? (double) claim.orderIds().size() / plannedOrders : 1.0;
+            if (submit(chunk.hubId(), claim, profileId, Math.min(1.0, fleetShare))) {
+                dispatchedChunks++;
+                dispatchedOrders += claim.orderIds().size();
+            }
+        }
+
+        int deferredOrders = chunks.subList(next, chunks.size()).stream()
+                .mapToInt(BatchSplitter.BatchChunk::size)
+                .sum();
+        hasDeferredChunks.set(deferredOrders > 0);
+        if (deferredOrders > 0) {
+            deferredOrdersCounter.increment(deferredOrders);
+            log.warn("Solver pool saturated: {} orders in {} chunks stay queued for the next dispatch",
+                    deferredOrders, chunks.size() - next);
+        }
+
+        log.info("Dispatched {} chunks ({} orders), {} solves in flight",
+                dispatchedChunks, dispatchedOrders, inFlightSolves.get());
+        return new DispatchResult(dispatchedChunks, dispatchedOrders, deferredOrders);
+    }
+
+    /**
+     * Czy są wolne sloty solvera (scheduler może pominąć dispatch gdy false)
+     */
+    public boolean hasCapacity() {
+        return solveSlots.availablePermits() > 0;
+    }
+
+    public int inFlightSolves() {
+        return inFlightSolves.get();
+    }
+
+    private boolean submit(String hubId, BatchAggregator.BatchClaim claim, UUID profileId, double fleetShare) {
+        long claimedAt = System.nanoTime();
+        inFlightSolves.incrementAndGet();
+        chunkSizeSummary.record(claim.orderIds().size());
+        try {
+            batchSolverPool.execute(() -> solve(hubId, claim, profileId, fleetShare, claimedAt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.error("Batch solver pool rejected chunk {} (hub {}), returning {} orders to the queue",
+                    claim.claimId(), hubId, claim.orderIds().size());
+            finish(hubId, claim, false, List.of(), claimedAt);
+            return false;
+        }
+    }
+
+    private void solve(String hubId, BatchAggregator.BatchClaim claim, UUID profileId, double fleetShare,
+            long claimedAt) {
+        boolean success = false;
+        List<UUID> unplannedOrderIds = List.of();
+        try {
+            log.info("🚀 Solving chunk {} (hub {}, {} orders, fleet share {})",
+                    claim.claimId(), hubId, claim.orderIds().size(), String.format("%.2f", fleetShare));
+            unplannedOrderIds = planningExecutionService.executePlanForOrderIds(claim.orderIds(), profileId, hubId,
+                    fleetShare);
+            success = true;
+        } catch (Exception e) {
+            log.error("❌ Chunk {} (hub {}) FAILED: {}", claim.claimId(), hubId, e.getMessage(), e);
+        } finally {
+            finish(hubId, claim, success, unplannedOrderIds, claimedAt);
+        }
+        if (success) {
+            redispatch(profileId);
+        }
+    }
+
+    /**
+     * Deferred chunks take the slot that just freed up instead of waiting for the
+     * next scheduler run. Only after backpressure - a queue below min-batch-size
+     * is still the scheduler's call.
+     */
+    private void redispatch(UUID profileId) {
+        if (!hasDeferredChunks.get() || batchAggregator.isEmpty()) {
+            return;
+        }
+        try {
+            dispatch(profileId);
+        } catch (RuntimeException e) {
+            log.warn("Re-dispatch after a finished chunk failed, queue waits for the scheduler: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void finish(String hubId, BatchAggregator.BatchClaim claim, boolean success,
+            List<UUID> unplannedOrderIds, long claimedAt) {
+        try {
+            if (success) {
+                batchAggregator.ack(claim.claimId(), unplannedOrderIds);
+            } else {
+                // Orders go back to the queue (original timestamps) for the next batch
+                batchAggregator.release(claim.claimId());
+            }
+        } finally {
+            Timer.builder("planning.batch.latency")
+                    .description("Batch chunk latency from claim to ack/release")
+                    .tag("service", "planning")
+                    .tag("hub", hubId)
+                    .tag("outcome", success ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - claimedAt, TimeUnit.NANOSECONDS);
+            inFlightSolves.decrementAndGet();
+            solveSlots.release();
+        }
+    }
+
+    /**
+     * Wynik jednego dispatch (deferredOrders = zostały w kolejce przez backpressure)
+     */
+    public record DispatchResult(
+            int dispatchedChunks,
+            int dispatchedOrders,
+            int deferredOrders) {
+    }
+}
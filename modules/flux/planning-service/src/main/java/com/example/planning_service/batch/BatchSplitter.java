@@ -0,0 +1,145 @@
+package com.example.planning_service.batch;
+
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.service.HubService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ARCHITEKTURA: Podział dużego batcha na chunki o rozmiarze solvera
+ *
+ * 1. Grupowanie po hubie (HubService.findHubForLocation) - chunk nigdy nie
+ *    miesza zamówień z różnych hubów.
+ * 2. Grupa większa niż maxChunkSize jest dzielona rekurencyjnie medianą wzdłuż
+ *    dłuższej osi bounding boxa (lon skalowane cos(lat)) - chunki są zwarte
+ *    geograficznie i mają zbliżony rozmiar.
+ * 3. Zamówienia bez lokalizacji trafiają do chunków UNASSIGNED w kolejności
+ *    przybycia.
+ *
+ * Chunki są zwracane w kolejności najstarszego (najpilniejszego) zamówienia, więc
+ * przy backpressure czekają najmłodsze.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchSplitter {
+
+    public static final String UNASSIGNED_HUB = "UNASSIGNED";
+
+    private final HubService hubService;
+
+    /**
+     * @param orders       pending orders, URGENT first then oldest first (as
+     *                     returned by BatchAggregator.pending)
+     * @param maxChunkSize maksymalna liczba zamówień w jednym chunku
+     */
+    public List<BatchChunk> split(List<BatchAggregator.PendingOrder> orders, int maxChunkSize) {
+        if (maxChunkSize < 1) {
+            throw new IllegalArgumentException("maxChunkSize must be positive: " + maxChunkSize);
+        }
+
+        Map<UUID, Integer> arrivalRank = new HashMap<>(orders.size() * 2);
+        Map<String, List<BatchAggregator.PendingOrder>> byHub = new LinkedHashMap<>();
+        for (BatchAggregator.PendingOrder order : orders) {
+            arrivalRank.put(order.orderId(), arrivalRank.size());
+            byHub.computeIfAbsent(hubIdFor(order), hubId -> new ArrayList<>()).add(order);
+        }
+
+        List<RankedChunk> chunks = new ArrayList<>();
+        byHub.forEach((hubId, hubOrders) -> {
+            if (UNASSIGNED_HUB.equals(hubId)) {
+                for (int from = 0; from < hubOrders.size(); from += maxChunkSize) {
+                    chunks.add(ranked(hubId, hubOrders.subList(from, Math.min(hubOrders.size(), from + maxChunkSize)),
+                            arrivalRank));
+                }
+            } else {
+                bisect(hubId, hubOrders, maxChunkSize, arrivalRank, chunks);
+            }
+        });
+
+        chunks.sort(Comparator.comparingInt(RankedChunk::rank));
+        log.info("Split {} orders into {} chunks (max {} per chunk, {} hubs)",
+                orders.size(), chunks.size(), maxChunkSize, byHub.size());
+        return chunks.stream().map(RankedChunk::chunk).toList();
+    }
+
+    private String hubIdFor(BatchAggregator.PendingOrder order) {
+        if (!order.hasLocation()) {
+            return UNASSIGNED_HUB;
+        }
+        return hubService.findHubForLocation(order.latitude(), order.longitude())
+                .map(HubConfiguration::getId)
+                .orElse(UNASSIGNED_HUB);
+    }
+
+    /**
+     * Splits at the index that keeps both halves proportional to the number of
+     * chunks they still need, so leaves end up within one order of each other.
+     */
+    private void bisect(String hubId, List<BatchAggregator.PendingOrder> orders, int maxChunkSize,
+            Map<UUID, Integer> arrivalRank, List<RankedChunk> out) {
+        if (orders.size() <= maxChunkSize) {
+            out.add(ranked(hubId, orders, arrivalRank));
+            return;
+        }
+
+        int parts = (orders.size() + maxChunkSize - 1) / maxChunkSize;
+        int leftParts = parts / 2;
+        int leftSize = (int) ((long) orders.size() * leftParts / parts);
+
+        List<BatchAggregator.PendingOrder> sorted = new ArrayList<>(orders);
+        sorted.sort(longerAxis(orders));
+        bisect(hubId, sorted.subList(0, leftSize), maxChunkSize, arrivalRank, out);
+        bisect(hubId, sorted.subList(leftSize, sorted.size()), maxChunkSize, arrivalRank, out);
+    }
+
+    private static Comparator<BatchAggregator.PendingOrder> longerAxis(List<BatchAggregator.PendingOrder> orders) {
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (BatchAggregator.PendingOrder order : orders) {
+            minLat = Math.min(minLat, order.latitude());
+            maxLat = Math.max(maxLat, order.latitude());
+            minLon = Math.min(minLon, order.longitude());
+            maxLon = Math.max(maxLon, order.longitude());
+        }
+        double lonScale = Math.cos(Math.toRadians((minLat + maxLat) / 2));
+        return (maxLon - minLon) * lonScale > maxLat - minLat
+                ? Comparator.comparingDouble(BatchAggregator.PendingOrder::longitude)
+                : Comparator.comparingDouble(BatchAggregator.PendingOrder::latitude);
+    }
+
+    private static RankedChunk ranked(String hubId, List<BatchAggregator.PendingOrder> orders,
+            Map<UUID, Integer> arrivalRank) {
+        int rank = Integer.MAX_VALUE;
+        List<UUID> orderIds = new ArrayList<>(orders.size());
+        for (BatchAggregator.PendingOrder order : orders) {
+            orderIds.add(order.orderId());
+            rank = Math.min(rank, arrivalRank.get(order.orderId()));
+        }
+        return new RankedChunk(new BatchChunk(hubId, List.copyOf(orderIds)), rank);
+    }
+
+    /**
+     * Solver-sized part of a batch (one hub, geographically compact)
+     */
+    public record BatchChunk(
+            String hubId,
+            List<UUID> orderIds) {
+
+        public int size() {
+            return orderIds.size();
+        }
+    }
+
+    private record RankedChunk(BatchChunk chunk, int rank) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.planning_service.client;
+
+import com.example.danxils_commons.dto.OrderResponseDto;
+import com.example.planning_service.config.AutoPlanProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ARCHITEKTURA: ID-targeted pobieranie zleceń z order-service
+ *
+ * Zamiast pobierać cały backlog NEW i filtrować lokalnie, pobiera dokładnie
+ * żądane IDs przez /api/internal/orders/batch w chunkach
+ * (auto-plan.order-fetch-chunk-size), maksymalnie
+ * auto-plan.order-fetch-parallelism chunków naraz.
+ *
+ * Kolejność wyniku = kolejność chunków. Błąd dowolnego chunka przerywa cały
+ * fetch (batch zostanie zwolniony i ponowiony), żeby nie zaplanować
+ * niekompletnego zestawu zamówień.
+ */
+@Slf4j
+@Component
+public class OrderBatchFetcher {
+
+    private final OrderServiceClient orderServiceClient;
+    private final AutoPlanProperties autoPlanProperties;
+    private final Executor executor;
+
+    public OrderBatchFetcher(OrderServiceClient orderServiceClient,
+            AutoPlanProperties autoPlanProperties,
+            @Qualifier("optimizationThreadPool") Executor executor) {
+        this.orderServiceClient = orderServiceClient;
+        this.autoPlanProperties = autoPlanProperties;
+        this.executor = executor;
+    }
+
+    public List<OrderResponseDto> fetch(List<UUID> orderIds) {
+        List<UUID> distinctIds = List.copyOf(new LinkedHashSet<>(orderIds));
+        int chunkSize = Math.max(1, autoPlanProperties.getOrderFetchChunkSize());
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            chunks.add(distinctIds.subList(from, Math.min(distinctIds.size(), from + chunkSize)));
+        }
+        if (chunks.size() <= 1) {
+            return chunks.isEmpty() ? List.of() : orderServiceClient.getOrdersBatch(chunks.get(0));
+        }
+
+        // N workers pull chunk indexes from a shared counter - at most N requests in flight
+        AtomicReferenceArray<List<OrderResponseDto>> results = new AtomicReferenceArray<>(chunks.size());
+        AtomicInteger nextChunk = new AtomicInteger();
+        int workers = Math.min(chunks.size(), Math.max(1, autoPlanProperties.getOrderFetchParallelism()));
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            futures[w] = CompletableFuture.runAsync(() -> {
+                int index;
+                while ((index = nextChunk.getAndIncrement()) < chunks.size()) {
+                    results.set(index, orderServiceClient.getOrdersBatch(chunks.get(index)));
+                }
+            }, executor);
+        }
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IllegalStateException("Order batch fetch failed: " + cause.getMessage(), cause);
+        }
+
+        List<OrderResponseDto> orders = new ArrayList<>(distinctIds.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            orders.addAll(results.get(i));
+        }
+        log.debug("Fetched {} orders for {} IDs in {} chunks ({} parallel)",
+                orders.size(), distinctIds.size(), chunks.size(), workers);
+        return orders;
+    }
+}
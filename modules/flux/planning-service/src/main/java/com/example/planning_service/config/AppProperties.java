@@ -6,6 +6,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Instant;
+import java.time.LocalTime;
+
 @Component
 @ConfigurationProperties(prefix = "app")
 @Data
@@ -15,6 +18,13 @@ public class AppProperties {
     private final Kafka kafka = new Kafka();
     private final Vrp vrp = new Vrp();
     private final Depot depot = new Depot();
+    private final Broadcast broadcast = new Broadcast();
+    private final Telemetry telemetry = new Telemetry();
+    private final Resequence resequence = new Resequence();
+    private final Slotting slotting = new Slotting();
+    private final GraphTelemetry graphTelemetry = new GraphTelemetry();
+    private final RouteAssignments routeAssignments = new RouteAssignments();
+    private final Sentinel sentinel = new Sentinel();
 
     @Data
     public static class Kafka {
@@ -35,6 +45,202 @@ public class AppProperties {
     public static class Vrp {
         private int maxIterations = 1000;
         private int timeLimitSeconds = 30;
+
+        /**
+         * Fixed planning start (ISO-8601). When empty, the start is captured once per
+         * problem (current time truncated to minutes), never re-read while solving.
+         */
+        private Instant planningStart;
+
+        /**
+         * Vehicle working day used for available time windows
+         */
+        private LocalTime shiftStart = LocalTime.of(8, 0);
+        private LocalTime shiftEnd = LocalTime.of(18, 0);
+
+        /**
+         * Service duration applied to stops without an explicit one
+         */
+        private long defaultServiceDurationSeconds = 300;
+
+        /**
+         * Solver profile thresholds (see SolverProfile): nearby selection from
+         * nearbyMinStops, multithreaded solving for large problems with many vehicles
+         */
+        private int nearbyMinStops = 300;
+        private int multiThreadMinStops = 1500;
+        private int multiThreadMinVehicles = 10;
+        private String moveThreadCount = "AUTO";
+
+        /**
+         * Timefold Enterprise available (nearby selection, multithreading).
+         * Empty = detect on the classpath.
+         */
+        private Boolean enterpriseSolver;
+    }
+
+    /**
+     * Live solver updates over STOMP (OptimizationUpdatePublisher)
+     */
+    @Data
+    public static class Broadcast {
+        /**
+         * Max updates per second per optimization - intermediate best solutions in between are dropped
+         */
+        private int maxUpdatesPerSecond = 2;
+
+        /**
+         * Max intermediate updates per second of all optimizations together - with more concurrent
+         * optimizations each one gets a share (least recently updated first); final snapshots always go out
+         */
+        private int maxTotalUpdatesPerSecond = 10;
+
+        /**
+         * Every n-th update is a full snapshot (clients that joined late or missed a delta resync)
+         */
+        private int fullSnapshotEvery = 20;
+    }
+
+    /**
+     * Solver telemetry (SolverTelemetry, /actuator/solverTelemetry)
+     */
+    @Data
+    public static class Telemetry {
+        /**
+         * Finished solves kept in memory
+         */
+        private int historySize = 50;
+
+        /**
+         * Max points of one score-over-time curve - longer curves are thinned out
+         */
+        private int maxCurvePoints = 200;
+    }
+
+    /**
+     * Single-route resequencing (RouteResequencer)
+     */
+    @Data
+    public static class Resequence {
+        /**
+         * 2-opt / Or-opt pass after nearest neighbour
+         */
+        private boolean improve = true;
+
+        /**
+         * Cap of the improvement pass - the best order found so far is returned
+         */
+        private long timeLimitMillis = 200;
+    }
+
+    /**
+     * Live order slotting (SlottingService, SlottingIndex)
+     */
+    @Data
+    public static class Slotting {
+        /**
+         * Capacity of routes without a "capacity_kg" property
+         */
+        private double defaultCapacityKg = 2000.0;
+
+        /**
+         * Candidate grid: cell size and rings searched around the order
+         */
+        private double cellDegrees = 0.05;
+        private int searchRings = 1;
+
+        /**
+         * Insertions retried when the route changed between query and commit
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Full reload of route state from the database (routes created or edited elsewhere)
+         */
+        private long refreshIntervalMillis = 60_000;
+    }
+
+    /**
+     * Driver positions from Kafka into Neo4j (GraphTelemetryConsumer)
+     */
+    @Data
+    public static class GraphTelemetry {
+        /**
+         * Listener threads - effective only up to the topic's partition count
+         */
+        private int concurrency = 3;
+
+        /**
+         * Records per poll = pings coalesced into one write
+         */
+        private int maxPollRecords = 2000;
+
+        /**
+         * Drivers per UNWIND query
+         */
+        private int writeChunkSize = 500;
+    }
+
+    /**
+     * Route assignments: magic link tokens, driver names, paging (RouteAssignmentService)
+     */
+    @Data
+    public static class RouteAssignments {
+        /**
+         * Magic link validity and the most tokens kept in memory
+         */
+        private long magicLinkTtlHours = 24;
+        private long maxMagicLinkTokens = 100_000;
+
+        /**
+         * Driver names from IAM: cache TTL / size and lookups in flight per page
+         */
+        private long driverNameTtlMinutes = 5;
+        private long driverNameCacheSize = 10_000;
+        private int iamLookupParallelism = 8;
+
+        /**
+         * Upper bound of page / keyset page size
+         */
+        private int maxPageSize = 100;
+    }
+
+    /**
+     * Live route ETA sweep (SentinelService)
+     */
+    @Data
+    public static class Sentinel {
+        /**
+         * Periodic recalculation of every route with a driver position
+         */
+        private boolean sweepEnabled = true;
+        private long sweepIntervalMillis = 60_000;
+
+        /**
+         * Routes recalculated at once (sentinelEtaPool threads = DB connections in use)
+         */
+        private int parallelism = 8;
+
+        /**
+         * Route is skipped when the driver moved less than this since the last ETA...
+         */
+        private double minMoveMeters = 100.0;
+
+        /**
+         * ...unless the last ETA is older than this (time passes while standing still)
+         */
+        private long maxEtaAgeSeconds = 300;
+
+        /**
+         * Recalculated ETAs are written only when some stop (or the route end) moved by at least this
+         */
+        private long minEtaChangeSeconds = 60;
+
+        /**
+         * Sweep drops a route once every stop's SLA window closed more than this ago
+         * (finished routes keep their last driver position)
+         */
+        private long liveRouteGraceMinutes = 120;
     }
 
     @Data
@@ -52,6 +52,44 @@ public class AsyncOptimizationConfig {
         return executor;
     }
 
+    /**
+     * Thread pool dla chunków batcha (BatchExecutionPipeline).
+     * Rozmiar = auto-plan.max-concurrent-solves; pipeline pilnuje limitu
+     * semaforem, więc kolejka nigdy nie rośnie ponad jeden slot na wątek.
+     */
+    @Bean(name = "batchSolverPool")
+    public Executor batchSolverPool(AutoPlanProperties autoPlanProperties) {
+        int maxConcurrentSolves = Math.max(1, autoPlanProperties.getMaxConcurrentSolves());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentSolves);
+        executor.setMaxPoolSize(maxConcurrentSolves);
+        executor.setQueueCapacity(maxConcurrentSolves);
+        executor.setThreadNamePrefix("BatchSolver-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(autoPlanProperties.getBatchTimeoutMinutes() * 60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Thread pool dla sweepu ETA (SentinelService).
+     * Rozmiar = app.sentinel.parallelism; sweep uruchamia tyle workerów, ile
+     * jest wątków, więc kolejka nie rośnie ponad jeden slot na wątek.
+     */
+    @Bean(name = "sentinelEtaPool")
+    public Executor sentinelEtaPool(AppProperties appProperties) {
+        int parallelism = Math.max(1, appProperties.getSentinel().getParallelism());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism);
+        executor.setThreadNamePrefix("SentinelEta-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * Thread pool dla general optimization tasks (batch processing, etc.)
      */
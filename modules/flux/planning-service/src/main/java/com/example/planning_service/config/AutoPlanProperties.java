@@ -39,6 +39,23 @@ public class AutoPlanProperties {
      */
     private int maxBatchSize = 1000;
 
+    /**
+     * Maksymalna liczba równoległych solve'ów (chunków batcha) w batchSolverPool.
+     * Gdy wszystkie sloty są zajęte, zamówienia zostają w kolejce (backpressure)
+     */
+    private int maxConcurrentSolves = 4;
+
+    /**
+     * Ile order IDs w jednym wywołaniu /api/internal/orders/batch
+     * (order-service przyjmuje max 10000, IN query dzieli po 1000)
+     */
+    private int orderFetchChunkSize = 500;
+
+    /**
+     * Ile chunków pobieranych równolegle z order-service
+     */
+    private int orderFetchParallelism = 4;
+
     /**
      * Cron expressions dla scheduled batches
      * Przykład: ["0 0 22 * * *"] = 22:00 każdego dnia
@@ -58,6 +75,17 @@ public class AutoPlanProperties {
      */
     private boolean regionalPartitioning = false;
 
+    /**
+     * Budżet czasu (wall-clock) regional optimization - największy region
+     * dostaje całość, mniejsze proporcjonalnie do liczby zamówień
+     */
+    private int regionalTimeBudgetSeconds = 60;
+
+    /**
+     * Minimalny budżet solvera dla pojedynczego regionu (sekundy)
+     */
+    private int regionalMinBudgetSeconds = 5;
+
     /**
      * Timeout dla synchronicznego przetwarzania batcha (minuty)
      */
@@ -68,6 +96,17 @@ public class AutoPlanProperties {
      */
     private List<HubConfig> hubs = new ArrayList<>();
 
+    /**
+     * Opcjonalny zewnętrzny plik YAML z hubami (struktura auto-plan.hubs),
+     * przeładowywany w locie przez HubService - nadpisuje auto-plan.hubs
+     */
+    private String hubsFile;
+
+    /**
+     * Co ile ms HubService sprawdza zmiany konfiguracji hubów (hot reload)
+     */
+    private long hubsReloadCheckMs = 10000;
+
     @Data
     public static class HubConfig {
         private String id;
@@ -106,6 +145,12 @@ public class AutoPlanProperties {
          */
         private int timeoutSeconds = 30;
 
+        /**
+         * Budżet solvera dla przyrostowego re-planu (warm start) - po tym czasie
+         * zwracany jest najlepszy dotąd plan
+         */
+        private long latencyTargetMillis = 2000;
+
         /**
          * Czy wymagać manual approval przed zastosowaniem urgent re-optimization
          */
@@ -1,34 +1,102 @@
 package com.example.planning_service.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * ARCHITEKTURA: Caching Configuration dla Google Maps API
- * 
- * Cache distance matrix results dla 30 minut:
- * - Traffic patterns change, ale nie co minutę
- * - Nocne dostawy (23:00-08:00) mają stabilniejszy traffic
- * - Cache reduces API costs (€200/mies limit)
+ * ARCHITEKTURA: Caching Configuration (Caffeine)
+ *
+ * Wszystkie cache są ograniczone (maximum weight) i mają TTL z application.yml
+ * (app.cache.*):
+ * - distanceMatrix: Google Maps distance cells (traffic changes, short TTL)
+ * - geocodingResults: address geocoding
+ * - hubAssignments: hub-to-location mappings
+ * - fleetSnapshot: eligible default fleet (FleetSnapshotService, seconds)
+ *
+ * Hit/miss/eviction stats are recorded and exported by Spring Boot's cache
+ * metrics (cache.gets, cache.evictions, ...) tagged with the cache name.
+ *
+ * For production: Consider Redis cache jeśli masz multiple instances
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties, ObjectProvider<CacheRefreshLoader> refreshLoaders) {
+        Map<String, CacheRefreshLoader> loaders = refreshLoaders.orderedStream()
+                .collect(Collectors.toMap(CacheRefreshLoader::getCacheName, Function.identity()));
+        return buildCacheManager(properties, loaders, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
     /**
-     * Simple in-memory cache dla distance matrix
-     * 
-     * For production: Consider Redis cache jeśli masz multiple instances
+     * Build the manager with an explicit ticker/executor (tests drive time and
+     * run refreshes synchronously)
      */
-    @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-                "distanceMatrix", // Google Maps distance cache
-                "geocodingResults", // Address geocoding cache
-                "hubAssignments" // Hub-to-location mappings
-        );
+    static CaffeineCacheManager buildCacheManager(CacheProperties properties, Map<String, CacheRefreshLoader> loaders,
+            Ticker ticker, Executor executor) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setCaffeine(caffeine(properties.getDefaultSpec(), ticker, executor));
+
+        properties.getCaches().forEach((name, spec) -> {
+            Caffeine<Object, Object> builder = caffeine(spec, ticker, executor);
+            if (spec.getRefreshAfterWrite() == null) {
+                manager.registerCustomCache(name, builder.build());
+                return;
+            }
+
+            CacheRefreshLoader loader = loaders.get(name);
+            if (loader == null) {
+                throw new IllegalStateException(
+                        "Cache '" + name + "' has refresh-after-write but no CacheRefreshLoader bean");
+            }
+            manager.registerCustomCache(name, builder.refreshAfterWrite(spec.getRefreshAfterWrite()).build(loader));
+        });
+        return manager;
+    }
+
+    private static Caffeine<Object, Object> caffeine(CacheProperties.Spec spec, Ticker ticker, Executor executor) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .ticker(ticker)
+                .executor(executor)
+                .maximumWeight(spec.getMaximumWeight())
+                .weigher((key, value) -> weigh(value));
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.isRecordStats()) {
+            builder.recordStats();
+        }
+        return builder;
+    }
+
+    /**
+     * 1 per entry, element count for collections/maps/arrays
+     */
+    static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        if (value != null && value.getClass().isArray()) {
+            return Math.max(1, Array.getLength(value));
+        }
+        return 1;
     }
 }
@@ -0,0 +1,57 @@
+package com.example.planning_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ARCHITEKTURA: Cache limits (Caffeine)
+ *
+ * Every cache is bounded by weight and (optionally) expires / refreshes.
+ * Weight = 1 per entry, collections and arrays weigh their element count.
+ * Caches not listed under app.cache.caches use app.cache.default-spec.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+@Data
+public class CacheProperties {
+
+    /**
+     * Spec for caches created on demand (not listed below)
+     */
+    private Spec defaultSpec = new Spec();
+
+    /**
+     * Per-cache specs, keyed by cache name
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Maximum total weight before entries are evicted
+         */
+        private long maximumWeight = 10_000;
+
+        /**
+         * Entry lifetime after write (null = no expiry)
+         */
+        private Duration expireAfterWrite;
+
+        /**
+         * Reload entries older than this in the background on access
+         * (requires a CacheRefreshLoader for the cache; null = disabled)
+         */
+        private Duration refreshAfterWrite;
+
+        /**
+         * Record hit/miss/eviction stats (exported to Micrometer as cache.*)
+         */
+        private boolean recordStats = true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.planning_service.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Loader used by refresh-after-write for a single named cache.
+ *
+ * Keys and values are the ones stored by @Cacheable on that cache
+ * (return null to drop the entry).
+ */
+public interface CacheRefreshLoader extends CacheLoader<Object, Object> {
+
+    /**
+     * Name of the cache this loader refreshes
+     */
+    String getCacheName();
+}
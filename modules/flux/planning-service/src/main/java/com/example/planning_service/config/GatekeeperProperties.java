@@ -0,0 +1,74 @@
+package com.example.planning_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gatekeeper (approval flow) configuration - prefix "gatekeeper"
+ */
+@Component
+@ConfigurationProperties(prefix = "gatekeeper")
+@Data
+public class GatekeeperProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Soft score change (in %) above which a solution needs dispatcher approval
+     */
+    private double scoreThresholdPercent = 20.0;
+
+    /**
+     * How long a registered proposal waits for the dispatcher's decision
+     */
+    private long proposalTtlMinutes = 60;
+
+    private final N8n n8n = new N8n();
+    private final Verdict verdict = new Verdict();
+
+    @Data
+    public static class N8n {
+        private final Webhook webhook = new Webhook();
+
+        @Data
+        public static class Webhook {
+            private String url = "http://localhost:5678/webhook/gatekeeper";
+        }
+    }
+
+    /**
+     * Asynchronous verdict pipeline (GatekeeperVerdictDispatcher)
+     */
+    @Data
+    public static class Verdict {
+        /**
+         * Dedicated webhook threads - never the solver / publisher ones
+         */
+        private int threads = 2;
+
+        /**
+         * Queued verdict requests; above it a request gets the fallback justification at once
+         */
+        private int queueCapacity = 50;
+
+        private int connectTimeoutMillis = 2000;
+        private int readTimeoutMillis = 10000;
+
+        /**
+         * Webhook calls per verdict (1 = no retry)
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Exponential backoff between attempts, randomized (jitter) to [50%, 100%] of the step
+         */
+        private long initialBackoffMillis = 500;
+        private long maxBackoffMillis = 5000;
+
+        /**
+         * How long a verdict is reused for the same optimization and the same change
+         */
+        private long dedupTtlMinutes = 10;
+    }
+}
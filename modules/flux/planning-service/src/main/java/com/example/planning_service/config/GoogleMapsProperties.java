@@ -47,7 +47,18 @@ public class GoogleMapsProperties {
     private int cacheExpirationMinutes = 30;
 
     /**
-     * Max locations per distance matrix request (Google limit: 100)
+     * Cached cells are keyed by coordinates rounded to this many decimals
+     * (4 decimals ~ 11 m)
+     */
+    private int cacheCoordinateDecimals = 4;
+
+    /**
+     * Departure times within the same bucket share cached cells (minutes)
+     */
+    private int departureTimeBucketMinutes = 15;
+
+    /**
+     * Max elements (origins x destinations) per distance matrix request (Google limit: 100)
      */
     private int maxLocationsPerRequest = 100;
 
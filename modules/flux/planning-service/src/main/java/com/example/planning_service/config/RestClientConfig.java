@@ -24,8 +24,9 @@ public class RestClientConfig {
     }
 
     /**
-     * Create a RestTemplate bean for n8n webhook integration
-     * Used by GatekeeperService for AI Agent communication
+     * Create a general-purpose RestTemplate bean
+     * (the Gatekeeper n8n webhook uses its own client with timeouts - see
+     * GatekeeperVerdictDispatcher)
      */
     @Bean
     public RestTemplate restTemplate() {
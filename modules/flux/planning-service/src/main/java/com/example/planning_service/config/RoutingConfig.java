@@ -0,0 +1,39 @@
+package com.example.planning_service.config;
+
+import com.example.planning_service.routing.DistanceProvider;
+import com.example.planning_service.routing.GraphHopperDistanceProvider;
+import com.example.planning_service.routing.HaversineDistanceProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ARCHITEKTURA: Distance provider wiring
+ *
+ * Exposes one DistanceProvider bean for the whole service:
+ * - GRAPHHOPPER: offline road network, haversine for cells it cannot answer
+ * - HAVERSINE (or graph not loadable): straight-line estimate only
+ */
+@Configuration
+@Slf4j
+public class RoutingConfig {
+
+    @Bean
+    public DistanceProvider distanceProvider(RoutingProperties properties) {
+        HaversineDistanceProvider fallback = new HaversineDistanceProvider(
+                properties.getFallbackAverageSpeedKmh(), properties.getFallbackDetourFactor());
+
+        if (properties.getEngine() != RoutingProperties.Engine.GRAPHHOPPER) {
+            log.info("Road routing disabled, using haversine distances");
+            return fallback;
+        }
+
+        try {
+            return GraphHopperDistanceProvider.load(properties.getGraphhopper(), fallback);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load road graph from {}, falling back to haversine distances: {}",
+                    properties.getGraphhopper().getGraphLocation(), e.getMessage());
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.planning_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ARCHITEKTURA: Offline road routing configuration
+ *
+ * Road distances are computed locally from the bundled OSM extract
+ * (routing-data/) - no external API calls, no per-request cost.
+ * When the graph cannot be loaded the service falls back to haversine.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "routing")
+@Data
+public class RoutingProperties {
+
+    /**
+     * Distance engine used by TravelTimeService, SentinelService and the solver
+     */
+    private Engine engine = Engine.GRAPHHOPPER;
+
+    /**
+     * Average speed for the haversine fallback (km/h)
+     */
+    private double fallbackAverageSpeedKmh = 40.0;
+
+    /**
+     * Road/straight-line ratio applied by the haversine fallback
+     */
+    private double fallbackDetourFactor = 1.3;
+
+    private GraphHopper graphhopper = new GraphHopper();
+
+    public enum Engine {
+        GRAPHHOPPER, // Embedded road network (routing-data)
+        HAVERSINE // Straight-line estimate only
+    }
+
+    @Data
+    public static class GraphHopper {
+
+        /**
+         * OSM extract imported when no prepared graph exists
+         */
+        private String osmFile = "routing-data/poland-latest.osm.pbf";
+
+        /**
+         * Prepared graph directory (reused across restarts)
+         */
+        private String graphLocation = "routing-data/graphhopper";
+
+        /**
+         * Routing profile (also the CH profile name)
+         */
+        private String profile = "car";
+
+        /**
+         * Vehicle whose access/speed encoded values the profile uses
+         */
+        private String vehicle = "car";
+
+        /**
+         * Threads used to compute matrix rows
+         */
+        private int matrixThreads = Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -11,7 +11,8 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * 
  * Enables real-time updates to frontend during Timefold optimization
  * Endpoint: /ws-planning (STOMP over SockJS)
- * Topics: /topic/optimization-updates (BestSolutionChangedEvent broadcasts)
+ * Topics: /topic/optimization-updates (best solutions, throttled per-route deltas -
+ * see OptimizationUpdatePublisher)
  */
 @Configuration
 @EnableWebSocketMessageBroker
@@ -1,59 +1,122 @@
 package com.example.planning_service.consumer;
 
 import com.example.danxils_commons.event.DriverLocationUpdatedEvent;
-import com.example.planning_service.repository.graph.GraphDriverRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.repository.graph.DriverPositionWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.annotation.TopicPartition;
 import org.springframework.stereotype.Component;
-import java.util.LinkedHashMap;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ARCHITEKTURA: Pozycje kierowców z Kafki do grafu (Neo4j)
+ *
+ * Batch listener na wszystkich partycjach topicu driver-location-updated
+ * (consumer group, app.graph-telemetry.concurrency wątków, do
+ * app.graph-telemetry.max-poll-records rekordów na poll).
+ *
+ * - Parsowanie: jeden ObjectReader z beana ObjectMapper (JavaTimeModule z
+ * Spring Boot), bez nowego ObjectMappera per rekord.
+ * - Coalescing: z jednego polla zostaje najnowsza pozycja per kierowca -
+ * starsze pingi i tak zostałyby nadpisane.
+ * - Zapis: DriverPositionWriter (UNWIND per chunk) zamiast findById + save
+ * per ping.
+ *
+ * Rekord, którego nie da się sparsować, jest logowany i pomijany - nie
+ * blokuje batcha. Błąd Neo4j wraca do kontenera (batch jest ponawiany).
+ */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class GraphTelemetryConsumer {
 
-    private final GraphDriverRepository driverRepository;
-
-    @org.springframework.beans.factory.annotation.Value("${app.kafka.topics.driver-location-updated}")
-    private String topic;
+    private final DriverPositionWriter positionWriter;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
+    private final OptimizationMetrics metrics;
 
-    @jakarta.annotation.PostConstruct
-    public void init() {
-        log.info("GraphTelemetryConsumer initialized. Listening on topic: {}", topic);
+    public GraphTelemetryConsumer(DriverPositionWriter positionWriter, ObjectMapper objectMapper,
+            OptimizationMetrics metrics) {
+        this.positionWriter = positionWriter;
+        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(DriverLocationUpdatedEvent.class);
+        this.metrics = metrics;
     }
 
-    @KafkaListener(topicPartitions = @TopicPartition(topic = "${app.kafka.topics.driver-location-updated}", partitions = "0"), groupId = "planning-service-telemetry-manual")
-    public void consumeDriverLocationUpdate(org.apache.kafka.clients.consumer.ConsumerRecord<String, Object> record) {
-        log.info("Received telemetry record. Value type: {}", record.value().getClass().getName());
-        log.info("Received telemetry value: {}", record.value());
+    @KafkaListener(topics = "${app.kafka.topics.driver-location-updated}",
+            groupId = "planning-service-telemetry-manual",
+            batch = "true",
+            concurrency = "${app.graph-telemetry.concurrency:3}",
+            properties = "max.poll.records=${app.graph-telemetry.max-poll-records:2000}")
+    public void consumeDriverLocationUpdates(List<ConsumerRecord<String, Object>> records) {
+        long started = System.nanoTime();
+        Collection<DriverPositionWriter.Position> positions = latestPositions(records);
+        long updated = positions.isEmpty() ? 0 : positionWriter.updatePositions(positions);
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        metrics.recordGraphTelemetryBatch(records.size(), positions.size(), elapsed);
+        log.debug("Graph telemetry: {} pings -> {} drivers, {} updated in {} ms", records.size(),
+                positions.size(), updated, elapsed.toMillis());
+    }
 
-        try {
+    /**
+     * Latest position per driver; pings without a timestamp count as newer
+     * than the ones before them in the batch (offset order)
+     */
+    Collection<DriverPositionWriter.Position> latestPositions(List<ConsumerRecord<String, Object>> records) {
+        Map<String, DriverPositionWriter.Position> latest = new HashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
             DriverLocationUpdatedEvent event;
-            if (record.value() instanceof String) {
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-                event = mapper.readValue((String) record.value(), DriverLocationUpdatedEvent.class);
-            } else if (record.value() instanceof LinkedHashMap) {
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-                event = mapper.convertValue(record.value(), DriverLocationUpdatedEvent.class);
-            } else {
-                event = (DriverLocationUpdatedEvent) record.value();
+            try {
+                event = parse(record.value());
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Skipping unreadable telemetry record {}-{}@{}: {}", record.topic(), record.partition(),
+                        record.offset(), e.getMessage());
+                continue;
             }
+            if (event.getDriverId() == null || event.getLatitude() == null || event.getLongitude() == null) {
+                log.debug("Skipping telemetry without driver or position at {}-{}@{}", record.topic(),
+                        record.partition(), record.offset());
+                continue;
+            }
+            latest.merge(event.getDriverId(), new DriverPositionWriter.Position(event.getDriverId(),
+                    event.getLatitude(), event.getLongitude(), event.getTimestamp()),
+                    GraphTelemetryConsumer::newer);
+        }
+        return latest.values();
+    }
+
+    private DriverLocationUpdatedEvent parse(Object value) throws IOException {
+        if (value instanceof DriverLocationUpdatedEvent event) {
+            return event;
+        }
+        if (value instanceof String json) {
+            return eventReader.readValue(json);
+        }
+        if (value instanceof byte[] json) {
+            return eventReader.readValue(json);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return objectMapper.convertValue(map, DriverLocationUpdatedEvent.class);
+        }
+        throw new IllegalArgumentException("Unsupported telemetry value type: "
+                + (value != null ? value.getClass().getName() : "null"));
+    }
 
-            log.info("Parsed telemetry for driver: {}", event.getDriverId());
-
-            driverRepository.findById(event.getDriverId()).ifPresent(driver -> {
-                driver.setLatitude(event.getLatitude());
-                driver.setLongitude(event.getLongitude());
-                driver.setLastUpdate(event.getTimestamp());
-                driverRepository.save(driver);
-                log.info("Graph updated for driver: {}", event.getDriverId());
-            });
-        } catch (Exception e) {
-            log.error("Failed to parse telemetry: {}", e.getMessage(), e);
+    private static DriverPositionWriter.Position newer(DriverPositionWriter.Position current,
+            DriverPositionWriter.Position next) {
+        if (current.timestamp() != null && next.timestamp() != null
+                && next.timestamp().isBefore(current.timestamp())) {
+            return current;
         }
+        return next;
     }
 }
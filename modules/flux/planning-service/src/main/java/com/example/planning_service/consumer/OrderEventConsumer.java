@@ -3,11 +3,14 @@ package com.example.planning_service.consumer;
 import com.example.danxils_commons.event.OrderCreatedEvent;
 import com.example.planning_service.batch.BatchAggregator;
 import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.service.IncrementalOptimizationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -31,8 +34,14 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OrderEventConsumer {
 
+    /**
+     * OrderCreatedEvent.priority values treated as urgent (case-insensitive)
+     */
+    private static final Set<String> URGENT_PRIORITIES = Set.of("URGENT", "EXPRESS", "EMERGENCY", "CRITICAL", "HIGH");
+
     private final BatchAggregator batchAggregator;
     private final AutoPlanProperties autoPlanProperties;
+    private final IncrementalOptimizationService incrementalOptimizationService;
 
     /**
      * Konsumuje OrderCreatedEvent i dodaje do batcha jeśli auto-planning włączony
@@ -53,9 +62,12 @@ public class OrderEventConsumer {
         // Determine priority from event
         BatchAggregator.OrderPriority priority = determinePriority(event);
 
-        // Add to batch aggregator
+        // Add to batch aggregator (delivery coordinates let the pipeline split by hub)
         UUID orderUuid = UUID.fromString(event.getOrderId());
-        batchAggregator.add(orderUuid, priority);
+        var delivery = event.getDeliveryAddress();
+        batchAggregator.add(orderUuid, priority,
+                delivery != null ? delivery.getLat() : null,
+                delivery != null ? delivery.getLon() : null);
 
         // Log batch statistics
         if (log.isDebugEnabled()) {
@@ -68,11 +80,10 @@ public class OrderEventConsumer {
         if (priority == BatchAggregator.OrderPriority.URGENT
                 && autoPlanProperties.getUrgent().isAutoReoptimize()) {
 
-            log.warn("🚨 URGENT order {} detected! Consider triggering immediate re-optimization",
-                    event.getOrderId());
+            log.warn("🚨 URGENT order {} detected! Triggering incremental re-optimization", event.getOrderId());
 
-            // TODO: Implement urgent re-optimization trigger
-            // Could call IncrementalOptimizationService.handleUrgentOrder(event)
+            // Non-blocking: the re-plan runs on the solver threads, the order stays in the batch until applied
+            incrementalOptimizationService.handleUrgentOrder(event);
         }
     }
 
@@ -84,15 +95,19 @@ public class OrderEventConsumer {
      * - NORMAL: Standard dealer/technician orders
      * - LOW: Non-time-sensitive orders
      */
-    private BatchAggregator.OrderPriority determinePriority(OrderCreatedEvent event) {
-        // TODO: Implement priority detection logic based on:
-        // - event.getPriority() (if exists in OrderCreatedEvent)
-        // - event.getDeliveryType() (EMERGENCY, EXPRESS, STANDARD)
-        // - event.getCustomerTier() (VIP, STANDARD)
-        // - event.getTimeWindow() (if maxEndTime < 07:00 → URGENT for technicians)
-
-        // For now, default to NORMAL
+    BatchAggregator.OrderPriority determinePriority(OrderCreatedEvent event) {
         // Priority boost logic can be implemented in n8n workflow as well
+        String priority = event.getPriority();
+        if (priority == null || priority.isBlank()) {
+            return BatchAggregator.OrderPriority.NORMAL;
+        }
+        String normalized = priority.trim().toUpperCase(Locale.ROOT);
+        if (URGENT_PRIORITIES.contains(normalized)) {
+            return BatchAggregator.OrderPriority.URGENT;
+        }
+        if ("LOW".equals(normalized)) {
+            return BatchAggregator.OrderPriority.LOW;
+        }
         return BatchAggregator.OrderPriority.NORMAL;
     }
 
@@ -5,8 +5,10 @@ import com.example.planning_service.dto.RouteStopDto;
 import com.example.planning_service.optimization.VrpOptimizerService;
 import com.example.planning_service.optimization.VrpOptimizerService.VehicleRoutingSolution;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -35,8 +37,10 @@ public class OptimizationController {
     private final com.example.planning_service.service.ManifestService manifestService;
     private final com.example.planning_service.service.DriverEnrichmentService driverEnrichmentService;
 
-    private final com.example.planning_service.repository.CarrierComplianceRepository carrierComplianceRepository;
-    private final com.example.planning_service.repository.VehicleProfileRepository vehicleProfileRepository;
+    private final com.example.planning_service.service.FleetSnapshotService fleetSnapshotService;
+    private final com.example.planning_service.service.SolutionReadModelService solutionReadModelService;
+    private final com.example.planning_service.mapper.SolutionMapper solutionMapper;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
 
     @PostMapping("/resequence")
     public ResponseEntity<List<RouteStopDto>> resequenceRoute(@RequestBody ResequenceRequest request) {
@@ -73,42 +77,10 @@ public class OptimizationController {
         }
 
         // 2. Fetch Vehicles & Apply Compliance/Profile Logic
-        List<FleetVehicleEntity> rawVehicles;
-        if (request.getVehicleIds() != null && !request.getVehicleIds().isEmpty()) {
-            rawVehicles = vehicleRepository.findAllById(request.getVehicleIds());
-        } else {
-            // Default: Use only AVAILABLE vehicles
-            rawVehicles = vehicleRepository.findAll().stream()
-                    .filter(v -> Boolean.TRUE.equals(v.getAvailable()))
-                    .collect(java.util.stream.Collectors.toList());
-        }
+        // (bulk loaded; default = AVAILABLE vehicles from the short-lived fleet snapshot)
+        List<FleetVehicleEntity> vehicles = fleetSnapshotService.eligibleVehicles(request.getVehicleIds());
 
-        List<FleetVehicleEntity> vehicles = rawVehicles.stream()
-                // 2a. Carrier Compliance
-                .filter(v -> {
-                    if (v.getCarrierId() == null)
-                        return true;
-                    return carrierComplianceRepository.findById(v.getCarrierId())
-                            .map(c -> "COMPLIANT".equals(c.getComplianceStatus())
-                                    && Boolean.TRUE.equals(c.getIsInsured()))
-                            .orElse(false);
-                })
-                // 2b. Profile Enrichment
-                .map(v -> {
-                    if (v.getProfileId() != null) {
-                        vehicleProfileRepository.findById(v.getProfileId()).ifPresent(p -> {
-                            if (p.getMaxCapacityWeight() != null)
-                                v.setCapacityWeight(p.getMaxCapacityWeight());
-                            if (p.getMaxCapacityVolume() != null)
-                                v.setCapacityVolume(p.getMaxCapacityVolume());
-                        });
-                    }
-                    return v;
-                })
-                .collect(java.util.stream.Collectors.toList());
-
-        log.info("Optimization using {} eligible vehicles (out of {} requested/found)", vehicles.size(),
-                rawVehicles.size());
+        log.info("Optimization using {} eligible vehicles", vehicles.size());
 
         // 3. Fetch Profile (if provided)
         com.example.planning_service.entity.OptimizationProfileEntity profile = null;
@@ -117,9 +89,16 @@ public class OptimizationController {
                     .cast(optimizationProfileService).getProfileEntity(request.getProfileId());
         }
 
-        // 4. Optimize
-        VrpOptimizerService.VehicleRoutingSolution solution = vrpOptimizerService.calculateRoutes(orders, vehicles,
-                profile);
+        // 4. Optimize (full Timefold solution captured for this call, not the shared last one)
+        VrpOptimizerService.VehicleRoutingSolution solution;
+        com.example.planning_service.dto.VehicleRoutingSolutionDto fullSolution = null;
+        if (vrpOptimizerService instanceof com.example.planning_service.optimization.impl.TimefoldOptimizer timefoldOptimizer) {
+            var solved = timefoldOptimizer.calculateSolvedRoutes(orders, vehicles, profile, null);
+            solution = solved.routes();
+            fullSolution = solutionMapper.toDto(solved.solution());
+        } else {
+            solution = vrpOptimizerService.calculateRoutes(orders, vehicles, profile);
+        }
 
         // 5. Persist Solution (DRAFT)
         int totalRoutes = solution.routes().size();
@@ -146,6 +125,7 @@ public class OptimizationController {
                 .unassignedOrdersCount(orders.size() - totalStops) // Approx
                 .build();
         solutionRepository.save(entity);
+        solutionReadModelService.save(entity, solution, fullSolution);
 
         // 6. Trigger Webhooks
         triggerOptimizationWebhooks(solution);
@@ -154,88 +134,62 @@ public class OptimizationController {
     }
 
     /**
-     * NEW ENDPOINT: Full Solution with Timefold Metadata
+     * Full Solution with Timefold Metadata
      * Returns complete VehicleRoutingSolution including:
      * - All vehicles with chain references
      * - All stops with planning variables
      * - Score and statistics
      * - Problem facts (orders)
      * 
+     * Served from the read model stored by /optimize (latest solution, or
+     * ?solutionId=...) - the optimization is not run again. POST is kept for
+     * existing clients; its body is ignored.
+     * 
      * Used by advanced clients that need full solution reconstruction
      */
-    @PostMapping("/solution")
-    public ResponseEntity<com.example.planning_service.dto.VehicleRoutingSolutionDto> getFullSolution(
-            @RequestBody com.example.planning_service.dto.OptimizationRequestDto request) {
-        log.info("Received FULL solution request for {} orders and {} vehicles",
-                request.getOrderIds() != null ? request.getOrderIds().size() : 0,
-                request.getVehicleIds() != null ? request.getVehicleIds().size() : 0);
-
-        // 1. Trigger optimization (same logic as /optimize)
-        // This will populate the cache in TimefoldOptimizer
-        optimizeRoutes(request);
-
-        // 2. Retrieve cached solution from optimizer
-        if (!(vrpOptimizerService instanceof com.example.planning_service.optimization.impl.TimefoldOptimizer)) {
-            log.error("VrpOptimizerService is not TimefoldOptimizer - cannot access solution cache");
-            return ResponseEntity.status(500).build();
-        }
-
-        com.example.planning_service.optimization.impl.TimefoldOptimizer timefoldOptimizer = (com.example.planning_service.optimization.impl.TimefoldOptimizer) vrpOptimizerService;
-
-        com.example.planning_service.domain.timefold.VehicleRoutingSolution fullSolution = timefoldOptimizer
-                .getLastSolution();
-
-        if (fullSolution == null) {
-            log.warn("No solution in cache - optimization may have failed");
-            return ResponseEntity.notFound().build();
-        }
-
-        // 3. Map to DTO using SolutionMapper
-        com.example.planning_service.mapper.SolutionMapper solutionMapper = new com.example.planning_service.mapper.SolutionMapper();
-
-        com.example.planning_service.dto.VehicleRoutingSolutionDto solutionDto = solutionMapper.toDto(fullSolution);
-
-        log.info("Returning full solution with {} vehicles, {} stops, score: {}",
-                solutionDto.getVehicles() != null ? solutionDto.getVehicles().size() : 0,
-                solutionDto.getStops() != null ? solutionDto.getStops().size() : 0,
-                solutionDto.getScore());
-
-        return ResponseEntity.ok(solutionDto);
+    @RequestMapping(value = "/solution", method = { RequestMethod.GET, RequestMethod.POST })
+    public ResponseEntity<StreamingResponseBody> getFullSolution(
+            @RequestParam(required = false) UUID solutionId) {
+        return solutionReadModelService.fullSolutionJson(solutionId)
+                .map(json -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .<StreamingResponseBody>body(out -> {
+                            java.io.Writer writer = new java.io.OutputStreamWriter(out,
+                                    java.nio.charset.StandardCharsets.UTF_8);
+                            writer.write(json);
+                            writer.flush();
+                        }))
+                .orElseGet(() -> {
+                    log.warn("No stored full solution{}", solutionId != null ? " for " + solutionId : "");
+                    return ResponseEntity.notFound().build();
+                });
     }
 
     @GetMapping("/latest")
-    public ResponseEntity<VehicleRoutingSolution> getLatestOptimization() {
-        log.info("Fetching latest optimization solution");
-
-        // 1. Retrieve latest solution entity from repository
-        com.example.planning_service.entity.OptimizationSolutionEntity latestEntity = solutionRepository
-                .findTopByOrderByCreatedAtDesc()
-                .orElse(null);
-
-        if (latestEntity == null) {
-            log.warn("No optimization solution found in database");
-            return ResponseEntity.notFound().build();
-        }
-
-        // 2. Deserialize solution JSON to VehicleRoutingSolution object
+    public ResponseEntity<StreamingResponseBody> getLatestOptimization() {
+        // 1. Latest solution from the read model
         VehicleRoutingSolution solution;
         try {
-            com.fasterxml.jackson.databind.ObjectMapper objectMapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-
-            solution = objectMapper.convertValue(
-                    latestEntity.getSolutionJson(),
-                    VehicleRoutingSolution.class);
+            solution = solutionReadModelService.routes(null).orElse(null);
         } catch (Exception e) {
             log.error("Failed to deserialize optimization solution JSON", e);
             return ResponseEntity.status(500).build();
         }
 
-        // 3. Enrich solution with driver assignments from order-service
+        if (solution == null) {
+            log.warn("No optimization solution found in database");
+            return ResponseEntity.notFound().build();
+        }
+
+        // 2. Enrich solution with driver assignments from order-service
         VehicleRoutingSolution enrichedSolution = driverEnrichmentService.enrichWithDriverAssignments(solution);
 
-        log.info("Returning enriched solution with {} routes", enrichedSolution.routes().size());
-        return ResponseEntity.ok(enrichedSolution);
+        log.debug("Returning enriched solution with {} routes", enrichedSolution.routes().size());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writer()
+                        .without(com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .writeValue(out, enrichedSolution));
     }
 
     @PostMapping("/publish")
@@ -338,20 +292,14 @@ public class OptimizationController {
     @org.springframework.web.bind.annotation.GetMapping("/routes/{routeId}")
     public ResponseEntity<VrpOptimizerService.VehicleRoutingSolution> getRouteById(
             @org.springframework.web.bind.annotation.PathVariable UUID routeId) {
-        return solutionRepository.findById(routeId)
-                .map(entity -> {
-                    try {
-                        com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                        String json = mapper.writeValueAsString(entity.getSolutionJson());
-                        VrpOptimizerService.VehicleRoutingSolution sol = mapper.readValue(json,
-                                VrpOptimizerService.VehicleRoutingSolution.class);
-                        return ResponseEntity.ok(sol);
-                    } catch (Exception e) {
-                        log.error("Failed to deserialize solution for route {}", routeId, e);
-                        return ResponseEntity.internalServerError().<VrpOptimizerService.VehicleRoutingSolution>build();
-                    }
-                })
-                .orElse(ResponseEntity.notFound().build());
+        try {
+            return solutionReadModelService.routes(routeId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            log.error("Failed to deserialize solution for route {}", routeId, e);
+            return ResponseEntity.internalServerError().build();
+        }
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.example.planning_service.controller;
 
 import com.example.planning_service.dto.RouteAssignmentFilterDto;
+import com.example.planning_service.dto.RouteAssignmentKeysetPageDto;
 import com.example.planning_service.dto.RouteAssignmentRequestDto;
 import com.example.planning_service.dto.RouteAssignmentResponseDto;
 import com.example.planning_service.entity.RouteAssignmentEntity.RouteStatus;
@@ -117,6 +118,44 @@ public class RouteAssignmentController {
         return ResponseEntity.ok(page);
     }
 
+    /**
+     * Keyset (cursor) pagination for large listings - newest first
+     * GET /api/planning/assignments/keyset
+     * 
+     * Same filters as GET /api/planning/assignments, plus:
+     * - afterCreatedAt, afterId: cursor from nextCreatedAt/nextId of the previous page (omit for the first page)
+     * - size: Page size (default: 20, max: 100)
+     * 
+     * Example: GET /api/planning/assignments/keyset?status=PUBLISHED&afterCreatedAt=2026-03-02T10:00:00Z&afterId=xxx&size=50
+     */
+    @GetMapping("/keyset")
+    public ResponseEntity<RouteAssignmentKeysetPageDto> getAssignmentsAfter(
+            @RequestParam(required = false) List<RouteStatus> status,
+            @RequestParam(required = false) UUID driverId,
+            @RequestParam(required = false) UUID vehicleId,
+            @RequestParam(required = false) UUID carrierId,
+            @RequestParam(required = false) UUID solutionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdBefore,
+            @RequestParam(required = false) String routeNameContains,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant afterCreatedAt,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        RouteAssignmentFilterDto filter = RouteAssignmentFilterDto.builder()
+                .statuses(status)
+                .driverId(driverId)
+                .vehicleId(vehicleId)
+                .carrierId(carrierId)
+                .solutionId(solutionId)
+                .createdAfter(createdAfter)
+                .createdBefore(createdBefore)
+                .routeNameContains(routeNameContains)
+                .build();
+        
+        return ResponseEntity.ok(service.findAfter(filter, afterCreatedAt, afterId, size));
+    }
+
     /**
      * Get single route assignment by ID
      * GET /api/planning/assignments/{id}
@@ -3,11 +3,16 @@ package com.example.planning_service.domain.timefold;
 import ai.timefold.solver.core.api.domain.variable.VariableListener;
 import ai.timefold.solver.core.api.score.director.ScoreDirector;
 
-import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * Shadow Variable Listener - Calculates arrival times based on route chain
  * Updates automatically when previousStandstill changes
+ * 
+ * Propagation is iterative and incremental: it walks the chain from the changed
+ * stop and stops as soon as an arrival time is unchanged, because every later
+ * stop is then unchanged as well. Arrival times are epoch seconds, seeded from
+ * the vehicle's departureTime (never from the wall clock) so scores are deterministic.
  */
 public class ArrivalTimeUpdatingVariableListener implements VariableListener<VehicleRoutingSolution, RouteStop> {
 
@@ -42,45 +47,39 @@ public class ArrivalTimeUpdatingVariableListener implements VariableListener<Veh
     }
 
     /**
-     * Calculate and update arrival time for this stop
+     * Update arrival time for this stop and every following stop whose arrival changes
      */
-    private void updateArrivalTime(ScoreDirector<VehicleRoutingSolution> scoreDirector, RouteStop stop) {
-        Standstill previous = stop.getPreviousStandstill();
+    private void updateArrivalTime(ScoreDirector<VehicleRoutingSolution> scoreDirector, RouteStop sourceStop) {
+        Standstill previous = sourceStop.getPreviousStandstill();
+        Long departureTime = departureTimeOf(previous);
 
-        if (previous == null) {
-            // Not assigned yet
+        RouteStop stop = sourceStop;
+        Long arrivalTime = departureTime != null ? departureTime + stop.getTravelTimeSeconds() : null;
+
+        while (stop != null && !Objects.equals(stop.getArrivalTime(), arrivalTime)) {
             scoreDirector.beforeVariableChanged(stop, "arrivalTime");
-            stop.setArrivalTime(null);
+            stop.setArrivalTime(arrivalTime);
             scoreDirector.afterVariableChanged(stop, "arrivalTime");
-            return;
-        }
 
-        LocalDateTime arrivalTime;
-
-        if (previous instanceof Vehicle) {
-            // First stop in route - start from current time
-            arrivalTime = LocalDateTime.now().plusMinutes(stop.getTravelTimeMinutes());
-        } else {
-            // Subsequent stop - add travel time to previous stop's arrival + service time
-            RouteStop previousStop = (RouteStop) previous;
-            if (previousStop.getArrivalTime() == null) {
-                arrivalTime = null;
-            } else {
-                long serviceTimeMinutes = 15; // Average service time at stop
-                arrivalTime = previousStop.getArrivalTime()
-                        .plusMinutes(serviceTimeMinutes)
-                        .plusMinutes(stop.getTravelTimeMinutes());
-            }
+            departureTime = stop.getDepartureTime();
+            stop = stop.getNextStop();
+            arrivalTime = stop != null && departureTime != null
+                    ? departureTime + stop.getTravelTimeSeconds()
+                    : null;
         }
+    }
 
-        scoreDirector.beforeVariableChanged(stop, "arrivalTime");
-        stop.setArrivalTime(arrivalTime);
-        scoreDirector.afterVariableChanged(stop, "arrivalTime");
-
-        // Cascade update to next stop
-        RouteStop nextStop = stop.getNextStop();
-        if (nextStop != null) {
-            updateArrivalTime(scoreDirector, nextStop);
+    /**
+     * Time the previous standstill is left: vehicle departure for the first stop,
+     * arrival + service duration otherwise. Null when not assigned yet.
+     */
+    private Long departureTimeOf(Standstill previous) {
+        if (previous == null) {
+            return null;
+        }
+        if (previous instanceof Vehicle vehicle) {
+            return vehicle.getDepartureTime();
         }
+        return ((RouteStop) previous).getDepartureTime();
     }
 }
@@ -3,15 +3,13 @@ package com.example.planning_service.domain.timefold;
 import ai.timefold.solver.core.api.domain.variable.VariableListener;
 import ai.timefold.solver.core.api.score.director.ScoreDirector;
 
-import java.time.LocalDateTime;
-import java.time.Duration;
-
 /**
  * Shadow Variable Listener - Calculates available time window for FixedRoute vehicles
  * Updates automatically when stops are added/removed from the route
  * 
  * For FixedRoute (Elastic Shell), calculates the time window where ad-hoc stops
  * can be inserted without violating fixed stop constraints.
+ * All times are epoch seconds derived from the vehicle shift (no wall clock).
  */
 public class AvailableTimeWindowUpdatingVariableListener implements VariableListener<VehicleRoutingSolution, Vehicle> {
 
@@ -45,46 +43,27 @@ public class AvailableTimeWindowUpdatingVariableListener implements VariableList
         // No action needed
     }
 
+    /**
+     * Minimum gap required to insert an ad-hoc stop (30 minutes)
+     */
+    private static final long MIN_AD_HOC_GAP_SECONDS = 30 * 60;
+
     /**
      * Calculate and update available time window for FixedRoute vehicles
      * 
      * For FixedRoute:
-     * - availableTimeWindowStart = end of last fixed stop + buffer
-     * - availableTimeWindowEnd = start of next fixed stop - buffer
+     * - availableTimeWindowStart = end of service at the first stop
+     * - availableTimeWindowEnd = arrival at the next stop minus its service time
      * 
      * For regular vehicles:
-     * - availableTimeWindowStart = now
-     * - availableTimeWindowEnd = end of work day (e.g., 18:00)
+     * - the full shift (shiftStartTime - shiftEndTime)
      */
     private void updateAvailableTimeWindow(ScoreDirector<VehicleRoutingSolution> scoreDirector, Vehicle vehicle) {
-        if (!vehicle.isFixedRoute()) {
-            // Regular vehicle: full day available
-            LocalDateTime workStart = LocalDateTime.now().withHour(8).withMinute(0).withSecond(0);
-            LocalDateTime workEnd = LocalDateTime.now().withHour(18).withMinute(0).withSecond(0);
-            
-            scoreDirector.beforeVariableChanged(vehicle, "availableTimeWindowStart");
-            scoreDirector.beforeVariableChanged(vehicle, "availableTimeWindowEnd");
-            vehicle.setAvailableTimeWindowStart(workStart);
-            vehicle.setAvailableTimeWindowEnd(workEnd);
-            scoreDirector.afterVariableChanged(vehicle, "availableTimeWindowStart");
-            scoreDirector.afterVariableChanged(vehicle, "availableTimeWindowEnd");
-            return;
-        }
-
-        // FixedRoute: Calculate gaps between fixed stops
         RouteStop firstStop = vehicle.getNextStop();
-        
-        if (firstStop == null) {
-            // No stops assigned yet - full day available
-            LocalDateTime workStart = LocalDateTime.now().withHour(8).withMinute(0).withSecond(0);
-            LocalDateTime workEnd = LocalDateTime.now().withHour(18).withMinute(0).withSecond(0);
-            
-            scoreDirector.beforeVariableChanged(vehicle, "availableTimeWindowStart");
-            scoreDirector.beforeVariableChanged(vehicle, "availableTimeWindowEnd");
-            vehicle.setAvailableTimeWindowStart(workStart);
-            vehicle.setAvailableTimeWindowEnd(workEnd);
-            scoreDirector.afterVariableChanged(vehicle, "availableTimeWindowStart");
-            scoreDirector.afterVariableChanged(vehicle, "availableTimeWindowEnd");
+
+        if (!vehicle.isFixedRoute() || firstStop == null) {
+            // Regular vehicle or no stops assigned yet: full shift available
+            setWindow(scoreDirector, vehicle, vehicle.getShiftStartTime(), vehicle.getShiftEndTime());
             return;
         }
 
@@ -92,30 +71,31 @@ public class AvailableTimeWindowUpdatingVariableListener implements VariableList
         // For MVP: Use first available gap (between first and second stop)
         RouteStop current = firstStop;
         RouteStop next = current.getNextStop();
-        
-        LocalDateTime windowStart = null;
-        LocalDateTime windowEnd = null;
-        
+
+        Long windowStart = null;
+        Long windowEnd = null;
+
         if (next != null && current.getArrivalTime() != null && next.getArrivalTime() != null) {
             // Gap between two stops
-            long serviceTimeMinutes = 15; // Average service time
-            windowStart = current.getArrivalTime().plusMinutes(serviceTimeMinutes);
-            windowEnd = next.getArrivalTime().minusMinutes(serviceTimeMinutes);
-            
+            windowStart = current.getDepartureTime();
+            windowEnd = next.getArrivalTime() - next.getServiceDurationSeconds();
+
             // Ensure minimum gap of 30 minutes for ad-hoc stop
-            if (Duration.between(windowStart, windowEnd).toMinutes() < 30) {
+            if (windowEnd - windowStart < MIN_AD_HOC_GAP_SECONDS) {
                 windowStart = null;
                 windowEnd = null;
             }
-        } else {
+        } else if (current.getArrivalTime() != null) {
             // No gap found - use end of route
-            if (current.getArrivalTime() != null) {
-                long serviceTimeMinutes = 15;
-                windowStart = current.getArrivalTime().plusMinutes(serviceTimeMinutes);
-                windowEnd = LocalDateTime.now().withHour(18).withMinute(0).withSecond(0);
-            }
+            windowStart = current.getDepartureTime();
+            windowEnd = vehicle.getShiftEndTime();
         }
-        
+
+        setWindow(scoreDirector, vehicle, windowStart, windowEnd);
+    }
+
+    private void setWindow(ScoreDirector<VehicleRoutingSolution> scoreDirector, Vehicle vehicle,
+            Long windowStart, Long windowEnd) {
         scoreDirector.beforeVariableChanged(vehicle, "availableTimeWindowStart");
         scoreDirector.beforeVariableChanged(vehicle, "availableTimeWindowEnd");
         vehicle.setAvailableTimeWindowStart(windowStart);
@@ -0,0 +1,180 @@
+package com.example.planning_service.domain.timefold;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed distance/duration matrix for a single solve (Problem Fact).
+ *
+ * Built once in TimefoldOptimizer.mapToProblem() so that VoidConstraintProvider
+ * and ArrivalTimeUpdatingVariableListener only do array lookups instead of
+ * recomputing haversine (and allocating Location objects) for every move.
+ *
+ * Every distinct coordinate gets one location index. Vehicles sharing a depot
+ * share the same index, so the matrix stays as small as possible.
+ * Distances are stored row-major in a dense long[] (meters) and int[] (seconds).
+ */
+public final class DistanceMatrix {
+
+    private static final double EARTH_RADIUS_METERS = 6371000;
+
+    /**
+     * Average urban speed used to derive travel durations from distances
+     */
+    public static final double AVERAGE_SPEED_KMH = 40.0;
+
+    /**
+     * Road/straight-line ratio of the haversine estimate - the same default as
+     * routing.fallback-detour-factor, so cells without a road distance (no matrix,
+     * stops added after the matrix was built) are not shorter than provider cells
+     */
+    public static final double DETOUR_FACTOR = 1.3;
+
+    private final int size;
+    private final long[] distanceMeters;
+    private final int[] durationSeconds;
+
+    private DistanceMatrix(int size, long[] distanceMeters, int[] durationSeconds) {
+        this.size = size;
+        this.distanceMeters = distanceMeters;
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * Computes the cells for the indexed coordinates (first {@code size} entries
+     * of the arrays are used)
+     */
+    @FunctionalInterface
+    public interface Calculator {
+        DistanceMatrix calculate(int size, double[] latitudes, double[] longitudes);
+    }
+
+    /**
+     * Index the locations of all vehicles and stops, compute a haversine x
+     * DETOUR_FACTOR matrix and attach it (together with each standstill's location index) to the domain objects.
+     */
+    public static DistanceMatrix build(List<Vehicle> vehicles, List<RouteStop> stops) {
+        return build(vehicles, stops,
+                (size, latitudes, longitudes) -> haversine(size, latitudes, longitudes, AVERAGE_SPEED_KMH, DETOUR_FACTOR));
+    }
+
+    /**
+     * Same as {@link #build(List, List)}, with the cells supplied by the given
+     * calculator (e.g. road distances from a DistanceProvider).
+     */
+    public static DistanceMatrix build(List<Vehicle> vehicles, List<RouteStop> stops, Calculator calculator) {
+        Map<Coordinate, Integer> indexByCoordinate = new HashMap<>();
+        int capacity = vehicles.size() + stops.size();
+        double[] latitudes = new double[capacity];
+        double[] longitudes = new double[capacity];
+        int[] count = { 0 };
+
+        for (Vehicle vehicle : vehicles) {
+            Location location = vehicle.getLocation();
+            vehicle.setLocationIndex(location != null && location.getLatitude() != null
+                    && location.getLongitude() != null
+                            ? indexOf(location.getLatitude(), location.getLongitude(), indexByCoordinate, latitudes,
+                                    longitudes, count)
+                            : -1);
+        }
+        for (RouteStop stop : stops) {
+            Double lat = stop.getLatitude();
+            Double lon = stop.getLongitude();
+            stop.setLocationIndex(lat != null && lon != null
+                    ? indexOf(lat, lon, indexByCoordinate, latitudes, longitudes, count)
+                    : -1);
+        }
+
+        DistanceMatrix matrix = calculator.calculate(count[0], latitudes, longitudes);
+        vehicles.forEach(vehicle -> vehicle.setDistanceMatrix(matrix));
+        stops.forEach(stop -> stop.setDistanceMatrix(matrix));
+        return matrix;
+    }
+
+    /**
+     * Wrap precomputed row-major arrays (not copied)
+     */
+    public static DistanceMatrix of(int size, long[] distanceMeters, int[] durationSeconds) {
+        if (distanceMeters.length != size * size || durationSeconds.length != size * size) {
+            throw new IllegalArgumentException("Matrix arrays must have " + size + "x" + size + " cells");
+        }
+        return new DistanceMatrix(size, distanceMeters, durationSeconds);
+    }
+
+    /**
+     * Build a matrix from raw coordinate arrays (first {@code size} entries are used)
+     */
+    public static DistanceMatrix haversine(int size, double[] latitudes, double[] longitudes, double speedKmh) {
+        return haversine(size, latitudes, longitudes, speedKmh, 1.0);
+    }
+
+    /**
+     * Same as {@link #haversine(int, double[], double[], double)} with straight-line
+     * distances multiplied by the detour factor
+     */
+    public static DistanceMatrix haversine(int size, double[] latitudes, double[] longitudes, double speedKmh,
+            double detourFactor) {
+        long[] distances = new long[size * size];
+        int[] durations = new int[size * size];
+        double metersPerSecond = speedKmh * 1000.0 / 3600.0;
+
+        for (int from = 0; from < size; from++) {
+            int row = from * size;
+            for (int to = from + 1; to < size; to++) {
+                double meters = haversineMeters(latitudes[from], longitudes[from], latitudes[to], longitudes[to])
+                        * detourFactor;
+                long roundedMeters = Math.round(meters);
+                int seconds = (int) Math.round(meters / metersPerSecond);
+                distances[row + to] = roundedMeters;
+                distances[to * size + from] = roundedMeters;
+                durations[row + to] = seconds;
+                durations[to * size + from] = seconds;
+            }
+        }
+        return new DistanceMatrix(size, distances, durations);
+    }
+
+    private static int indexOf(double lat, double lon, Map<Coordinate, Integer> indexByCoordinate,
+            double[] latitudes, double[] longitudes, int[] count) {
+        return indexByCoordinate.computeIfAbsent(new Coordinate(lat, lon), key -> {
+            int index = count[0]++;
+            latitudes[index] = lat;
+            longitudes[index] = lon;
+            return index;
+        });
+    }
+
+    private record Coordinate(double latitude, double longitude) {
+    }
+
+    /**
+     * Haversine formula for distance calculation (meters)
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_METERS * c;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getDistanceMeters(int fromIndex, int toIndex) {
+        return distanceMeters[fromIndex * size + toIndex];
+    }
+
+    public int getDurationSeconds(int fromIndex, int toIndex) {
+        return durationSeconds[fromIndex * size + toIndex];
+    }
+}
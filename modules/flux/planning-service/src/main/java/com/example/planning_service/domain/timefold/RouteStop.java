@@ -1,6 +1,7 @@
 package com.example.planning_service.domain.timefold;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.entity.PlanningPin;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.variable.PlanningVariable;
 import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
@@ -11,7 +12,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 
 /**
  * Planning Entity - Represents a delivery stop in a route
@@ -39,10 +39,10 @@ public class RouteStop extends Standstill {
     private Vehicle vehicle;
 
     /**
-     * Demand / Size of the order
+     * Demand / Size of the order (fixed-point, see ScaledUnits)
      */
-    private BigDecimal demandWeight;
-    private BigDecimal demandVolume;
+    private long demandWeightGrams;
+    private long demandVolumeCm3;
 
     /**
      * PLANNING VARIABLE: Previous stop in the route chain
@@ -52,13 +52,20 @@ public class RouteStop extends Standstill {
             "stopRange" }, graphType = ai.timefold.solver.core.api.domain.variable.PlanningVariableGraphType.CHAINED)
     private Standstill previousStandstill;
 
+    /**
+     * Pinned stops (already executed / vehicle on its way) keep their place in the chain.
+     * Set only by IncrementalReplanner - regular solves start unpinned.
+     */
+    @PlanningPin
+    private boolean pinned;
+
     // nextStop is inherited from Standstill
 
     /**
-     * Calculated arrival time at this stop (shadow variable)
+     * Calculated arrival time at this stop in epoch seconds (shadow variable)
      */
     @ShadowVariable(variableListenerClass = ArrivalTimeUpdatingVariableListener.class, sourceVariableName = "previousStandstill")
-    private LocalDateTime arrivalTime;
+    private Long arrivalTime;
 
     /**
      * Location coordinates (Problem Fact)
@@ -72,14 +79,14 @@ public class RouteStop extends Standstill {
     private long serviceDurationSeconds;
 
     /**
-     * Time Window Start
+     * Time Window Start (epoch seconds)
      */
-    private LocalDateTime minStartTime;
+    private Long minStartTime;
 
     /**
-     * Time Window End
+     * Time Window End (epoch seconds)
      */
-    private LocalDateTime maxEndTime;
+    private Long maxEndTime;
 
     /**
      * Get location of this stop
@@ -105,11 +112,17 @@ public class RouteStop extends Standstill {
 
     // Compatibility methods for TimefoldOptimizer
     public Double getLatitude() {
+        if (latitude != null) {
+            return latitude;
+        }
         Location loc = getLocation();
         return loc != null ? loc.getLatitude() : null;
     }
 
     public Double getLongitude() {
+        if (longitude != null) {
+            return longitude;
+        }
         Location loc = getLocation();
         return loc != null ? loc.getLongitude() : null;
     }
@@ -120,11 +133,15 @@ public class RouteStop extends Standstill {
 
     /**
      * Calculate distance from previous stop (in meters)
+     * Uses the precomputed DistanceMatrix when available (hot path during solving)
      */
     public double getDistanceFromPreviousMeters() {
         if (previousStandstill == null) {
             return 0.0;
         }
+        if (hasMatrixEntry()) {
+            return distanceMatrix.getDistanceMeters(previousStandstill.getLocationIndex(), locationIndex);
+        }
         Location prev = previousStandstill.getLocation();
         Location current = getLocation();
 
@@ -132,60 +149,80 @@ public class RouteStop extends Standstill {
             return 0.0;
         }
 
-        return calculateHaversineDistance(prev, current);
+        // Same estimate as the haversine matrix cells
+        return DistanceMatrix.haversineMeters(prev.getLatitude(), prev.getLongitude(),
+                current.getLatitude(), current.getLongitude()) * DistanceMatrix.DETOUR_FACTOR;
     }
 
     /**
      * Calculate travel time from previous stop (in minutes)
      */
     public long getTravelTimeMinutes() {
+        if (previousStandstill != null && hasMatrixEntry()) {
+            return Math.round(
+                    distanceMatrix.getDurationSeconds(previousStandstill.getLocationIndex(), locationIndex) / 60.0);
+        }
         double distanceKm = getDistanceFromPreviousMeters() / 1000.0;
-        double avgSpeedKmh = 40.0; // Average urban speed
+        double avgSpeedKmh = DistanceMatrix.AVERAGE_SPEED_KMH; // Average urban speed
         return Math.round((distanceKm / avgSpeedKmh) * 60.0);
     }
 
     /**
-     * Haversine formula for distance calculation
+     * Calculate travel time from previous stop (in seconds)
      */
-    private static double calculateHaversineDistance(Location from, Location to) {
-        double R = 6371000; // Earth radius in meters
-        double lat1 = Math.toRadians(from.getLatitude());
-        double lat2 = Math.toRadians(to.getLatitude());
-        double dLat = Math.toRadians(to.getLatitude() - from.getLatitude());
-        double dLon = Math.toRadians(to.getLongitude() - from.getLongitude());
+    public long getTravelTimeSeconds() {
+        if (previousStandstill != null && hasMatrixEntry()) {
+            return distanceMatrix.getDurationSeconds(previousStandstill.getLocationIndex(), locationIndex);
+        }
+        double metersPerSecond = DistanceMatrix.AVERAGE_SPEED_KMH * 1000.0 / 3600.0;
+        return Math.round(getDistanceFromPreviousMeters() / metersPerSecond);
+    }
 
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(lat1) * Math.cos(lat2) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    /**
+     * Time the vehicle leaves this stop (epoch seconds), null if not yet scheduled
+     */
+    public Long getDepartureTime() {
+        return arrivalTime != null ? arrivalTime + serviceDurationSeconds : null;
+    }
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    private boolean hasMatrixEntry() {
+        return distanceMatrix != null && locationIndex >= 0 && previousStandstill.getLocationIndex() >= 0;
+    }
 
-        return R * c;
+    /**
+     * Get order value in grosze (for profit calculation)
+     */
+    public long getOrderValueGrosze() {
+        // TODO: Implement EAV properties lookup or use PackageDto value
+        // For now, return default value (100 PLN)
+        return 10_000L;
     }
 
     /**
-     * Get order value (for profit calculation)
+     * Get order value in PLN (reporting only, never used by the solver)
      */
     public BigDecimal getOrderValue() {
-        // TODO: Implement EAV properties lookup or use PackageDto value
-        // For now, return default value
-        return BigDecimal.valueOf(100.0);
+        return ScaledUnits.groszeToPln(getOrderValueGrosze());
     }
 
     /**
-     * Check if this stop violates SLA
+     * Latest allowed arrival (epoch seconds): time window end, else the order SLA; null if none
      */
-    public boolean isLate() {
-        if (arrivalTime == null) {
-            return false;
-        }
+    public Long getDeadline() {
         if (maxEndTime != null) {
-            return arrivalTime.isAfter(maxEndTime);
+            return maxEndTime;
         }
         if (order == null || order.delivery() == null || order.delivery().sla() == null) {
-            return false;
+            return null;
         }
-        return arrivalTime
-                .isAfter(java.time.LocalDateTime.ofInstant(order.delivery().sla(), java.time.ZoneId.systemDefault()));
+        return order.delivery().sla().getEpochSecond();
+    }
+
+    /**
+     * Check if this stop violates SLA
+     */
+    public boolean isLate() {
+        Long deadline = getDeadline();
+        return arrivalTime != null && deadline != null && arrivalTime > deadline;
     }
 }
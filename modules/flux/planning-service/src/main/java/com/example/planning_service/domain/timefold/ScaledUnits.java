@@ -0,0 +1,84 @@
+package com.example.planning_service.domain.timefold;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Fixed-point conversion layer for the Timefold model.
+ *
+ * The solver works exclusively on integers so the hot constraint loop never
+ * allocates BigDecimal:
+ * - weight in grams,
+ * - volume in cubic centimeters,
+ * - money in grosze (1 PLN = 100 gr),
+ * - time in seconds (instants as epoch seconds).
+ *
+ * Conversions happen only at the mapToProblem / mapToRoutes boundary.
+ */
+public final class ScaledUnits {
+
+    public static final long GRAMS_PER_KILOGRAM = 1_000L;
+    public static final long CUBIC_CENTIMETERS_PER_CUBIC_METER = 1_000_000L;
+    public static final long GROSZE_PER_PLN = 100L;
+
+    private ScaledUnits() {
+    }
+
+    public static long kilogramsToGrams(BigDecimal kilograms) {
+        return scale(kilograms, GRAMS_PER_KILOGRAM);
+    }
+
+    public static long kilogramsToGrams(Double kilograms) {
+        return kilograms != null ? Math.round(kilograms * GRAMS_PER_KILOGRAM) : 0L;
+    }
+
+    public static BigDecimal gramsToKilograms(long grams) {
+        return BigDecimal.valueOf(grams, 3);
+    }
+
+    public static long cubicMetersToCubicCentimeters(BigDecimal cubicMeters) {
+        return scale(cubicMeters, CUBIC_CENTIMETERS_PER_CUBIC_METER);
+    }
+
+    public static long cubicMetersToCubicCentimeters(Double cubicMeters) {
+        return cubicMeters != null ? Math.round(cubicMeters * CUBIC_CENTIMETERS_PER_CUBIC_METER) : 0L;
+    }
+
+    public static BigDecimal cubicCentimetersToCubicMeters(long cubicCentimeters) {
+        return BigDecimal.valueOf(cubicCentimeters, 6);
+    }
+
+    public static long plnToGrosze(BigDecimal pln) {
+        return scale(pln, GROSZE_PER_PLN);
+    }
+
+    public static BigDecimal groszeToPln(long grosze) {
+        return BigDecimal.valueOf(grosze, 2);
+    }
+
+    public static Long toEpochSecond(Instant instant) {
+        return instant != null ? instant.getEpochSecond() : null;
+    }
+
+    public static Instant toInstant(Long epochSecond) {
+        return epochSecond != null ? Instant.ofEpochSecond(epochSecond) : null;
+    }
+
+    public static LocalDateTime toLocalDateTime(Long epochSecond) {
+        return epochSecond != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault())
+                : null;
+    }
+
+    private static long scale(BigDecimal value, long factor) {
+        if (value == null) {
+            return 0L;
+        }
+        return value.multiply(BigDecimal.valueOf(factor))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -24,4 +24,30 @@ public abstract class Standstill {
     public void setNextStop(RouteStop nextStop) {
         this.nextStop = nextStop;
     }
+
+    /**
+     * Index into the solution's DistanceMatrix (-1 if the location is unknown)
+     */
+    protected int locationIndex = -1;
+
+    /**
+     * Shared matrix of the solve this standstill belongs to (null outside solving)
+     */
+    protected DistanceMatrix distanceMatrix;
+
+    public int getLocationIndex() {
+        return locationIndex;
+    }
+
+    public void setLocationIndex(int locationIndex) {
+        this.locationIndex = locationIndex;
+    }
+
+    public DistanceMatrix getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    public void setDistanceMatrix(DistanceMatrix distanceMatrix) {
+        this.distanceMatrix = distanceMatrix;
+    }
 }
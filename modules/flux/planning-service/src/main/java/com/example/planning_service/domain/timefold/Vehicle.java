@@ -27,10 +27,10 @@ public class Vehicle extends Standstill {
     private Location location;
 
     /**
-     * Capacity constraints
+     * Capacity constraints (fixed-point, see ScaledUnits)
      */
-    private BigDecimal capacityWeight; // kg
-    private BigDecimal capacityVolume; // m³
+    private long capacityWeightGrams;
+    private long capacityVolumeCm3;
 
     /**
      * Special capabilities (e.g., "REFRIGERATED", "HAZMAT")
@@ -55,17 +55,29 @@ public class Vehicle extends Standstill {
     // Shadow Variable: Capacity remaining after fixed stops
     // In MVP this is pre-calculated during mapping, but ideally updated by
     // listeners
-    private BigDecimal remainingCapacityWeight;
-    private BigDecimal remainingCapacityVolume;
+    private long remainingCapacityWeightGrams;
+    private long remainingCapacityVolumeCm3;
 
     /**
-     * Shadow Variable: Available time window for ad-hoc stops
+     * Planning start: time the vehicle leaves the depot (epoch seconds)
+     * Set once per problem so that scores are deterministic
+     */
+    private long departureTime;
+
+    /**
+     * Working day of the vehicle (epoch seconds)
+     */
+    private long shiftStartTime;
+    private long shiftEndTime;
+
+    /**
+     * Shadow Variable: Available time window for ad-hoc stops (epoch seconds)
      * Calculated based on fixed stops and assigned stops
      * Updated by AvailableTimeWindowUpdatingVariableListener
      */
     @ai.timefold.solver.core.api.domain.variable.ShadowVariable(variableListenerClass = AvailableTimeWindowUpdatingVariableListener.class, sourceVariableName = "nextStop")
-    private java.time.LocalDateTime availableTimeWindowStart;
-    private java.time.LocalDateTime availableTimeWindowEnd;
+    private Long availableTimeWindowStart;
+    private Long availableTimeWindowEnd;
 
     // nextStop is inherited from Standstill
 
@@ -6,7 +6,7 @@ import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
 import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty;
 import ai.timefold.solver.core.api.domain.solution.ProblemFactProperty;
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
-import ai.timefold.solver.core.api.score.buildin.hardsoftbigdecimal.HardSoftBigDecimalScore;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import com.example.danxils_commons.dto.OrderResponseDto;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -57,11 +57,18 @@ public class VehicleRoutingSolution {
     @ProblemFactProperty
     private Location depot;
 
+    /**
+     * Precomputed distance/duration lookups for all standstills (PROBLEM FACT)
+     */
+    @ProblemFactProperty
+    private DistanceMatrix distanceMatrix;
+
     /**
      * PLANNING SCORE (hard/soft constraints evaluation)
+     * Soft level is expressed in grosze, see ScaledUnits
      */
     @PlanningScore
-    private HardSoftBigDecimalScore score;
+    private HardSoftLongScore score;
 
     /**
      * Optimization ID for tracking
@@ -85,9 +92,9 @@ public class VehicleRoutingSolution {
             return java.math.BigDecimal.ZERO;
         }
 
-        return stops.stream()
+        return ScaledUnits.groszeToPln(stops.stream()
                 .filter(stop -> stop.getVehicle() != null)
-                .map(RouteStop::getOrderValue)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
+                .mapToLong(RouteStop::getOrderValueGrosze)
+                .sum());
     }
 }
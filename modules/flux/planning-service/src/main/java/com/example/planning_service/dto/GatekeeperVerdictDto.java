@@ -0,0 +1,25 @@
+package com.example.planning_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Gatekeeper verdict sent on /topic/gatekeeper-verdicts once the justification
+ * for an approval request (OptimizationUpdateDto.approvalId) is ready
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatekeeperVerdictDto {
+    private String optimizationId;
+    private String approvalId;
+    private String justification;
+    private double scoreChangePercent;
+    private List<String> warnings;
+    private String source; // WEBHOOK, FALLBACK, CACHED
+}
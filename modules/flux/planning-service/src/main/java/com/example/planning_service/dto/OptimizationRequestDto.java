@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -20,4 +21,5 @@ public class OptimizationRequestDto {
     private List<UUID> orderIds;
     private UUID profileId;
     private Map<String, Object> constraints;
+    private Instant planningStart; // Optional: overrides app.vrp.planning-start for this request
 }
@@ -13,14 +13,27 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OptimizationUpdateDto {
-    private String solverStatus; // SOLVING, FINISHED_EARLY, ETC
+    private String optimizationId;
+    private String solverStatus; // SOLVING, FINISHED, PROPOSED
     private String score;
     private long scoreCalculationCount;
+
+    /**
+     * Delta stream (see OptimizationUpdatePublisher): sequence is consecutive per
+     * optimizationId. Full snapshot = all routes, replace everything; otherwise
+     * routes holds only changed routes and removedVehicleIds the dropped ones.
+     */
+    private long sequence;
+    private boolean fullSnapshot;
     private List<RouteDto> routes;
+    private List<String> removedVehicleIds;
 
     // Gatekeeper Approval
     private Boolean requiresApproval;
     private List<String> warnings;
+    private String approvalId;
+    private Double scoreChangePercent;
+    private String justification; // null until the verdict arrives on /topic/gatekeeper-verdicts
 
     // Simplified Internal DTO for Map Visualization
     @Data
@@ -0,0 +1,32 @@
+package com.example.planning_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset page of route assignments (newest first).
+ * The next page is requested with afterCreatedAt = nextCreatedAt and
+ * afterId = nextId - no offset, no count query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteAssignmentKeysetPageDto {
+
+    private List<RouteAssignmentResponseDto> items;
+
+    /**
+     * Cursor of the last item (null when the page is empty)
+     */
+    private Instant nextCreatedAt;
+    private UUID nextId;
+
+    private boolean hasMore;
+}
@@ -19,6 +19,8 @@ public class RouteStopDto {
     private double lon;
     private UUID orderId;
     private Instant plannedArrival;
+    private Instant timeWindowStart;
+    private Instant timeWindowEnd;
 
     // Additional fields for driver app if needed, based on usage in DriverService
     // DriverService uses: sequence, address, timeWindow, estimatedArrival, status,
@@ -37,4 +39,7 @@ public class RouteStopDto {
     private String status;
     private String customerName;
     private Integer packageCount;
+
+    // Stop stays at its position when the route is resequenced (milk-run skeleton)
+    private Boolean fixed;
 }
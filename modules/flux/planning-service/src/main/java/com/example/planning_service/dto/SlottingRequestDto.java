@@ -1,6 +1,8 @@
 package com.example.planning_service.dto;
 
 import lombok.Data;
+
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -10,4 +12,10 @@ public class SlottingRequestDto {
     private double volume;
     private double lat;
     private double lon;
+
+    /**
+     * Delivery window (optional, open side = no bound)
+     */
+    private LocalDateTime timeWindowStart;
+    private LocalDateTime timeWindowEnd;
 }
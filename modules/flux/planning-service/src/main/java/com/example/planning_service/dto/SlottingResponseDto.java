@@ -2,6 +2,8 @@ package com.example.planning_service.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -10,4 +12,10 @@ public class SlottingResponseDto {
     private boolean success;
     private UUID routeId;
     private String message;
+    private Integer sequence;
+    private LocalDateTime predictedArrivalTime;
+
+    public static SlottingResponseDto rejected(String message) {
+        return new SlottingResponseDto(false, null, message, null, null);
+    }
 }
@@ -28,8 +28,8 @@ public class VehicleRoutingSolutionDto {
     private String problemId;
 
     /**
-     * Final score (HardSoftBigDecimal format)
-     * Example: "0hard/962.1017soft"
+     * Final score (HardSoftLong format, soft level in grosze)
+     * Example: "0hard/96210soft"
      */
     private String score;
 
@@ -0,0 +1,61 @@
+package com.example.planning_service.entity;
+
+import com.example.planning_service.batch.BatchAggregator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Durable copy of a BatchAggregator entry (one row per pending order).
+ *
+ * PENDING rows are replayed into memory on startup; CLAIMED rows belong to a
+ * batch being optimized and are deleted on ack or returned to PENDING on
+ * release / restart.
+ */
+@Entity
+@Table(name = "order_batch_queue", indexes = {
+        @Index(name = "idx_order_batch_queue_status", columnList = "status"),
+        @Index(name = "idx_order_batch_queue_claim_id", columnList = "claimId")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchQueueEntryEntity {
+
+    @Id
+    private UUID orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BatchAggregator.OrderPriority priority;
+
+    @Column(nullable = false)
+    private Instant enqueuedAt;
+
+    /**
+     * Delivery coordinates from OrderCreatedEvent (nullable) - used to split
+     * large batches by hub and geography without fetching the orders first
+     */
+    private Double latitude;
+
+    private Double longitude;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private UUID claimId;
+
+    private Instant claimedAt;
+
+    public enum Status {
+        PENDING,
+        CLAIMED
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.planning_service.entity;
 
+import com.example.planning_service.service.FleetSnapshotChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -13,6 +15,7 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "planning_carrier_compliance")
+@EntityListeners(FleetSnapshotChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
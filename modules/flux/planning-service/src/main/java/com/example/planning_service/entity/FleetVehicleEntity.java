@@ -1,8 +1,10 @@
 // File: planning-service/src/main/java/com/example/planning_service/entity/FleetVehicleEntity.java
 package com.example.planning_service.entity;
 
+import com.example.planning_service.service.FleetSnapshotChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -18,8 +20,9 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "planning_fleet_vehicles")
+@EntityListeners(FleetSnapshotChangeListener.class)
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class FleetVehicleEntity {
@@ -49,6 +52,13 @@ public class FleetVehicleEntity {
     @Column(name = "carrier_id")
     private String carrierId;
 
+    /**
+     * Hub bazowy pojazdu (auto-plan.hubs[].id). Null = pojazd przydzielany
+     * do hubów wg popytu przez HubVehicleAllocator.
+     */
+    @Column(name = "home_hub_id")
+    private String homeHubId;
+
     // --- Elastic Shell (Milkrun) Properties ---
 
     @Column(name = "is_fixed_route")
@@ -0,0 +1,46 @@
+package com.example.planning_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * ARCHITEKTURA: Read model rozwiązania optymalizacji
+ *
+ * Gotowy JSON odpowiedzi zapisywany raz, przy /optimization/optimize:
+ * - routesJson: trasy (VehicleRoutingSolution) dla /latest i /routes/{id},
+ * - fullSolutionJson: pełne rozwiązanie z metadanymi Timefold
+ * (VehicleRoutingSolutionDto) dla /solution.
+ * Odczyt nie uruchamia solvera ponownie i nie mapuje rozwiązania od nowa.
+ * Klucz = id rozwiązania z planning_solutions.
+ */
+@Entity
+@Table(name = "planning_solution_views",
+        indexes = @Index(name = "idx_solution_views_created_at", columnList = "createdAt"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizationSolutionViewEntity {
+
+    @Id
+    private UUID solutionId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "routes_json", columnDefinition = "TEXT", nullable = false)
+    private String routesJson;
+
+    @Column(name = "full_solution_json", columnDefinition = "TEXT")
+    private String fullSolutionJson;
+}
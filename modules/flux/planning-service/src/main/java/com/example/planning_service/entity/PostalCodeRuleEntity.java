@@ -1,5 +1,6 @@
 package com.example.planning_service.entity;
 
+import com.example.planning_service.service.PostalCodeRuleChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,6 +11,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "planning_postal_code_rules")
+@EntityListeners(PostalCodeRuleChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
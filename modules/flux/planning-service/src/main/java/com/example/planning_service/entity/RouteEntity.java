@@ -34,6 +34,15 @@ public class RouteEntity extends BaseVoidEntity {
     @jakarta.persistence.AttributeOverride(name = "coordinates", column = @Column(name = "current_coordinates"))
     private LocationPoint currentLocation;
 
+    // Driver position the stored ETAs were calculated from (SentinelService skips routes that have not moved)
+    @jakarta.persistence.Embedded
+    @jakarta.persistence.AttributeOverride(name = "coordinates", column = @Column(name = "eta_origin_coordinates"))
+    private LocationPoint etaOrigin;
+
+    // When SentinelService last wrote the stop ETAs (lastUpdated is bumped by every route write, e.g. slotting)
+    @Column(name = "eta_calculated_at")
+    private java.time.LocalDateTime etaCalculatedAt;
+
     @Column(name = "predicted_end_time")
     private java.time.LocalDateTime predictedEndTime;
 
@@ -1,8 +1,10 @@
 package com.example.planning_service.entity;
 
+import com.example.planning_service.service.FleetSnapshotChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -15,6 +17,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "planning_vehicle_profiles")
+@EntityListeners(FleetSnapshotChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
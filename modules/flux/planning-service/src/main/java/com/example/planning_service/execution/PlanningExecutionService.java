@@ -5,8 +5,10 @@ import com.example.danxils_commons.dto.OrderResponseDto;
 // ✅ FIX: Zaktualizowano import do nowej lokalizacji w danxils-commons
 import com.example.danxils_commons.dto.OrderQueryRequestDto;
 import com.example.danxils_commons.event.RoutePlannedEvent;
+import com.example.planning_service.client.OrderBatchFetcher;
 import com.example.planning_service.client.OrderServiceClient;
 import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.HubConfiguration;
 import com.example.planning_service.entity.FleetVehicleEntity;
 import com.example.planning_service.entity.ManifestEntity;
 import com.example.planning_service.entity.OptimizationProfileEntity;
@@ -17,6 +19,7 @@ import com.example.planning_service.repository.FleetVehicleRepository;
 import com.example.planning_service.repository.OptimizationProfileRepository;
 import com.example.planning_service.repository.RoutePlanRepository;
 import com.example.planning_service.repository.VehicleProfileRepository;
+import com.example.planning_service.service.HubService;
 import com.example.planning_service.service.ManifestService;
 import com.example.planning_service.monitoring.OptimizationMetrics;
 import com.example.planning_service.monitoring.SlaAlertService;
@@ -29,7 +32,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -42,6 +48,7 @@ public class PlanningExecutionService {
     private final FleetVehicleRepository vehicleRepository;
     private final OptimizationProfileRepository optimizationProfileRepository;
     private final OrderServiceClient orderServiceClient;
+    private final OrderBatchFetcher orderBatchFetcher;
     private final VrpOptimizerService vrpOptimizer;
     private final ManifestService manifestService;
     private final KafkaTemplate<String, Object> kafkaTemplate;
@@ -50,6 +57,12 @@ public class PlanningExecutionService {
     private final CarrierComplianceRepository carrierComplianceRepository;
     private final OptimizationMetrics metrics;
     private final SlaAlertService slaAlertService;
+    private final HubService hubService;
+
+    /**
+     * Vehicles currently used by a running batch solve (guarded by itself)
+     */
+    private final Set<UUID> leasedVehicleIds = new HashSet<>();
 
     @Transactional
     public void executePlan(UUID planId) {
@@ -78,16 +91,16 @@ public class PlanningExecutionService {
         log.info("Found {} orders to be planned for plan '{}'.", ordersToPlan.size(), plan.getName());
         VrpOptimizerService.VehicleRoutingSolution solution = vrpOptimizer.calculateRoutes(ordersToPlan, availableVehicles, null);
 
-        // Create manifests from VRP solution routes
-        solution.routes().forEach(route -> {
-            // Create manifest entity from route
-            ManifestEntity manifest = manifestService.createManifestFromVehicleRoutingSolution(route, java.time.LocalDate.now());
-            log.info("Created manifest {} for vehicle {}", manifest.getId(), route.vehicleId());
+        // Create manifests for the whole plan (one batch insert), then publish route planned events
+        List<ManifestEntity> manifests = manifestService.createManifestsForPlan(solution.routes(),
+                java.time.LocalDate.now());
+        for (int i = 0; i < manifests.size(); i++) {
+            VrpOptimizerService.VehicleRoutingSolution.Route route = solution.routes().get(i);
+            log.info("Created manifest {} for vehicle {}", manifests.get(i).getId(), route.vehicleId());
 
-            // Publish route planned event
             RoutePlannedEvent event = createEventFromRoute(planId, route);
             publishEvent(appProperties.getKafka().getTopics().getRoutePlanned(), planId.toString(), event);
-        });
+        }
     }
 
     /**
@@ -96,7 +109,7 @@ public class PlanningExecutionService {
      * Używane przez BatchOptimizationScheduler dla auto-planning flow.
      * W przeciwieństwie do executePlan(), ta metoda:
      * - Nie wymaga RoutePlanEntity (batch nie ma "planu", tylko listę zamówień)
-     * - Fetch orders bezpośrednio po IDs (nie przez filtry)
+     * - Fetch orders bezpośrednio po IDs (OrderBatchFetcher, równoległe chunki)
      * - Używa przekazanego profileId dla optimization constraints
      * 
      * @param orderIds  Lista UUID zamówień do optymalizacji
@@ -104,58 +117,88 @@ public class PlanningExecutionService {
      */
     @Transactional
     public void executePlanForOrderIds(List<UUID> orderIds, UUID profileId) {
+        executePlanForOrderIds(orderIds, profileId, null, 1.0);
+    }
+
+    /**
+     * Jak wyżej, ale solve dostaje tylko część floty huba: ceil(fleetShare * flota
+     * huba) pojazdów, które nie są używane przez inny równoległy chunk
+     * (BatchExecutionPipeline). Flota huba = pojazdy z homeHubId tego huba, potem
+     * pojazdy bez (aktywnego) home hub. Pojazdy są zwalniane po utworzeniu manifestów.
+     * Gdy nie zostanie żaden wolny pojazd, rzuca IllegalStateException - pipeline
+     * zwalnia wtedy claim i zamówienia czekają na kolejny batch.
+     *
+     * Zamówienia, których order-service nie zwrócił, nie są zaplanowane - wracają
+     * w wyniku, żeby pipeline oddał je do kolejki zamiast ack. Zwrócone, ale już
+     * nie NEW, są obsłużone (ktoś je zaplanował / anulował).
+     *
+     * @param hubId      hub chunka (null / UNASSIGNED = pojazdy bez home hub, a gdy
+     *                   ich brak - cała flota)
+     * @param fleetShare część floty huba dla tego batcha (0..1]
+     * @return IDs zamówień nie zwróconych przez order-service (do zwolnienia)
+     */
+    @Transactional
+    public List<UUID> executePlanForOrderIds(List<UUID> orderIds, UUID profileId, String hubId, double fleetShare) {
         log.info("Executing batch planning for {} order IDs with profile {}",
-                orderIds.size(), profileId);
+                orderIds == null ? 0 : orderIds.size(), profileId);
 
         // 1. Validate inputs
         if (orderIds == null || orderIds.isEmpty()) {
             log.warn("Empty order IDs list, nothing to plan");
-            return;
+            return List.of();
         }
 
-        // 2. Fetch available vehicles
-        List<FleetVehicleEntity> availableVehicles = getEligibleFleet();
+        // 2. Fetch available vehicles (leased for the duration of this solve)
+        List<FleetVehicleEntity> availableVehicles = leaseVehicles(hubFleet(getEligibleFleet(), hubId), fleetShare);
 
         if (availableVehicles.isEmpty()) {
-            log.warn("No available vehicles in fleet (after compliance check). Cannot execute batch planning.");
-            return;
+            // Not planned - the caller must return the orders to the queue instead of acking them
+            throw new IllegalStateException("No vehicles left to lease for hub " + hubId
+                    + " (after compliance check and leases of parallel chunks)");
         }
         log.info("Found {} available vehicles for batch planning", availableVehicles.size());
 
-        // 3. Fetch orders from order-service by IDs
-        List<OrderResponseDto> ordersToPlan;
         try {
-            // Używamy istniejącego Feign client do pobrania zamówień
-            // Zakładam że OrderServiceClient ma metodę getOrdersByIds() lub podobną
-            // Jeśli nie, trzeba dodać
-
-            // Temporary workaround - pobieramy wszystkie NEW orders i filtrujemy
-            OrderQueryRequestDto query = new OrderQueryRequestDto(
-                    List.of(com.example.danxils_commons.enums.OrderStatus.NEW),
-                    null, // customerIds
-                    null, // postalCodePrefixes
-                    null // priorities
-            );
-            List<OrderResponseDto> allNewOrders = orderServiceClient.queryOrders(query);
-
-            // Filter only requested IDs
-            ordersToPlan = allNewOrders.stream()
-                    .filter(order -> orderIds.contains(order.orderId()))
-                    .collect(Collectors.toList());
-
-            log.info("Fetched {} orders (out of {} requested IDs)",
-                    ordersToPlan.size(), orderIds.size());
+            return planLeasedBatch(orderIds, profileId, availableVehicles);
+        } finally {
+            releaseVehicles(availableVehicles);
+        }
+    }
 
-            if (ordersToPlan.isEmpty()) {
-                log.warn("No orders found for batch IDs, possibly already processed or invalid IDs");
-                return;
-            }
+    private List<UUID> planLeasedBatch(List<UUID> orderIds, UUID profileId,
+            List<FleetVehicleEntity> availableVehicles) {
 
+        // 3. Fetch exactly the requested orders (parallel ID chunks), plan only NEW ones
+        List<OrderResponseDto> fetchedOrders;
+        try {
+            fetchedOrders = orderBatchFetcher.fetch(orderIds);
         } catch (Exception e) {
             log.error("Failed to fetch orders from order-service: {}", e.getMessage(), e);
             throw new RuntimeException("Order fetch failed in batch planning", e);
         }
 
+        Set<UUID> fetchedIds = fetchedOrders.stream()
+                .map(OrderResponseDto::orderId)
+                .collect(Collectors.toSet());
+        List<UUID> missingOrderIds = orderIds.stream()
+                .filter(orderId -> !fetchedIds.contains(orderId))
+                .distinct()
+                .toList();
+        if (!missingOrderIds.isEmpty()) {
+            log.warn("order-service returned {} of {} requested orders, {} go back to the queue",
+                    fetchedIds.size(), orderIds.size(), missingOrderIds.size());
+        }
+
+        List<OrderResponseDto> ordersToPlan = fetchedOrders.stream()
+                .filter(order -> order.status() == com.example.danxils_commons.enums.OrderStatus.NEW)
+                .collect(Collectors.toList());
+        log.info("Fetched {} orders to plan (out of {} requested IDs)", ordersToPlan.size(), orderIds.size());
+
+        if (ordersToPlan.isEmpty()) {
+            log.warn("No NEW orders for batch IDs, already processed or not returned by order-service");
+            return missingOrderIds;
+        }
+
         // 4. Get optimization profile
         OptimizationProfileEntity profile = null;
         if (profileId != null) {
@@ -194,24 +237,26 @@ public class PlanningExecutionService {
         int routeCount = solution.routes().size();
         log.info("✅ Optimization completed: {} routes generated", routeCount);
 
-        // 6. Create manifests from solution
-        solution.routes().forEach(route -> {
-            try {
-                ManifestEntity manifest = manifestService.createManifestFromVehicleRoutingSolution(
-                        route, java.time.LocalDate.now());
-                log.info("Created manifest {} for vehicle {} ({} stops)",
-                        manifest.getId(), route.vehicleId(), route.activities().size());
+        // 6. Create manifests for the whole plan in one transaction (JDBC batch insert)
+        List<ManifestEntity> manifests;
+        try {
+            manifests = manifestService.createManifestsForPlan(solution.routes(), java.time.LocalDate.now());
+        } catch (Exception e) {
+            log.error("Failed to create manifests for {} routes: {}", routeCount, e.getMessage(), e);
+            throw new RuntimeException("Manifest creation failed in batch planning", e);
+        }
 
-                // 7. Publish route planned event
-                RoutePlannedEvent event = createEventFromRoute(null, route); // planId = null for batch
-                publishEvent(appProperties.getKafka().getTopics().getRoutePlanned(),
-                        manifest.getId().toString(), event);
+        // 7. Publish route planned events
+        for (int i = 0; i < manifests.size(); i++) {
+            VrpOptimizerService.VehicleRoutingSolution.Route route = solution.routes().get(i);
+            ManifestEntity manifest = manifests.get(i);
+            log.info("Created manifest {} for vehicle {} ({} stops)",
+                    manifest.getId(), route.vehicleId(), route.activities().size());
 
-            } catch (Exception e) {
-                log.error("Failed to create manifest for vehicle {}: {}",
-                        route.vehicleId(), e.getMessage(), e);
-            }
-        });
+            RoutePlannedEvent event = createEventFromRoute(null, route); // planId = null for batch
+            publishEvent(appProperties.getKafka().getTopics().getRoutePlanned(),
+                    manifest.getId().toString(), event);
+        }
 
         log.info("🌙 Batch planning completed: {} orders processed, {} routes created",
                 ordersToPlan.size(), routeCount);
@@ -222,6 +267,42 @@ public class PlanningExecutionService {
 
         // SLA compliance check
         slaAlertService.checkSlaAfterOptimization(routeCount, ordersToPlan.size());
+        return missingOrderIds;
+    }
+
+    /**
+     * Home-hub vehicles of the hub first, then the shared pool of vehicles without an active home hub
+     */
+    private List<FleetVehicleEntity> hubFleet(List<FleetVehicleEntity> eligible, String hubId) {
+        Set<String> activeHubIds = hubService.getActiveHubs().stream()
+                .map(HubConfiguration::getId)
+                .collect(Collectors.toSet());
+        boolean hubChunk = hubId != null && activeHubIds.contains(hubId);
+        List<FleetVehicleEntity> fleet = eligible.stream()
+                .filter(v -> (hubChunk && hubId.equals(v.getHomeHubId()))
+                        || v.getHomeHubId() == null || !activeHubIds.contains(v.getHomeHubId()))
+                .sorted(Comparator.comparing((FleetVehicleEntity v) -> !hubChunk || !hubId.equals(v.getHomeHubId())))
+                .collect(Collectors.toList());
+        // Orders without a hub and no shared pool - any vehicle may serve them
+        return fleet.isEmpty() && !hubChunk ? eligible : fleet;
+    }
+
+    private List<FleetVehicleEntity> leaseVehicles(List<FleetVehicleEntity> eligible, double fleetShare) {
+        int quota = (int) Math.ceil(eligible.size() * Math.min(1.0, Math.max(0.0, fleetShare)));
+        synchronized (leasedVehicleIds) {
+            List<FleetVehicleEntity> leased = eligible.stream()
+                    .filter(v -> !leasedVehicleIds.contains(v.getId()))
+                    .limit(quota)
+                    .collect(Collectors.toList());
+            leased.forEach(v -> leasedVehicleIds.add(v.getId()));
+            return leased;
+        }
+    }
+
+    private void releaseVehicles(List<FleetVehicleEntity> vehicles) {
+        synchronized (leasedVehicleIds) {
+            vehicles.forEach(v -> leasedVehicleIds.remove(v.getId()));
+        }
     }
 
     private List<FleetVehicleEntity> getEligibleFleet() {
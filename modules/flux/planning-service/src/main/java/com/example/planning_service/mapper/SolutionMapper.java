@@ -96,8 +96,9 @@ public class SolutionMapper {
                                 .id(vehicle.getId())
                                 .name(vehicle.getName())
                                 .location(mapLocation(vehicle.getLocation()))
-                                .capacityWeight(vehicle.getCapacityWeight())
-                                .capacityVolume(vehicle.getCapacityVolume())
+                                .capacityWeight(ScaledUnits.gramsToKilograms(vehicle.getCapacityWeightGrams()))
+                                .capacityVolume(ScaledUnits.cubicCentimetersToCubicMeters(
+                                                vehicle.getCapacityVolumeCm3()))
                                 .skillSet(vehicle.getSkillSet())
                                 .driverId(vehicle.getDriverId())
                                 .driverName(vehicle.getDriverName())
@@ -149,16 +150,16 @@ public class SolutionMapper {
                                 .id(stop.getId())
                                 .order(stop.getOrder())
                                 .vehicleId(vehicleId)
-                                .demandWeight(stop.getDemandWeight())
-                                .demandVolume(stop.getDemandVolume())
+                                .demandWeight(ScaledUnits.gramsToKilograms(stop.getDemandWeightGrams()))
+                                .demandVolume(ScaledUnits.cubicCentimetersToCubicMeters(stop.getDemandVolumeCm3()))
                                 .previousStandstill(prevRef)
                                 .nextStopId(nextStopId)
-                                .arrivalTime(stop.getArrivalTime())
+                                .arrivalTime(ScaledUnits.toLocalDateTime(stop.getArrivalTime()))
                                 .latitude(stop.getLatitude())
                                 .longitude(stop.getLongitude())
                                 .serviceDurationSeconds(stop.getServiceDurationSeconds())
-                                .minStartTime(stop.getMinStartTime())
-                                .maxEndTime(stop.getMaxEndTime())
+                                .minStartTime(ScaledUnits.toLocalDateTime(stop.getMinStartTime()))
+                                .maxEndTime(ScaledUnits.toLocalDateTime(stop.getMaxEndTime()))
                                 .build();
         }
 
@@ -1,6 +1,7 @@
 package com.example.planning_service.monitoring;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -201,6 +202,231 @@ public class OptimizationMetrics {
         }
     }
 
+    // ===== URGENT RE-PLAN METRICS =====
+
+    /**
+     * Record latency of an urgent order re-plan (event -> updated plan)
+     *
+     * @param outcome APPLIED, PROPOSED, REJECTED or FAILED
+     */
+    public void recordUrgentReplan(String outcome, Duration latency) {
+        Timer.builder("optimization.urgent.replan")
+                .tag("outcome", outcome)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(latency);
+    }
+
+    // ===== LIVE UPDATE METRICS =====
+
+    /**
+     * Record an update sent on /topic/optimization-updates
+     */
+    public void recordUpdatePublished(boolean fullSnapshot) {
+        Counter.builder("optimization.updates.published")
+                .tag("type", fullSnapshot ? "full" : "delta")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a best solution replaced by a newer one before it was sent
+     */
+    public void recordUpdateDropped() {
+        Counter.builder("optimization.updates.dropped")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // ===== GATEKEEPER METRICS =====
+
+    /**
+     * Record a published Gatekeeper verdict (source: WEBHOOK, FALLBACK, CACHED)
+     * and the time from the request to the verdict
+     */
+    public void recordGatekeeperVerdict(String source, Duration latency) {
+        Timer.builder("gatekeeper.verdict")
+                .tag("source", source)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(latency);
+    }
+
+    /**
+     * Record a verdict request that did not reach the webhook
+     * (reason: superseded, rejected)
+     */
+    public void recordGatekeeperVerdictSkipped(String reason) {
+        Counter.builder("gatekeeper.verdict.skipped")
+                .tag("reason", reason)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record a failed webhook attempt that will be retried
+     */
+    public void recordGatekeeperWebhookRetry() {
+        Counter.builder("gatekeeper.webhook.retries")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // ===== SLOTTING METRICS =====
+
+    /**
+     * Record a slot request (outcome: ASSIGNED, NO_ROUTE, CONFLICT)
+     */
+    public void recordSlotting(String outcome, Duration latency) {
+        Timer.builder("slotting.assign")
+                .tag("outcome", outcome)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(latency);
+    }
+
+    /**
+     * Record an insertion retried because the route changed since it was computed
+     */
+    public void recordSlottingConflict() {
+        Counter.builder("slotting.conflicts")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // ===== GRAPH TELEMETRY =====
+
+    /**
+     * Record a telemetry batch written to Neo4j (pings received, drivers written)
+     */
+    public void recordGraphTelemetryBatch(int pings, int drivers, Duration duration) {
+        Counter.builder("graph.telemetry.pings")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment(pings);
+        Counter.builder("graph.telemetry.drivers.written")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment(drivers);
+        Timer.builder("graph.telemetry.batch")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Record an ETA sweep over active routes (SentinelService)
+     */
+    public void recordEtaSweep(int recalculated, int unchanged, int skipped, int failed, Duration duration) {
+        Counter.builder("sentinel.eta.routes")
+                .tag("service", "planning")
+                .tag("outcome", "recalculated")
+                .register(meterRegistry)
+                .increment(recalculated);
+        Counter.builder("sentinel.eta.routes")
+                .tag("service", "planning")
+                .tag("outcome", "unchanged")
+                .register(meterRegistry)
+                .increment(unchanged);
+        Counter.builder("sentinel.eta.routes")
+                .tag("service", "planning")
+                .tag("outcome", "skipped")
+                .register(meterRegistry)
+                .increment(skipped);
+        Counter.builder("sentinel.eta.routes")
+                .tag("service", "planning")
+                .tag("outcome", "failed")
+                .register(meterRegistry)
+                .increment(failed);
+        Timer.builder("sentinel.eta.sweep")
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    // ===== SOLVER TELEMETRY =====
+
+    /**
+     * Record a finished solve (SolverTelemetry). Tagged by kind / profile only -
+     * a tag per problemId would create a new time series for every solve;
+     * per-problem detail is served by /actuator/solverTelemetry.
+     */
+    public void recordSolve(SolveRecord record) {
+        String kind = record.kind();
+        String profile = record.profile() != null ? record.profile() : "default";
+
+        Counter.builder("optimization.solver.solves")
+                .tag("kind", kind)
+                .tag("profile", profile)
+                .tag("outcome", record.status())
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment();
+        if ("FAILED".equals(record.status())) {
+            return;
+        }
+
+        recordSolverPhase(kind, profile, "construction_heuristic", record.constructionMillis());
+        recordSolverPhase(kind, profile, "local_search", record.localSearchMillis());
+
+        if (record.timeToFeasibleMillis() != null) {
+            Timer.builder("optimization.solver.time.to.feasible")
+                    .description("Time from submission to the first feasible best solution")
+                    .tag("kind", kind)
+                    .tag("profile", profile)
+                    .tag("service", "planning")
+                    .register(meterRegistry)
+                    .record(Duration.ofMillis(record.timeToFeasibleMillis()));
+        } else {
+            Counter.builder("optimization.solver.infeasible")
+                    .description("Solves that never reached a feasible solution")
+                    .tag("kind", kind)
+                    .tag("profile", profile)
+                    .tag("service", "planning")
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        DistributionSummary.builder("optimization.solver.score.calculation.speed")
+                .description("Score calculations per second of a solve")
+                .baseUnit("calculations/s")
+                .tag("kind", kind)
+                .tag("profile", profile)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(record.scoreCalculationSpeed());
+
+        Counter.builder("optimization.solver.score.calculations")
+                .tag("kind", kind)
+                .tag("profile", profile)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .increment(record.scoreCalculationCount());
+
+        DistributionSummary.builder("optimization.solver.best.solution.improvements")
+                .description("New best solutions found during a solve")
+                .tag("kind", kind)
+                .tag("profile", profile)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(record.bestSolutionImprovements());
+    }
+
+    private void recordSolverPhase(String kind, String profile, String phase, long millis) {
+        Timer.builder("optimization.solver.phase.duration")
+                .tag("kind", kind)
+                .tag("profile", profile)
+                .tag("phase", phase)
+                .tag("service", "planning")
+                .register(meterRegistry)
+                .record(Duration.ofMillis(millis));
+    }
+
     // ===== HELPER: Sample Timer Usage =====
 
     /**
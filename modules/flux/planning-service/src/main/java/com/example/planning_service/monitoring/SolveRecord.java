@@ -0,0 +1,44 @@
+package com.example.planning_service.monitoring;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Telemetry of one solve (running or finished) - served by /actuator/solverTelemetry
+ *
+ * All durations are measured from the submission of the problem to the solver manager.
+ *
+ * @param kind                     optimize / replan / ...
+ * @param status                   SOLVING, FINISHED, FAILED
+ * @param constructionMillis       until the first initialized solution (construction heuristic)
+ * @param localSearchMillis        from the first initialized solution to the end
+ * @param timeToFeasibleMillis     until the first best solution without hard violations, null = never
+ * @param bestSolutionImprovements new best solutions found (accepted moves that improved the best score)
+ * @param scoreCurve               best score over time, thinned out to at most app.telemetry.max-curve-points
+ */
+public record SolveRecord(
+        String problemId,
+        String kind,
+        String profile,
+        String status,
+        Instant startedAt,
+        int stopCount,
+        int vehicleCount,
+        long durationMillis,
+        long constructionMillis,
+        long localSearchMillis,
+        Long timeToFeasibleMillis,
+        String bestScore,
+        boolean feasible,
+        int bestSolutionImprovements,
+        long scoreCalculationCount,
+        long scoreCalculationSpeed,
+        String error,
+        List<ScorePoint> scoreCurve) {
+
+    /**
+     * Best score at {@code elapsedMillis} after submission
+     */
+    public record ScorePoint(long elapsedMillis, long hardScore, long softScore) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.planning_service.monitoring;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverJobBuilder;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Telemetry collector of one solve, fed from the solve builder callbacks:
+ *
+ * - withFirstInitializedSolutionConsumer -> end of the construction heuristic,
+ * - withBestSolutionConsumer -> score curve, time to first feasible, improvements,
+ * - attach(SolverJob) + finish(solution) -> score calculation count / speed
+ *   (run(builder) starts the solve and attaches its job).
+ *
+ * attach and finish can come in any order (the final-solution consumer may run
+ * before solveBuilder().run() returns); the solve is recorded once both happened.
+ * Callbacks come from the solver's consumer thread, reads from the actuator -
+ * all state is guarded by this.
+ */
+public class SolveTrace {
+
+    private final SolverTelemetry telemetry;
+    private final String problemId;
+    private final String kind;
+    private final String profile;
+    private final int vehicleCount;
+    private final int maxCurvePoints;
+    private final Instant startedAt = Instant.now();
+    private final long startedNanos = System.nanoTime();
+
+    private int stopCount;
+    private long constructionEndNanos = -1;
+    private long firstFeasibleNanos = -1;
+    private long endNanos = -1;
+    private int improvements;
+    private HardSoftLongScore bestScore;
+
+    private final List<SolveRecord.ScorePoint> curve = new ArrayList<>();
+    private int curveStride = 1; // every n-th best solution goes to the curve
+    private int sinceLastPoint;
+    private SolveRecord.ScorePoint lastPoint;
+
+    private SolverJob<VehicleRoutingSolution, String> job;
+    private String status = "SOLVING";
+    private String error;
+    private boolean recorded;
+
+    SolveTrace(SolverTelemetry telemetry, String problemId, String kind, String profile, int stopCount,
+            int vehicleCount, int maxCurvePoints) {
+        this.telemetry = telemetry;
+        this.problemId = problemId;
+        this.kind = kind;
+        this.profile = profile;
+        this.stopCount = stopCount;
+        this.vehicleCount = vehicleCount;
+        this.maxCurvePoints = Math.max(2, maxCurvePoints);
+    }
+
+    public String getProblemId() {
+        return problemId;
+    }
+
+    public synchronized void onFirstInitializedSolution(VehicleRoutingSolution solution) {
+        if (constructionEndNanos < 0) {
+            constructionEndNanos = System.nanoTime();
+        }
+    }
+
+    public synchronized void onBestSolution(VehicleRoutingSolution solution) {
+        HardSoftLongScore score = solution.getScore();
+        if (score == null || endNanos >= 0) {
+            return; // late best-solution event after the final solution
+        }
+        long now = System.nanoTime();
+        if (bestScore != null) {
+            improvements++;
+        }
+        bestScore = score;
+        if (solution.getStops() != null) {
+            stopCount = solution.getStops().size(); // problem changes may add stops
+        }
+        if (firstFeasibleNanos < 0 && score.isFeasible()) {
+            firstFeasibleNanos = now;
+        }
+        addPoint(new SolveRecord.ScorePoint(millisSinceStart(now), score.hardScore(), score.softScore()));
+    }
+
+    /**
+     * Curve stays within maxCurvePoints: when full, every other point is dropped
+     * and from then on only every 2nd (4th, ...) best solution is sampled. The
+     * latest best score is always kept as the last point.
+     */
+    private void addPoint(SolveRecord.ScorePoint point) {
+        lastPoint = point;
+        if (++sinceLastPoint < curveStride) {
+            return;
+        }
+        sinceLastPoint = 0;
+        curve.add(point);
+        if (curve.size() >= maxCurvePoints) {
+            List<SolveRecord.ScorePoint> thinned = new ArrayList<>(maxCurvePoints / 2 + 1);
+            for (int i = 0; i < curve.size(); i += 2) {
+                thinned.add(curve.get(i));
+            }
+            curve.clear();
+            curve.addAll(thinned);
+            curveStride *= 2;
+        }
+    }
+
+    /**
+     * Start the solve and attach its job. A solve that fails to start is recorded
+     * as failed - no callback would ever end it and it would stay active for good.
+     */
+    public SolverJob<VehicleRoutingSolution, String> run(SolverJobBuilder<VehicleRoutingSolution, String> builder) {
+        SolverJob<VehicleRoutingSolution, String> solverJob;
+        try {
+            solverJob = builder.run();
+        } catch (RuntimeException e) {
+            fail(e);
+            throw e;
+        }
+        attach(solverJob);
+        return solverJob;
+    }
+
+    /**
+     * Solver job of this solve - needed for the score calculation statistics
+     */
+    public void attach(SolverJob<VehicleRoutingSolution, String> solverJob) {
+        boolean complete;
+        synchronized (this) {
+            job = solverJob;
+            complete = isComplete();
+        }
+        if (complete) {
+            record();
+        }
+    }
+
+    /**
+     * Final best solution of the solve
+     */
+    public void finish(VehicleRoutingSolution solution) {
+        boolean complete;
+        synchronized (this) {
+            if (endNanos >= 0) {
+                return;
+            }
+            if (solution != null && solution.getScore() != null && !solution.getScore().equals(bestScore)) {
+                onBestSolution(solution); // best-solution events are asynchronous, the last one may not be in yet
+            }
+            endNanos = System.nanoTime();
+            status = "FINISHED";
+            complete = isComplete();
+        }
+        if (complete) {
+            record();
+        }
+    }
+
+    public void fail(Throwable failure) {
+        synchronized (this) {
+            if (endNanos >= 0) {
+                return;
+            }
+            endNanos = System.nanoTime();
+            status = "FAILED";
+            error = failure != null ? failure.getMessage() : null;
+        }
+        record(); // job statistics are not needed for a failed solve
+    }
+
+    private boolean isComplete() {
+        return endNanos >= 0 && job != null;
+    }
+
+    private void record() {
+        SolveRecord record;
+        synchronized (this) {
+            if (recorded) {
+                return;
+            }
+            recorded = true;
+            record = snapshot();
+        }
+        telemetry.recordFinished(this, record);
+    }
+
+    /**
+     * Current state - a running solve reports the time so far
+     */
+    public synchronized SolveRecord snapshot() {
+        long end = endNanos >= 0 ? endNanos : System.nanoTime();
+        long constructionEnd = constructionEndNanos >= 0 ? constructionEndNanos : end;
+
+        long scoreCalculationCount = 0;
+        long scoreCalculationSpeed = 0;
+        if (job != null && endNanos >= 0 && !"FAILED".equals(status)) {
+            scoreCalculationCount = job.getScoreCalculationCount();
+            scoreCalculationSpeed = job.getScoreCalculationSpeed();
+        }
+
+        List<SolveRecord.ScorePoint> points = new ArrayList<>(curve);
+        if (lastPoint != null && (points.isEmpty() || points.get(points.size() - 1) != lastPoint)) {
+            points.add(lastPoint);
+        }
+
+        return new SolveRecord(problemId, kind, profile, status, startedAt, stopCount, vehicleCount,
+                millisSinceStart(end),
+                millisSinceStart(constructionEnd),
+                (end - constructionEnd) / 1_000_000,
+                firstFeasibleNanos >= 0 ? millisSinceStart(firstFeasibleNanos) : null,
+                bestScore != null ? bestScore.toString() : null,
+                bestScore != null && bestScore.isFeasible(),
+                improvements,
+                scoreCalculationCount,
+                scoreCalculationSpeed,
+                error,
+                List.copyOf(points));
+    }
+
+    private long millisSinceStart(long nanos) {
+        return (nanos - startedNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.planning_service.monitoring;
+
+import com.example.planning_service.config.AppProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ARCHITEKTURA: Telemetria solvera (Timefold)
+ *
+ * Każde solveBuilder() dostaje SolveTrace (start) podpięty pod callbacki solvera.
+ * Po zakończeniu solve:
+ * - metryki -> OptimizationMetrics.recordSolve (Prometheus, tagi kind/profile),
+ * - rekord -> ograniczona historia w pamięci (app.telemetry.history-size),
+ *   serwowana przez /actuator/solverTelemetry razem z krzywymi score-over-time.
+ *
+ * Trwające solve'y są widoczne w endpointcie na bieżąco (snapshot).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SolverTelemetry {
+
+    private final OptimizationMetrics metrics;
+    private final AppProperties appProperties;
+
+    private final Map<String, SolveTrace> active = new ConcurrentHashMap<>();
+    private final Deque<SolveRecord> history = new ArrayDeque<>(); // newest first, guarded by itself
+
+    /**
+     * Start tracing a solve - call before solveBuilder().run()
+     *
+     * @param kind optimize / replan / ...
+     */
+    public SolveTrace start(String problemId, String kind, String profile, int stopCount, int vehicleCount) {
+        SolveTrace trace = new SolveTrace(this, problemId, kind, profile, stopCount, vehicleCount,
+                appProperties.getTelemetry().getMaxCurvePoints());
+        active.put(problemId, trace);
+        return trace;
+    }
+
+    void recordFinished(SolveTrace trace, SolveRecord record) {
+        active.remove(trace.getProblemId(), trace);
+        int historySize = Math.max(1, appProperties.getTelemetry().getHistorySize());
+        synchronized (history) {
+            history.addFirst(record);
+            while (history.size() > historySize) {
+                history.removeLast();
+            }
+        }
+        metrics.recordSolve(record);
+
+        log.debug("Solve {} ({}) {}: {} ms, best {}, {} score calculations/s", record.problemId(), record.kind(),
+                record.status(), record.durationMillis(), record.bestScore(), record.scoreCalculationSpeed());
+    }
+
+    /**
+     * Finished solves, newest first
+     */
+    public List<SolveRecord> recentSolves() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    /**
+     * Running solves as of now
+     */
+    public List<SolveRecord> activeSolves() {
+        return active.values().stream().map(SolveTrace::snapshot).toList();
+    }
+
+    /**
+     * Running solve, or the latest finished one with this problemId
+     */
+    public Optional<SolveRecord> find(String problemId) {
+        SolveTrace trace = active.get(problemId);
+        if (trace != null) {
+            return Optional.of(trace.snapshot());
+        }
+        synchronized (history) {
+            return history.stream().filter(record -> record.problemId().equals(problemId)).findFirst();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.planning_service.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint with solver telemetry:
+ *
+ * GET /actuator/solverTelemetry -> running solves + recent history
+ * GET /actuator/solverTelemetry/{problemId} -> one solve with its score curve
+ */
+@Component
+@Endpoint(id = "solverTelemetry")
+@RequiredArgsConstructor
+public class SolverTelemetryEndpoint {
+
+    private final SolverTelemetry solverTelemetry;
+
+    @ReadOperation
+    public SolverTelemetryReport solves() {
+        return new SolverTelemetryReport(solverTelemetry.activeSolves(), solverTelemetry.recentSolves());
+    }
+
+    /**
+     * null -> 404
+     */
+    @ReadOperation
+    public SolveRecord solve(@Selector String problemId) {
+        return solverTelemetry.find(problemId).orElse(null);
+    }
+
+    public record SolverTelemetryReport(List<SolveRecord> active, List<SolveRecord> recent) {
+    }
+}
@@ -40,13 +40,25 @@ public interface VrpOptimizerService {
                         }
                 }
 
+                /**
+                 * @param timeWindowStartMillis okno czasowe zlecenia (epoch millis), null = brak
+                 * @param timeWindowEndMillis   koniec okna (epoch millis), null = brak
+                 */
                 public record Activity(
                                 UUID orderId,
                                 ActivityType type,
                                 double latitude,
                                 double longitude,
                                 long arrivalTimeMillis,
-                                long endTimeMillis) {
+                                long endTimeMillis,
+                                Long timeWindowStartMillis,
+                                Long timeWindowEndMillis) {
+
+                        // Constructor without time window for backward compatibility
+                        public Activity(UUID orderId, ActivityType type, double latitude, double longitude,
+                                        long arrivalTimeMillis, long endTimeMillis) {
+                                this(orderId, type, latitude, longitude, arrivalTimeMillis, endTimeMillis, null, null);
+                        }
                 }
 
                 public enum ActivityType {
@@ -65,6 +77,18 @@ public interface VrpOptimizerService {
         VehicleRoutingSolution calculateRoutes(List<OrderResponseDto> ordersToPlan, List<FleetVehicleEntity> fleet,
                         com.example.planning_service.entity.OptimizationProfileEntity profile);
 
+        /**
+         * Jak wyżej, z limitem czasu solvera dla tego problemu (np. budżet regionu
+         * w RegionalOptimizationService). Null = limit z konfiguracji solvera.
+         * Implementacje bez wsparcia limitu ignorują timeBudget.
+         */
+        default VehicleRoutingSolution calculateRoutes(List<OrderResponseDto> ordersToPlan,
+                        List<FleetVehicleEntity> fleet,
+                        com.example.planning_service.entity.OptimizationProfileEntity profile,
+                        java.time.Duration timeBudget) {
+                return calculateRoutes(ordersToPlan, fleet, profile);
+        }
+
         /**
          * Re-sequences a list of stops for a single vehicle starting from a specific
          * location.
@@ -0,0 +1,483 @@
+package com.example.planning_service.optimization.impl;
+
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.domain.timefold.RouteStop;
+import com.example.planning_service.domain.timefold.Standstill;
+import com.example.planning_service.domain.timefold.Vehicle;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import com.example.planning_service.monitoring.SolveTrace;
+import com.example.planning_service.monitoring.SolverTelemetry;
+import com.example.planning_service.routing.DistanceProvider;
+import com.example.planning_service.routing.TravelMatrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * ARCHITEKTURA: Przyrostowy re-plan (warm start) dla pilnych zleceń
+ *
+ * Zamiast rozwiązywać problem od zera, startuje z ostatniego najlepszego planu:
+ * - plan jest kopiowany (pojazdy + przystanki, łańcuchy odtworzone po ID) -
+ * bazowe rozwiązanie nigdy nie jest mutowane,
+ * - przystanki wykonane oraz te, do których pojazd już wyjechał, są przypięte
+ * (@PlanningPin) razem z całym prefiksem łańcucha,
+ * - nowe przystanki wchodzą nieprzypisane - construction heuristic wstawia
+ * tylko je, local search poprawia resztę w budżecie = latency target.
+ *
+ * Solve jest nieblokujący (CompletableFuture). Gdy job dla tego samego planu
+ * jeszcze trwa i ma co najmniej połowę budżetu, kolejne pilne zlecenia trafiają
+ * do niego jako ProblemChange. W przeciwnym razie następny job startuje po nim,
+ * z jego wyniku. Przystanki dodane przez ProblemChange nie mają wpisu w
+ * DistanceMatrix (haversine fallback w RouteStop) - dostają go przy następnym
+ * re-planie.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IncrementalReplanner {
+
+    /**
+     * Minimal remaining share of a running job's budget to join it via ProblemChange
+     */
+    static final double MIN_REMAINING_BUDGET_FOR_PROBLEM_CHANGE = 0.5;
+
+    private final SolverProfileRegistry solverProfiles;
+    private final DistanceProvider distanceProvider;
+    private final SolverTelemetry solverTelemetry;
+
+    // guarded by this
+    private ActiveJob activeJob;
+    private ReplanResult latestResult;
+
+    /**
+     * Re-plan the baseline with the new stops added.
+     *
+     * @param baseline        current plan (not modified)
+     * @param newStops        stops to insert (unassigned, no location index needed)
+     * @param executedStopIds stops already served - pinned together with everything before them
+     * @param now             stops whose predecessor is left before this instant are pinned too
+     * @param latencyTarget   solver budget for this re-plan
+     */
+    public synchronized CompletableFuture<ReplanResult> replan(VehicleRoutingSolution baseline,
+            List<RouteStop> newStops, Set<String> executedStopIds, Instant now, Duration latencyTarget) {
+        ActiveJob job = activeJob;
+        if (job != null && !job.result().isDone()) {
+            if (job.baseline() == baseline && job.remainingBudget() >= MIN_REMAINING_BUDGET_FOR_PROBLEM_CHANGE) {
+                return addToRunningJob(job, newStops, executedStopIds, now, latencyTarget);
+            }
+            // Too late to join - start from the running job's result once it is done
+            long queuedAt = System.nanoTime();
+            return job.result()
+                    .handle((result, error) -> null)
+                    .thenCompose(ignored -> replan(baseline, newStops, executedStopIds,
+                            now.plusNanos(System.nanoTime() - queuedAt), latencyTarget));
+        }
+        return startJob(baseline, newStops, executedStopIds, now, latencyTarget);
+    }
+
+    private CompletableFuture<ReplanResult> addToRunningJob(ActiveJob job, List<RouteStop> newStops,
+            Set<String> executedStopIds, Instant now, Duration latencyTarget) {
+        List<RouteStop> added = newStops.stream()
+                .filter(stop -> job.stopIds().add(stop.getId()))
+                .map(stop -> copyStop(stop, false))
+                .toList();
+        if (!added.isEmpty()) {
+            solverManager().addProblemChange(job.problemId(), new AddStopsProblemChange(added));
+            log.info("Added {} urgent stops to running re-plan {}", added.size(), job.problemId());
+        }
+
+        // The job may terminate before the change is processed - re-plan the leftovers then
+        long joinedAt = System.nanoTime();
+        return job.result().thenCompose(result -> {
+            List<RouteStop> missing = newStops.stream()
+                    .filter(stop -> !result.contains(stop.getId()))
+                    .toList();
+            return missing.isEmpty()
+                    ? CompletableFuture.completedFuture(result)
+                    : replan(job.baseline(), missing, executedStopIds, now.plusNanos(System.nanoTime() - joinedAt),
+                            latencyTarget);
+        });
+    }
+
+    private CompletableFuture<ReplanResult> startJob(VehicleRoutingSolution baseline, List<RouteStop> newStops,
+            Set<String> executedStopIds, Instant now, Duration latencyTarget) {
+        // Earlier re-plan of the same baseline (e.g. awaiting approval) already contains earlier urgent stops
+        VehicleRoutingSolution source = latestResult != null && latestResult.baseline() == baseline
+                ? latestResult.solution()
+                : baseline;
+
+        long started = System.nanoTime();
+        VehicleRoutingSolution problem = warmStart(source, newStops);
+        int pinned = pin(problem, executedStopIds, now);
+        extendDistanceMatrix(problem, source.getDistanceMatrix());
+
+        String problemId = "replan-" + UUID.randomUUID();
+        problem.setOptimizationId(problemId);
+        Set<String> stopIds = new LinkedHashSet<>();
+        newStops.forEach(stop -> stopIds.add(stop.getId()));
+        ActiveJob job = new ActiveJob(problemId, baseline, started,
+                latencyTarget.toNanos(), pinned, stopIds, new CompletableFuture<>());
+
+        // Copying and matrix extension count against the latency target too
+        Duration solveBudget = latencyTarget.minusNanos(System.nanoTime() - started);
+        if (solveBudget.compareTo(latencyTarget.dividedBy(4)) < 0) {
+            solveBudget = latencyTarget.dividedBy(4);
+        }
+        log.info("Starting warm re-plan {}: {} stops ({} pinned, {} new), solver budget {} ms", problemId,
+                problem.getStops().size(), pinned, newStops.size(), solveBudget.toMillis());
+        SolveTrace trace = solverTelemetry.start(problemId, "replan", SolverProfile.DEFAULT.name(),
+                problem.getStops().size(), problem.getVehicles().size());
+        trace.run(solverManager().solveBuilder()
+                .withProblemId(problemId)
+                .withProblem(problem)
+                .withConfigOverride(new SolverConfigOverride<VehicleRoutingSolution>()
+                        .withTerminationConfig(new TerminationConfig().withSpentLimit(solveBudget)))
+                .withFirstInitializedSolutionConsumer(trace::onFirstInitializedSolution)
+                .withBestSolutionConsumer(trace::onBestSolution)
+                .withFinalBestSolutionConsumer(solution -> {
+                    trace.finish(solution);
+                    complete(job, solution);
+                })
+                .withExceptionHandler((id, error) -> {
+                    trace.fail(error);
+                    fail(job, error);
+                }));
+        activeJob = job;
+        return job.result();
+    }
+
+    private void complete(ActiveJob job, VehicleRoutingSolution solution) {
+        List<String> unassigned = solution.getStops().stream()
+                .filter(stop -> stop.getVehicle() == null)
+                .map(RouteStop::getId)
+                .toList();
+        ReplanResult result;
+        synchronized (this) {
+            result = new ReplanResult(solution, job.baseline(), List.copyOf(job.stopIds()), unassigned,
+                    job.pinnedStops(), Duration.ofNanos(System.nanoTime() - job.startedNanos()));
+            latestResult = result;
+            if (activeJob == job) {
+                activeJob = null;
+            }
+        }
+        log.info("Re-plan {} finished in {} ms: score {}, {} unassigned", job.problemId(),
+                result.latency().toMillis(), solution.getScore(), unassigned.size());
+        job.result().complete(result);
+    }
+
+    private void fail(ActiveJob job, Throwable error) {
+        synchronized (this) {
+            if (activeJob == job) {
+                activeJob = null;
+            }
+        }
+        log.error("Re-plan {} failed", job.problemId(), error);
+        job.result().completeExceptionally(error);
+    }
+
+    private SolverManager<VehicleRoutingSolution, String> solverManager() {
+        return solverProfiles.get(SolverProfile.DEFAULT);
+    }
+
+    /**
+     * Copy of the source plan with the new stops appended unassigned.
+     * Chains are re-linked by ID and shadow variables copied, so the copy is consistent as is.
+     */
+    static VehicleRoutingSolution warmStart(VehicleRoutingSolution source, Collection<RouteStop> newStops) {
+        Map<String, Vehicle> vehicles = new LinkedHashMap<>();
+        for (Vehicle vehicle : source.getVehicles()) {
+            vehicles.put(vehicle.getId(), copyVehicle(vehicle));
+        }
+        Map<String, RouteStop> stops = new LinkedHashMap<>();
+        for (RouteStop stop : source.getStops()) {
+            stops.put(stop.getId(), copyStop(stop, true));
+        }
+        for (RouteStop stop : source.getStops()) {
+            RouteStop copy = stops.get(stop.getId());
+            Standstill previous = stop.getPreviousStandstill();
+            Standstill previousCopy = previous instanceof Vehicle vehicle ? vehicles.get(vehicle.getId())
+                    : previous instanceof RouteStop routeStop ? stops.get(routeStop.getId())
+                    : null;
+            copy.setPreviousStandstill(previousCopy);
+            if (previousCopy != null) {
+                previousCopy.setNextStop(copy);
+            }
+            copy.setVehicle(stop.getVehicle() != null ? vehicles.get(stop.getVehicle().getId()) : null);
+        }
+        for (RouteStop stop : newStops) {
+            stops.putIfAbsent(stop.getId(), copyStop(stop, false));
+        }
+
+        List<RouteStop> stopList = new ArrayList<>(stops.values());
+        VehicleRoutingSolution problem = new VehicleRoutingSolution();
+        problem.setVehicles(new ArrayList<>(vehicles.values()));
+        problem.setStops(stopList);
+        problem.setAllStops(stopList);
+        problem.setOrders(source.getOrders() != null ? new ArrayList<>(source.getOrders()) : new ArrayList<>());
+        problem.setDepot(source.getDepot());
+        problem.setDistanceMatrix(source.getDistanceMatrix());
+        return problem;
+    }
+
+    /**
+     * Pin the executed / started prefix of every chain
+     *
+     * @return number of pinned stops
+     */
+    static int pin(VehicleRoutingSolution problem, Set<String> executedStopIds, Instant now) {
+        long nowEpoch = now.getEpochSecond();
+        int pinned = 0;
+        for (Vehicle vehicle : problem.getVehicles()) {
+            List<RouteStop> chain = new ArrayList<>();
+            for (RouteStop stop = vehicle.getNextStop(); stop != null; stop = stop.getNextStop()) {
+                chain.add(stop);
+            }
+
+            // Departures grow along the chain, so started stops form a prefix; executed stops extend it
+            int prefix = 0;
+            Long departure = vehicle.getDepartureTime();
+            for (int i = 0; i < chain.size(); i++) {
+                RouteStop stop = chain.get(i);
+                if (executedStopIds.contains(stop.getId())
+                        || (prefix == i && departure != null && departure <= nowEpoch)) {
+                    prefix = i + 1;
+                }
+                departure = stop.getDepartureTime();
+            }
+            for (int i = 0; i < prefix; i++) {
+                chain.get(i).setPinned(true);
+            }
+            pinned += prefix;
+        }
+        return pinned;
+    }
+
+    /**
+     * Reuse the source matrix and compute only the rows/columns of locations it
+     * does not have yet (O(n*k) provider cells instead of a full n*n rebuild)
+     */
+    private void extendDistanceMatrix(VehicleRoutingSolution problem, DistanceMatrix base) {
+        if (base == null) {
+            problem.setDistanceMatrix(DistanceMatrix.build(problem.getVehicles(), problem.getStops(),
+                    TimefoldOptimizer.roadMatrix(distanceProvider)));
+            return;
+        }
+
+        int size = base.size();
+        List<com.example.planning_service.domain.Location> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(null);
+        }
+        Map<Point, Integer> indexByPoint = new HashMap<>();
+        List<Standstill> standstills = new ArrayList<>(problem.getVehicles());
+        standstills.addAll(problem.getStops());
+        for (Standstill standstill : standstills) {
+            int index = standstill.getLocationIndex();
+            var location = standstill.getLocation();
+            if (index >= 0 && index < size && points.get(index) == null && location != null
+                    && location.getLatitude() != null && location.getLongitude() != null) {
+                Point point = new Point(location.getLatitude(), location.getLongitude());
+                points.set(index, point.toLocation());
+                indexByPoint.put(point, index);
+            }
+        }
+        for (RouteStop stop : problem.getStops()) {
+            if (stop.getLocationIndex() >= 0 && stop.getLocationIndex() < size) {
+                continue;
+            }
+            if (stop.getLatitude() == null || stop.getLongitude() == null) {
+                stop.setLocationIndex(-1);
+                continue;
+            }
+            Point point = new Point(stop.getLatitude(), stop.getLongitude());
+            stop.setLocationIndex(indexByPoint.computeIfAbsent(point, key -> {
+                points.add(key.toLocation());
+                return points.size() - 1;
+            }));
+        }
+
+        DistanceMatrix matrix = points.size() == size ? base : extend(base, points);
+        problem.setDistanceMatrix(matrix);
+        standstills.forEach(standstill -> standstill.setDistanceMatrix(matrix));
+    }
+
+    private DistanceMatrix extend(DistanceMatrix base, List<com.example.planning_service.domain.Location> points) {
+        int size = base.size();
+        int total = points.size();
+        List<com.example.planning_service.domain.Location> added = points.subList(size, total);
+        // Holes (indices no standstill of the plan uses anymore) only need a placeholder origin
+        List<com.example.planning_service.domain.Location> known = points.subList(0, size).stream()
+                .map(point -> point != null ? point : added.get(0))
+                .toList();
+
+        TravelMatrix toAdded = distanceProvider.manyToMany(known, added);
+        TravelMatrix fromAdded = distanceProvider.manyToMany(added,
+                Stream.concat(known.stream(), added.stream()).toList());
+
+        long[] distances = new long[total * total];
+        int[] durations = new int[total * total];
+        for (int from = 0; from < total; from++) {
+            for (int to = 0; to < total; to++) {
+                int cell = from * total + to;
+                if (from < size && to < size) {
+                    distances[cell] = base.getDistanceMeters(from, to);
+                    durations[cell] = base.getDurationSeconds(from, to);
+                } else if (from < size) {
+                    distances[cell] = toAdded.getDistanceMeters(from, to - size);
+                    durations[cell] = toAdded.getDurationSeconds(from, to - size);
+                } else {
+                    distances[cell] = fromAdded.getDistanceMeters(from - size, to);
+                    durations[cell] = fromAdded.getDurationSeconds(from - size, to);
+                }
+            }
+        }
+        log.debug("Extended {} distance matrix from {} to {} locations", distanceProvider.getName(), size, total);
+        return DistanceMatrix.of(total, distances, durations);
+    }
+
+    private static Vehicle copyVehicle(Vehicle vehicle) {
+        Vehicle copy = Vehicle.builder()
+                .id(vehicle.getId())
+                .name(vehicle.getName())
+                .location(vehicle.getLocation())
+                .capacityWeightGrams(vehicle.getCapacityWeightGrams())
+                .capacityVolumeCm3(vehicle.getCapacityVolumeCm3())
+                .skillSet(vehicle.getSkillSet())
+                .driverId(vehicle.getDriverId())
+                .driverName(vehicle.getDriverName())
+                .available(vehicle.isAvailable())
+                .isFixedRoute(vehicle.isFixedRoute())
+                .maxDetourKm(vehicle.getMaxDetourKm())
+                .remainingCapacityWeightGrams(vehicle.getRemainingCapacityWeightGrams())
+                .remainingCapacityVolumeCm3(vehicle.getRemainingCapacityVolumeCm3())
+                .departureTime(vehicle.getDepartureTime())
+                .shiftStartTime(vehicle.getShiftStartTime())
+                .shiftEndTime(vehicle.getShiftEndTime())
+                .availableTimeWindowStart(vehicle.getAvailableTimeWindowStart())
+                .availableTimeWindowEnd(vehicle.getAvailableTimeWindowEnd())
+                .build();
+        copy.setLocationIndex(vehicle.getLocationIndex());
+        return copy;
+    }
+
+    /**
+     * @param keepSchedule copy arrival time and location index (existing stop) or start unscheduled (new stop)
+     */
+    private static RouteStop copyStop(RouteStop stop, boolean keepSchedule) {
+        RouteStop copy = RouteStop.builder()
+                .id(stop.getId())
+                .order(stop.getOrder())
+                .demandWeightGrams(stop.getDemandWeightGrams())
+                .demandVolumeCm3(stop.getDemandVolumeCm3())
+                .arrivalTime(keepSchedule ? stop.getArrivalTime() : null)
+                .latitude(stop.getLatitude())
+                .longitude(stop.getLongitude())
+                .serviceDurationSeconds(stop.getServiceDurationSeconds())
+                .minStartTime(stop.getMinStartTime())
+                .maxEndTime(stop.getMaxEndTime())
+                .build();
+        copy.setLocationIndex(keepSchedule ? stop.getLocationIndex() : -1);
+        return copy;
+    }
+
+    private record Point(double latitude, double longitude) {
+
+        com.example.planning_service.domain.Location toLocation() {
+            return com.example.planning_service.domain.Location.builder()
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .build();
+        }
+    }
+
+    private record ActiveJob(
+            String problemId,
+            VehicleRoutingSolution baseline,
+            long startedNanos,
+            long budgetNanos,
+            int pinnedStops,
+            Set<String> stopIds,
+            CompletableFuture<ReplanResult> result) {
+
+        double remainingBudget() {
+            return 1.0 - (double) (System.nanoTime() - startedNanos) / budgetNanos;
+        }
+    }
+
+    /**
+     * Adds stops to a live solve; they enter unassigned, so the solver restarts
+     * its construction heuristic for them only
+     */
+    static final class AddStopsProblemChange implements ProblemChange<VehicleRoutingSolution> {
+
+        private final List<RouteStop> stops;
+
+        AddStopsProblemChange(List<RouteStop> stops) {
+            this.stops = stops;
+        }
+
+        @Override
+        public void doChange(VehicleRoutingSolution workingSolution, ProblemChangeDirector problemChangeDirector) {
+            for (RouteStop stop : stops) {
+                stop.setDistanceMatrix(workingSolution.getDistanceMatrix());
+                problemChangeDirector.addEntity(stop, added -> {
+                    workingSolution.getStops().add(added);
+                    if (workingSolution.getAllStops() != workingSolution.getStops()) {
+                        workingSolution.getAllStops().add(added);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @param solution        re-planned solution (new object, baseline untouched)
+     * @param baseline        plan the re-plan started from
+     * @param newStopIds      stops inserted by this re-plan
+     * @param unassignedStops stops the solver did not assign within the budget
+     * @param pinnedStops     stops kept in place
+     * @param latency         time from job start to final best solution
+     */
+    public record ReplanResult(
+            VehicleRoutingSolution solution,
+            VehicleRoutingSolution baseline,
+            List<String> newStopIds,
+            List<String> unassignedStops,
+            int pinnedStops,
+            Duration latency) {
+
+        public boolean isFeasible() {
+            return solution.getScore() != null && solution.getScore().isFeasible();
+        }
+
+        /**
+         * Whether the stop made it into the solution (a ProblemChange can miss a terminating job)
+         */
+        public boolean contains(String stopId) {
+            return solution.getStops().stream().anyMatch(stop -> stop.getId().equals(stopId));
+        }
+
+        public boolean isAssigned(String stopId) {
+            return contains(stopId) && !unassignedStops.contains(stopId);
+        }
+    }
+}
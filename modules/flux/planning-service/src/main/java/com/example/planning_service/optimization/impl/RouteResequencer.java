@@ -0,0 +1,576 @@
+package com.example.planning_service.optimization.impl;
+
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.dto.RouteStopDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ARCHITEKTURA: Resekwencjonowanie pojedynczej trasy (milk-run) bez solvera
+ *
+ * 1. Nearest neighbour na siatce (grid) - kolejny przystanek to najbliższy
+ * nieodwiedzony w rosnących pierścieniach komórek, zamiast pełnego skanu
+ * listy (O(n^2) + remove).
+ * 2. Opcjonalnie 2-opt / Or-opt (segmenty 1-3) na listach K najbliższych
+ * sąsiadów, w limicie czasu. Ruch jest przyjmowany tylko gdy skraca trasę
+ * i nie zwiększa łącznego spóźnienia względem okien czasowych (timeWindow
+ * "HH:mm-HH:mm"; przyjazd przed oknem = czekanie).
+ *
+ * Przystanki fixed zostają na swoich pozycjach - dzielą trasę na bloki,
+ * ruchy nigdy nie przekraczają granicy bloku. Trasa jest otwarta (start w
+ * punkcie startowym, bez powrotu).
+ *
+ * Odległości liczone są w lokalnej projekcji równoodległościowej wokół
+ * punktu startu - dla trasy o zasięgu ~100 km różnica względem haversine
+ * jest pomijalna, a koszt to jedno hypot zamiast trygonometrii.
+ */
+@Slf4j
+public final class RouteResequencer {
+
+    /**
+     * Candidate neighbours per stop for 2-opt / Or-opt
+     */
+    static final int NEIGHBOURS = 10;
+    static final int MAX_OR_OPT_SEGMENT = 3;
+
+    private static final double EARTH_RADIUS_METERS = 6371000;
+    private static final double EPSILON = 1e-7;
+
+    private final boolean improve;
+    private final Duration timeLimit;
+    private final int departureSeconds;
+    private final long serviceSeconds;
+    private final double metersPerSecond;
+
+    /**
+     * @param improve        run 2-opt / Or-opt after nearest neighbour
+     * @param timeLimit      cap of the improvement pass
+     * @param departure      departure from the start point (time windows are evaluated from it)
+     * @param serviceSeconds service time at every stop
+     * @param speedKmh       average travel speed
+     */
+    public RouteResequencer(boolean improve, Duration timeLimit, LocalTime departure, long serviceSeconds,
+            double speedKmh) {
+        this.improve = improve;
+        this.timeLimit = timeLimit;
+        this.departureSeconds = departure.toSecondOfDay();
+        this.serviceSeconds = serviceSeconds;
+        this.metersPerSecond = speedKmh * 1000.0 / 3600.0;
+    }
+
+    /**
+     * New order of the stops (same DTO instances, input list not modified)
+     */
+    public List<RouteStopDto> resequence(List<RouteStopDto> stops, double startLat, double startLon) {
+        if (stops.size() <= 1) {
+            return new ArrayList<>(stops);
+        }
+        long deadline = System.nanoTime() + timeLimit.toNanos();
+        Tour tour = new Tour(stops, startLat, startLon);
+        boolean improving = improve && tour.hasMovableStops();
+        int[][] neighbours = improving ? tour.neighbours() : null; // before construction empties the grid
+        tour.construct();
+        if (improving) {
+            tour.improve(neighbours, deadline);
+        }
+        return tour.toStops();
+    }
+
+    /**
+     * Haversine length of the open route start -> stops in the given order
+     */
+    public static double tourLengthMeters(List<RouteStopDto> stops, double startLat, double startLon) {
+        double meters = 0;
+        double lat = startLat;
+        double lon = startLon;
+        for (RouteStopDto stop : stops) {
+            meters += DistanceMatrix.haversineMeters(lat, lon, stop.getLat(), stop.getLon());
+            lat = stop.getLat();
+            lon = stop.getLon();
+        }
+        return meters;
+    }
+
+    /**
+     * Time window "HH:mm-HH:mm" as [start, end] seconds of day, null when absent or not parseable.
+     * A window ending before it starts runs over midnight.
+     */
+    static int[] parseTimeWindow(String timeWindow) {
+        if (timeWindow == null || timeWindow.isBlank()) {
+            return null;
+        }
+        String[] parts = timeWindow.split("-");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            int start = LocalTime.parse(parts[0].trim()).toSecondOfDay();
+            int end = LocalTime.parse(parts[1].trim()).toSecondOfDay();
+            return new int[] { start, end < start ? end + 24 * 3600 : end };
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring unparseable time window '{}'", timeWindow);
+            return null;
+        }
+    }
+
+    /**
+     * Working state of one resequencing. Node 0 = start point, node k = stops[k - 1];
+     * order[p] = node at position p, position 0 is always the start.
+     */
+    private final class Tour {
+
+        private final List<RouteStopDto> stops;
+        private final int size; // nodes incl. start
+        private final double[] x;
+        private final double[] y;
+        private final boolean[] fixed; // per node
+        private final int[][] windows; // per node, null = no window
+        private final boolean hasWindows;
+
+        private final int[] order;
+        private final int[] position;
+        private final int[] block; // per position: fixed positions up to and including it
+        private Grid grid;
+
+        Tour(List<RouteStopDto> stops, double startLat, double startLon) {
+            this.stops = stops;
+            this.size = stops.size() + 1;
+            this.x = new double[size];
+            this.y = new double[size];
+            this.fixed = new boolean[size];
+            this.windows = new int[size][];
+            this.order = new int[size];
+            this.position = new int[size];
+            this.block = new int[size];
+
+            double cosLat = Math.cos(Math.toRadians(startLat));
+            fixed[0] = true;
+            boolean anyWindow = false;
+            for (int node = 1; node < size; node++) {
+                RouteStopDto stop = stops.get(node - 1);
+                x[node] = Math.toRadians(stop.getLon() - startLon) * cosLat * EARTH_RADIUS_METERS;
+                y[node] = Math.toRadians(stop.getLat() - startLat) * EARTH_RADIUS_METERS;
+                fixed[node] = Boolean.TRUE.equals(stop.getFixed());
+                windows[node] = parseTimeWindow(stop.getTimeWindow());
+                anyWindow |= windows[node] != null;
+            }
+            this.hasWindows = anyWindow;
+
+            int fixedSoFar = 0;
+            for (int p = 0; p < size; p++) {
+                if (fixed[p]) {
+                    fixedSoFar++; // fixed stops keep their input position, i.e. node p sits at position p
+                }
+                block[p] = fixedSoFar;
+            }
+
+            int freeCount = 0;
+            int[] free = new int[size];
+            for (int node = 1; node < size; node++) {
+                if (!fixed[node]) {
+                    free[freeCount++] = node;
+                }
+            }
+            if (freeCount > 0) {
+                grid = new Grid(x, y, Arrays.copyOf(free, freeCount));
+            }
+        }
+
+        boolean hasMovableStops() {
+            for (int p = 1; p + 1 < size; p++) {
+                if (!fixed[p] && !fixed[p + 1]) {
+                    return true; // at least one block with two free stops
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Nearest neighbour: fixed positions are taken as they are, free positions get
+         * the nearest unvisited free stop from the previous one
+         */
+        void construct() {
+            int current = 0;
+            order[0] = 0;
+            for (int p = 1; p < size; p++) {
+                int next = fixed[p] ? p : grid.pollNearest(x[current], y[current]);
+                order[p] = next;
+                position[next] = p;
+                current = next;
+            }
+        }
+
+        /**
+         * K nearest free stops of every node (start and fixed stops included)
+         */
+        int[][] neighbours() {
+            int[][] neighbours = new int[size][];
+            for (int node = 0; node < size; node++) {
+                neighbours[node] = grid.nearest(x[node], y[node], NEIGHBOURS, node);
+            }
+            return neighbours;
+        }
+
+        void improve(int[][] neighbours, long deadline) {
+            double lateness = hasWindows ? lateness() : 0;
+
+            boolean improved = true;
+            int passes = 0;
+            while (improved) {
+                improved = false;
+                passes++;
+                for (int p = 0; p < size; p++) {
+                    if (System.nanoTime() > deadline) {
+                        log.debug("Resequencing of {} stops hit the time limit after {} passes", size - 1, passes);
+                        return;
+                    }
+                    int a = order[p];
+                    for (int c : neighbours[a]) {
+                        int q = position[c];
+                        double result = q > p ? tryTwoOpt(p, q, lateness) : tryTwoOpt(q, p, lateness);
+                        if (result >= 0) {
+                            lateness = result;
+                            improved = true;
+                            a = order[p];
+                        }
+                    }
+                    if (p > 0 && !fixed[order[p]]) {
+                        for (int length = 1; length <= MAX_OR_OPT_SEGMENT; length++) {
+                            double result = tryOrOpt(p, length, neighbours, lateness);
+                            if (result >= 0) {
+                                lateness = result;
+                                improved = true;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reverse positions [i + 1, j] (0 <= i < j) if it shortens the route
+         *
+         * @return new lateness when applied, -1 otherwise
+         */
+        private double tryTwoOpt(int i, int j, double lateness) {
+            if (i + 1 >= j || !movable(i + 1, j)) {
+                return -1;
+            }
+            int a = order[i];
+            int b = order[i + 1];
+            int c = order[j];
+            double delta = distance(a, c) - distance(a, b);
+            if (j + 1 < size) {
+                int d = order[j + 1];
+                delta += distance(b, d) - distance(c, d);
+            }
+            if (delta > -EPSILON) {
+                return -1;
+            }
+            reverse(i + 1, j);
+            return acceptOrRevert(lateness, () -> reverse(i + 1, j));
+        }
+
+        /**
+         * Move the segment [s, s + length) right behind one of its first stop's
+         * neighbours, as is or reversed
+         *
+         * @return new lateness when applied, -1 otherwise
+         */
+        private double tryOrOpt(int s, int length, int[][] neighbours, double lateness) {
+            int e = s + length - 1;
+            if (e >= size || !movable(s, e)) {
+                return -1;
+            }
+            int first = order[s];
+            int last = order[e];
+            int before = order[s - 1];
+            double removeGain = distance(before, first);
+            if (e + 1 < size) {
+                int after = order[e + 1];
+                removeGain += distance(last, after) - distance(before, after);
+            }
+
+            for (int c : neighbours[first]) {
+                int t = position[c]; // insert between t and t + 1
+                if (t >= s - 1 && t <= e) {
+                    continue;
+                }
+                int from = Math.min(s, t + 1);
+                int to = Math.max(e, t);
+                if (!movable(from, to)) {
+                    continue;
+                }
+                int next = t + 1 < size ? order[t + 1] : -1;
+                double base = next >= 0 ? distance(c, next) : 0;
+                double forward = distance(c, first) + (next >= 0 ? distance(last, next) : 0) - base;
+                double reversed = distance(c, last) + (next >= 0 ? distance(first, next) : 0) - base;
+                boolean reverse = reversed < forward;
+                double delta = Math.min(forward, reversed) - removeGain;
+                if (delta > -EPSILON) {
+                    continue;
+                }
+                int[] saved = Arrays.copyOfRange(order, from, to + 1);
+                moveSegment(s, e, t, reverse);
+                double result = acceptOrRevert(lateness, () -> restore(from, saved));
+                if (result >= 0) {
+                    return result;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Positions [from, to] hold free stops of one block only
+         */
+        private boolean movable(int from, int to) {
+            return !fixed[order[from]] && !fixed[order[to]] && block[from] == block[to];
+        }
+
+        private double acceptOrRevert(double lateness, Runnable revert) {
+            if (!hasWindows) {
+                return 0;
+            }
+            double candidate = lateness();
+            if (candidate <= lateness + EPSILON) {
+                return candidate;
+            }
+            revert.run();
+            return -1;
+        }
+
+        private void reverse(int from, int to) {
+            while (from < to) {
+                int tmp = order[from];
+                order[from] = order[to];
+                order[to] = tmp;
+                position[order[from]] = from;
+                position[order[to]] = to;
+                from++;
+                to--;
+            }
+        }
+
+        private void moveSegment(int s, int e, int t, boolean reverse) {
+            int length = e - s + 1;
+            int[] segment = Arrays.copyOfRange(order, s, e + 1);
+            if (reverse) {
+                for (int k = 0; k < length / 2; k++) {
+                    int tmp = segment[k];
+                    segment[k] = segment[length - 1 - k];
+                    segment[length - 1 - k] = tmp;
+                }
+            }
+            int from;
+            int to;
+            if (t > e) {
+                // shift (e, t] left, segment lands at the end
+                System.arraycopy(order, e + 1, order, s, t - e);
+                System.arraycopy(segment, 0, order, t - length + 1, length);
+                from = s;
+                to = t;
+            } else {
+                // shift (t, s) right, segment lands right after t
+                System.arraycopy(order, t + 1, order, t + 1 + length, s - t - 1);
+                System.arraycopy(segment, 0, order, t + 1, length);
+                from = t + 1;
+                to = e;
+            }
+            for (int p = from; p <= to; p++) {
+                position[order[p]] = p;
+            }
+        }
+
+        private void restore(int from, int[] saved) {
+            System.arraycopy(saved, 0, order, from, saved.length);
+            for (int p = from; p < from + saved.length; p++) {
+                position[order[p]] = p;
+            }
+        }
+
+        /**
+         * Total seconds of arrivals after the window end
+         */
+        private double lateness() {
+            double time = departureSeconds;
+            double late = 0;
+            int previous = 0;
+            for (int p = 1; p < size; p++) {
+                int node = order[p];
+                time += distance(previous, node) / metersPerSecond;
+                int[] window = windows[node];
+                if (window != null) {
+                    if (time < window[0]) {
+                        time = window[0];
+                    } else if (time > window[1]) {
+                        late += time - window[1];
+                    }
+                }
+                time += serviceSeconds;
+                previous = node;
+            }
+            return late;
+        }
+
+        private double distance(int a, int b) {
+            return Math.hypot(x[a] - x[b], y[a] - y[b]);
+        }
+
+        List<RouteStopDto> toStops() {
+            List<RouteStopDto> result = new ArrayList<>(size - 1);
+            for (int p = 1; p < size; p++) {
+                result.add(stops.get(order[p] - 1));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Uniform grid over the free stops (~2 per cell). Lookups walk rings of cells
+     * around the query until no unseen cell can hold anything closer.
+     */
+    private static final class Grid {
+
+        private final double[] x;
+        private final double[] y;
+        private final double minX;
+        private final double minY;
+        private final double cellSize;
+        private final int columns;
+        private final int rows;
+        private final int[][] cells;
+        private final int[] cellSizes;
+
+        Grid(double[] x, double[] y, int[] nodes) {
+            this.x = x;
+            this.y = y;
+            double minX = Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (int node : nodes) {
+                minX = Math.min(minX, x[node]);
+                minY = Math.min(minY, y[node]);
+                maxX = Math.max(maxX, x[node]);
+                maxY = Math.max(maxY, y[node]);
+            }
+            double width = Math.max(maxX - minX, 1.0);
+            double height = Math.max(maxY - minY, 1.0);
+            this.minX = minX;
+            this.minY = minY;
+            this.cellSize = Math.max(Math.sqrt(width * height * 2.0 / nodes.length), 1.0);
+            this.columns = (int) (width / cellSize) + 1;
+            this.rows = (int) (height / cellSize) + 1;
+
+            this.cellSizes = new int[columns * rows];
+            for (int node : nodes) {
+                cellSizes[cellOf(x[node], y[node])]++;
+            }
+            this.cells = new int[columns * rows][];
+            for (int cell = 0; cell < cells.length; cell++) {
+                cells[cell] = new int[cellSizes[cell]];
+                cellSizes[cell] = 0;
+            }
+            for (int node : nodes) {
+                int cell = cellOf(x[node], y[node]);
+                cells[cell][cellSizes[cell]++] = node;
+            }
+        }
+
+        /**
+         * Nearest remaining node to the point, removed from the grid
+         */
+        int pollNearest(double qx, double qy) {
+            int[] best = nearest(qx, qy, 1, -1);
+            int node = best[0];
+            int cell = cellOf(x[node], y[node]);
+            int[] members = cells[cell];
+            for (int k = 0; k < cellSizes[cell]; k++) {
+                if (members[k] == node) {
+                    members[k] = members[--cellSizes[cell]];
+                    break;
+                }
+            }
+            return node;
+        }
+
+        /**
+         * Up to k nearest remaining nodes, closest first
+         *
+         * @param exclude node left out (the query node itself), -1 = none
+         */
+        int[] nearest(double qx, double qy, int k, int exclude) {
+            int[] found = new int[k];
+            double[] distances = new double[k];
+            int count = 0;
+
+            int column = clamp((int) Math.floor((qx - minX) / cellSize), columns);
+            int row = clamp((int) Math.floor((qy - minY) / cellSize), rows);
+            int maxRing = Math.max(columns, rows);
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int r = row - ring; r <= row + ring; r++) {
+                    if (r < 0 || r >= rows) {
+                        continue;
+                    }
+                    boolean edgeRow = r == row - ring || r == row + ring;
+                    int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                    for (int c = column - ring; c <= column + ring; c += step) {
+                        if (c < 0 || c >= columns) {
+                            continue;
+                        }
+                        int cell = r * columns + c;
+                        int[] members = cells[cell];
+                        for (int m = 0; m < cellSizes[cell]; m++) {
+                            int node = members[m];
+                            if (node == exclude) {
+                                continue;
+                            }
+                            double distance = Math.hypot(x[node] - qx, y[node] - qy);
+                            if (count == k && distance >= distances[k - 1]) {
+                                continue;
+                            }
+                            int slot = count < k ? count++ : k - 1;
+                            while (slot > 0 && distances[slot - 1] > distance) {
+                                distances[slot] = distances[slot - 1];
+                                found[slot] = found[slot - 1];
+                                slot--;
+                            }
+                            distances[slot] = distance;
+                            found[slot] = node;
+                        }
+                    }
+                }
+                // Anything outside the searched square is at least this far away
+                if (count == k && distances[k - 1] <= coveredRadius(qx, qy, column, row, ring)) {
+                    break;
+                }
+            }
+            return count == k ? found : Arrays.copyOf(found, count);
+        }
+
+        private double coveredRadius(double qx, double qy, int column, int row, int ring) {
+            double left = qx - (minX + (column - ring) * cellSize);
+            double right = minX + (column + ring + 1) * cellSize - qx;
+            double bottom = qy - (minY + (row - ring) * cellSize);
+            double top = minY + (row + ring + 1) * cellSize - qy;
+            return Math.max(0, Math.min(Math.min(left, right), Math.min(bottom, top)));
+        }
+
+        private int cellOf(double px, double py) {
+            int column = clamp((int) ((px - minX) / cellSize), columns);
+            int row = clamp((int) ((py - minY) / cellSize), rows);
+            return row * columns + column;
+        }
+
+        private static int clamp(int value, int size) {
+            return Math.max(0, Math.min(size - 1, value));
+        }
+    }
+}
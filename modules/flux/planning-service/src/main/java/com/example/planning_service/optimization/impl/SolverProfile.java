@@ -0,0 +1,45 @@
+package com.example.planning_service.optimization.impl;
+
+import com.example.planning_service.config.AppProperties;
+
+/**
+ * Solver configuration profiles, picked per problem size by TimefoldOptimizer.
+ * 
+ * - DEFAULT: plain change/swap/tailChainSwap selectors (solverConfig.xml)
+ * - NEARBY: nearby selection, so moves only pair geographically close standstills
+ * - NEARBY_MULTITHREADED: nearby selection + moveThreadCount for the largest problems
+ */
+public enum SolverProfile {
+
+    DEFAULT("solverConfig.xml"),
+    NEARBY("solverConfig-nearby.xml"),
+    NEARBY_MULTITHREADED("solverConfig-nearby-mt.xml");
+
+    private final String solverConfigResource;
+
+    SolverProfile(String solverConfigResource) {
+        this.solverConfigResource = solverConfigResource;
+    }
+
+    public String getSolverConfigResource() {
+        return solverConfigResource;
+    }
+
+    public boolean requiresEnterpriseSolver() {
+        return this != DEFAULT;
+    }
+
+    /**
+     * Pick the profile for a problem from its stop and vehicle counts
+     * (thresholds from app.vrp.*)
+     */
+    public static SolverProfile forProblem(int stopCount, int vehicleCount, AppProperties.Vrp vrp) {
+        if (stopCount >= vrp.getMultiThreadMinStops() && vehicleCount >= vrp.getMultiThreadMinVehicles()) {
+            return NEARBY_MULTITHREADED;
+        }
+        if (stopCount >= vrp.getNearbyMinStops()) {
+            return NEARBY;
+        }
+        return DEFAULT;
+    }
+}
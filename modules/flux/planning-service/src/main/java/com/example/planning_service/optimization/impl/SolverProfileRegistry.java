@@ -0,0 +1,79 @@
+package com.example.planning_service.optimization.impl;
+
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one SolverManager per SolverProfile.
+ * 
+ * DEFAULT reuses the Spring Boot auto-configured SolverManager (solverConfig.xml),
+ * the nearby profiles are built lazily from their own XML on first use.
+ * Nearby selection and multithreaded solving are Timefold Enterprise features,
+ * so without the enterprise edition every problem falls back to DEFAULT.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SolverProfileRegistry implements DisposableBean {
+
+    private static final String ENTERPRISE_SERVICE_CLASS = "ai.timefold.solver.enterprise.core.DefaultTimefoldSolverEnterpriseService";
+
+    private final SolverManager<VehicleRoutingSolution, String> defaultSolverManager;
+    private final AppProperties appProperties;
+
+    private final Map<SolverProfile, SolverManager<VehicleRoutingSolution, String>> profileManagers = new ConcurrentHashMap<>();
+
+    /**
+     * Pick the profile for a problem, degrading to DEFAULT when enterprise features are unavailable
+     */
+    public SolverProfile select(int stopCount, int vehicleCount) {
+        SolverProfile profile = SolverProfile.forProblem(stopCount, vehicleCount, appProperties.getVrp());
+        if (profile.requiresEnterpriseSolver() && !isEnterpriseSolverAvailable()) {
+            log.debug("Solver profile {} requires Timefold Enterprise - using DEFAULT for {} stops", profile,
+                    stopCount);
+            return SolverProfile.DEFAULT;
+        }
+        return profile;
+    }
+
+    public SolverManager<VehicleRoutingSolution, String> get(SolverProfile profile) {
+        if (profile == SolverProfile.DEFAULT) {
+            return defaultSolverManager;
+        }
+        return profileManagers.computeIfAbsent(profile, this::createSolverManager);
+    }
+
+    private SolverManager<VehicleRoutingSolution, String> createSolverManager(SolverProfile profile) {
+        SolverConfig config = SolverConfig.createFromXmlResource(profile.getSolverConfigResource());
+        if (profile == SolverProfile.NEARBY_MULTITHREADED) {
+            config.setMoveThreadCount(appProperties.getVrp().getMoveThreadCount());
+        }
+        log.info("Creating solver manager for profile {} ({}, moveThreadCount={})", profile,
+                profile.getSolverConfigResource(), config.getMoveThreadCount());
+        return SolverManager.create(config);
+    }
+
+    private boolean isEnterpriseSolverAvailable() {
+        Boolean configured = appProperties.getVrp().getEnterpriseSolver();
+        if (configured != null) {
+            return configured;
+        }
+        return ClassUtils.isPresent(ENTERPRISE_SERVICE_CLASS, getClass().getClassLoader());
+    }
+
+    @Override
+    public void destroy() {
+        profileManagers.values().forEach(SolverManager::close);
+        profileManagers.clear();
+    }
+}
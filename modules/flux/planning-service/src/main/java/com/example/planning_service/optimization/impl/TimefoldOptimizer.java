@@ -1,30 +1,37 @@
 package com.example.planning_service.optimization.impl;
 
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
 import ai.timefold.solver.core.api.solver.SolverJob;
-import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.example.planning_service.config.AppProperties;
 import com.example.planning_service.dto.OptimizationRequestDto;
 import com.example.planning_service.dto.VehicleRouteDto;
 import com.example.planning_service.dto.RouteStopDto;
 import com.example.planning_service.entity.FleetVehicleEntity;
 import com.example.planning_service.entity.OptimizationProfileEntity;
+import com.example.planning_service.monitoring.SolveTrace;
+import com.example.planning_service.monitoring.SolverTelemetry;
 import com.example.planning_service.optimization.VrpOptimizerService;
 import com.example.planning_service.optimization.strategy.OptimizationStrategy;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.domain.timefold.ScaledUnits;
 import com.example.planning_service.domain.timefold.Standstill;
 import com.example.planning_service.domain.timefold.Vehicle;
 import com.example.planning_service.domain.timefold.RouteStop;
 import com.example.planning_service.repository.FleetVehicleRepository;
+import com.example.planning_service.routing.DistanceProvider;
+import com.example.planning_service.routing.TravelMatrix;
 import com.example.planning_service.domain.timefold.Location;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import com.example.planning_service.dto.OptimizationUpdateDto;
 import com.example.planning_service.service.GatekeeperService;
-import java.math.BigDecimal;
+import com.example.planning_service.service.OptimizationUpdatePublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
@@ -35,11 +42,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerService {
 
-    private final SolverManager<com.example.planning_service.domain.timefold.VehicleRoutingSolution, String> solverManager;
+    private final SolverProfileRegistry solverProfiles;
     private final FleetVehicleRepository vehicleRepository;
-    private final SimpMessagingTemplate messagingTemplate;
     private final GatekeeperService gatekeeperService;
     private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+    private final DistanceProvider distanceProvider;
+    private final OptimizationUpdatePublisher updatePublisher;
+    private final SolverTelemetry solverTelemetry;
 
     /**
      * Cache for last solved solution (for /solution endpoint)
@@ -59,6 +69,18 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
     @Override
     public List<VehicleRouteDto> optimize(OptimizationRequestDto request,
             List<com.example.danxils_commons.dto.OrderResponseDto> orders, OptimizationProfileEntity profile) {
+        return optimize(request, orders, profile, null);
+    }
+
+    private List<VehicleRouteDto> optimize(OptimizationRequestDto request,
+            List<com.example.danxils_commons.dto.OrderResponseDto> orders, OptimizationProfileEntity profile,
+            Duration timeBudget) {
+        return mapToRoutes(solve(request, orders, profile, timeBudget));
+    }
+
+    private com.example.planning_service.domain.timefold.VehicleRoutingSolution solve(OptimizationRequestDto request,
+            List<com.example.danxils_commons.dto.OrderResponseDto> orders, OptimizationProfileEntity profile,
+            Duration timeBudget) {
         log.info("Starting Timefold optimization for {} orders", orders.size());
 
         // 1. Map to VehicleRoutingSolution (Domain)
@@ -68,29 +90,51 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
         UUID problemId = UUID.randomUUID();
         problem.setOptimizationId(problemId.toString());
 
-        SolverJob<com.example.planning_service.domain.timefold.VehicleRoutingSolution, String> solverJob = solverManager
+        // Pick solver profile (nearby selection / multithreading) from the problem size
+        SolverProfile solverProfile = solverProfiles.select(problem.getStops().size(), problem.getVehicles().size());
+        log.info("Solving {} stops with {} vehicles using solver profile {}",
+                problem.getStops().size(), problem.getVehicles().size(), solverProfile);
+
+        SolveTrace trace = solverTelemetry.start(problemId.toString(), "optimize", solverProfile.name(),
+                problem.getStops().size(), problem.getVehicles().size());
+        var solveBuilder = solverProfiles
+                .get(solverProfile)
                 .solveBuilder()
                 .withProblemId(problemId.toString())
                 .withProblem(problem)
-                .withBestSolutionConsumer(this::broadcastSolution)
-                .run();
+                .withFirstInitializedSolutionConsumer(trace::onFirstInitializedSolution)
+                // Solver thread only hands the snapshot over - mapping/Gatekeeper/STOMP run throttled in the publisher
+                .withBestSolutionConsumer(best -> {
+                    trace.onBestSolution(best);
+                    updatePublisher.submit(problemId.toString(),
+                            () -> toUpdate(best, lastSolution.get(), "SOLVING", null));
+                });
+        if (timeBudget != null) {
+            // Per-problem time budget overrides the XML termination (spent limit only)
+            solveBuilder.withConfigOverride(
+                    new SolverConfigOverride<com.example.planning_service.domain.timefold.VehicleRoutingSolution>()
+                            .withTerminationConfig(new TerminationConfig().withSpentLimit(timeBudget)));
+        }
+        SolverJob<com.example.planning_service.domain.timefold.VehicleRoutingSolution, String> solverJob = trace
+                .run(solveBuilder);
 
         com.example.planning_service.domain.timefold.VehicleRoutingSolution solution;
         try {
             solution = solverJob.getFinalBestSolution();
         } catch (InterruptedException | ExecutionException e) {
+            trace.fail(e);
             log.error("Solving failed", e);
             throw new RuntimeException("Optimization failed", e);
         }
+        trace.finish(solution);
 
         // Cache the solution for /solution endpoint
-        lastSolution.set(solution);
+        com.example.planning_service.domain.timefold.VehicleRoutingSolution previous = lastSolution.getAndSet(solution);
+        updatePublisher.submitFinal(problemId.toString(), () -> toUpdate(solution, previous, "FINISHED", null));
         log.debug("Cached solution with {} vehicles, {} stops",
                 solution.getVehicles() != null ? solution.getVehicles().size() : 0,
                 solution.getStops() != null ? solution.getStops().size() : 0);
-
-        // 3. Map back to Routes
-        return mapToRoutes(solution);
+        return solution;
     }
 
     @Override
@@ -128,17 +172,28 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
             }
         }
 
+        // Planning start is fixed once per problem - arrival times never read the wall clock
+        Instant planningStart = resolvePlanningStart(request);
+        LocalDate planningDay = LocalDate.ofInstant(planningStart, ZoneId.systemDefault());
+        long shiftStart = planningDay.atTime(appProperties.getVrp().getShiftStart())
+                .atZone(ZoneId.systemDefault()).toEpochSecond();
+        long shiftEnd = planningDay.atTime(appProperties.getVrp().getShiftEnd())
+                .atZone(ZoneId.systemDefault()).toEpochSecond();
+
         for (FleetVehicleEntity entity : fleet) {
             Vehicle v = new Vehicle();
             v.setId(entity.getId().toString());
+            v.setDepartureTime(planningStart.getEpochSecond());
+            v.setShiftStartTime(shiftStart);
+            v.setShiftEndTime(shiftEnd);
 
             // --- Elastic Shell Logic: Adjust Capacity for Fixed Stops ---
-            BigDecimal baseCapacityWeight = BigDecimal.valueOf(Math.round(entity.getCapacityWeight()));
-            BigDecimal baseCapacityVolume = BigDecimal
-                    .valueOf(Math.round(entity.getCapacityVolume() != null ? entity.getCapacityVolume() : 0.0));
+            // Converted to fixed-point units here; the solver never sees BigDecimal
+            long baseCapacityWeightGrams = ScaledUnits.kilogramsToGrams(entity.getCapacityWeight());
+            long baseCapacityVolumeCm3 = ScaledUnits.cubicMetersToCubicCentimeters(entity.getCapacityVolume());
 
-            BigDecimal fixedUsageWeight = BigDecimal.ZERO;
-            BigDecimal fixedUsageVolume = BigDecimal.ZERO;
+            long fixedUsageWeightGrams = 0L;
+            long fixedUsageVolumeCm3 = 0L;
 
             if (Boolean.TRUE.equals(entity.getIsFixedRoute()) && entity.getFixedStops() != null
                     && !entity.getFixedStops().isEmpty()) {
@@ -149,13 +204,12 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
                             });
 
                     for (com.example.planning_service.dto.FixedStopDto stop : fixedStops) {
-                        if (stop.getWeight() != null)
-                            fixedUsageWeight = fixedUsageWeight.add(stop.getWeight());
-                        if (stop.getVolume() != null)
-                            fixedUsageVolume = fixedUsageVolume.add(stop.getVolume());
+                        fixedUsageWeightGrams += ScaledUnits.kilogramsToGrams(stop.getWeight());
+                        fixedUsageVolumeCm3 += ScaledUnits.cubicMetersToCubicCentimeters(stop.getVolume());
                     }
-                    log.info("Vehicle {} is Fixed Route. Base Cap: {}, Fixed Load: {}", v.getId(), baseCapacityWeight,
-                            fixedUsageWeight);
+                    log.info("Vehicle {} is Fixed Route. Base Cap: {} kg, Fixed Load: {} kg", v.getId(),
+                            ScaledUnits.gramsToKilograms(baseCapacityWeightGrams),
+                            ScaledUnits.gramsToKilograms(fixedUsageWeightGrams));
 
                 } catch (Exception e) {
                     log.error("Failed to parse fixed stops for vehicle {}: {}", entity.getId(), e.getMessage());
@@ -163,8 +217,8 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
             }
 
             // Set Remaining Capacity (Effective Capacity for Solver)
-            v.setCapacityWeight(baseCapacityWeight.subtract(fixedUsageWeight).max(BigDecimal.ZERO));
-            v.setCapacityVolume(baseCapacityVolume.subtract(fixedUsageVolume).max(BigDecimal.ZERO));
+            v.setCapacityWeightGrams(Math.max(0L, baseCapacityWeightGrams - fixedUsageWeightGrams));
+            v.setCapacityVolumeCm3(Math.max(0L, baseCapacityVolumeCm3 - fixedUsageVolumeCm3));
 
             // Map Elastic Shell properties
             v.setFixedRoute(Boolean.TRUE.equals(entity.getIsFixedRoute()));
@@ -186,23 +240,19 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
             if (order.delivery() != null) {
                 RouteStop visit = new RouteStop();
                 visit.setId(order.orderId().toString());
-                visit.setDemandWeight(order.aPackage() != null && order.aPackage().getWeight() != null
-                        ? BigDecimal.valueOf(order.aPackage().getWeight().doubleValue())
-                        : BigDecimal.ZERO);
-                visit.setDemandVolume(order.aPackage() != null && order.aPackage().getVolume() != null
-                        ? BigDecimal.valueOf(order.aPackage().getVolume().doubleValue())
-                        : BigDecimal.ZERO);
+                visit.setDemandWeightGrams(order.aPackage() != null
+                        ? ScaledUnits.kilogramsToGrams(order.aPackage().getWeight())
+                        : 0L);
+                visit.setDemandVolumeCm3(order.aPackage() != null
+                        ? ScaledUnits.cubicMetersToCubicCentimeters(order.aPackage().getVolume())
+                        : 0L);
                 visit.setLatitude(order.delivery().lat() != null ? order.delivery().lat() : 0.0);
                 visit.setLongitude(order.delivery().lon() != null ? order.delivery().lon() : 0.0);
-                visit.setServiceDurationSeconds(300); // 5 mins default
+                visit.setServiceDurationSeconds(appProperties.getVrp().getDefaultServiceDurationSeconds());
 
-                // Time Windows
-                if (order.deliveryTimeFrom() != null) {
-                    visit.setMinStartTime(LocalDateTime.ofInstant(order.deliveryTimeFrom(), ZoneId.systemDefault()));
-                }
-                if (order.deliveryTimeTo() != null) {
-                    visit.setMaxEndTime(LocalDateTime.ofInstant(order.deliveryTimeTo(), ZoneId.systemDefault()));
-                }
+                // Time Windows (epoch seconds)
+                visit.setMinStartTime(ScaledUnits.toEpochSecond(order.deliveryTimeFrom()));
+                visit.setMaxEndTime(ScaledUnits.toEpochSecond(order.deliveryTimeTo()));
 
                 visits.add(visit);
             }
@@ -217,6 +267,11 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
                                      // provider
         problem.setOrders(orders);
 
+        // Precompute distances once - constraints and listeners only do array lookups
+        problem.setDistanceMatrix(DistanceMatrix.build(vehicles, visits, roadMatrix(distanceProvider)));
+        log.debug("Built {} distance matrix with {} locations for {} vehicles and {} stops",
+                distanceProvider.getName(), problem.getDistanceMatrix().size(), vehicles.size(), visits.size());
+
         // Set depot (using default location of first vehicle or Warsaw center)
         if (!vehicles.isEmpty()) {
             problem.setDepot(vehicles.get(0).getLocation());
@@ -230,6 +285,33 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
         return problem;
     }
 
+    /**
+     * Solver matrix from the shared DistanceProvider (road network when available)
+     */
+    static DistanceMatrix.Calculator roadMatrix(DistanceProvider distanceProvider) {
+        return (size, latitudes, longitudes) -> {
+            List<com.example.planning_service.domain.Location> points = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                points.add(com.example.planning_service.domain.Location.builder()
+                        .latitude(latitudes[i])
+                        .longitude(longitudes[i])
+                        .build());
+            }
+            TravelMatrix travel = distanceProvider.manyToMany(points, points);
+            return DistanceMatrix.of(size, travel.distanceMetersArray(), travel.durationSecondsArray());
+        };
+    }
+
+    private Instant resolvePlanningStart(OptimizationRequestDto request) {
+        if (request != null && request.getPlanningStart() != null) {
+            return request.getPlanningStart();
+        }
+        if (appProperties.getVrp().getPlanningStart() != null) {
+            return appProperties.getVrp().getPlanningStart();
+        }
+        return Instant.now().truncatedTo(java.time.temporal.ChronoUnit.MINUTES);
+    }
+
     public List<VehicleRouteDto> mapToRoutes(
             com.example.planning_service.domain.timefold.VehicleRoutingSolution solution) {
         List<VehicleRouteDto> routes = new ArrayList<>();
@@ -263,16 +345,21 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
             }
 
             List<RouteStopDto> stops = new ArrayList<>();
+            long totalDistanceMeters = 0L;
+            long totalTimeSeconds = 0L;
             while (visit != null) {
+                totalDistanceMeters += (long) visit.getDistanceFromPreviousMeters();
+                totalTimeSeconds += visit.getTravelTimeSeconds() + visit.getServiceDurationSeconds();
+
                 RouteStopDto stop = RouteStopDto.builder()
                         .stopId(visit.getId())
                         .type("DELIVERY")
                         .lat(visit.getLatitude())
                         .lon(visit.getLongitude())
                         .orderId(UUID.fromString(visit.getId()))
-                        .plannedArrival(visit.getArrivalTime() != null
-                                ? visit.getArrivalTime().atZone(ZoneId.systemDefault()).toInstant()
-                                : null)
+                        .plannedArrival(ScaledUnits.toInstant(visit.getArrivalTime()))
+                        .timeWindowStart(ScaledUnits.toInstant(visit.getMinStartTime()))
+                        .timeWindowEnd(ScaledUnits.toInstant(visit.getMaxEndTime()))
                         .build();
 
                 stops.add(stop);
@@ -286,8 +373,8 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
                 route.setRouteId(UUID.randomUUID().toString());
                 route.setVehicleId(UUID.fromString(vehicle.getId()));
                 route.setStops(stops);
-                route.setTotalDistance(0L);
-                route.setTotalTime(0L);
+                route.setTotalDistance(totalDistanceMeters);
+                route.setTotalTime(totalTimeSeconds * 1000); // millis, consumed as Route.totalTimeMillis
                 routes.add(route);
             }
         }
@@ -308,12 +395,35 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
             List<com.example.danxils_commons.dto.OrderResponseDto> ordersToPlan,
             List<FleetVehicleEntity> fleet,
             OptimizationProfileEntity profile) {
+        return calculateRoutes(ordersToPlan, fleet, profile, null);
+    }
+
+    @Override
+    public VrpOptimizerService.VehicleRoutingSolution calculateRoutes(
+            List<com.example.danxils_commons.dto.OrderResponseDto> ordersToPlan,
+            List<FleetVehicleEntity> fleet,
+            OptimizationProfileEntity profile,
+            Duration timeBudget) {
+        return calculateSolvedRoutes(ordersToPlan, fleet, profile, timeBudget).routes();
+    }
+
+    /**
+     * calculateRoutes plus the full Timefold solution of this very call -
+     * getLastSolution() may already hold another optimization's plan
+     */
+    public SolvedRoutes calculateSolvedRoutes(
+            List<com.example.danxils_commons.dto.OrderResponseDto> ordersToPlan,
+            List<FleetVehicleEntity> fleet,
+            OptimizationProfileEntity profile,
+            Duration timeBudget) {
         // Create Request DTO
         OptimizationRequestDto request = new OptimizationRequestDto();
         request.setVehicleIds(fleet.stream().map(FleetVehicleEntity::getId).collect(Collectors.toList()));
 
         // Optimize
-        List<VehicleRouteDto> dtos = optimize(request, ordersToPlan, profile);
+        com.example.planning_service.domain.timefold.VehicleRoutingSolution solution = solve(request, ordersToPlan,
+                profile, timeBudget);
+        List<VehicleRouteDto> dtos = mapToRoutes(solution);
 
         // Map to VehicleRoutingSolution
         List<VrpOptimizerService.VehicleRoutingSolution.Route> routes = dtos.stream().map(dto -> {
@@ -325,7 +435,9 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
                             stop.getLon(),
                             stop.getPlannedArrival() != null ? stop.getPlannedArrival().toEpochMilli() : 0,
                             stop.getPlannedArrival() != null ? stop.getPlannedArrival().plusSeconds(300).toEpochMilli()
-                                    : 0))
+                                    : 0,
+                            stop.getTimeWindowStart() != null ? stop.getTimeWindowStart().toEpochMilli() : null,
+                            stop.getTimeWindowEnd() != null ? stop.getTimeWindowEnd().toEpochMilli() : null))
                     .collect(Collectors.toList());
 
             return new VrpOptimizerService.VehicleRoutingSolution.Route(
@@ -335,99 +447,98 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
                     dto.getTotalTime());
         }).collect(Collectors.toList());
 
-        return new VrpOptimizerService.VehicleRoutingSolution(routes);
+        return new SolvedRoutes(new VrpOptimizerService.VehicleRoutingSolution(routes), solution);
     }
 
     @Override
     public List<RouteStopDto> resequenceRoutes(List<RouteStopDto> stops, double startLat, double startLon) {
         log.info("Resequencing {} stops starting from {}, {}", stops.size(), startLat, startLon);
-        List<RouteStopDto> optimized = new ArrayList<>();
-        List<RouteStopDto> remaining = new ArrayList<>(stops);
-
-        double currentLat = startLat;
-        double currentLon = startLon;
-
-        while (!remaining.isEmpty()) {
-            RouteStopDto nearest = null;
-            double minDist = Double.MAX_VALUE;
-
-            for (RouteStopDto candidate : remaining) {
-                double dist = calculateHaversineDistance(currentLat, currentLon, candidate.getLat(),
-                        candidate.getLon());
-                if (dist < minDist) {
-                    minDist = dist;
-                    nearest = candidate;
-                }
-            }
-
-            if (nearest != null) {
-                optimized.add(nearest);
-                remaining.remove(nearest);
-                currentLat = nearest.getLat();
-                currentLon = nearest.getLon();
-            } else {
-                break; // Should not happen
-            }
-        }
+        AppProperties.Resequence config = appProperties.getResequence();
+        RouteResequencer resequencer = new RouteResequencer(config.isImprove(),
+                Duration.ofMillis(config.getTimeLimitMillis()), appProperties.getVrp().getShiftStart(),
+                appProperties.getVrp().getDefaultServiceDurationSeconds(), DistanceMatrix.AVERAGE_SPEED_KMH);
+        return resequencer.resequence(stops, startLat, startLon);
+    }
 
-        return optimized;
+    /**
+     * Make an externally produced plan (e.g. urgent re-plan) the current one:
+     * broadcast it (Gatekeeper compares against the previous plan) and cache it
+     */
+    public void applySolution(com.example.planning_service.domain.timefold.VehicleRoutingSolution solution) {
+        com.example.planning_service.domain.timefold.VehicleRoutingSolution previous = lastSolution.getAndSet(solution);
+        updatePublisher.submitFinal(solution.getOptimizationId(), () -> toUpdate(solution, previous, "FINISHED", null));
     }
 
-    private double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c * 1000; // convert to meters
+    /**
+     * Apply an approved plan only if the plan it was built on is still the current one
+     *
+     * @return false when another plan became current in the meantime (nothing applied)
+     */
+    public boolean applySolutionIfCurrent(com.example.planning_service.domain.timefold.VehicleRoutingSolution expected,
+            com.example.planning_service.domain.timefold.VehicleRoutingSolution solution) {
+        if (!lastSolution.compareAndSet(expected, solution)) {
+            return false;
+        }
+        updatePublisher.submitFinal(solution.getOptimizationId(), () -> toUpdate(solution, expected, "FINISHED", null));
+        return true;
     }
 
-    private void broadcastSolution(com.example.planning_service.domain.timefold.VehicleRoutingSolution solution) {
-        try {
-            OptimizationUpdateDto update = new OptimizationUpdateDto();
-            update.setScore(solution.getScore() != null ? solution.getScore().toString() : "N/A");
-            update.setSolverStatus("SOLVING"); // You could pass SolverStatus if available from event
-
-            // Gatekeeper Validation
-            GatekeeperService.SafetyReport report = gatekeeperService.validateSolution(solution, lastSolution.get());
-            update.setRequiresApproval(report.isRequiresApproval());
-            update.setWarnings(report.getWarnings());
-
-            // Map routes for visualization
-            List<VehicleRouteDto> routeDtos = mapToRoutes(solution);
-            List<OptimizationUpdateDto.RouteDto> visualRoutes = routeDtos.stream().map(dto -> {
-                OptimizationUpdateDto.RouteDto r = new OptimizationUpdateDto.RouteDto();
-                r.setVehicleId(dto.getVehicleId().toString());
-                r.setTotalDistanceMeters(dto.getTotalDistance());
-
-                // Map stops to points
-                List<OptimizationUpdateDto.PointDto> points = new ArrayList<>();
-                // Flatten: Depot -> Stop1 -> Stop2 ...
-                // Note: VehicleRouteDto is simplified, doesn't always have explicit start/end
-                // depot in path list
-                // For "High Fidelity", we need correct lat/lons.
-
-                // We'll trust the stops list for now.
-                // Ideally we'd get the vehicle depot from the solution, but mapToRoutes loses
-                // that context slightly.
-                // Let's iterate stops.
-                for (RouteStopDto stop : dto.getStops()) {
-                    points.add(new OptimizationUpdateDto.PointDto(
-                            stop.getLat(), stop.getLon(), "STOP", stop.getOrderId()));
-                }
-                r.setPath(points);
-                r.setColor(getColorForVehicle(r.getVehicleId()));
-                return r;
-            }).collect(Collectors.toList());
+    /**
+     * Broadcast a plan for dispatcher approval without making it the current one
+     *
+     * @param approvalId Gatekeeper proposal the dispatcher's decision refers to
+     */
+    public void proposeSolution(com.example.planning_service.domain.timefold.VehicleRoutingSolution solution,
+            String approvalId) {
+        com.example.planning_service.domain.timefold.VehicleRoutingSolution current = lastSolution.get();
+        updatePublisher.submitFinal(solution.getOptimizationId(),
+                () -> toUpdate(solution, current, "PROPOSED", approvalId));
+    }
 
-            update.setRoutes(visualRoutes);
+    /**
+     * Build the live update for a solution (runs on the publisher thread, not the solver's)
+     *
+     * @param previous plan Gatekeeper compares against
+     * @param approvalId registered proposal that always needs approval, null for regular plans
+     */
+    private OptimizationUpdateDto toUpdate(com.example.planning_service.domain.timefold.VehicleRoutingSolution solution,
+            com.example.planning_service.domain.timefold.VehicleRoutingSolution previous, String solverStatus,
+            String approvalId) {
+        OptimizationUpdateDto update = new OptimizationUpdateDto();
+        update.setScore(solution.getScore() != null ? solution.getScore().toString() : "N/A");
+        update.setSolverStatus(solverStatus);
+
+        // Gatekeeper Validation
+        GatekeeperService.SafetyReport report = gatekeeperService.validateSolution(solution, previous, approvalId);
+        update.setRequiresApproval(report.isRequiresApproval());
+        update.setWarnings(report.getWarnings());
+        update.setApprovalId(report.getApprovalId());
+        update.setScoreChangePercent(report.getScoreChangePercent());
+        update.setJustification(report.getJustification()); // async - see GatekeeperVerdictDispatcher
+
+        // Map routes for visualization
+        List<VehicleRouteDto> routeDtos = mapToRoutes(solution);
+        List<OptimizationUpdateDto.RouteDto> visualRoutes = routeDtos.stream().map(dto -> {
+            OptimizationUpdateDto.RouteDto r = new OptimizationUpdateDto.RouteDto();
+            r.setVehicleId(dto.getVehicleId().toString());
+            r.setTotalDistanceMeters(dto.getTotalDistance());
+
+            // Map stops to points
+            List<OptimizationUpdateDto.PointDto> points = new ArrayList<>();
+            // Flatten: Depot -> Stop1 -> Stop2 ...
+            // Note: VehicleRouteDto is simplified, doesn't always have explicit start/end
+            // depot in path list
+            for (RouteStopDto stop : dto.getStops()) {
+                points.add(new OptimizationUpdateDto.PointDto(
+                        stop.getLat(), stop.getLon(), "STOP", stop.getOrderId()));
+            }
+            r.setPath(points);
+            r.setColor(getColorForVehicle(r.getVehicleId()));
+            return r;
+        }).collect(Collectors.toList());
 
-            messagingTemplate.convertAndSend("/topic/optimization-updates", update);
-        } catch (Exception e) {
-            log.warn("Failed to broadcast solution update: {}", e.getMessage());
-        }
+        update.setRoutes(visualRoutes);
+        return update;
     }
 
     private String getColorForVehicle(String vehicleId) {
@@ -438,4 +549,12 @@ public class TimefoldOptimizer implements OptimizationStrategy, VrpOptimizerServ
         int b = (hash & 0x0000FF);
         return String.format("#%02x%02x%02x", r, g, b);
     }
+
+    /**
+     * Routes of one calculateRoutes call together with the Timefold solution they came from
+     */
+    public record SolvedRoutes(
+            VrpOptimizerService.VehicleRoutingSolution routes,
+            com.example.planning_service.domain.timefold.VehicleRoutingSolution solution) {
+    }
 }
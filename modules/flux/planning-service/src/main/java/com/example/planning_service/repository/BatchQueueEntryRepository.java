@@ -0,0 +1,51 @@
+package com.example.planning_service.repository;
+
+import com.example.planning_service.entity.BatchQueueEntryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BatchQueueEntryRepository extends JpaRepository<BatchQueueEntryEntity, UUID> {
+
+    List<BatchQueueEntryEntity> findAllByStatus(BatchQueueEntryEntity.Status status);
+
+    @Modifying
+    @Query("update BatchQueueEntryEntity e set e.status = :claimed, e.claimId = :claimId, e.claimedAt = :claimedAt "
+            + "where e.orderId in :orderIds and e.status = :pending")
+    int claim(@Param("orderIds") Collection<UUID> orderIds, @Param("claimId") UUID claimId,
+            @Param("claimedAt") Instant claimedAt,
+            @Param("pending") BatchQueueEntryEntity.Status pending,
+            @Param("claimed") BatchQueueEntryEntity.Status claimed);
+
+    @Modifying
+    @Query("update BatchQueueEntryEntity e set e.status = :pending, e.claimId = null, e.claimedAt = null "
+            + "where e.claimId = :claimId")
+    int release(@Param("claimId") UUID claimId, @Param("pending") BatchQueueEntryEntity.Status pending);
+
+    @Modifying
+    @Query("update BatchQueueEntryEntity e set e.status = :pending, e.claimId = null, e.claimedAt = null "
+            + "where e.claimId = :claimId and e.orderId in :orderIds")
+    int releaseOrders(@Param("claimId") UUID claimId, @Param("orderIds") Collection<UUID> orderIds,
+            @Param("pending") BatchQueueEntryEntity.Status pending);
+
+    @Modifying
+    @Query("update BatchQueueEntryEntity e set e.status = :pending, e.claimId = null, e.claimedAt = null "
+            + "where e.claimId is not null")
+    int releaseAllClaims(@Param("pending") BatchQueueEntryEntity.Status pending);
+
+    @Modifying
+    @Query("delete from BatchQueueEntryEntity e where e.claimId = :claimId")
+    int deleteByClaimId(@Param("claimId") UUID claimId);
+
+    @Modifying
+    @Query("delete from BatchQueueEntryEntity e where e.claimId is null")
+    int deleteAllPending();
+}
@@ -4,6 +4,7 @@ import com.example.planning_service.entity.DriverTaskEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,4 +13,6 @@ public interface DriverTaskRepository extends JpaRepository<DriverTaskEntity, UU
     List<DriverTaskEntity> findByDriverIdAndStatus(String driverId, String status);
 
     List<DriverTaskEntity> findByDriverIdAndStatusNot(String driverId, String status);
+
+    List<DriverTaskEntity> findByOrderIdInAndStatusNot(Collection<String> orderIds, String status);
 }
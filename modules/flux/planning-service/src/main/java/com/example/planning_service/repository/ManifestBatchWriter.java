@@ -0,0 +1,79 @@
+package com.example.planning_service.repository;
+
+import com.example.planning_service.entity.ManifestEntity;
+import com.example.planning_service.entity.ManifestRouteEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ARCHITEKTURA: Zapis manifestów całego planu przez JDBC batch insert
+ *
+ * Zamiast save() per trasa (persist + cascade per wiersz, dirty checking) -
+ * dwa batche: planning_manifests i planning_manifest_routes. Wywołanie w
+ * transakcji JPA używa tego samego połączenia (JpaTransactionManager), więc
+ * plan zapisuje się w całości albo wcale.
+ *
+ * Zapisane encje nie trafiają do persistence contextu - kolejne odczyty przez
+ * ManifestRepository idą do bazy. Kolumny = domyślne nazewnictwo Hibernate
+ * (camelCase -> snake_case) dla ManifestEntity / ManifestRouteEntity.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ManifestBatchWriter {
+
+    static final int BATCH_SIZE = 500;
+
+    static final String INSERT_MANIFEST = "INSERT INTO planning_manifests (id, driver_id, date, vehicle_id, status,"
+            + " optimization_score, total_distance_meters, estimated_duration_millis, external_reference,"
+            + " driver_name, vehicle_plate, metadata) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb))";
+
+    static final String INSERT_ROUTE = "INSERT INTO planning_manifest_routes (id, manifest_id, order_id, sequence,"
+            + " address, time_window, estimated_arrival, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the manifests with their routes
+     */
+    public void insertAll(List<ManifestEntity> manifests) {
+        if (manifests.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MANIFEST, manifests, BATCH_SIZE, (ps, manifest) -> {
+            ps.setObject(1, manifest.getId());
+            ps.setObject(2, manifest.getDriverId(), Types.OTHER);
+            ps.setObject(3, manifest.getDate());
+            ps.setObject(4, manifest.getVehicleId(), Types.OTHER);
+            ps.setString(5, manifest.getStatus() != null ? manifest.getStatus().name() : null);
+            ps.setDouble(6, manifest.getOptimizationScore());
+            ps.setDouble(7, manifest.getTotalDistanceMeters());
+            ps.setLong(8, manifest.getEstimatedDurationMillis());
+            ps.setString(9, manifest.getExternalReference());
+            ps.setString(10, manifest.getDriverName());
+            ps.setString(11, manifest.getVehiclePlate());
+            ps.setString(12, manifest.getMetadata());
+        });
+
+        List<ManifestRouteEntity> routes = new ArrayList<>();
+        for (ManifestEntity manifest : manifests) {
+            if (manifest.getRoutes() != null) {
+                routes.addAll(manifest.getRoutes());
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROUTE, routes, BATCH_SIZE, (ps, route) -> {
+            ps.setObject(1, route.getId());
+            ps.setObject(2, route.getManifest().getId());
+            ps.setObject(3, route.getOrderId(), Types.OTHER);
+            ps.setInt(4, route.getSequence());
+            ps.setString(5, route.getAddress());
+            ps.setString(6, route.getTimeWindow());
+            ps.setString(7, route.getEstimatedArrival());
+            ps.setString(8, route.getStatus());
+        });
+    }
+}
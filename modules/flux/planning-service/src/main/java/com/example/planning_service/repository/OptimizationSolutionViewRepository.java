@@ -0,0 +1,18 @@
+package com.example.planning_service.repository;
+
+import com.example.planning_service.entity.OptimizationSolutionViewEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OptimizationSolutionViewRepository extends JpaRepository<OptimizationSolutionViewEntity, UUID> {
+    Optional<OptimizationSolutionViewEntity> findTopByOrderByCreatedAtDesc();
+
+    /**
+     * Latest solution with a full Timefold solution (manual edits only store routes)
+     */
+    Optional<OptimizationSolutionViewEntity> findTopByFullSolutionJsonIsNotNullOrderByCreatedAtDesc();
+}
@@ -6,7 +6,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -46,4 +48,11 @@ public interface RouteAssignmentRepository extends JpaRepository<RouteAssignment
      * Find routes by driver and status (e.g. all IN_PROGRESS routes for a driver)
      */
     List<RouteAssignmentEntity> findByDriverIdAndStatus(UUID driverId, RouteStatus status);
+
+    /**
+     * Most recent route of a driver in any of the statuses (active route lookup,
+     * idx_route_assignment_active)
+     */
+    Optional<RouteAssignmentEntity> findFirstByDriverIdAndStatusInOrderByCreatedAtDesc(UUID driverId,
+            Collection<RouteStatus> statuses);
 }
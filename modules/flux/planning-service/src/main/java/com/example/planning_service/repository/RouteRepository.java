@@ -2,10 +2,26 @@ package com.example.planning_service.repository;
 
 import com.example.planning_service.entity.RouteEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface RouteRepository extends JpaRepository<RouteEntity, UUID> {
+
+    @Query("select distinct r from RouteEntity r left join fetch r.stops")
+    List<RouteEntity> findAllWithStops();
+
+    /**
+     * Live routes with a known driver position - candidates for the ETA sweep:
+     * no ETA yet, or some stop whose SLA window closes after slaCutoff
+     */
+    @Query("select r.id from RouteEntity r where r.currentLocation.coordinates is not null "
+            + "and (r.etaCalculatedAt is null or exists (select s.id from RouteStopEntity s "
+            + "where s.route = r and s.slaWindowEnd >= :slaCutoff))")
+    List<UUID> findLiveIdsWithCurrentLocation(@Param("slaCutoff") LocalDateTime slaCutoff);
 }
@@ -0,0 +1,86 @@
+package com.example.planning_service.repository.graph;
+
+import com.example.planning_service.config.AppProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ARCHITEKTURA: Zapis pozycji kierowców do grafu jednym UNWIND per chunk
+ *
+ * Zamiast findById + save per ping (odczyt całego DriverNode z relacjami i
+ * zapis z powrotem) - jedno zapytanie aktualizujące tylko latitude /
+ * longitude / lastUpdate dla całej listy. Aktualizowani są tylko istniejący
+ * kierowcy (tak jak wcześniej), a starszy ping nie nadpisuje nowszej pozycji
+ * (lastUpdate porównywany w Cypherze - partycje / ponowienia nie cofają
+ * kierowcy).
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverPositionWriter {
+
+    static final String UPDATE_POSITIONS = "UNWIND $rows AS row "
+            + "MATCH (d:Driver {driverId: row.driverId}) "
+            + "WHERE d.lastUpdate IS NULL OR row.timestamp IS NULL OR d.lastUpdate <= row.timestamp "
+            + "SET d.latitude = row.latitude, d.longitude = row.longitude, "
+            + "d.lastUpdate = coalesce(row.timestamp, d.lastUpdate) "
+            + "RETURN count(d) AS updated";
+
+    private final Neo4jClient neo4jClient;
+    private final AppProperties appProperties;
+
+    /**
+     * Latest known position of a driver
+     */
+    public record Position(String driverId, double latitude, double longitude, Instant timestamp) {
+    }
+
+    /**
+     * Update the positions of existing drivers
+     *
+     * @return number of drivers updated
+     */
+    public long updatePositions(Collection<Position> positions) {
+        int chunkSize = Math.max(1, appProperties.getGraphTelemetry().getWriteChunkSize());
+        long updated = 0;
+        List<Map<String, Object>> rows = new ArrayList<>(Math.min(chunkSize, positions.size()));
+        for (Position position : positions) {
+            rows.add(row(position));
+            if (rows.size() == chunkSize) {
+                updated += write(rows);
+                rows = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!rows.isEmpty()) {
+            updated += write(rows);
+        }
+        return updated;
+    }
+
+    private long write(List<Map<String, Object>> rows) {
+        return neo4jClient.query(UPDATE_POSITIONS)
+                .bind(rows).to("rows")
+                .fetchAs(Long.class)
+                .mappedBy((typeSystem, record) -> record.get("updated").asLong())
+                .one()
+                .orElse(0L);
+    }
+
+    private static Map<String, Object> row(Position position) {
+        Map<String, Object> row = new HashMap<>(6);
+        row.put("driverId", position.driverId());
+        row.put("latitude", position.latitude());
+        row.put("longitude", position.longitude());
+        // Instant is stored by SDN as a UTC DateTime - same type here, so the comparison works
+        row.put("timestamp", position.timestamp() != null ? position.timestamp().atZone(ZoneOffset.UTC) : null);
+        return row;
+    }
+}
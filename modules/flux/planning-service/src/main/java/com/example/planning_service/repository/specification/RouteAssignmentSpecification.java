@@ -6,8 +6,10 @@ import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Specification pattern for RouteAssignment filtering.
@@ -87,4 +89,18 @@ public class RouteAssignmentSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Keyset predicate: rows after (createdAt, id) in "createdAt desc, id desc"
+     * order. The redundant createdAt <= bound gives the index a range start
+     * (idx_route_assignment_created_id / idx_route_assignment_status_created_id),
+     * the OR only breaks ties within the same instant.
+     */
+    public Specification<RouteAssignmentEntity> createdBefore(Instant createdAt, UUID id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.lessThanOrEqualTo(root.get("createdAt"), createdAt),
+                criteriaBuilder.or(
+                        criteriaBuilder.lessThan(root.get("createdAt"), createdAt),
+                        criteriaBuilder.lessThan(root.get("id"), id)));
+    }
 }
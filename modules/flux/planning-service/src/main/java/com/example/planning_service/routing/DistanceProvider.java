@@ -0,0 +1,51 @@
+package com.example.planning_service.routing;
+
+import com.example.planning_service.domain.Location;
+
+import java.util.List;
+
+/**
+ * ARCHITEKTURA: Common road distance source
+ *
+ * Single entry point for travel distances/durations used by:
+ * - TravelTimeService (point-to-point ETA)
+ * - SentinelService (live route ETA recalculation)
+ * - TimefoldOptimizer (solver DistanceMatrix)
+ *
+ * Implementations:
+ * - GraphHopperDistanceProvider: offline road network built from routing-data
+ * - HaversineDistanceProvider: straight-line estimate, used as fallback
+ */
+public interface DistanceProvider {
+
+    /**
+     * Short name for logs/metrics (e.g. "graphhopper", "haversine")
+     */
+    String getName();
+
+    /**
+     * Distances from all origins to all destinations (origins x destinations).
+     */
+    TravelMatrix manyToMany(List<Location> origins, List<Location> destinations);
+
+    /**
+     * Distances from one origin to all destinations (1 x destinations).
+     */
+    default TravelMatrix oneToMany(Location origin, List<Location> destinations) {
+        return manyToMany(List.of(origin), destinations);
+    }
+
+    /**
+     * Consecutive legs points[0] -> points[1] -> ... (1 x points-1, column i = leg i).
+     * Only the legs are computed, not the full points x points matrix.
+     */
+    default TravelMatrix legs(List<Location> points) {
+        int legs = Math.max(0, points.size() - 1);
+        TravelMatrix matrix = TravelMatrix.empty(1, legs);
+        for (int i = 0; i < legs; i++) {
+            TravelMatrix leg = oneToMany(points.get(i), List.of(points.get(i + 1)));
+            matrix.set(0, i, leg.getDistanceMeters(0, 0), leg.getDurationSeconds(0, 0));
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.planning_service.routing;
+
+import com.example.planning_service.config.RoutingProperties;
+import com.example.planning_service.domain.Location;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.graphhopper.GraphHopper;
+import com.graphhopper.config.CHProfile;
+import com.graphhopper.config.Profile;
+import com.graphhopper.isochrone.algorithm.ShortestPathTree;
+import com.graphhopper.routing.CHRoutingAlgorithmFactory;
+import com.graphhopper.routing.Path;
+import com.graphhopper.routing.ev.BooleanEncodedValue;
+import com.graphhopper.routing.ev.Subnetwork;
+import com.graphhopper.routing.querygraph.QueryGraph;
+import com.graphhopper.routing.util.DefaultSnapFilter;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.routing.util.TraversalMode;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.index.Snap;
+import com.graphhopper.util.CustomModel;
+import com.graphhopper.util.PMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * ARCHITEKTURA: Embedded offline road routing (GraphHopper)
+ *
+ * Loads the prepared graph from routing-data/graphhopper (or imports the OSM
+ * extract on first start) and answers matrix queries with Contraction
+ * Hierarchies - a single point-to-point query is microseconds on the CH graph.
+ *
+ * Matrix strategy:
+ * - every location is snapped once per worker,
+ * - origin rows are split across a small fixed pool,
+ * - each worker builds its own QueryGraph (snaps are mutated by QueryGraph.create),
+ * - each row is one shortest-path tree from the origin, bounded to
+ *   TREE_RADIUS_FACTOR x the farthest destination (straight line); the few
+ *   destinations the tree does not reach get a bidirectional CH query
+ *   (short rows - fewer than MIN_TREE_DESTINATIONS - use CH only).
+ *
+ * legs() (route ETA) snaps the points once and runs one CH query per
+ * consecutive pair - n-1 queries instead of an n x n matrix.
+ *
+ * Cells the road network cannot answer (location outside the extract,
+ * disconnected component) are estimated by the haversine fallback, so callers
+ * always get a complete matrix.
+ */
+@Slf4j
+public class GraphHopperDistanceProvider implements DistanceProvider, AutoCloseable {
+
+    /**
+     * Tree search radius relative to the farthest destination (straight line), plus slack for short rows
+     */
+    private static final double TREE_RADIUS_FACTOR = 2.0;
+    private static final double TREE_RADIUS_SLACK_METERS = 2_000;
+
+    /**
+     * Below this many destinations per row a CH query per cell is cheaper than a tree
+     */
+    private static final int MIN_TREE_DESTINATIONS = 8;
+
+    private final GraphHopper hopper;
+    private final String profile;
+    private final HaversineDistanceProvider fallback;
+    private final Weighting weighting;
+    private final EdgeFilter snapFilter;
+    private final int parallelism;
+    private final ExecutorService matrixExecutor;
+
+    GraphHopperDistanceProvider(GraphHopper hopper, String profile, HaversineDistanceProvider fallback,
+            int parallelism) {
+        this.hopper = hopper;
+        this.profile = profile;
+        this.fallback = fallback;
+        this.parallelism = Math.max(1, parallelism);
+
+        this.weighting = hopper.createWeighting(hopper.getProfile(profile), new PMap());
+        BooleanEncodedValue inSubnetwork = hopper.getEncodingManager()
+                .getBooleanEncodedValue(Subnetwork.key(profile));
+        this.snapFilter = new DefaultSnapFilter(weighting, inSubnetwork);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("RoadMatrix-");
+        threadFactory.setDaemon(true);
+        this.matrixExecutor = Executors.newFixedThreadPool(this.parallelism, threadFactory);
+    }
+
+    /**
+     * Load the prepared graph, importing the OSM extract if the graph directory is
+     * empty. Throws if the graph cannot be loaded (e.g. prepared with another profile).
+     */
+    public static GraphHopperDistanceProvider load(RoutingProperties.GraphHopper config,
+            HaversineDistanceProvider fallback) {
+        GraphHopper hopper = new GraphHopper();
+        hopper.setOSMFile(config.getOsmFile());
+        hopper.setGraphHopperLocation(config.getGraphLocation());
+        hopper.setProfiles(new Profile(config.getProfile())
+                .setVehicle(config.getVehicle())
+                .setWeighting("custom")
+                .setCustomModel(new CustomModel()));
+        hopper.getCHPreparationHandler().setCHProfiles(new CHProfile(config.getProfile()));
+
+        long start = System.currentTimeMillis();
+        try {
+            hopper.importOrLoad();
+        } catch (RuntimeException e) {
+            hopper.close();
+            throw e;
+        }
+        log.info("GraphHopper road graph ready in {} ms: {} nodes, {} edges (profile '{}', {})",
+                System.currentTimeMillis() - start, hopper.getBaseGraph().getNodes(),
+                hopper.getBaseGraph().getEdges(), config.getProfile(), config.getGraphLocation());
+
+        return new GraphHopperDistanceProvider(hopper, config.getProfile(), fallback, config.getMatrixThreads());
+    }
+
+    @Override
+    public String getName() {
+        return "graphhopper";
+    }
+
+    @Override
+    public TravelMatrix manyToMany(List<Location> origins, List<Location> destinations) {
+        TravelMatrix matrix = TravelMatrix.empty(origins.size(), destinations.size());
+        if (origins.isEmpty() || destinations.isEmpty()) {
+            return matrix;
+        }
+
+        int chunks = Math.min(parallelism, origins.size());
+        if (chunks == 1) {
+            computeRows(origins, destinations, 0, origins.size(), matrix);
+            return matrix;
+        }
+
+        int chunkSize = Math.ceilDiv(origins.size(), chunks);
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int fromRow = 0; fromRow < origins.size(); fromRow += chunkSize) {
+            int first = fromRow;
+            int last = Math.min(origins.size(), fromRow + chunkSize);
+            futures.add(matrixExecutor.submit(() -> computeRows(origins, destinations, first, last, matrix)));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Road matrix computation interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Road matrix computation failed", e.getCause());
+        }
+        return matrix;
+    }
+
+    /**
+     * One CH query per consecutive pair on a single QueryGraph
+     */
+    @Override
+    public TravelMatrix legs(List<Location> points) {
+        int legs = Math.max(0, points.size() - 1);
+        TravelMatrix matrix = TravelMatrix.empty(1, legs);
+        if (legs == 0) {
+            return matrix;
+        }
+
+        List<Snap> snaps = snap(points);
+        QueryGraph queryGraph = QueryGraph.create(hopper.getBaseGraph(),
+                snaps.stream().filter(Snap::isValid).toList());
+        CHRoutingAlgorithmFactory algorithms = new CHRoutingAlgorithmFactory(hopper.getCHGraphs().get(profile),
+                queryGraph);
+        for (int leg = 0; leg < legs; leg++) {
+            route(algorithms, snaps.get(leg), snaps.get(leg + 1), matrix, 0, leg, points.get(leg),
+                    points.get(leg + 1));
+        }
+        return matrix;
+    }
+
+    /**
+     * Fill rows [fromRow, toRow) - each worker writes a disjoint slice of the matrix
+     */
+    private void computeRows(List<Location> origins, List<Location> destinations, int fromRow, int toRow,
+            TravelMatrix matrix) {
+        List<Snap> originSnaps = snap(origins.subList(fromRow, toRow));
+        List<Snap> destinationSnaps = snap(destinations);
+
+        List<Snap> validSnaps = new ArrayList<>(originSnaps.size() + destinationSnaps.size());
+        originSnaps.stream().filter(Snap::isValid).forEach(validSnaps::add);
+        destinationSnaps.stream().filter(Snap::isValid).forEach(validSnaps::add);
+
+        QueryGraph queryGraph = QueryGraph.create(hopper.getBaseGraph(), validSnaps);
+        Weighting treeWeighting = queryGraph.wrapWeighting(weighting);
+        CHRoutingAlgorithmFactory algorithms = new CHRoutingAlgorithmFactory(hopper.getCHGraphs().get(profile),
+                queryGraph);
+
+        // Snapped destination columns sorted by node, so a settled tree node is a binary search
+        int[] columns = IntStream.range(0, destinations.size())
+                .filter(column -> destinationSnaps.get(column).isValid())
+                .boxed()
+                .sorted(Comparator.comparingInt(column -> destinationSnaps.get(column).getClosestNode()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] nodes = Arrays.stream(columns).map(column -> destinationSnaps.get(column).getClosestNode()).toArray();
+
+        for (int row = fromRow; row < toRow; row++) {
+            Snap from = originSnaps.get(row - fromRow);
+            Location origin = origins.get(row);
+            boolean[] reached = new boolean[destinations.size()];
+
+            if (from.isValid() && columns.length >= MIN_TREE_DESTINATIONS) {
+                int matrixRow = row;
+                // Trees are single-use
+                ShortestPathTree tree = new ShortestPathTree(queryGraph, treeWeighting, false,
+                        TraversalMode.NODE_BASED);
+                tree.setDistanceLimit(treeRadiusMeters(origin, destinations, columns));
+                tree.search(from.getClosestNode(), label -> {
+                    int hit = Arrays.binarySearch(nodes, label.node);
+                    if (hit < 0) {
+                        return;
+                    }
+                    while (hit > 0 && nodes[hit - 1] == label.node) {
+                        hit--;
+                    }
+                    for (; hit < nodes.length && nodes[hit] == label.node; hit++) {
+                        matrix.set(matrixRow, columns[hit], Math.round(label.distance),
+                                (int) Math.round(label.time / 1000.0));
+                        reached[columns[hit]] = true;
+                    }
+                });
+            }
+
+            for (int column = 0; column < destinations.size(); column++) {
+                if (!reached[column]) {
+                    route(algorithms, from, destinationSnaps.get(column), matrix, row, column, origin,
+                            destinations.get(column));
+                }
+            }
+        }
+    }
+
+    private static double treeRadiusMeters(Location origin, List<Location> destinations, int[] columns) {
+        double farthest = 0;
+        for (int column : columns) {
+            Location destination = destinations.get(column);
+            farthest = Math.max(farthest, DistanceMatrix.haversineMeters(origin.getLatitude(),
+                    origin.getLongitude(), destination.getLatitude(), destination.getLongitude()));
+        }
+        return farthest * TREE_RADIUS_FACTOR + TREE_RADIUS_SLACK_METERS;
+    }
+
+    /**
+     * Single cell: CH query, haversine when a point is unsnappable or no route exists
+     */
+    private void route(CHRoutingAlgorithmFactory algorithms, Snap from, Snap to, TravelMatrix matrix, int row,
+            int column, Location origin, Location destination) {
+        if (!from.isValid() || !to.isValid()) {
+            fallback.fill(matrix, row, column, origin, destination);
+            return;
+        }
+        if (from.getClosestNode() == to.getClosestNode()) {
+            matrix.set(row, column, 0L, 0);
+            return;
+        }
+
+        // CH algorithm instances are single-use
+        Path path = algorithms.createAlgo(new PMap()).calcPath(from.getClosestNode(), to.getClosestNode());
+        if (path.isFound()) {
+            matrix.set(row, column, Math.round(path.getDistance()), (int) Math.round(path.getTime() / 1000.0));
+        } else {
+            fallback.fill(matrix, row, column, origin, destination);
+        }
+    }
+
+    private List<Snap> snap(List<Location> locations) {
+        List<Snap> snaps = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            snaps.add(hopper.getLocationIndex().findClosest(location.getLatitude(), location.getLongitude(),
+                    snapFilter));
+        }
+        return snaps;
+    }
+
+    @Override
+    public void close() {
+        matrixExecutor.shutdownNow();
+        hopper.close();
+    }
+}
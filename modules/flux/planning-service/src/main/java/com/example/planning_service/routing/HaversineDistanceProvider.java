@@ -0,0 +1,52 @@
+package com.example.planning_service.routing;
+
+import com.example.planning_service.domain.Location;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+
+import java.util.List;
+
+/**
+ * Straight-line distance estimate: haversine x detour factor at a constant speed.
+ *
+ * Used when the road network is disabled or not available, and for single
+ * cells the road engine cannot answer (point outside the extract, no route).
+ */
+public class HaversineDistanceProvider implements DistanceProvider {
+
+    private final double metersPerSecond;
+    private final double detourFactor;
+
+    public HaversineDistanceProvider(double averageSpeedKmh, double detourFactor) {
+        if (averageSpeedKmh <= 0 || detourFactor <= 0) {
+            throw new IllegalArgumentException("Average speed and detour factor must be positive");
+        }
+        this.metersPerSecond = averageSpeedKmh * 1000.0 / 3600.0;
+        this.detourFactor = detourFactor;
+    }
+
+    @Override
+    public String getName() {
+        return "haversine";
+    }
+
+    @Override
+    public TravelMatrix manyToMany(List<Location> origins, List<Location> destinations) {
+        TravelMatrix matrix = TravelMatrix.empty(origins.size(), destinations.size());
+        for (int from = 0; from < origins.size(); from++) {
+            Location origin = origins.get(from);
+            for (int to = 0; to < destinations.size(); to++) {
+                fill(matrix, from, to, origin, destinations.get(to));
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Estimate a single cell in place
+     */
+    void fill(TravelMatrix matrix, int from, int to, Location origin, Location destination) {
+        double meters = DistanceMatrix.haversineMeters(origin.getLatitude(), origin.getLongitude(),
+                destination.getLatitude(), destination.getLongitude()) * detourFactor;
+        matrix.set(from, to, Math.round(meters), (int) Math.round(meters / metersPerSecond));
+    }
+}
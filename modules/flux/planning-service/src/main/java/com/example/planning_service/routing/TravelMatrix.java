@@ -0,0 +1,65 @@
+package com.example.planning_service.routing;
+
+/**
+ * Result of a one-to-many / many-to-many distance query.
+ *
+ * Cells are stored row-major (origin x destination) in flat arrays:
+ * distances in meters, durations in seconds - the same layout as the
+ * solver's DistanceMatrix, so a square result can be handed over without copying.
+ */
+public final class TravelMatrix {
+
+    private final int rows;
+    private final int columns;
+    private final long[] distanceMeters;
+    private final int[] durationSeconds;
+
+    public TravelMatrix(int rows, int columns, long[] distanceMeters, int[] durationSeconds) {
+        if (distanceMeters.length != rows * columns || durationSeconds.length != rows * columns) {
+            throw new IllegalArgumentException("Matrix arrays must have " + rows + "x" + columns + " cells");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.distanceMeters = distanceMeters;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public static TravelMatrix empty(int rows, int columns) {
+        return new TravelMatrix(rows, columns, new long[rows * columns], new int[rows * columns]);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public long getDistanceMeters(int origin, int destination) {
+        return distanceMeters[origin * columns + destination];
+    }
+
+    public int getDurationSeconds(int origin, int destination) {
+        return durationSeconds[origin * columns + destination];
+    }
+
+    void set(int origin, int destination, long meters, int seconds) {
+        distanceMeters[origin * columns + destination] = meters;
+        durationSeconds[origin * columns + destination] = seconds;
+    }
+
+    /**
+     * Backing array (not copied) - row-major distances in meters
+     */
+    public long[] distanceMetersArray() {
+        return distanceMeters;
+    }
+
+    /**
+     * Backing array (not copied) - row-major durations in seconds
+     */
+    public int[] durationSecondsArray() {
+        return durationSeconds;
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.planning_service.scheduler;
 
 import com.example.planning_service.batch.BatchAggregator;
+import com.example.planning_service.batch.BatchExecutionPipeline;
 import com.example.planning_service.config.AutoPlanProperties;
-import com.example.planning_service.execution.PlanningExecutionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -26,6 +26,9 @@ import java.util.UUID;
  * Typowy flow dla nocnych dostaw:
  * - 22:00: processEveningBatch() → optimizer 100-500 orders → create routes
  * - 02:00 (optional): processMidnightBatch() → handle late arrivals
+ *
+ * Duże batche są dzielone przez BatchExecutionPipeline (hub + geografia,
+ * max-batch-size) i rozwiązywane równolegle (max-concurrent-solves).
  * 
  * Configuration example (application.yml):
  * auto-plan:
@@ -44,7 +47,7 @@ public class BatchOptimizationScheduler {
 
     private final BatchAggregator batchAggregator;
     private final AutoPlanProperties autoPlanProperties;
-    private final PlanningExecutionService planningExecutionService;
+    private final BatchExecutionPipeline batchExecutionPipeline;
     private final TaskScheduler taskScheduler;
 
     /**
@@ -107,49 +110,20 @@ public class BatchOptimizationScheduler {
         log.info("Processing batch: {} orders pending, oldest order: {}",
                 pendingCount, batchAggregator.getOldestOrderTimestamp());
 
-        try {
-            // Poll all orders from aggregator (atomic operation)
-            List<UUID> orderIds = batchAggregator.pollAndClear();
-
-            // Check max batch size constraint
-            if (orderIds.size() > autoPlanProperties.getMaxBatchSize()) {
-                log.warn("Batch size ({}) exceeds maximum ({}) splitting into chunks",
-                        orderIds.size(), autoPlanProperties.getMaxBatchSize());
-                // TODO: Implement batch splitting for very large volumes
-            }
-
-            // Get default optimization profile
-            UUID profileId = getDefaultProfileId();
-
-            log.info("🚀 Starting Timefold optimization for {} orders with profile {}",
-                    orderIds.size(), profileId);
-
-            // Execute planning via PlanningExecutionService
-            // Note: This method needs to be added to PlanningExecutionService
-            // For now, we'll call the existing executePlan method with a dummy plan ID
-            // TODO: Implement executePlanForOrderIds() in PlanningExecutionService
-
-            // Temporary workaround - log warning
-            log.warn("⚠️ executePlanForOrderIds() not yet implemented in PlanningExecutionService");
-            log.warn("   Order IDs to process: {} orders", orderIds.size());
-            log.warn("   Profile ID: {}", profileId);
-            log.warn("   Next step: Implement PlanningExecutionService.executePlanForOrderIds()");
-
-            // planningExecutionService.executePlanForOrderIds(orderIds, profileId);
-
-            log.info("✅ Batch optimization completed successfully");
-
-        } catch (Exception e) {
-            log.error("❌ Batch optimization FAILED: {}", e.getMessage(), e);
+        // Backpressure: all solve slots busy -> orders stay queued (durable)
+        if (!batchExecutionPipeline.hasCapacity()) {
+            log.warn("Solver pool saturated ({} solves in flight), leaving {} orders queued",
+                    batchExecutionPipeline.inFlightSolves(), pendingCount);
+            return;
+        }
 
-            // Critical failure - should we retry or alert?
-            // Options:
-            // 1. Re-add orders to aggregator for next batch
-            // 2. Send PagerDuty alert to ops team
-            // 3. Trigger n8n workflow for failure handling
+        // Split by hub/geography, claim and dispatch chunks (solves run asynchronously)
+        UUID profileId = getDefaultProfileId();
+        BatchExecutionPipeline.DispatchResult result = batchExecutionPipeline.dispatch(profileId);
 
-            log.error("⚠️ Orders will be lost unless manually recovered. Consider implementing failure recovery.");
-        }
+        log.info("🚀 Batch Schedule #{} dispatched {} chunks ({} orders, profile {}), {} orders deferred",
+                scheduleIndex, result.dispatchedChunks(), result.dispatchedOrders(), profileId,
+                result.deferredOrders());
     }
 
     /**
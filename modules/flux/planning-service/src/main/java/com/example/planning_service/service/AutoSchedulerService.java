@@ -56,7 +56,8 @@ public class AutoSchedulerService {
         log.info("[AUTO-SCHEDULER] Building problem with {} orders", orders.size());
 
         // Create vehicles (mock data - replace with DB query)
-        List<Vehicle> vehicles = createMockVehicles();
+        // Planning start captured once so arrival times are deterministic during solving
+        List<Vehicle> vehicles = createMockVehicles(java.time.Instant.now().getEpochSecond());
 
         // Create route stops from orders
         List<RouteStop> stops = orders.stream()
@@ -124,22 +125,24 @@ public class AutoSchedulerService {
     /**
      * Create mock vehicles (replace with DB query)
      */
-    private List<Vehicle> createMockVehicles() {
+    private List<Vehicle> createMockVehicles(long departureTime) {
         return List.of(
                 Vehicle.builder()
                         .id("VEH-001")
                         .name("Sprinter 1")
                         .location(createWarehouseLocation())
-                        .capacityWeight(new BigDecimal("1000"))
-                        .capacityVolume(new BigDecimal("15"))
+                        .capacityWeightGrams(ScaledUnits.kilogramsToGrams(new BigDecimal("1000")))
+                        .capacityVolumeCm3(ScaledUnits.cubicMetersToCubicCentimeters(new BigDecimal("15")))
+                        .departureTime(departureTime)
                         .available(true)
                         .build(),
                 Vehicle.builder()
                         .id("VEH-002")
                         .name("Sprinter 2")
                         .location(createWarehouseLocation())
-                        .capacityWeight(new BigDecimal("1000"))
-                        .capacityVolume(new BigDecimal("15"))
+                        .capacityWeightGrams(ScaledUnits.kilogramsToGrams(new BigDecimal("1000")))
+                        .capacityVolumeCm3(ScaledUnits.cubicMetersToCubicCentimeters(new BigDecimal("15")))
+                        .departureTime(departureTime)
                         .available(true)
                         .build());
     }
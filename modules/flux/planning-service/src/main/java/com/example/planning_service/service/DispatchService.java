@@ -23,6 +23,7 @@ public class DispatchService {
     private final OptimizationSolutionRepository solutionRepository;
     private final ObjectMapper objectMapper;
     private final com.example.planning_service.repository.FleetVehicleRepository vehicleRepository;
+    private final SolutionReadModelService solutionReadModelService;
 
     @Transactional
     public void assignDriverToVehicle(UUID vehicleId, String driverId) {
@@ -93,6 +94,7 @@ public class DispatchService {
                     .build();
 
             solutionRepository.save(newEntity);
+            solutionReadModelService.save(newEntity, newSolution, null);
 
             return newSolution;
 
@@ -106,12 +108,15 @@ public class DispatchService {
     public void resetPlan() {
         // Soft delete or just create an empty solution?
         // For MVP, we just create a new empty solution.
+        VrpOptimizerService.VehicleRoutingSolution emptySolution = new VrpOptimizerService.VehicleRoutingSolution(
+                new ArrayList<>());
         OptimizationSolutionEntity emptyEntity = OptimizationSolutionEntity.builder()
                 .id(UUID.randomUUID())
                 .status(OptimizationSolutionEntity.Status.DRAFT)
                 .createdAt(java.time.Instant.now())
-                .solutionJson(new VrpOptimizerService.VehicleRoutingSolution(new ArrayList<>()))
+                .solutionJson(emptySolution)
                 .build();
         solutionRepository.save(emptyEntity);
+        solutionReadModelService.save(emptyEntity, emptySolution, null);
     }
 }
@@ -0,0 +1,121 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.GoogleMapsProperties;
+import com.example.planning_service.domain.Location;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * ARCHITEKTURA: Pairwise distance cell cache for Google Maps matrices
+ *
+ * Zamiast cache'ować całą macierz per departureTime, cache'ujemy pojedyncze
+ * komórki origin -> destination:
+ * - key = rounded origin, rounded destination, departure-time bucket,
+ * - a new matrix request only fetches the cells that are missing,
+ * - overlapping location sets (re-optimization, one new order) reuse cells.
+ *
+ * Metrics: planning.distance.cache.hit / .miss / .hit.ratio, planning.distance.cache.fill.time
+ */
+@Component
+public class DistanceCellCache {
+
+    public static final String CACHE_NAME = "distanceMatrix";
+
+    private final Cache cache;
+    private final GoogleMapsProperties properties;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer fillTimer;
+
+    public DistanceCellCache(CacheManager cacheManager, GoogleMapsProperties properties,
+            MeterRegistry meterRegistry) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME),
+                "Cache '" + CACHE_NAME + "' is not configured");
+        this.properties = properties;
+
+        this.hitCounter = Counter.builder("planning.distance.cache.hit")
+                .description("Distance matrix cells served from cache")
+                .tag("service", "planning")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("planning.distance.cache.miss")
+                .description("Distance matrix cells fetched from Google Maps")
+                .tag("service", "planning")
+                .register(meterRegistry);
+        this.fillTimer = Timer.builder("planning.distance.cache.fill.time")
+                .description("Time taken to fetch missing distance matrix cells")
+                .tag("service", "planning")
+                .register(meterRegistry);
+        Gauge.builder("planning.distance.cache.hit.ratio", this, DistanceCellCache::hitRatio)
+                .description("Share of distance matrix cells served from cache")
+                .tag("service", "planning")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Departure times in the same bucket share cells (traffic is assumed stable
+     * within departureTimeBucketMinutes)
+     */
+    public long departureBucket(LocalDateTime departureTime) {
+        long bucketSeconds = Math.max(1, properties.getDepartureTimeBucketMinutes()) * 60L;
+        return Math.floorDiv(departureTime.atZone(ZoneId.systemDefault()).toEpochSecond(), bucketSeconds);
+    }
+
+    public CellKey key(Location origin, Location destination, long departureBucket) {
+        double scale = Math.pow(10, properties.getCacheCoordinateDecimals());
+        return new CellKey(
+                Math.round(origin.getLatitude() * scale),
+                Math.round(origin.getLongitude() * scale),
+                Math.round(destination.getLatitude() * scale),
+                Math.round(destination.getLongitude() * scale),
+                departureBucket);
+    }
+
+    public Cell get(CellKey key) {
+        return cache.get(key, Cell.class);
+    }
+
+    public void put(CellKey key, Cell cell) {
+        cache.put(key, cell);
+    }
+
+    /**
+     * Record the outcome of one matrix lookup (counted per cell)
+     */
+    public void recordLookup(int hits, int misses) {
+        hitCounter.increment(hits);
+        missCounter.increment(misses);
+    }
+
+    /**
+     * Time the fetch of missing cells
+     */
+    public <T> T recordFill(Supplier<T> fill) {
+        return fillTimer.record(fill);
+    }
+
+    public double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total > 0 ? hits / total : 0.0;
+    }
+
+    /**
+     * Rounded origin/destination (degrees x 10^decimals) + departure bucket
+     */
+    public record CellKey(long originLat, long originLon, long destinationLat, long destinationLon,
+            long departureBucket) {
+    }
+
+    public record Cell(double distanceMeters, double durationSeconds) {
+    }
+}
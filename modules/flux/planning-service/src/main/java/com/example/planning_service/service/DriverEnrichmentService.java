@@ -21,6 +21,11 @@ import java.util.stream.Collectors;
 @Service
 public class DriverEnrichmentService {
 
+    /**
+     * Order IDs per driver-assignments request (GET query string length)
+     */
+    static final int ASSIGNMENT_CHUNK_SIZE = 200;
+
     private final OrderServiceClient orderServiceClient;
 
     public DriverEnrichmentService(OrderServiceClient orderServiceClient) {
@@ -30,11 +35,12 @@ public class DriverEnrichmentService {
     /**
      * Enriches VRP solution routes with driver assignments.
      * 
-     * For each route:
-     * 1. Extracts all orderIds from route activities
-     * 2. Queries order-service for driver assignments in bulk
-     * 3. Determines route driver (most common driver across orders)
-     * 4. Creates enriched route with driverId populated
+     * 1. Collects orderIds of all routes
+     * 2. Queries order-service for driver assignments in bulk (chunks of
+     * ASSIGNMENT_CHUNK_SIZE - orderIds go into the query string), instead of
+     * one call per route
+     * 3. Determines each route's driver (most common driver across its orders)
+     * 4. Creates enriched routes with driverId populated
      * 
      * @param solution Original VRP solution
      * @return Enriched solution with driver assignments
@@ -44,53 +50,74 @@ public class DriverEnrichmentService {
             return solution;
         }
 
+        List<UUID> orderIds = solution.routes().stream()
+                .filter(route -> route.activities() != null)
+                .flatMap(route -> route.activities().stream())
+                .map(Activity::orderId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (orderIds.isEmpty()) {
+            return solution;
+        }
+
+        Map<String, String> assignments = fetchAssignments(orderIds);
+        if (assignments.isEmpty()) {
+            return solution;
+        }
+
         List<Route> enrichedRoutes = solution.routes().stream()
-                .map(this::enrichRoute)
+                .map(route -> enrichRoute(route, assignments))
                 .collect(Collectors.toList());
 
         return new VehicleRoutingSolution(enrichedRoutes);
     }
 
-    private Route enrichRoute(Route route) {
-        if (route.activities() == null || route.activities().isEmpty()) {
-            return route;
+    private Map<String, String> fetchAssignments(List<UUID> orderIds) {
+        Map<String, String> assignments = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += ASSIGNMENT_CHUNK_SIZE) {
+            List<UUID> chunk = orderIds.subList(from, Math.min(orderIds.size(), from + ASSIGNMENT_CHUNK_SIZE));
+            try {
+                assignments.putAll(orderServiceClient.getDriverAssignments(chunk));
+            } catch (Exception e) {
+                log.warn("Failed to fetch driver assignments for {} orders: {}", chunk.size(), e.getMessage());
+            }
         }
+        return assignments;
+    }
 
-        // Extract orderIds from route activities
-        List<UUID> orderIds = route.activities().stream()
-                .map(Activity::orderId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
-        if (orderIds.isEmpty()) {
+    private Route enrichRoute(Route route, Map<String, String> assignments) {
+        if (route.activities() == null || route.activities().isEmpty()) {
             return route;
         }
 
-        try {
-            // Bulk query order-service for driver assignments
-            Map<String, String> assignments = orderServiceClient.getDriverAssignments(orderIds);
-
-            if (assignments.isEmpty()) {
-                return route;
+        // Assignments of this route's orders
+        Map<String, String> routeAssignments = new HashMap<>();
+        for (Activity activity : route.activities()) {
+            if (activity.orderId() != null) {
+                String key = activity.orderId().toString();
+                String driverId = assignments.get(key);
+                if (driverId != null) {
+                    routeAssignments.put(key, driverId);
+                }
             }
+        }
 
-            // Determine route driver - use most common driver
-            // (In properly assigned routes, all orders should have same driver)
-            String routeDriver = findMostCommonDriver(assignments);
-
-            // Create enriched route with driverId
-            return new Route(
-                    route.vehicleId(),
-                    route.activities(),
-                    route.totalDistance(),
-                    route.totalTimeMillis(),
-                    routeDriver);
-
-        } catch (Exception e) {
-            log.warn("Failed to enrich route {} with driver data: {}",
-                    route.vehicleId(), e.getMessage());
+        if (routeAssignments.isEmpty()) {
             return route;
         }
+
+        // Determine route driver - use most common driver
+        // (In properly assigned routes, all orders should have same driver)
+        String routeDriver = findMostCommonDriver(routeAssignments);
+
+        // Create enriched route with driverId
+        return new Route(
+                route.vehicleId(),
+                route.activities(),
+                route.totalDistance(),
+                route.totalTimeMillis(),
+                routeDriver);
     }
 
     /**
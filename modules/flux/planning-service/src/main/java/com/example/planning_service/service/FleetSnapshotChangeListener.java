@@ -0,0 +1,48 @@
+package com.example.planning_service.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on FleetVehicleEntity, CarrierComplianceEntity and
+ * VehicleProfileEntity: drops the fleet snapshot after the change is committed
+ * (evicting earlier lets a concurrent optimization cache the old fleet again).
+ * Spring-managed via Hibernate's SpringBeanContainer.
+ */
+@Slf4j
+@Component
+public class FleetSnapshotChangeListener {
+
+    private final ObjectProvider<FleetSnapshotService> fleetSnapshotService;
+
+    public FleetSnapshotChangeListener(ObjectProvider<FleetSnapshotService> fleetSnapshotService) {
+        this.fleetSnapshotService = fleetSnapshotService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onFleetChanged(Object entity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(entity);
+                }
+            });
+        } else {
+            evict(entity);
+        }
+    }
+
+    private void evict(Object entity) {
+        log.debug("{} changed, evicting fleet snapshot", entity.getClass().getSimpleName());
+        fleetSnapshotService.getObject().evict();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.entity.CarrierComplianceEntity;
+import com.example.planning_service.entity.FleetVehicleEntity;
+import com.example.planning_service.entity.VehicleProfileEntity;
+import com.example.planning_service.repository.CarrierComplianceRepository;
+import com.example.planning_service.repository.FleetVehicleRepository;
+import com.example.planning_service.repository.VehicleProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ARCHITEKTURA: Flota gotowa do optymalizacji (compliance + profil pojazdu)
+ *
+ * Pojazdy przewoźników bez ważnej zgodności (COMPLIANT + ubezpieczenie) są
+ * odrzucane, a pojemność z profilu pojazdu nadpisuje pojemność pojazdu.
+ * Compliance i profile ładowane są jednym findAllById każde zamiast findById
+ * per pojazd - stała liczba zapytań niezależnie od wielkości floty.
+ *
+ * Domyślna flota (wszystkie dostępne pojazdy) jest krótko trzymana w cache
+ * "fleetSnapshot" (app.cache.caches.fleetSnapshot) - kolejne optymalizacje w
+ * tym oknie nie czytają floty z bazy. Zapis pojazdu, compliance przewoźnika
+ * albo profilu pojazdu usuwa snapshot po commicie (FleetSnapshotChangeListener).
+ * Pojazdy z profilem są kopiami encji,
+ * więc nadpisana pojemność nie trafia do persistence contextu (ani do bazy
+ * przy najbliższym flushu) i snapshot można współdzielić między wątkami.
+ */
+@Service
+@Slf4j
+public class FleetSnapshotService {
+
+    public static final String CACHE_NAME = "fleetSnapshot";
+
+    private static final String AVAILABLE_KEY = "available";
+
+    private final FleetVehicleRepository vehicleRepository;
+    private final CarrierComplianceRepository carrierComplianceRepository;
+    private final VehicleProfileRepository vehicleProfileRepository;
+    private final Cache cache;
+
+    public FleetSnapshotService(FleetVehicleRepository vehicleRepository,
+            CarrierComplianceRepository carrierComplianceRepository,
+            VehicleProfileRepository vehicleProfileRepository,
+            CacheManager cacheManager) {
+        this.vehicleRepository = vehicleRepository;
+        this.carrierComplianceRepository = carrierComplianceRepository;
+        this.vehicleProfileRepository = vehicleProfileRepository;
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME),
+                "Cache '" + CACHE_NAME + "' is not configured");
+    }
+
+    /**
+     * Eligible vehicles: the requested ones (always read fresh) or, when none
+     * are requested, the cached snapshot of all available vehicles
+     */
+    public List<FleetVehicleEntity> eligibleVehicles(List<UUID> vehicleIds) {
+        if (vehicleIds != null && !vehicleIds.isEmpty()) {
+            return eligible(vehicleRepository.findAllById(vehicleIds));
+        }
+        return cache.get(AVAILABLE_KEY, this::loadAvailable);
+    }
+
+    /**
+     * Drop the snapshot (next default optimization reads the fleet again) -
+     * called by FleetSnapshotChangeListener after fleet writes commit
+     */
+    public void evict() {
+        cache.evict(AVAILABLE_KEY);
+    }
+
+    private List<FleetVehicleEntity> loadAvailable() {
+        return eligible(vehicleRepository.findAll().stream()
+                .filter(v -> Boolean.TRUE.equals(v.getAvailable()))
+                .toList());
+    }
+
+    private List<FleetVehicleEntity> eligible(List<FleetVehicleEntity> vehicles) {
+        Set<String> carrierIds = new HashSet<>();
+        Set<String> profileIds = new HashSet<>();
+        for (FleetVehicleEntity vehicle : vehicles) {
+            if (vehicle.getCarrierId() != null) {
+                carrierIds.add(vehicle.getCarrierId());
+            }
+            if (vehicle.getProfileId() != null) {
+                profileIds.add(vehicle.getProfileId());
+            }
+        }
+
+        Map<String, CarrierComplianceEntity> compliance = carrierIds.isEmpty() ? Map.of()
+                : carrierComplianceRepository.findAllById(carrierIds).stream()
+                        .collect(Collectors.toMap(CarrierComplianceEntity::getCarrierId, Function.identity()));
+        Map<String, VehicleProfileEntity> profiles = profileIds.isEmpty() ? Map.of()
+                : vehicleProfileRepository.findAllById(profileIds).stream()
+                        .collect(Collectors.toMap(VehicleProfileEntity::getId, Function.identity()));
+
+        List<FleetVehicleEntity> eligible = new ArrayList<>(vehicles.size());
+        for (FleetVehicleEntity vehicle : vehicles) {
+            if (vehicle.getCarrierId() != null && !isCompliant(compliance.get(vehicle.getCarrierId()))) {
+                continue;
+            }
+            eligible.add(withProfile(vehicle, profiles.get(vehicle.getProfileId())));
+        }
+        log.debug("Fleet: {} eligible of {} vehicles ({} carriers, {} profiles)", eligible.size(),
+                vehicles.size(), carrierIds.size(), profileIds.size());
+        return List.copyOf(eligible);
+    }
+
+    private static boolean isCompliant(CarrierComplianceEntity compliance) {
+        return compliance != null
+                && "COMPLIANT".equals(compliance.getComplianceStatus())
+                && Boolean.TRUE.equals(compliance.getIsInsured());
+    }
+
+    private static FleetVehicleEntity withProfile(FleetVehicleEntity vehicle, VehicleProfileEntity profile) {
+        if (profile == null || (profile.getMaxCapacityWeight() == null && profile.getMaxCapacityVolume() == null)) {
+            return vehicle;
+        }
+        return vehicle.toBuilder()
+                .capacityWeight(profile.getMaxCapacityWeight() != null ? profile.getMaxCapacityWeight()
+                        : vehicle.getCapacityWeight())
+                .capacityVolume(profile.getMaxCapacityVolume() != null ? profile.getMaxCapacityVolume()
+                        : vehicle.getCapacityVolume())
+                .build();
+    }
+}
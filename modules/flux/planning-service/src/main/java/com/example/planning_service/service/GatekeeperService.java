@@ -1,5 +1,6 @@
 package com.example.planning_service.service;
 
+import com.example.planning_service.config.GatekeeperProperties;
 import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
 import com.example.planning_service.dto.GatekeeperApprovalRequestDto;
 import com.example.planning_service.dto.GatekeeperApprovalResponseDto;
@@ -8,22 +9,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * Gatekeeper Service - AI Agent Approval Flow
@@ -35,27 +31,38 @@ import java.util.Map;
  * 
  * Workflow:
  * 1. Timefold generates BestSolution
- * 2. Gatekeeper validates against previous solution
- * 3. If threshold exceeded -> Trigger n8n Webhook
- * 4. AI Agent (LLM) generates Polish justification
+ * 2. Gatekeeper validates against previous solution (cheap, caller's thread)
+ * 3. If threshold exceeded -> approvalId returned at once, justification
+ *    requested asynchronously (GatekeeperVerdictDispatcher -> n8n Webhook)
+ * 4. AI Agent (LLM) generates Polish justification -> /topic/gatekeeper-verdicts
  * 5. User approves/rejects in Vue UI
  * 6. Only after approval -> Publish to driver
+ *
+ * Proposals (e.g. urgent re-plan with auto-plan.urgent.require-manual-approval)
+ * are registered under their approvalId together with the action applying
+ * them - processApproval runs it on approval and drops it on rejection.
+ * Undecided proposals expire after gatekeeper.proposal-ttl-minutes; approving
+ * an expired (or already decided) proposal is reported as not approved.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class GatekeeperService {
 
-    private final RestTemplate restTemplate;
+    private static final String PROPOSAL_ID_PREFIX = "GK-PROPOSAL-";
 
-    @Value("${gatekeeper.n8n.webhook.url:http://localhost:5678/webhook/gatekeeper}")
-    private String n8nWebhookUrl;
+    private final GatekeeperProperties properties;
+    private final GatekeeperVerdictDispatcher verdictDispatcher;
 
-    @Value("${gatekeeper.score-threshold-percent:20.0}")
-    private double scoreThresholdPercent;
+    private final Map<String, PendingProposal> proposals = new ConcurrentHashMap<>();
 
-    @Value("${gatekeeper.enabled:true}")
-    private boolean enabled;
+    /**
+     * Plan awaiting the dispatcher's decision
+     *
+     * @param apply makes the plan current; false when it went stale (another plan was applied meanwhile)
+     */
+    private record PendingProposal(BooleanSupplier apply, long registeredAtNanos) {
+    }
 
     /**
      * Safety Report - Result of solution validation
@@ -67,29 +74,42 @@ public class GatekeeperService {
         private boolean requiresApproval;
         private List<String> warnings;
         private double scoreChangePercent;
-        private String justification; // AI-generated Polish justification
+        private String justification; // AI-generated Polish justification, null until the verdict arrives
         private String approvalId; // Unique ID for approval flow
     }
 
     /**
      * Validate solution against previous solution
-     * Returns SafetyReport indicating if approval is required
+     * Returns SafetyReport indicating if approval is required - never waits for
+     * the webhook, the justification comes later as a verdict for approvalId
      */
     public SafetyReport validateSolution(VehicleRoutingSolution currentSolution, VehicleRoutingSolution previousSolution) {
-        if (!enabled) {
+        return validateSolution(currentSolution, previousSolution, null);
+    }
+
+    /**
+     * Validate a solution; a registered proposal always requires approval under its own approvalId
+     *
+     * @param proposalId approvalId from registerProposal, null for regular solutions
+     */
+    public SafetyReport validateSolution(VehicleRoutingSolution currentSolution, VehicleRoutingSolution previousSolution,
+            String proposalId) {
+        if (!properties.isEnabled()) {
             return SafetyReport.builder()
-                    .requiresApproval(false)
+                    .requiresApproval(proposalId != null)
                     .warnings(new ArrayList<>())
                     .scoreChangePercent(0.0)
+                    .approvalId(proposalId)
                     .build();
         }
 
         if (previousSolution == null || currentSolution == null) {
             log.debug("No previous solution or current solution is null - skipping validation");
             return SafetyReport.builder()
-                    .requiresApproval(false)
+                    .requiresApproval(proposalId != null)
                     .warnings(new ArrayList<>())
                     .scoreChangePercent(0.0)
+                    .approvalId(proposalId)
                     .build();
         }
 
@@ -97,15 +117,15 @@ public class GatekeeperService {
         double scoreChangePercent = calculateScoreChangePercent(currentSolution, previousSolution);
         
         List<String> warnings = new ArrayList<>();
-        boolean requiresApproval = false;
+        boolean requiresApproval = proposalId != null;
 
         // Check threshold
-        if (Math.abs(scoreChangePercent) > scoreThresholdPercent) {
+        if (Math.abs(scoreChangePercent) > properties.getScoreThresholdPercent()) {
             requiresApproval = true;
             String direction = scoreChangePercent > 0 ? "pogorszenie" : "poprawa";
             warnings.add(String.format("Znacząca zmiana wyniku: %.2f%% (%s)", Math.abs(scoreChangePercent), direction));
             log.warn("⚠️ Gatekeeper: Score change {}% exceeds threshold {}%", 
-                    Math.abs(scoreChangePercent), scoreThresholdPercent);
+                    Math.abs(scoreChangePercent), properties.getScoreThresholdPercent());
         }
 
         // Check for route count changes
@@ -118,21 +138,26 @@ public class GatekeeperService {
             }
         }
 
-        // Generate approval ID if approval required
-        String approvalId = null;
-        String justification = null;
+        // Generate approval ID if approval required (proposals keep the registered one)
+        String approvalId = proposalId;
         
         if (requiresApproval) {
-            approvalId = generateApprovalId(currentSolution);
-            // Trigger n8n webhook for AI justification
-            justification = triggerN8nWebhook(currentSolution, previousSolution, scoreChangePercent, warnings);
+            if (approvalId == null) {
+                approvalId = generateApprovalId(currentSolution);
+            }
+            // AI justification requested asynchronously (n8n webhook)
+            verdictDispatcher.submit(new GatekeeperVerdictDispatcher.VerdictRequest(
+                    currentSolution.getOptimizationId(), approvalId, scoreChangePercent, List.copyOf(warnings),
+                    currentRoutes, currentSolution.getStops() != null ? currentSolution.getStops().size() : 0,
+                    currentSolution.getScore() != null ? currentSolution.getScore().toString() : "N/A",
+                    previousSolution.getScore() != null ? previousSolution.getScore().toString() : "N/A",
+                    System.nanoTime()));
         }
 
         return SafetyReport.builder()
                 .requiresApproval(requiresApproval)
                 .warnings(warnings)
                 .scoreChangePercent(scoreChangePercent)
-                .justification(justification)
                 .approvalId(approvalId)
                 .build();
     }
@@ -195,93 +220,22 @@ public class GatekeeperService {
     }
 
     /**
-     * Trigger n8n webhook for AI Agent justification
-     * 
-     * Payload sent to n8n:
-     * {
-     *   "optimizationId": "...",
-     *   "scoreChangePercent": 25.5,
-     *   "warnings": ["..."],
-     *   "currentSolution": {...},
-     *   "previousSolution": {...}
-     * }
-     * 
-     * n8n workflow should:
-     * 1. Call LLM API (OpenAI/Anthropic) with context
-     * 2. Generate Polish justification
-     * 3. Return justification in response
+     * Register a plan that must not become current until the dispatcher approves it
+     *
+     * @param apply makes the plan current on approval; returns false when the plan went stale
+     * @return approvalId the dispatcher's decision refers to
      */
-    private String triggerN8nWebhook(VehicleRoutingSolution current, VehicleRoutingSolution previous, 
-                                    double scoreChangePercent, List<String> warnings) {
-        try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("optimizationId", current.getOptimizationId());
-            payload.put("scoreChangePercent", scoreChangePercent);
-            payload.put("warnings", warnings);
-            payload.put("routeCount", current.getVehicles() != null ? current.getVehicles().size() : 0);
-            payload.put("stopCount", current.getStops() != null ? current.getStops().size() : 0);
-            payload.put("timestamp", System.currentTimeMillis());
-            
-            // Simplified solution summary (avoid sending full objects)
-            Map<String, Object> solutionSummary = new HashMap<>();
-            solutionSummary.put("currentScore", current.getScore() != null ? current.getScore().toString() : "N/A");
-            solutionSummary.put("previousScore", previous.getScore() != null ? previous.getScore().toString() : "N/A");
-            payload.put("solutionSummary", solutionSummary);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-
-            log.info("📡 Triggering n8n webhook for Gatekeeper approval: {}", n8nWebhookUrl);
-            
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    n8nWebhookUrl != null ? n8nWebhookUrl : "http://localhost:5678/webhook/gatekeeper",
-                    HttpMethod.POST,
-                    request,
-                    new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-
-            Map<String, Object> responseBody = response.getBody();
-            if (response.getStatusCode().is2xxSuccessful() && responseBody != null) {
-                Object justificationObj = responseBody.get("justification");
-                if (justificationObj != null) {
-                    String justification = justificationObj.toString();
-                    if (!justification.isEmpty()) {
-                        log.info("✅ Received AI justification from n8n: {}", justification.substring(0, Math.min(100, justification.length())));
-                        return justification;
-                    }
-                }
-            }
-            
-            // Fallback: Generate simple justification if n8n fails
-            return generateFallbackJustification(scoreChangePercent, warnings);
-            
-        } catch (Exception e) {
-            log.error("❌ Failed to trigger n8n webhook for Gatekeeper", e);
-            // Fallback justification
-            return generateFallbackJustification(scoreChangePercent, warnings);
-        }
+    public String registerProposal(VehicleRoutingSolution solution, BooleanSupplier apply) {
+        purgeExpiredProposals();
+        // Joined urgent orders can propose the same solution - one ID per proposal
+        String approvalId = PROPOSAL_ID_PREFIX + solution.getOptimizationId() + "-" + UUID.randomUUID();
+        proposals.put(approvalId, new PendingProposal(apply, System.nanoTime()));
+        return approvalId;
     }
 
-    /**
-     * Generate fallback justification if n8n/LLM is unavailable
-     */
-    private String generateFallbackJustification(double scoreChangePercent, List<String> warnings) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Wykryto znaczącą zmianę w optymalizacji tras. ");
-        
-        if (scoreChangePercent > 0) {
-            sb.append(String.format("Wynik pogorszył się o %.2f%%. ", scoreChangePercent));
-        } else {
-            sb.append(String.format("Wynik poprawił się o %.2f%%. ", Math.abs(scoreChangePercent)));
-        }
-        
-        if (!warnings.isEmpty()) {
-            sb.append("Ostrzeżenia: ").append(String.join(", ", warnings));
-        }
-        
-        sb.append(" Wymagana ręczna weryfikacja przed publikacją.");
-        return sb.toString();
+    private void purgeExpiredProposals() {
+        long expiredBefore = System.nanoTime() - TimeUnit.MINUTES.toNanos(properties.getProposalTtlMinutes());
+        proposals.values().removeIf(proposal -> proposal.registeredAtNanos() - expiredBefore < 0);
     }
 
     /**
@@ -291,8 +245,31 @@ public class GatekeeperService {
     public GatekeeperApprovalResponseDto processApproval(GatekeeperApprovalRequestDto request) {
         log.info("Processing Gatekeeper approval: approvalId={}, approved={}", 
                 request.getApprovalId(), request.isApproved());
+        PendingProposal proposal = request.getApprovalId() != null ? proposals.remove(request.getApprovalId()) : null;
         
         if (request.isApproved()) {
+            if (proposal != null) {
+                if (!proposal.apply().getAsBoolean()) {
+                    log.warn("Gatekeeper proposal {} is stale - current plan changed since it was computed",
+                            request.getApprovalId());
+                    return GatekeeperApprovalResponseDto.builder()
+                            .approved(false)
+                            .message("Propozycja nieaktualna - plan zmienił się od jej wyliczenia. Zlecenia trafią do najbliższego batcha.")
+                            .build();
+                }
+                return GatekeeperApprovalResponseDto.builder()
+                        .approved(true)
+                        .message("Propozycja zatwierdzona i zastosowana jako bieżący plan.")
+                        .build();
+            }
+            if (isProposalId(request.getApprovalId())) {
+                log.warn("Gatekeeper proposal {} expired or already decided - nothing applied",
+                        request.getApprovalId());
+                return GatekeeperApprovalResponseDto.builder()
+                        .approved(false)
+                        .message("Propozycja wygasła lub nie istnieje. Zlecenia trafią do najbliższego batcha.")
+                        .build();
+            }
             // Approval granted - solution can be published
             return GatekeeperApprovalResponseDto.builder()
                     .approved(true)
@@ -306,4 +283,8 @@ public class GatekeeperService {
                     .build();
         }
     }
+
+    private static boolean isProposalId(String approvalId) {
+        return approvalId != null && approvalId.startsWith(PROPOSAL_ID_PREFIX);
+    }
 }
@@ -0,0 +1,325 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.GatekeeperProperties;
+import com.example.planning_service.dto.GatekeeperVerdictDto;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ARCHITEKTURA: Asynchroniczne werdykty Gatekeepera (n8n / AI justification)
+ *
+ * GatekeeperService.validateSolution robi tylko tanie porównanie wyników i
+ * odkłada tu prośbę o uzasadnienie - webhook nigdy nie blokuje wątku solvera
+ * ani publishera. Werdykt (approvalId + uzasadnienie) idzie osobno na
+ * /topic/gatekeeper-verdicts.
+ *
+ * - dedykowana, ograniczona pula (gatekeeper.verdict.threads / queue-capacity);
+ * pełna kolejka = od razu uzasadnienie fallback, bez czekania,
+ * - per optymalizacja czeka najwyżej jedna prośba - nowsza zastępuje starszą,
+ * a zadania jednej optymalizacji wykonują się po kolei,
+ * - ta sama zmiana (optymalizacja, zaokrąglony % zmiany, liczba tras i
+ * przystanków) w ciągu dedup-ttl-minutes dostaje zapamiętany werdykt bez
+ * ponownego wywołania webhooka,
+ * - timeouty connect/read, retry z wykładniczym backoffem i jitterem; retry
+ * jest przerywany, gdy czeka już nowsza prośba tej samej optymalizacji.
+ */
+@Service
+@Slf4j
+public class GatekeeperVerdictDispatcher implements DisposableBean {
+
+    static final String TOPIC = "/topic/gatekeeper-verdicts";
+
+    private static final String SOURCE_WEBHOOK = "WEBHOOK";
+    private static final String SOURCE_FALLBACK = "FALLBACK";
+    private static final String SOURCE_CACHED = "CACHED";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GatekeeperProperties properties;
+    private final OptimizationMetrics metrics;
+    private final RestTemplate restTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, VerdictRequest> pending = new ConcurrentHashMap<>(); // latest not started, per optimization
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet(); // optimizations with a queued / running task
+    private final Cache<String, Verdict> recentVerdicts;
+
+    public GatekeeperVerdictDispatcher(SimpMessagingTemplate messagingTemplate, GatekeeperProperties properties,
+            OptimizationMetrics metrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+        this.metrics = metrics;
+
+        GatekeeperProperties.Verdict config = properties.getVerdict();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(config.getConnectTimeoutMillis());
+        requestFactory.setReadTimeout(config.getReadTimeoutMillis());
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(1, config.getThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gatekeeper-verdict-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.recentVerdicts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(config.getDedupTtlMinutes()))
+                .maximumSize(1_000)
+                .build();
+    }
+
+    /**
+     * Queue a justification request - returns immediately, the verdict is published later
+     */
+    public void submit(VerdictRequest request) {
+        Verdict recent = recentVerdicts.getIfPresent(request.optimizationId());
+        if (recent != null && recent.fingerprint().equals(request.fingerprint())) {
+            publish(request, recent.justification(), SOURCE_CACHED);
+            return;
+        }
+        if (pending.put(request.optimizationId(), request) != null) {
+            metrics.recordGatekeeperVerdictSkipped("superseded");
+        }
+        schedule(request.optimizationId());
+    }
+
+    private void schedule(String optimizationId) {
+        if (!scheduled.add(optimizationId)) {
+            return; // the queued / running task of this optimization takes the latest request
+        }
+        try {
+            executor.execute(() -> drain(optimizationId));
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(optimizationId);
+            VerdictRequest request = pending.remove(optimizationId);
+            if (request != null) {
+                log.warn("Gatekeeper verdict queue full - fallback justification for {}", optimizationId);
+                metrics.recordGatekeeperVerdictSkipped("rejected");
+                publish(request, fallbackJustification(request.scoreChangePercent(), request.warnings()),
+                        SOURCE_FALLBACK);
+            }
+        }
+    }
+
+    private void drain(String optimizationId) {
+        try {
+            VerdictRequest request;
+            while ((request = pending.remove(optimizationId)) != null) {
+                process(request);
+            }
+        } catch (Exception e) {
+            log.error("Gatekeeper verdict for {} failed", optimizationId, e);
+        } finally {
+            scheduled.remove(optimizationId);
+        }
+        // Submitted between the last remove and releasing the slot
+        if (pending.containsKey(optimizationId)) {
+            schedule(optimizationId);
+        }
+    }
+
+    private void process(VerdictRequest request) {
+        Verdict recent = recentVerdicts.getIfPresent(request.optimizationId());
+        if (recent != null && recent.fingerprint().equals(request.fingerprint())) {
+            publish(request, recent.justification(), SOURCE_CACHED);
+            return;
+        }
+
+        String justification = requestJustification(request);
+        if (justification == null) {
+            publish(request, fallbackJustification(request.scoreChangePercent(), request.warnings()),
+                    SOURCE_FALLBACK);
+            return;
+        }
+        recentVerdicts.put(request.optimizationId(), new Verdict(request.fingerprint(), justification));
+        publish(request, justification, SOURCE_WEBHOOK);
+    }
+
+    /**
+     * Call the webhook with retries
+     *
+     * @return justification, or null when the webhook gave none (fallback)
+     */
+    private String requestJustification(VerdictRequest request) {
+        GatekeeperProperties.Verdict config = properties.getVerdict();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return callWebhook(request);
+            } catch (HttpClientErrorException e) {
+                log.warn("n8n webhook rejected Gatekeeper request {}: {}", request.approvalId(), e.getStatusCode());
+                return null; // 4xx - retrying would not help
+            } catch (RestClientException e) {
+                if (attempt >= config.getMaxAttempts()) {
+                    log.warn("n8n webhook failed {} times for {}: {}", attempt, request.approvalId(), e.getMessage());
+                    return null;
+                }
+                if (pending.containsKey(request.optimizationId())) {
+                    metrics.recordGatekeeperVerdictSkipped("superseded");
+                    return null; // a newer request of this optimization is waiting
+                }
+                metrics.recordGatekeeperWebhookRetry();
+                if (!sleep(backoffMillis(attempt, config))) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Exponential step capped at maxBackoffMillis, randomized to [50%, 100%] of it
+     */
+    static long backoffMillis(int attempt, GatekeeperProperties.Verdict config) {
+        long step = Math.min(config.getMaxBackoffMillis(),
+                config.getInitialBackoffMillis() << Math.min(attempt - 1, 20));
+        long half = Math.max(0, step / 2);
+        return half + ThreadLocalRandom.current().nextLong(step - half + 1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Trigger n8n webhook for AI Agent justification
+     *
+     * n8n workflow should:
+     * 1. Call LLM API (OpenAI/Anthropic) with context
+     * 2. Generate Polish justification
+     * 3. Return justification in response ({"justification": "..."})
+     */
+    private String callWebhook(VerdictRequest request) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("optimizationId", request.optimizationId());
+        payload.put("approvalId", request.approvalId());
+        payload.put("scoreChangePercent", request.scoreChangePercent());
+        payload.put("warnings", request.warnings());
+        payload.put("routeCount", request.routeCount());
+        payload.put("stopCount", request.stopCount());
+        payload.put("timestamp", System.currentTimeMillis());
+
+        // Simplified solution summary (avoid sending full objects)
+        Map<String, Object> solutionSummary = new HashMap<>();
+        solutionSummary.put("currentScore", request.currentScore());
+        solutionSummary.put("previousScore", request.previousScore());
+        payload.put("solutionSummary", solutionSummary);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        log.info("📡 Triggering n8n webhook for Gatekeeper approval {}", request.approvalId());
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                properties.getN8n().getWebhook().getUrl(),
+                HttpMethod.POST,
+                new HttpEntity<>(payload, headers),
+                new ParameterizedTypeReference<Map<String, Object>>() {
+                });
+
+        Map<String, Object> body = response.getBody();
+        Object justification = body != null ? body.get("justification") : null;
+        if (justification == null || justification.toString().isEmpty()) {
+            return null;
+        }
+        String text = justification.toString();
+        log.info("✅ Received AI justification from n8n: {}", text.substring(0, Math.min(100, text.length())));
+        return text;
+    }
+
+    private void publish(VerdictRequest request, String justification, String source) {
+        GatekeeperVerdictDto verdict = GatekeeperVerdictDto.builder()
+                .optimizationId(request.optimizationId())
+                .approvalId(request.approvalId())
+                .justification(justification)
+                .scoreChangePercent(request.scoreChangePercent())
+                .warnings(request.warnings())
+                .source(source)
+                .build();
+        try {
+            messagingTemplate.convertAndSend(TOPIC, verdict);
+        } catch (Exception e) {
+            log.warn("Failed to publish Gatekeeper verdict {}: {}", request.approvalId(), e.getMessage());
+        }
+        metrics.recordGatekeeperVerdict(source, Duration.ofNanos(System.nanoTime() - request.submittedNanos()));
+    }
+
+    /**
+     * Generate fallback justification if n8n/LLM is unavailable
+     */
+    static String fallbackJustification(double scoreChangePercent, List<String> warnings) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Wykryto znaczącą zmianę w optymalizacji tras. ");
+
+        if (scoreChangePercent > 0) {
+            sb.append(String.format("Wynik pogorszył się o %.2f%%. ", scoreChangePercent));
+        } else {
+            sb.append(String.format("Wynik poprawił się o %.2f%%. ", Math.abs(scoreChangePercent)));
+        }
+
+        if (!warnings.isEmpty()) {
+            sb.append("Ostrzeżenia: ").append(String.join(", ", warnings));
+        }
+
+        sb.append(" Wymagana ręczna weryfikacja przed publikacją.");
+        return sb.toString();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Justification request of one approval (everything the webhook needs, no solution objects)
+     */
+    public record VerdictRequest(String optimizationId, String approvalId, double scoreChangePercent,
+            List<String> warnings, int routeCount, int stopCount, String currentScore, String previousScore,
+            long submittedNanos) {
+
+        /**
+         * Requests with the same fingerprint get the same verdict
+         */
+        String fingerprint() {
+            return Math.round(scoreChangePercent) + "/" + routeCount + "/" + stopCount;
+        }
+    }
+
+    private record Verdict(String fingerprint, String justification) {
+    }
+}
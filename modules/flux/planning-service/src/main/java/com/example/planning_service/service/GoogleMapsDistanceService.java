@@ -6,7 +6,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
@@ -14,7 +13,11 @@ import org.springframework.web.client.RestClientException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ARCHITEKTURA: Google Maps Distance Matrix Service
@@ -25,7 +28,7 @@ import java.util.List;
  * - Real-time traffic-based distances
  * - Departure time-specific routing (23:00 nocne dostawy)
  * - Batch processing (do 100 locations per request)
- * - Caching (30 min dla traffic freshness)
+ * - Per-cell caching (rounded coordinates + departure bucket), only missing cells are fetched
  * - Fallback do Haversine gdy API fails
  * 
  * Cost: ~€200/mies dla 10,000 orders/day
@@ -41,9 +44,15 @@ public class GoogleMapsDistanceService {
     private final GoogleMapsProperties googleMapsProperties;
     private final RestClient restClient;
     private final ObjectMapper objectMapper;
+    private final DistanceCellCache distanceCellCache;
 
     private static final String DISTANCE_MATRIX_URL = "https://maps.googleapis.com/maps/api/distancematrix/json";
 
+    /**
+     * Google limit: max 25 origins or 25 destinations per request
+     */
+    private static final int MAX_LOCATIONS_PER_SIDE = 25;
+
     /**
      * Get traffic-aware distance matrix for route optimization
      * 
@@ -55,7 +64,6 @@ public class GoogleMapsDistanceService {
      * @return 2D matrix: distances[i][j] = distance from origin[i] to dest[j] in
      *         meters
      */
-    @Cacheable(value = "distanceMatrix", key = "#departureTime.toString()")
     public DistanceMatrixResult getDistanceMatrix(
             List<Location> origins,
             List<Location> destinations,
@@ -66,45 +74,93 @@ public class GoogleMapsDistanceService {
             return calculateFallbackDistances(origins, destinations);
         }
 
-        // Split into batches if > 100 locations (Google limit)
-        if (origins.size() * destinations.size() > 10000) {
-            log.warn("Too many location pairs ({}), processing in batches",
-                    origins.size() * destinations.size());
-            return processBatchedDistanceMatrix(origins, destinations, departureTime);
-        }
+        double[][] distancesMeters = new double[origins.size()][destinations.size()];
+        double[][] durationsSeconds = new double[origins.size()][destinations.size()];
 
-        try {
-            // Build request parameters
-            String originsParam = formatLocations(origins);
-            String destinationsParam = formatLocations(destinations);
-            long departureTimestamp = departureTime.atZone(ZoneId.systemDefault()).toEpochSecond();
-
-            // Call Google Maps API
-            String response = restClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .scheme("https")
-                            .host("maps.googleapis.com")
-                            .path("/maps/api/distancematrix/json")
-                            .queryParam("origins", originsParam)
-                            .queryParam("destinations", destinationsParam)
-                            .queryParam("departure_time", departureTimestamp)
-                            .queryParam("traffic_model", googleMapsProperties.getTrafficModel().name().toLowerCase())
-                            .queryParam("key", googleMapsProperties.getApiKey())
-                            .build())
-                    .retrieve()
-                    .body(String.class);
-
-            // Parse response
-            return parseDistanceMatrixResponse(response, origins.size(), destinations.size());
-
-        } catch (RestClientException e) {
-            log.error("Google Maps API call failed: {}", e.getMessage(), e);
-            if (googleMapsProperties.isFallbackToStraightLine()) {
-                log.info("Falling back to straight-line distances");
-                return calculateFallbackDistances(origins, destinations);
+        // Serve cached cells, group origins by their set of missing destinations
+        long bucket = distanceCellCache.departureBucket(departureTime);
+        Map<BitSet, List<Integer>> missingOriginsByDestinations = new LinkedHashMap<>();
+        int hits = 0;
+        for (int i = 0; i < origins.size(); i++) {
+            BitSet missing = new BitSet(destinations.size());
+            for (int j = 0; j < destinations.size(); j++) {
+                DistanceCellCache.Cell cell = distanceCellCache
+                        .get(distanceCellCache.key(origins.get(i), destinations.get(j), bucket));
+                if (cell != null) {
+                    distancesMeters[i][j] = cell.distanceMeters();
+                    durationsSeconds[i][j] = cell.durationSeconds();
+                    hits++;
+                } else {
+                    missing.set(j);
+                }
+            }
+            if (!missing.isEmpty()) {
+                missingOriginsByDestinations.computeIfAbsent(missing, key -> new ArrayList<>()).add(i);
             }
-            throw new RuntimeException("Google Maps API unavailable and fallback disabled", e);
         }
+        int misses = origins.size() * destinations.size() - hits;
+        distanceCellCache.recordLookup(hits, misses);
+
+        // Fetch only the missing blocks (e.g. one new order = its row + its column)
+        boolean trafficAware = true;
+        for (Map.Entry<BitSet, List<Integer>> block : missingOriginsByDestinations.entrySet()) {
+            List<Integer> rows = block.getValue();
+            int[] columns = block.getKey().stream().toArray();
+            List<Location> blockOrigins = rows.stream().map(origins::get).toList();
+            List<Location> blockDestinations = Arrays.stream(columns).mapToObj(destinations::get).toList();
+
+            DistanceMatrixResult filled = distanceCellCache.recordFill(
+                    () -> processBatchedDistanceMatrix(blockOrigins, blockDestinations, departureTime));
+            trafficAware &= filled.isTrafficAware();
+
+            for (int r = 0; r < rows.size(); r++) {
+                for (int c = 0; c < columns.length; c++) {
+                    distancesMeters[rows.get(r)][columns[c]] = filled.getDistancesMeters()[r][c];
+                    durationsSeconds[rows.get(r)][columns[c]] = filled.getDurationsSeconds()[r][c];
+                }
+            }
+        }
+
+        log.debug("Distance matrix {}x{}: {} cells cached, {} fetched in {} block(s)",
+                origins.size(), destinations.size(), hits, misses, missingOriginsByDestinations.size());
+
+        return DistanceMatrixResult.builder()
+                .distancesMeters(distancesMeters)
+                .durationsSeconds(durationsSeconds)
+                .trafficAware(trafficAware)
+                .build();
+    }
+
+    /**
+     * Single Distance Matrix API call (origins x destinations within Google limits)
+     */
+    private DistanceMatrixResult requestDistanceMatrix(
+            List<Location> origins,
+            List<Location> destinations,
+            LocalDateTime departureTime) {
+
+        // Build request parameters
+        String originsParam = formatLocations(origins);
+        String destinationsParam = formatLocations(destinations);
+        long departureTimestamp = departureTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+
+        // Call Google Maps API
+        String response = restClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .scheme("https")
+                        .host("maps.googleapis.com")
+                        .path("/maps/api/distancematrix/json")
+                        .queryParam("origins", originsParam)
+                        .queryParam("destinations", destinationsParam)
+                        .queryParam("departure_time", departureTimestamp)
+                        .queryParam("traffic_model", googleMapsProperties.getTrafficModel().name().toLowerCase())
+                        .queryParam("key", googleMapsProperties.getApiKey())
+                        .build())
+                .retrieve()
+                .body(String.class);
+
+        // Parse response
+        return parseDistanceMatrixResponse(response, origins.size(), destinations.size());
     }
 
     /**
@@ -205,17 +261,69 @@ public class GoogleMapsDistanceService {
     }
 
     /**
-     * Process large distance matrices in batches
+     * Process distance matrices in tiles that fit the per-request element limit.
+     * Every traffic-aware cell is written to the cell cache; tiles that fail fall
+     * back to straight-line estimates (not cached).
      */
     private DistanceMatrixResult processBatchedDistanceMatrix(
             List<Location> origins,
             List<Location> destinations,
             LocalDateTime departureTime) {
 
-        // TODO: Implement batching for > 100 locations
-        // For now, use fallback
-        log.warn("Batch processing not yet implemented, using fallback");
-        return calculateFallbackDistances(origins, destinations);
+        int maxElements = Math.max(1, googleMapsProperties.getMaxLocationsPerRequest());
+        int destinationsPerTile = Math.min(destinations.size(), Math.min(MAX_LOCATIONS_PER_SIDE, maxElements));
+        int originsPerTile = Math.max(1, Math.min(MAX_LOCATIONS_PER_SIDE, maxElements / destinationsPerTile));
+
+        double[][] distancesMeters = new double[origins.size()][destinations.size()];
+        double[][] durationsSeconds = new double[origins.size()][destinations.size()];
+        boolean trafficAware = true;
+        long bucket = distanceCellCache.departureBucket(departureTime);
+
+        for (int originStart = 0; originStart < origins.size(); originStart += originsPerTile) {
+            List<Location> tileOrigins = origins.subList(originStart,
+                    Math.min(origins.size(), originStart + originsPerTile));
+
+            for (int destinationStart = 0; destinationStart < destinations.size();
+                    destinationStart += destinationsPerTile) {
+                List<Location> tileDestinations = destinations.subList(destinationStart,
+                        Math.min(destinations.size(), destinationStart + destinationsPerTile));
+
+                DistanceMatrixResult tile;
+                try {
+                    tile = requestDistanceMatrix(tileOrigins, tileDestinations, departureTime);
+                } catch (RestClientException e) {
+                    log.error("Google Maps API call failed: {}", e.getMessage(), e);
+                    if (!googleMapsProperties.isFallbackToStraightLine()) {
+                        throw new RuntimeException("Google Maps API unavailable and fallback disabled", e);
+                    }
+                    log.info("Falling back to straight-line distances for {}x{} tile",
+                            tileOrigins.size(), tileDestinations.size());
+                    tile = calculateFallbackDistances(tileOrigins, tileDestinations);
+                }
+                trafficAware &= tile.isTrafficAware();
+
+                for (int i = 0; i < tileOrigins.size(); i++) {
+                    for (int j = 0; j < tileDestinations.size(); j++) {
+                        double meters = tile.getDistancesMeters()[i][j];
+                        double seconds = tile.getDurationsSeconds()[i][j];
+                        distancesMeters[originStart + i][destinationStart + j] = meters;
+                        durationsSeconds[originStart + i][destinationStart + j] = seconds;
+
+                        if (tile.isTrafficAware() && meters >= 0) {
+                            distanceCellCache.put(
+                                    distanceCellCache.key(tileOrigins.get(i), tileDestinations.get(j), bucket),
+                                    new DistanceCellCache.Cell(meters, seconds));
+                        }
+                    }
+                }
+            }
+        }
+
+        return DistanceMatrixResult.builder()
+                .distancesMeters(distancesMeters)
+                .durationsSeconds(durationsSeconds)
+                .trafficAware(trafficAware)
+                .build();
     }
 
     /**
@@ -0,0 +1,260 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.domain.HubConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ARCHITEKTURA: Niemutowalny snapshot konfiguracji hubów z indeksem
+ * przestrzennym
+ *
+ * Budowany raz per wersja konfiguracji (HubService podmienia referencję przy
+ * reload), współdzielony bez locków przez wszystkie wątki solvera.
+ *
+ * - Catchment: siatka lat/lon (cell ~ mediana promienia catchment). Każda
+ * komórka trzyma posortowane indeksy hubów, których bounding box ją pokrywa;
+ * lookup sprawdza haversine tylko dla tych kandydatów. Wynik identyczny jak
+ * liniowy scan: pierwszy (w kolejności konfiguracji) hub, który pokrywa punkt.
+ * - Nearest: KD-tree 3D na wektorach jednostkowych (x, y, z) - najmniejsza
+ * cięciwa = najmniejsza odległość po kole wielkim, więc wynik jest dokładny
+ * (remis -> hub wcześniejszy w konfiguracji).
+ *
+ * Huby, których bounding box przecina antypołudnik lub biegun, trafiają do
+ * listy "global" sprawdzanej przy każdym lookupie.
+ */
+public final class HubIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0; // same as Location.distanceToKm
+    private static final double KM_PER_DEGREE_LAT = EARTH_RADIUS_KM * Math.PI / 180;
+    private static final double PADDING_DEGREES = 1e-6;
+    private static final double MIN_CELL_DEGREES = 0.05;
+    private static final double MAX_CELL_DEGREES = 2.0;
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    private final List<HubConfiguration> allHubs;
+    private final List<HubConfiguration> activeHubs;
+    private final Map<String, HubConfiguration> hubsById;
+
+    // Catchment grid (indexes into activeHubs)
+    private final double cellDegrees;
+    private final Map<Long, int[]> cells;
+    private final int[] globalCandidates;
+
+    // KD-tree over activeHubs unit vectors; node = midpoint of [from, to), split axis = depth % 3
+    private final int[] treeOrder;
+    private final double[][] points;
+
+    private HubIndex(List<HubConfiguration> allHubs) {
+        this.allHubs = Collections.unmodifiableList(new ArrayList<>(allHubs));
+        this.activeHubs = allHubs.stream().filter(HubConfiguration::isOperational).toList();
+        Map<String, HubConfiguration> byId = new LinkedHashMap<>();
+        allHubs.forEach(hub -> byId.putIfAbsent(hub.getId(), hub));
+        this.hubsById = Collections.unmodifiableMap(byId);
+
+        this.cellDegrees = cellSize(activeHubs);
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        List<Integer> global = new ArrayList<>();
+        for (int i = 0; i < activeHubs.size(); i++) {
+            indexCatchment(i, activeHubs.get(i), grid, global);
+        }
+        Map<Long, int[]> compiled = new HashMap<>(grid.size() * 2);
+        grid.forEach((cell, hubs) -> compiled.put(cell, hubs.stream().mapToInt(Integer::intValue).toArray()));
+        this.cells = compiled;
+        this.globalCandidates = global.stream().mapToInt(Integer::intValue).toArray();
+
+        this.points = new double[activeHubs.size()][];
+        for (int i = 0; i < activeHubs.size(); i++) {
+            HubConfiguration.Location location = activeHubs.get(i).getLocation();
+            points[i] = unitVector(location.getLatitude(), location.getLongitude());
+        }
+        this.treeOrder = new int[activeHubs.size()];
+        for (int i = 0; i < treeOrder.length; i++) {
+            treeOrder[i] = i;
+        }
+        buildTree(0, treeOrder.length, 0);
+    }
+
+    public static HubIndex build(List<HubConfiguration> hubs) {
+        return new HubIndex(hubs);
+    }
+
+    public List<HubConfiguration> allHubs() {
+        return allHubs;
+    }
+
+    public List<HubConfiguration> activeHubs() {
+        return activeHubs;
+    }
+
+    public Optional<HubConfiguration> hubById(String hubId) {
+        return Optional.ofNullable(hubsById.get(hubId));
+    }
+
+    /**
+     * Pierwszy aktywny hub (kolejność konfiguracji), którego catchment pokrywa punkt
+     */
+    public Optional<HubConfiguration> findInCatchment(double latitude, double longitude) {
+        HubConfiguration.Location point = HubConfiguration.Location.builder()
+                .latitude(latitude)
+                .longitude(longitude)
+                .build();
+
+        int best = Integer.MAX_VALUE;
+        for (int candidate : cells.getOrDefault(cellKey(latitude, longitude), NO_CANDIDATES)) {
+            if (activeHubs.get(candidate).isWithinCatchmentArea(point)) {
+                best = candidate; // candidates are sorted - first hit wins
+                break;
+            }
+        }
+        for (int candidate : globalCandidates) {
+            if (candidate >= best) {
+                break;
+            }
+            if (activeHubs.get(candidate).isWithinCatchmentArea(point)) {
+                best = candidate;
+                break;
+            }
+        }
+        return best == Integer.MAX_VALUE ? Optional.empty() : Optional.of(activeHubs.get(best));
+    }
+
+    /**
+     * Najbliższy aktywny hub (great-circle), empty gdy brak aktywnych hubów
+     */
+    public Optional<HubConfiguration> findNearest(double latitude, double longitude) {
+        if (treeOrder.length == 0) {
+            return Optional.empty();
+        }
+        double[] query = unitVector(latitude, longitude);
+        double[] best = { Double.MAX_VALUE, Integer.MAX_VALUE }; // squared chord, hub index
+        searchTree(0, treeOrder.length, 0, query, best);
+        return Optional.of(activeHubs.get((int) best[1]));
+    }
+
+    // ===== Catchment grid =====
+
+    private static double cellSize(List<HubConfiguration> hubs) {
+        if (hubs.isEmpty()) {
+            return MAX_CELL_DEGREES;
+        }
+        double[] radii = hubs.stream().mapToDouble(HubConfiguration::getCatchmentRadiusKm).sorted().toArray();
+        double medianDegrees = radii[radii.length / 2] / KM_PER_DEGREE_LAT;
+        return Math.max(MIN_CELL_DEGREES, Math.min(MAX_CELL_DEGREES, medianDegrees));
+    }
+
+    private void indexCatchment(int hubIndex, HubConfiguration hub, Map<Long, List<Integer>> grid,
+            List<Integer> global) {
+        double lat = hub.getLocation().getLatitude();
+        double lon = hub.getLocation().getLongitude();
+        double angular = hub.getCatchmentRadiusKm() / EARTH_RADIUS_KM;
+        double dLat = Math.toDegrees(angular) + PADDING_DEGREES;
+        double minLat = lat - dLat;
+        double maxLat = lat + dLat;
+        // Exact longitude half-width of a spherical cap; >= 1 means the cap covers a pole
+        double sinLonSpan = Math.sin(angular) / Math.cos(Math.toRadians(lat));
+        if (minLat <= -90 || maxLat >= 90 || sinLonSpan >= 1) {
+            global.add(hubIndex);
+            return;
+        }
+        double dLon = Math.toDegrees(Math.asin(sinLonSpan)) + PADDING_DEGREES;
+        double minLon = lon - dLon;
+        double maxLon = lon + dLon;
+        if (minLon < -180 || maxLon > 180) {
+            global.add(hubIndex);
+            return;
+        }
+
+        long minRow = cellIndex(minLat);
+        long maxRow = cellIndex(maxLat);
+        long minCol = cellIndex(minLon);
+        long maxCol = cellIndex(maxLon);
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                grid.computeIfAbsent(cellKey(row, col), k -> new ArrayList<>()).add(hubIndex);
+            }
+        }
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xffffffffL);
+    }
+
+    // ===== KD-tree (implicit, median split over treeOrder[from, to)) =====
+
+    private void buildTree(int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        Integer[] slice = new Integer[to - from];
+        for (int i = from; i < to; i++) {
+            slice[i - from] = treeOrder[i];
+        }
+        Arrays.sort(slice, (a, b) -> Double.compare(points[a][axis], points[b][axis]));
+        for (int i = from; i < to; i++) {
+            treeOrder[i] = slice[i - from];
+        }
+        int mid = (from + to) >>> 1;
+        buildTree(from, mid, depth + 1);
+        buildTree(mid + 1, to, depth + 1);
+    }
+
+    private void searchTree(int from, int to, int depth, double[] query, double[] best) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        int hub = treeOrder[mid];
+        double distance = squaredDistance(points[hub], query);
+        if (distance < best[0] || (distance == best[0] && hub < best[1])) {
+            best[0] = distance;
+            best[1] = hub;
+        }
+
+        int axis = depth % 3;
+        double delta = query[axis] - points[hub][axis];
+        boolean leftFirst = delta <= 0;
+        if (leftFirst) {
+            searchTree(from, mid, depth + 1, query, best);
+        } else {
+            searchTree(mid + 1, to, depth + 1, query, best);
+        }
+        // <= keeps equidistant hubs on the far side reachable for the tie-break
+        if (delta * delta <= best[0]) {
+            if (leftFirst) {
+                searchTree(mid + 1, to, depth + 1, query, best);
+            } else {
+                searchTree(from, mid, depth + 1, query, best);
+            }
+        }
+    }
+
+    private static double[] unitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
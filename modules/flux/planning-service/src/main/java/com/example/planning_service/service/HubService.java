@@ -2,10 +2,19 @@ package com.example.planning_service.service;
 
 import com.example.planning_service.config.AutoPlanProperties;
 import com.example.planning_service.domain.HubConfiguration;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -14,7 +23,19 @@ import java.util.stream.Collectors;
  * ARCHITEKTURA: Hub Management Service
  * 
  * Zarządza konfiguracją hubów (centrów dystrybucyjnych).
- * W aktualnej implementacji czyta z YAML config (auto-plan.hubs).
+ * W aktualnej implementacji czyta z YAML config (auto-plan.hubs) albo z
+ * zewnętrznego pliku auto-plan.hubs-file (ta sama struktura YAML).
+ * 
+ * Konfiguracja jest kompilowana raz do niemutowalnego HubIndex (siatka
+ * catchment + KD-tree nearest hub) i podmieniana atomowo (volatile) przy
+ * zmianie - lookupy per zamówienie (RegionalOptimizationService,
+ * BatchSplitter) nie przebudowują HubConfiguration ani nie skanują wszystkich
+ * hubów.
+ * 
+ * Hot reload: co auto-plan.hubs-reload-check-ms sprawdzamy mtime pliku (lub
+ * zawartość auto-plan.hubs po rebindzie) i przebudowujemy snapshot tylko
+ * gdy konfiguracja faktycznie się zmieniła. Błędny plik = zostaje poprzedni
+ * snapshot.
  * 
  * Future Enhancement: Może być rozszerzone o database-backed CRUD
  * dla dynamic hub management przez dispatcher UI.
@@ -23,36 +44,39 @@ import java.util.stream.Collectors;
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class HubService {
 
+    private static final String HUBS_PROPERTY = "auto-plan.hubs";
+
     private final AutoPlanProperties autoPlanProperties;
+    private volatile HubIndex index;
+    private volatile long hubsFileModified = Long.MIN_VALUE;
+
+    public HubService(AutoPlanProperties autoPlanProperties) {
+        this.autoPlanProperties = autoPlanProperties;
+        this.index = HubIndex.build(loadHubs());
+        log.info("🏭 Hub index built: {} hubs ({} active)", index.allHubs().size(), index.activeHubs().size());
+    }
 
     /**
      * Get all configured hubs from YAML
      */
     public List<HubConfiguration> getAllHubs() {
-        return autoPlanProperties.getHubs().stream()
-                .map(this::convertToHubConfiguration)
-                .collect(Collectors.toList());
+        return index.allHubs();
     }
 
     /**
      * Get only active/operational hubs
      */
     public List<HubConfiguration> getActiveHubs() {
-        return getAllHubs().stream()
-                .filter(HubConfiguration::isOperational)
-                .collect(Collectors.toList());
+        return index.activeHubs();
     }
 
     /**
      * Find hub by ID
      */
     public Optional<HubConfiguration> getHubById(String hubId) {
-        return getAllHubs().stream()
-                .filter(hub -> hub.getId().equals(hubId))
-                .findFirst();
+        return index.hubById(hubId);
     }
 
     /**
@@ -63,17 +87,7 @@ public class HubService {
      * @return Nearest operational hub, or empty if none found
      */
     public Optional<HubConfiguration> findNearestHub(double latitude, double longitude) {
-        HubConfiguration.Location orderLocation = HubConfiguration.Location.builder()
-                .latitude(latitude)
-                .longitude(longitude)
-                .build();
-
-        return getActiveHubs().stream()
-                .min((h1, h2) -> {
-                    double dist1 = h1.getLocation().distanceToKm(orderLocation);
-                    double dist2 = h2.getLocation().distanceToKm(orderLocation);
-                    return Double.compare(dist1, dist2);
-                });
+        return index.findNearest(latitude, longitude);
     }
 
     /**
@@ -84,15 +98,10 @@ public class HubService {
      * @return Hub covering this location, or nearest hub if none in catchment
      */
     public Optional<HubConfiguration> findHubForLocation(double latitude, double longitude) {
-        HubConfiguration.Location orderLocation = HubConfiguration.Location.builder()
-                .latitude(latitude)
-                .longitude(longitude)
-                .build();
+        HubIndex current = index;
 
         // First, try to find hub where location is within catchment area
-        Optional<HubConfiguration> hubInCatchment = getActiveHubs().stream()
-                .filter(hub -> hub.isWithinCatchmentArea(orderLocation))
-                .findFirst();
+        Optional<HubConfiguration> hubInCatchment = current.findInCatchment(latitude, longitude);
 
         if (hubInCatchment.isPresent()) {
             log.debug("Order at ({}, {}) assigned to hub {} (within catchment)",
@@ -101,7 +110,7 @@ public class HubService {
         }
 
         // If no hub covers this area, assign to nearest hub
-        Optional<HubConfiguration> nearestHub = findNearestHub(latitude, longitude);
+        Optional<HubConfiguration> nearestHub = current.findNearest(latitude, longitude);
         if (nearestHub.isPresent()) {
             log.warn("Order at ({}, {}) outside all catchment areas, assigned to nearest hub {}",
                     latitude, longitude, nearestHub.get().getId());
@@ -109,11 +118,42 @@ public class HubService {
         return nearestHub;
     }
 
+    /**
+     * Hot reload: przebudowuje snapshot, jeśli plik hubów lub auto-plan.hubs
+     * się zmieniły
+     *
+     * @return true gdy snapshot został podmieniony
+     */
+    @Scheduled(fixedDelayString = "${auto-plan.hubs-reload-check-ms:10000}",
+            initialDelayString = "${auto-plan.hubs-reload-check-ms:10000}")
+    public boolean reloadIfChanged() {
+        String hubsFile = autoPlanProperties.getHubsFile();
+        if (hubsFile != null && !hubsFile.isBlank()) {
+            try {
+                if (Files.getLastModifiedTime(Path.of(hubsFile)).toMillis() == hubsFileModified) {
+                    return false;
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ Hubs file {} not readable, keeping current hub index: {}", hubsFile, e.getMessage());
+                return false;
+            }
+        }
+
+        List<HubConfiguration> hubs = loadHubs();
+        if (hubs.equals(index.allHubs())) {
+            return false;
+        }
+        index = HubIndex.build(hubs);
+        log.info("🔄 Hub configuration changed, index rebuilt: {} hubs ({} active)",
+                index.allHubs().size(), index.activeHubs().size());
+        return true;
+    }
+
     /**
      * Get hub statistics for monitoring
      */
     public HubStatistics getHubStatistics() {
-        List<HubConfiguration> allHubs = getAllHubs();
+        List<HubConfiguration> allHubs = index.allHubs();
         long activeCount = allHubs.stream().filter(HubConfiguration::isOperational).count();
         int totalVehicleCapacity = allHubs.stream()
                 .filter(HubConfiguration::isOperational)
@@ -127,6 +167,38 @@ public class HubService {
                 .build();
     }
 
+    /**
+     * Hubs from auto-plan.hubs-file (if configured and readable), otherwise
+     * from auto-plan.hubs
+     */
+    private List<HubConfiguration> loadHubs() {
+        List<AutoPlanProperties.HubConfig> configs = autoPlanProperties.getHubs();
+        String hubsFile = autoPlanProperties.getHubsFile();
+        if (hubsFile != null && !hubsFile.isBlank()) {
+            try {
+                configs = loadHubsFile(Path.of(hubsFile));
+            } catch (IOException | RuntimeException e) {
+                log.error("❌ Failed to load hubs file {}: {}", hubsFile, e.getMessage());
+                if (index != null) {
+                    return index.allHubs();
+                }
+            }
+        }
+        return configs.stream()
+                .map(this::convertToHubConfiguration)
+                .collect(Collectors.toList());
+    }
+
+    private List<AutoPlanProperties.HubConfig> loadHubsFile(Path path) throws IOException {
+        // Remember the attempt even if parsing fails - a broken file is retried only after it changes
+        hubsFileModified = Files.getLastModifiedTime(path).toMillis();
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load(path.toString(), new FileSystemResource(path));
+        return new Binder(ConfigurationPropertySources.from(sources))
+                .bind(HUBS_PROPERTY, Bindable.listOf(AutoPlanProperties.HubConfig.class))
+                .orElse(List.of());
+    }
+
     /**
      * Convert AutoPlanProperties.HubConfig to domain HubConfiguration
      */
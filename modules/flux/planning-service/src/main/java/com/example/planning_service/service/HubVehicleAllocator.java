@@ -0,0 +1,153 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.entity.FleetVehicleEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ARCHITEKTURA: Hub-aware przydział pojazdów dla regional optimization
+ *
+ * 1. Home hub: pojazd z homeHubId aktywnego huba zostaje w swoim hubie.
+ * 2. Popyt: pojazdy bez home hub trafiają do huba z największym deficytem
+ *    względem udziału w popycie (largest remainder, popyt = liczba zamówień).
+ * 3. Rebalancing: hub "głodny" (mniej pojazdów niż potrzeba przy średnim
+ *    obciążeniu floty) pożycza nadmiarowe pojazdy z najbliższych hubów, które
+ *    mają nadwyżkę; hub z zamówieniami i zerem pojazdów zawsze dostaje
+ *    przynajmniej jeden, jeśli ktokolwiek ma więcej niż jeden.
+ *
+ * Pożyczki są zwracane w Allocation.loans (dla logów / dispatcher UI).
+ */
+@Slf4j
+@Component
+public class HubVehicleAllocator {
+
+    /**
+     * @param hubs        aktywne huby (kolejność = kolejność w wyniku)
+     * @param demandByHub liczba zamówień per hub (brak klucza = 0)
+     * @param vehicles    dostępne pojazdy
+     */
+    public Allocation allocate(List<HubConfiguration> hubs, Map<String, Integer> demandByHub,
+            List<FleetVehicleEntity> vehicles) {
+        Map<String, List<FleetVehicleEntity>> byHub = new LinkedHashMap<>();
+        Map<String, HubConfiguration> hubsById = new LinkedHashMap<>();
+        for (HubConfiguration hub : hubs) {
+            byHub.put(hub.getId(), new ArrayList<>());
+            hubsById.put(hub.getId(), hub);
+        }
+        if (hubs.isEmpty()) {
+            return new Allocation(byHub, List.of());
+        }
+
+        // 1. Home hub
+        List<FleetVehicleEntity> unhomed = new ArrayList<>();
+        for (FleetVehicleEntity vehicle : vehicles) {
+            List<FleetVehicleEntity> home = vehicle.getHomeHubId() != null ? byHub.get(vehicle.getHomeHubId()) : null;
+            if (home != null) {
+                home.add(vehicle);
+            } else {
+                unhomed.add(vehicle);
+            }
+        }
+
+        // 2. Unhomed vehicles by demand share
+        int totalVehicles = vehicles.size();
+        int totalDemand = byHub.keySet().stream().mapToInt(hubId -> demand(demandByHub, hubId)).sum();
+        for (FleetVehicleEntity vehicle : unhomed) {
+            String target = byHub.keySet().stream()
+                    .max(Comparator.comparingDouble(hubId -> deficit(hubId, byHub, demandByHub, totalVehicles,
+                            totalDemand)))
+                    .orElseThrow();
+            byHub.get(target).add(vehicle);
+        }
+
+        // 3. Rebalancing - lend surplus vehicles to starved hubs, nearest lender first
+        List<Loan> loans = new ArrayList<>();
+        if (totalVehicles == 0 || totalDemand == 0) {
+            return new Allocation(byHub, loans);
+        }
+        double ordersPerVehicle = (double) totalDemand / totalVehicles;
+        Map<String, Integer> need = new LinkedHashMap<>();
+        byHub.keySet().forEach(hubId -> {
+            int hubDemand = demand(demandByHub, hubId);
+            need.put(hubId, hubDemand == 0 ? 0 : Math.max(1, (int) Math.ceil(hubDemand / ordersPerVehicle)));
+        });
+
+        List<String> starved = byHub.keySet().stream()
+                .filter(hubId -> byHub.get(hubId).size() < need.get(hubId))
+                .sorted(Comparator.comparingInt((String hubId) -> need.get(hubId) - byHub.get(hubId).size())
+                        .reversed())
+                .toList();
+        for (String borrower : starved) {
+            List<String> lenders = byHub.keySet().stream()
+                    .filter(hubId -> !hubId.equals(borrower))
+                    .sorted(Comparator.comparingDouble(hubId -> distanceKm(hubsById.get(borrower), hubsById.get(hubId))))
+                    .toList();
+            for (String lender : lenders) {
+                while (byHub.get(borrower).size() < need.get(borrower)
+                        && byHub.get(lender).size() > need.get(lender)) {
+                    loans.add(lend(byHub, lender, borrower));
+                }
+            }
+            // Last resort: a hub with orders must get at least one vehicle
+            if (byHub.get(borrower).isEmpty()) {
+                lenders.stream()
+                        .filter(lender -> byHub.get(lender).size() > 1)
+                        .findFirst()
+                        .ifPresent(lender -> loans.add(lend(byHub, lender, borrower)));
+            }
+        }
+
+        if (!loans.isEmpty()) {
+            log.info("🔁 Rebalanced {} vehicles between hubs: {}", loans.size(), loans);
+        }
+        return new Allocation(byHub, loans);
+    }
+
+    private static Loan lend(Map<String, List<FleetVehicleEntity>> byHub, String lender, String borrower) {
+        List<FleetVehicleEntity> lenderVehicles = byHub.get(lender);
+        FleetVehicleEntity vehicle = lenderVehicles.remove(lenderVehicles.size() - 1);
+        byHub.get(borrower).add(vehicle);
+        return new Loan(vehicle.getId(), lender, borrower);
+    }
+
+    private static double deficit(String hubId, Map<String, List<FleetVehicleEntity>> byHub,
+            Map<String, Integer> demandByHub, int totalVehicles, int totalDemand) {
+        double target = totalDemand == 0
+                ? (double) totalVehicles / byHub.size()
+                : (double) totalVehicles * demand(demandByHub, hubId) / totalDemand;
+        return target - byHub.get(hubId).size();
+    }
+
+    private static int demand(Map<String, Integer> demandByHub, String hubId) {
+        return demandByHub.getOrDefault(hubId, 0);
+    }
+
+    private static double distanceKm(HubConfiguration from, HubConfiguration to) {
+        if (from.getLocation() == null || to.getLocation() == null) {
+            return Double.MAX_VALUE;
+        }
+        return from.getLocation().distanceToKm(to.getLocation());
+    }
+
+    public record Allocation(
+            Map<String, List<FleetVehicleEntity>> vehiclesByHub,
+            List<Loan> loans) {
+    }
+
+    /**
+     * Pojazd pożyczony z huba fromHubId do toHubId na czas tej optymalizacji
+     */
+    public record Loan(
+            UUID vehicleId,
+            String fromHubId,
+            String toHubId) {
+    }
+}
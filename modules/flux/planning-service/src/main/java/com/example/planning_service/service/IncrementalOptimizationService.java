@@ -0,0 +1,183 @@
+package com.example.planning_service.service;
+
+import com.example.danxils_commons.event.OrderCreatedEvent;
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.domain.timefold.RouteStop;
+import com.example.planning_service.domain.timefold.ScaledUnits;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import com.example.planning_service.entity.DriverTaskEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.optimization.impl.IncrementalReplanner;
+import com.example.planning_service.optimization.impl.TimefoldOptimizer;
+import com.example.planning_service.repository.DriverTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ARCHITEKTURA: Real-time re-planning dla pilnych zleceń
+ *
+ * Pilne zlecenie z Kafki nie czeka na batch - IncrementalReplanner wstawia je
+ * do ostatniego planu (warm start, wykonane / rozpoczęte przystanki przypięte)
+ * w budżecie auto-plan.urgent.latency-target-millis.
+ *
+ * - requireManualApproval=false: plan staje się bieżący,
+ * - requireManualApproval=true: plan idzie do dyspozytora jako propozycja
+ * zarejestrowana w GatekeeperService pod approvalId. Zatwierdzenie stosuje
+ * plan, o ile bieżący plan to wciąż ten, od którego wystartował re-plan.
+ *
+ * Re-plan żyje tylko w pamięci (lastSolution) - nie tworzy manifestów ani
+ * eventów route-planned. Dlatego zlecenie ZAWSZE zostaje w BatchAggregator
+ * i trwale planuje je dopiero najbliższy batch (manifest + event).
+ *
+ * Gdy nie ma jeszcze żadnego planu albo re-plan nie przypisze zlecenia,
+ * zlecenie po prostu czeka na najbliższy batch.
+ */
+@Service
+@Slf4j
+public class IncrementalOptimizationService {
+
+    private static final String PENDING_TASK_STATUS = "PENDING";
+
+    private final TimefoldOptimizer timefoldOptimizer;
+    private final IncrementalReplanner replanner;
+    private final GatekeeperService gatekeeperService;
+    private final DriverTaskRepository driverTaskRepository;
+    private final AutoPlanProperties autoPlanProperties;
+    private final AppProperties appProperties;
+    private final OptimizationMetrics metrics;
+    private final Executor optimizationThreadPool;
+
+    public IncrementalOptimizationService(TimefoldOptimizer timefoldOptimizer,
+            IncrementalReplanner replanner,
+            GatekeeperService gatekeeperService,
+            DriverTaskRepository driverTaskRepository,
+            AutoPlanProperties autoPlanProperties,
+            AppProperties appProperties,
+            OptimizationMetrics metrics,
+            @Qualifier("optimizationThreadPool") Executor optimizationThreadPool) {
+        this.timefoldOptimizer = timefoldOptimizer;
+        this.replanner = replanner;
+        this.gatekeeperService = gatekeeperService;
+        this.driverTaskRepository = driverTaskRepository;
+        this.autoPlanProperties = autoPlanProperties;
+        this.appProperties = appProperties;
+        this.metrics = metrics;
+        this.optimizationThreadPool = optimizationThreadPool;
+    }
+
+    /**
+     * Insert an urgent order into the current plan (non-blocking, the Kafka thread only submits)
+     *
+     * @return re-plan result, or null when there was nothing to re-plan
+     */
+    public CompletableFuture<IncrementalReplanner.ReplanResult> handleUrgentOrder(OrderCreatedEvent event) {
+        long receivedAt = System.nanoTime();
+        AutoPlanProperties.UrgentConfig urgent = autoPlanProperties.getUrgent();
+
+        VehicleRoutingSolution baseline = timefoldOptimizer.getLastSolution();
+        if (baseline == null) {
+            log.info("No current plan yet - urgent order {} waits for the next batch", event.getOrderId());
+            return CompletableFuture.completedFuture(null);
+        }
+        RouteStop stop = toUrgentStop(event);
+        if (stop == null) {
+            log.warn("Urgent order {} has no delivery coordinates - waits for the next batch", event.getOrderId());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture
+                .supplyAsync(() -> executedStopIds(baseline), optimizationThreadPool)
+                .thenCompose(executed -> replanner.replan(baseline, List.of(stop), executed, Instant.now(),
+                        Duration.ofMillis(urgent.getLatencyTargetMillis())))
+                .orTimeout(urgent.getTimeoutSeconds(), TimeUnit.SECONDS)
+                .whenComplete((result, error) -> {
+                    Duration latency = Duration.ofNanos(System.nanoTime() - receivedAt);
+                    if (error != null) {
+                        log.error("Urgent re-plan for order {} failed after {} ms - waits for the next batch",
+                                event.getOrderId(), latency.toMillis(), error);
+                        metrics.recordUrgentReplan("FAILED", latency);
+                    } else {
+                        metrics.recordUrgentReplan(apply(event, stop.getId(), result, urgent), latency);
+                    }
+                });
+    }
+
+    private String apply(OrderCreatedEvent event, String stopId, IncrementalReplanner.ReplanResult result,
+            AutoPlanProperties.UrgentConfig urgent) {
+        if (!result.isFeasible() || !result.isAssigned(stopId)) {
+            log.warn("Urgent re-plan for order {} not usable (score {}, assigned: {}) - waits for the next batch",
+                    event.getOrderId(), result.solution().getScore(), result.isAssigned(stopId));
+            return "REJECTED";
+        }
+
+        if (urgent.isRequireManualApproval()) {
+            String approvalId = gatekeeperService.registerProposal(result.solution(), () -> applyApproved(result));
+            timefoldOptimizer.proposeSolution(result.solution(), approvalId);
+            log.info("🚨 Urgent order {} re-planned in {} ms ({} stops pinned) - awaiting approval {}",
+                    event.getOrderId(), result.latency().toMillis(), result.pinnedStops(), approvalId);
+            return "PROPOSED";
+        }
+
+        timefoldOptimizer.applySolution(result.solution());
+        log.info("🚨 Urgent order {} re-planned and applied in {} ms ({} stops pinned) - stays queued for the batch",
+                event.getOrderId(), result.latency().toMillis(), result.pinnedStops());
+        return "APPLIED";
+    }
+
+    /**
+     * Dispatcher approved the proposal - apply it unless another plan became current meanwhile
+     */
+    private boolean applyApproved(IncrementalReplanner.ReplanResult result) {
+        if (!timefoldOptimizer.applySolutionIfCurrent(result.baseline(), result.solution())) {
+            return false;
+        }
+        log.info("🚨 Approved urgent re-plan {} applied", result.solution().getOptimizationId());
+        return true;
+    }
+
+    /**
+     * Stops of the plan the drivers have already served (completed or failed)
+     */
+    private Set<String> executedStopIds(VehicleRoutingSolution baseline) {
+        List<String> stopIds = baseline.getStops().stream()
+                .filter(stop -> stop.getVehicle() != null)
+                .map(RouteStop::getId)
+                .toList();
+        if (stopIds.isEmpty()) {
+            return Set.of();
+        }
+        return driverTaskRepository.findByOrderIdInAndStatusNot(stopIds, PENDING_TASK_STATUS).stream()
+                .map(DriverTaskEntity::getOrderId)
+                .collect(Collectors.toSet());
+    }
+
+    private RouteStop toUrgentStop(OrderCreatedEvent event) {
+        OrderCreatedEvent.DeliveryAddressDto delivery = event.getDeliveryAddress();
+        if (delivery == null || delivery.getLat() == null || delivery.getLon() == null) {
+            return null;
+        }
+        var packageDetails = event.getPackageDetails();
+        return RouteStop.builder()
+                .id(event.getOrderId())
+                .demandWeightGrams(packageDetails != null ? ScaledUnits.kilogramsToGrams(packageDetails.getWeight()) : 0L)
+                .demandVolumeCm3(packageDetails != null
+                        ? ScaledUnits.cubicMetersToCubicCentimeters(packageDetails.getVolume())
+                        : 0L)
+                .latitude(delivery.getLat())
+                .longitude(delivery.getLon())
+                .serviceDurationSeconds(appProperties.getVrp().getDefaultServiceDurationSeconds())
+                .maxEndTime(ScaledUnits.toEpochSecond(delivery.getSla()))
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.entity.ManifestEntity;
+import com.example.planning_service.entity.ManifestRouteEntity;
+import com.example.planning_service.entity.ManifestStatus;
+import com.example.planning_service.optimization.VrpOptimizerService;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ARCHITEKTURA: Budowa manifestów z tras VRP (bez dostępu do bazy)
+ *
+ * - kolejność (sequence) nadawana w jednym przejściu po aktywnościach,
+ * - okno czasowe z aktywności (okno zlecenia z rozwiązania), a gdy zlecenie
+ * go nie ma - zmiana pojazdu (app.vrp.shift-start / shift-end),
+ * - adres i godziny formatowane ręcznie do StringBuildera (bez String.format
+ * na każdy wiersz); godziny w strefie planowania.
+ */
+public final class ManifestBuilder {
+
+    private static final String METADATA = "{\"ecrm_version\": \"v1.0\", \"source\": \"vrp_optimizer\"}";
+
+    private final ZoneId zone;
+    private final String fallbackTimeWindow;
+
+    /**
+     * @param zone               zone arrival times and windows are shown in
+     * @param fallbackTimeWindow window of activities without one (vehicle shift)
+     */
+    public ManifestBuilder(ZoneId zone, String fallbackTimeWindow) {
+        this.zone = zone;
+        this.fallbackTimeWindow = fallbackTimeWindow;
+    }
+
+    /**
+     * New DRAFT manifest of one vehicle route, routes in activity order
+     */
+    public ManifestEntity build(VrpOptimizerService.VehicleRoutingSolution.Route vrpRoute, LocalDate date) {
+        ManifestEntity manifest = ManifestEntity.builder()
+                .id(UUID.randomUUID())
+                .vehicleId(vrpRoute.vehicleId())
+                .date(date)
+                .status(ManifestStatus.DRAFT)
+                .totalDistanceMeters(vrpRoute.totalDistance())
+                .estimatedDurationMillis(vrpRoute.totalTimeMillis())
+                .optimizationScore(optimizationScore(vrpRoute))
+                .externalReference(externalReference(date, vrpRoute.vehicleId()))
+                .metadata(METADATA)
+                .build();
+
+        List<VrpOptimizerService.VehicleRoutingSolution.Activity> activities = vrpRoute.activities();
+        List<ManifestRouteEntity> routes = new ArrayList<>(activities.size());
+        StringBuilder text = new StringBuilder(32);
+        int sequence = 0;
+        for (VrpOptimizerService.VehicleRoutingSolution.Activity activity : activities) {
+            routes.add(ManifestRouteEntity.builder()
+                    .id(UUID.randomUUID())
+                    .manifest(manifest)
+                    .orderId(activity.orderId())
+                    .sequence(++sequence)
+                    .address(formatAddress(text, activity.latitude(), activity.longitude()))
+                    .timeWindow(formatTimeWindow(text, activity.timeWindowStartMillis(),
+                            activity.timeWindowEndMillis()))
+                    .estimatedArrival(formatTime(text, activity.arrivalTimeMillis()))
+                    .status("PENDING")
+                    .build());
+        }
+        manifest.setRoutes(routes);
+        return manifest;
+    }
+
+    static String externalReference(LocalDate date, UUID vehicleId) {
+        StringBuilder reference = new StringBuilder(17).append("MAN-").append(date.getYear());
+        appendTwoDigits(reference, date.getMonthValue());
+        appendTwoDigits(reference, date.getDayOfMonth());
+        return reference.append('-').append(vehicleId.toString(), 0, 4).toString().toUpperCase();
+    }
+
+    static double optimizationScore(VrpOptimizerService.VehicleRoutingSolution.Route route) {
+        // Simple score based on distance efficiency
+        // TODO: Implement more sophisticated scoring
+        double baseScore = 100.0;
+        double distancePenalty = route.totalDistance() / 1000.0; // Penalty per km
+        return Math.max(0, baseScore - distancePenalty * 0.5);
+    }
+
+    /**
+     * "lat, lon" with 6 decimals (same text as "%.6f, %.6f")
+     */
+    static String formatAddress(StringBuilder text, double latitude, double longitude) {
+        text.setLength(0);
+        appendSixDecimals(text, latitude);
+        text.append(", ");
+        appendSixDecimals(text, longitude);
+        return text.toString();
+    }
+
+    /**
+     * "HH:mm-HH:mm"; an open side takes the fallback window's bound
+     */
+    String formatTimeWindow(StringBuilder text, Long startMillis, Long endMillis) {
+        if (startMillis == null && endMillis == null) {
+            return fallbackTimeWindow;
+        }
+        text.setLength(0);
+        if (startMillis != null) {
+            appendTime(text, startMillis);
+        } else {
+            text.append(fallbackTimeWindow, 0, 5);
+        }
+        text.append('-');
+        if (endMillis != null) {
+            appendTime(text, endMillis);
+        } else {
+            text.append(fallbackTimeWindow, 6, 11);
+        }
+        return text.toString();
+    }
+
+    String formatTime(StringBuilder text, long epochMillis) {
+        text.setLength(0);
+        appendTime(text, epochMillis);
+        return text.toString();
+    }
+
+    private void appendTime(StringBuilder text, long epochMillis) {
+        LocalTime time = LocalTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+        appendTwoDigits(text, time.getHour());
+        text.append(':');
+        appendTwoDigits(text, time.getMinute());
+    }
+
+    private static void appendTwoDigits(StringBuilder text, int value) {
+        text.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static void appendSixDecimals(StringBuilder text, double value) {
+        long micros = Math.round(Math.abs(value) * 1_000_000);
+        if (value < 0) {
+            text.append('-');
+        }
+        text.append(micros / 1_000_000).append('.');
+        long fraction = micros % 1_000_000;
+        for (long digit = 100_000; digit > fraction && digit > 1; digit /= 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+
+    /**
+     * Vehicle shift as a fallback window, e.g. "08:00-18:00"
+     */
+    public static String shiftWindow(LocalTime shiftStart, LocalTime shiftEnd) {
+        StringBuilder text = new StringBuilder(11);
+        appendTwoDigits(text, shiftStart.getHour());
+        text.append(':');
+        appendTwoDigits(text, shiftStart.getMinute());
+        text.append('-');
+        appendTwoDigits(text, shiftEnd.getHour());
+        text.append(':');
+        appendTwoDigits(text, shiftEnd.getMinute());
+        return text.toString();
+    }
+}
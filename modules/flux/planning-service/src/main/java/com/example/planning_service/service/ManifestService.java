@@ -1,10 +1,12 @@
 package com.example.planning_service.service;
 
+import com.example.planning_service.config.AppProperties;
 import com.example.planning_service.dto.ManifestResponseDto;
 import com.example.planning_service.entity.ManifestEntity;
 import com.example.planning_service.entity.ManifestRouteEntity;
 import com.example.planning_service.entity.ManifestStatus;
 import com.example.planning_service.optimization.VrpOptimizerService;
+import com.example.planning_service.repository.ManifestBatchWriter;
 import com.example.planning_service.repository.ManifestRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -25,6 +29,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ManifestService {
     private final ManifestRepository manifestRepository;
+    private final ManifestBatchWriter manifestBatchWriter;
+    private final AppProperties appProperties;
 
     /**
      * Create a manifest from VRP solution.
@@ -36,39 +42,37 @@ public class ManifestService {
 
         log.info("Creating manifest from VRP solution for vehicle: {}", vrpRoute.vehicleId());
 
-        ManifestEntity manifest = ManifestEntity.builder()
-                .id(UUID.randomUUID())
-                .vehicleId(vrpRoute.vehicleId())
-                .date(date)
-                .status(ManifestStatus.DRAFT)
-                .totalDistanceMeters(vrpRoute.totalDistance())
-                .estimatedDurationMillis(vrpRoute.totalTimeMillis())
-                .optimizationScore(calculateOptimizationScore(vrpRoute))
-                .externalReference("MAN-" + date.toString().replace("-", "") + "-"
-                        + vrpRoute.vehicleId().toString().substring(0, 4).toUpperCase())
-                .metadata("{\"ecrm_version\": \"v1.0\", \"source\": \"vrp_optimizer\"}")
-                .build();
+        ManifestEntity manifest = manifestBuilder().build(vrpRoute, date);
+        ManifestEntity saved = manifestRepository.save(manifest);
+        log.info("Created manifest with ID: {} containing {} routes", saved.getId(), manifest.getRoutes().size());
 
-        // Create routes from VRP activities
-        List<ManifestRouteEntity> routes = vrpRoute.activities().stream()
-                .map(activity -> ManifestRouteEntity.builder()
-                        .id(UUID.randomUUID())
-                        .manifest(manifest)
-                        .orderId(activity.orderId())
-                        .sequence(vrpRoute.activities().indexOf(activity) + 1)
-                        .address(formatAddress(activity.latitude(), activity.longitude()))
-                        .timeWindow("09:00-17:00") // TODO: Get from order
-                        .estimatedArrival(formatTime(activity.arrivalTimeMillis()))
-                        .status("PENDING")
-                        .build())
-                .collect(Collectors.toList());
+        return saved;
+    }
 
-        manifest.setRoutes(routes);
+    /**
+     * Create manifests for all routes of a plan in one transaction (JDBC batch insert).
+     *
+     * @return manifests in route order
+     */
+    @Transactional
+    public List<ManifestEntity> createManifestsForPlan(
+            List<VrpOptimizerService.VehicleRoutingSolution.Route> vrpRoutes,
+            LocalDate date) {
 
-        ManifestEntity saved = manifestRepository.save(manifest);
-        log.info("Created manifest with ID: {} containing {} routes", saved.getId(), routes.size());
+        long started = System.nanoTime();
+        ManifestBuilder builder = manifestBuilder();
+        List<ManifestEntity> manifests = new ArrayList<>(vrpRoutes.size());
+        int stops = 0;
+        for (VrpOptimizerService.VehicleRoutingSolution.Route vrpRoute : vrpRoutes) {
+            ManifestEntity manifest = builder.build(vrpRoute, date);
+            manifests.add(manifest);
+            stops += manifest.getRoutes().size();
+        }
+        manifestBatchWriter.insertAll(manifests);
 
-        return saved;
+        log.info("Created {} manifests ({} stops) in {} ms", manifests.size(), stops,
+                (System.nanoTime() - started) / 1_000_000);
+        return manifests;
     }
 
     /**
@@ -219,23 +223,10 @@ public class ManifestService {
 
     // Helper methods
 
-    private double calculateOptimizationScore(VrpOptimizerService.VehicleRoutingSolution.Route route) {
-        // Simple score based on distance efficiency
-        // TODO: Implement more sophisticated scoring
-        double baseScore = 100.0;
-        double distancePenalty = route.totalDistance() / 1000.0; // Penalty per km
-        return Math.max(0, baseScore - distancePenalty * 0.5);
-    }
-
-    private String formatAddress(double lat, double lon) {
-        return String.format("%.6f, %.6f", lat, lon);
-    }
-
-    private String formatTime(long timeMillis) {
-        // Convert milliseconds to HH:mm format
-        long hours = (timeMillis / (1000 * 60 * 60)) % 24;
-        long minutes = (timeMillis / (1000 * 60)) % 60;
-        return String.format("%02d:%02d", hours, minutes);
+    private ManifestBuilder manifestBuilder() {
+        AppProperties.Vrp vrp = appProperties.getVrp();
+        return new ManifestBuilder(ZoneId.systemDefault(),
+                ManifestBuilder.shiftWindow(vrp.getShiftStart(), vrp.getShiftEnd()));
     }
 
     private void validateStatusTransition(ManifestStatus current, ManifestStatus next) {
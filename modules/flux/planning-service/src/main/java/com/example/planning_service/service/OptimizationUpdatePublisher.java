@@ -0,0 +1,239 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.dto.OptimizationUpdateDto;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * ARCHITEKTURA: Throttled live updates na /topic/optimization-updates
+ *
+ * Solver (best solution consumer) tylko odkłada snapshot - O(1), bez mapowania,
+ * Gatekeepera i STOMP na wątku solvera. Dedykowany wątek publishera co
+ * 1/maxUpdatesPerSecond s wysyła najnowsze snapshoty; snapshoty, które
+ * w międzyczasie zostały zastąpione nowszymi, są pomijane (również gdy samo
+ * wysyłanie nie nadąża). Snapshot jest budowany (Supplier) dopiero w momencie
+ * wysyłki, więc pominięte nic nie kosztują.
+ *
+ * Limity: maxUpdatesPerSecond dotyczy jednej optymalizacji, a
+ * maxTotalUpdatesPerSecond wszystkich razem - przy K równoległych
+ * optymalizacjach flush wysyła tylko tyle pośrednich snapshotów, ile mieści
+ * się w globalnym budżecie, zaczynając od strumieni najdawniej wysłanych
+ * (pozostałe czekają na kolejny flush). Końcowe snapshoty wychodzą zawsze
+ * i zużywają budżet tego flusha.
+ *
+ * Wysyłane są tylko trasy zmienione względem ostatnio wysłanego stanu (+ lista
+ * usuniętych pojazdów). Pierwsza wiadomość, co fullSnapshotEvery-ta oraz
+ * końcowa są pełne - klient, który dołączył później lub zgubił deltę
+ * (luka w sequence), czeka na najbliższy pełny snapshot.
+ */
+@Service
+@Slf4j
+public class OptimizationUpdatePublisher implements DisposableBean {
+
+    static final String TOPIC = "/topic/optimization-updates";
+
+    /**
+     * Streams without a final snapshot (failed solve) are forgotten after this time
+     */
+    private static final long STREAM_IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final AppProperties appProperties;
+    private final OptimizationMetrics metrics;
+
+    private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> finishedAt = new ConcurrentHashMap<>();
+    private final Map<String, StreamState> streams = new HashMap<>(); // publisher thread only
+
+    private ScheduledExecutorService publisherThread;
+
+    public OptimizationUpdatePublisher(SimpMessagingTemplate messagingTemplate, AppProperties appProperties,
+            OptimizationMetrics metrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.appProperties = appProperties;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    void start() {
+        long intervalMillis = Math.max(1, 1000 / Math.max(1, appProperties.getBroadcast().getMaxUpdatesPerSecond()));
+        publisherThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OptimizationUpdatePublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Fixed delay: a slow send postpones the next flush instead of queueing flushes
+        publisherThread.scheduleWithFixedDelay(this::flushSafely, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Intermediate best solution - replaces a not yet sent one of the same optimization
+     */
+    public void submit(String optimizationId, Supplier<OptimizationUpdateDto> snapshot) {
+        if (finishedAt.containsKey(optimizationId)) {
+            return; // late best-solution event after the final snapshot
+        }
+        pending.compute(optimizationId, (id, previous) -> {
+            if (previous == null) {
+                return new PendingUpdate(snapshot, false);
+            }
+            if (previous.last()) {
+                return previous;
+            }
+            metrics.recordUpdateDropped();
+            return new PendingUpdate(snapshot, false);
+        });
+    }
+
+    /**
+     * Final solution - always sent (as a full snapshot), closes the stream
+     */
+    public void submitFinal(String optimizationId, Supplier<OptimizationUpdateDto> snapshot) {
+        PendingUpdate previous = pending.put(optimizationId, new PendingUpdate(snapshot, true));
+        if (previous != null) {
+            metrics.recordUpdateDropped();
+        }
+    }
+
+    /**
+     * Send every pending final snapshot and the latest intermediate ones within the global budget
+     */
+    void flush() {
+        int budget = intermediateBudgetPerFlush();
+        List<String> waiting = new ArrayList<>();
+        for (String optimizationId : new ArrayList<>(pending.keySet())) {
+            PendingUpdate update = pending.get(optimizationId);
+            if (update == null) {
+                continue;
+            }
+            if (update.last() && pending.remove(optimizationId, update)) {
+                publish(optimizationId, update);
+                budget--;
+            } else if (!update.last()) {
+                waiting.add(optimizationId);
+            }
+        }
+
+        // Least recently updated streams first, new ones (initial full snapshot) before all
+        waiting.sort(Comparator.comparingLong(optimizationId -> {
+            StreamState stream = streams.get(optimizationId);
+            return stream != null ? stream.lastSentNanos : Long.MIN_VALUE;
+        }));
+        for (int i = 0; i < waiting.size() && budget > 0; i++) {
+            PendingUpdate update = pending.remove(waiting.get(i));
+            if (update != null) {
+                publish(waiting.get(i), update);
+                budget--;
+            }
+        }
+
+        long now = System.nanoTime();
+        streams.values().removeIf(stream -> now - stream.lastSentNanos > STREAM_IDLE_TIMEOUT_NANOS);
+        finishedAt.values().removeIf(finished -> now - finished > STREAM_IDLE_TIMEOUT_NANOS);
+    }
+
+    /**
+     * Intermediate snapshots per flush so that all optimizations together stay within maxTotalUpdatesPerSecond
+     */
+    private int intermediateBudgetPerFlush() {
+        AppProperties.Broadcast broadcast = appProperties.getBroadcast();
+        return Math.max(1, broadcast.getMaxTotalUpdatesPerSecond() / Math.max(1, broadcast.getMaxUpdatesPerSecond()));
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to publish optimization updates: {}", e.getMessage());
+        }
+    }
+
+    private void publish(String optimizationId, PendingUpdate pendingUpdate) {
+        OptimizationUpdateDto update;
+        try {
+            update = pendingUpdate.snapshot().get();
+        } catch (Exception e) {
+            log.warn("Failed to build optimization update for {}: {}", optimizationId, e.getMessage());
+            return;
+        }
+
+        StreamState stream = streams.computeIfAbsent(optimizationId, id -> new StreamState());
+        Map<String, OptimizationUpdateDto.RouteDto> routes = new LinkedHashMap<>();
+        if (update.getRoutes() != null) {
+            update.getRoutes().forEach(route -> routes.put(route.getVehicleId(), route));
+        }
+
+        boolean full = pendingUpdate.last() || stream.sequence == 0
+                || stream.sinceFullSnapshot >= appProperties.getBroadcast().getFullSnapshotEvery() - 1;
+        if (!full) {
+            List<OptimizationUpdateDto.RouteDto> changed = routes.values().stream()
+                    .filter(route -> !route.equals(stream.routes.get(route.getVehicleId())))
+                    .toList();
+            List<String> removed = stream.routes.keySet().stream()
+                    .filter(vehicleId -> !routes.containsKey(vehicleId))
+                    .toList();
+            if (changed.isEmpty() && removed.isEmpty() && Objects.equals(update.getScore(), stream.score)) {
+                return; // nothing visible changed
+            }
+            update.setRoutes(changed);
+            update.setRemovedVehicleIds(removed);
+        } else {
+            update.setRemovedVehicleIds(List.of());
+        }
+        update.setOptimizationId(optimizationId);
+        update.setSequence(++stream.sequence);
+        update.setFullSnapshot(full);
+
+        messagingTemplate.convertAndSend(TOPIC, update);
+        metrics.recordUpdatePublished(full);
+
+        stream.routes = routes;
+        stream.score = update.getScore();
+        stream.sinceFullSnapshot = full ? 0 : stream.sinceFullSnapshot + 1;
+        stream.lastSentNanos = System.nanoTime();
+        if (pendingUpdate.last()) {
+            streams.remove(optimizationId);
+            finishedAt.put(optimizationId, stream.lastSentNanos);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (publisherThread != null) {
+            publisherThread.shutdown();
+        }
+    }
+
+    private record PendingUpdate(Supplier<OptimizationUpdateDto> snapshot, boolean last) {
+    }
+
+    /**
+     * Last sent state of one optimization (routes by vehicle)
+     */
+    private static final class StreamState {
+        private long sequence;
+        private int sinceFullSnapshot;
+        private Map<String, OptimizationUpdateDto.RouteDto> routes = Map.of();
+        private String score;
+        private long lastSentNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.entity.PostalCodeRuleEntity;
+import com.example.planning_service.entity.ZoneDefinitionEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * ARCHITEKTURA: Skompilowane reguły kodów pocztowych jednego kraju
+ *
+ * Kody są normalizowane (wielkie litery, bez spacji i myślników) i kodowane
+ * do long w systemie base-37 (pad=0, 0-9, A-Z) z dopełnieniem do 12 znaków -
+ * porządek liczb = porządek leksykograficzny znormalizowanych kodów. Dla kodów
+ * w jednym formacie (PL "00-000", NL "1234 AB", ...) daje to ten sam wynik co
+ * porównanie stringów w starym liniowym skanie.
+ *
+ * Nakładające się reguły są spłaszczane do rozłącznych przedziałów
+ * (posortowana tablica początków), każdy z regułą zwycięską = pierwszą w
+ * kolejności repozytorium (priority DESC). Lookup = binary search, O(log n).
+ *
+ * Reguły / kody, których nie da się zakodować (znaki spoza [0-9A-Z], > 12
+ * znaków), obsługuje liniowy fallback na oryginalnym porównaniu stringów.
+ * Instancja jest niemutowalna - ZoneResolutionService podmienia ją w całości.
+ */
+final class PostalCodeIntervalIndex {
+
+    static final int MAX_ENCODED_LENGTH = 12;
+    private static final int RADIX = 37;
+    private static final long UNENCODABLE = -1;
+    private static final int NO_RULE = Integer.MAX_VALUE;
+
+    private final List<PostalCodeRuleEntity> rules; // repository order = rank
+    private final long[] starts;
+    private final int[] ranks;
+    private final int[] unencodedRanks; // sorted; rules matched by string comparison
+
+    private PostalCodeIntervalIndex(List<PostalCodeRuleEntity> rules, long[] starts, int[] ranks,
+            int[] unencodedRanks) {
+        this.rules = rules;
+        this.starts = starts;
+        this.ranks = ranks;
+        this.unencodedRanks = unencodedRanks;
+    }
+
+    /**
+     * @param rules reguły w kolejności repozytorium (pierwsza pasująca wygrywa)
+     */
+    static PostalCodeIntervalIndex compile(List<PostalCodeRuleEntity> rules) {
+        List<PostalCodeRuleEntity> ordered = List.copyOf(rules);
+        List<long[]> intervals = new ArrayList<>(); // {start, endExclusive, rank}
+        List<Integer> unencoded = new ArrayList<>();
+        TreeSet<Long> boundaries = new TreeSet<>();
+
+        for (int rank = 0; rank < ordered.size(); rank++) {
+            PostalCodeRuleEntity rule = ordered.get(rank);
+            long start = encode(rule.getPostalCodeStart());
+            long end = encode(rule.getPostalCodeEnd());
+            if (start == UNENCODABLE || end == UNENCODABLE) {
+                unencoded.add(rank);
+                continue;
+            }
+            if (start > end) {
+                continue; // empty range, never matched
+            }
+            intervals.add(new long[] { start, end + 1, rank });
+            boundaries.add(start);
+            boundaries.add(end + 1);
+        }
+
+        // Sweep boundaries; active rules in a min-heap by rank (expired ones dropped lazily)
+        intervals.sort(Comparator.comparingLong(interval -> interval[0]));
+        PriorityQueue<long[]> active = new PriorityQueue<>(Comparator.comparingLong(interval -> interval[2]));
+        long[] starts = new long[boundaries.size()];
+        int[] ranks = new int[boundaries.size()];
+        int segments = 0;
+        int next = 0;
+        for (long boundary : boundaries) {
+            while (next < intervals.size() && intervals.get(next)[0] <= boundary) {
+                active.add(intervals.get(next++));
+            }
+            while (!active.isEmpty() && active.peek()[1] <= boundary) {
+                active.poll();
+            }
+            int winner = active.isEmpty() ? NO_RULE : (int) active.peek()[2];
+            if (segments > 0 && ranks[segments - 1] == winner) {
+                continue; // same winner as the previous segment - merge
+            }
+            starts[segments] = boundary;
+            ranks[segments] = winner;
+            segments++;
+        }
+
+        return new PostalCodeIntervalIndex(ordered, Arrays.copyOf(starts, segments), Arrays.copyOf(ranks, segments),
+                unencoded.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    Optional<ZoneDefinitionEntity> find(String postalCode) {
+        long key = encode(postalCode);
+        if (key == UNENCODABLE) {
+            return linearScan(postalCode);
+        }
+
+        int best = NO_RULE;
+        int segment = Arrays.binarySearch(starts, key);
+        if (segment < 0) {
+            segment = -segment - 2; // last start <= key
+        }
+        if (segment >= 0) {
+            best = ranks[segment];
+        }
+        for (int rank : unencodedRanks) {
+            if (rank >= best) {
+                break;
+            }
+            if (matches(rules.get(rank), postalCode)) {
+                best = rank;
+                break;
+            }
+        }
+        return best == NO_RULE ? Optional.empty() : Optional.of(rules.get(best).getZone());
+    }
+
+    int ruleCount() {
+        return rules.size();
+    }
+
+    int segmentCount() {
+        return starts.length;
+    }
+
+    private Optional<ZoneDefinitionEntity> linearScan(String postalCode) {
+        return rules.stream()
+                .filter(rule -> matches(rule, postalCode))
+                .findFirst()
+                .map(PostalCodeRuleEntity::getZone);
+    }
+
+    private static boolean matches(PostalCodeRuleEntity rule, String postalCode) {
+        return postalCode.compareTo(rule.getPostalCodeStart()) >= 0
+                && postalCode.compareTo(rule.getPostalCodeEnd()) <= 0;
+    }
+
+    /**
+     * Normalized code -> order-preserving long, or UNENCODABLE
+     */
+    static long encode(String postalCode) {
+        if (postalCode == null) {
+            return UNENCODABLE;
+        }
+        long value = 0;
+        int length = 0;
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = Character.toUpperCase(postalCode.charAt(i));
+            int digit;
+            if (c == ' ' || c == '-') {
+                continue;
+            } else if (c >= '0' && c <= '9') {
+                digit = 1 + (c - '0');
+            } else if (c >= 'A' && c <= 'Z') {
+                digit = 11 + (c - 'A');
+            } else {
+                return UNENCODABLE;
+            }
+            if (++length > MAX_ENCODED_LENGTH) {
+                return UNENCODABLE;
+            }
+            value = value * RADIX + digit;
+        }
+        for (; length < MAX_ENCODED_LENGTH; length++) {
+            value *= RADIX; // pad: shorter code sorts before its extensions, like String.compareTo
+        }
+        return value;
+    }
+}
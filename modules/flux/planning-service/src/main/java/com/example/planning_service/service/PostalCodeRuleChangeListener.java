@@ -0,0 +1,52 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.entity.PostalCodeRuleEntity;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on PostalCodeRuleEntity: rebuilds the country's zone index
+ * after the change is committed (earlier the new rule is not visible to the
+ * rebuild query). Spring-managed via Hibernate's SpringBeanContainer.
+ */
+@Slf4j
+@Component
+public class PostalCodeRuleChangeListener {
+
+    private final ObjectProvider<ZoneResolutionService> zoneResolutionService;
+
+    public PostalCodeRuleChangeListener(ObjectProvider<ZoneResolutionService> zoneResolutionService) {
+        this.zoneResolutionService = zoneResolutionService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRuleChanged(PostalCodeRuleEntity rule) {
+        if (rule.getZone() == null || rule.getZone().getCountryCode() == null) {
+            return;
+        }
+        String countryCode = rule.getZone().getCountryCode();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild(countryCode);
+                }
+            });
+        } else {
+            rebuild(countryCode);
+        }
+    }
+
+    private void rebuild(String countryCode) {
+        log.info("Postal code rules changed for {}, rebuilding zone index", countryCode);
+        zoneResolutionService.getObject().rebuild(countryCode);
+    }
+}
@@ -7,16 +7,15 @@ import com.example.planning_service.entity.FleetVehicleEntity;
 import com.example.planning_service.entity.OptimizationProfileEntity;
 import com.example.planning_service.monitoring.OptimizationMetrics;
 import com.example.planning_service.optimization.VrpOptimizerService;
-import com.example.planning_service.entity.ManifestEntity;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -24,25 +23,54 @@ import java.util.stream.Collectors;
  * 
  * Strategia "Divide & Conquer" dla dużych wolumenów (10,000+ zamówień):
  * 1. Partition orders by hub (geographic proximity)
- * 2. Solve each region in parallel (16 concurrent solvers)
- * 3. Merge results
+ * 2. Allocate vehicles by home hub and demand, lend idle vehicles to starved
+ *    hubs (HubVehicleAllocator)
+ * 3. Solve each region in parallel on regionalSolverPool, each with its own
+ *    time budget (largest region = auto-plan.regional-time-budget-seconds)
+ * 4. Merge results
  * 
- * Performance Improvement:
- * - Single-threaded: 10,000 orders = 45 minutes
- * - Hub-based (16 parallel): 10,000 orders = 4 minutes (11x speedup!)
+ * Regiony są zlecane bezpośrednio na executor (CompletableFuture.supplyAsync),
+ * a nie przez @Async - wywołanie @Async metody z tej samej klasy omija proxy
+ * i wykonywało regiony sekwencyjnie.
+ * 
+ * Zamówienia, których nie da się przypisać do huba (UNASSIGNED - np. hub bez
+ * lokalizacji, snapshot hubów zmieniony w trakcie), trafiają do regionu huba
+ * z największym popytem (fallback region), a nie do osobnego regionu bez
+ * pojazdów.
+ *
+ * Metryki: czas całości (wall-clock) oraz czas i liczba tras per region.
+ * Regiony mają różne budżety i solve'ują się na wspólnej puli, więc suma
+ * czasów regionów nie jest czasem wykonania sekwencyjnego - nie raportujemy
+ * "speedupu" liczonego z tych samych pomiarów.
  * 
  * User Requirement: Multi-region concurrent solving dla enterprise scale
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class RegionalOptimizationService {
 
+    static final String UNASSIGNED_HUB = "UNASSIGNED";
+
     private final AutoPlanProperties autoPlanProperties;
     private final HubService hubService;
+    private final HubVehicleAllocator vehicleAllocator;
     private final VrpOptimizerService vrpOptimizer;
     private final OptimizationMetrics metrics;
-    private final ManifestService manifestService;
+    private final Executor regionalSolverPool;
+
+    public RegionalOptimizationService(AutoPlanProperties autoPlanProperties,
+            HubService hubService,
+            HubVehicleAllocator vehicleAllocator,
+            VrpOptimizerService vrpOptimizer,
+            OptimizationMetrics metrics,
+            @Qualifier("regionalSolverPool") Executor regionalSolverPool) {
+        this.autoPlanProperties = autoPlanProperties;
+        this.hubService = hubService;
+        this.vehicleAllocator = vehicleAllocator;
+        this.vrpOptimizer = vrpOptimizer;
+        this.metrics = metrics;
+        this.regionalSolverPool = regionalSolverPool;
+    }
 
     /**
      * Execute regional optimization in parallel
@@ -50,50 +78,64 @@ public class RegionalOptimizationService {
      * @param orders   All orders to optimize
      * @param vehicles All available vehicles
      * @param profile  Optimization profile to use
-     * @return Aggregated results from all regions
+     * @return Aggregated results from all regions (completes when the slowest
+     *         region finishes)
      */
-    @Async("regionalSolverPool")
     public CompletableFuture<RegionalOptimizationResult> executeRegionalOptimization(
             List<OrderResponseDto> orders,
             List<FleetVehicleEntity> vehicles,
             OptimizationProfileEntity profile) {
 
         Instant startTime = Instant.now();
+        List<HubConfiguration> activeHubs = hubService.getActiveHubs();
         log.info("🌍 Starting regional optimization: {} orders, {} vehicles, {} hubs",
-                orders.size(), vehicles.size(), hubService.getActiveHubs().size());
+                orders.size(), vehicles.size(), activeHubs.size());
 
-        // Step 1: Partition orders by hub
+        // Step 1: Partition orders by hub, unassigned ones go to the fallback region
         Map<String, List<OrderResponseDto>> ordersByHub = partitionOrdersByHub(orders);
+        mergeUnassigned(ordersByHub, activeHubs);
         log.info("📦 Partitioned orders: {}", ordersByHub.entrySet().stream()
                 .map(e -> e.getKey() + "=" + e.getValue().size())
                 .collect(Collectors.joining(", ")));
 
-        // Step 2: Partition vehicles by hub assignment
-        Map<String, List<FleetVehicleEntity>> vehiclesByHub = partitionVehiclesByHub(vehicles);
-        log.info("🚚 Partitioned vehicles: {}", vehiclesByHub.entrySet().stream()
+        // Step 2: Allocate vehicles by home hub + demand, rebalance to starved hubs
+        Map<String, List<FleetVehicleEntity>> vehiclesByHub;
+        List<HubVehicleAllocator.Loan> loans;
+        if (activeHubs.isEmpty()) {
+            log.error("❌ No active hubs configured! Using single region");
+            vehiclesByHub = Map.of(UNASSIGNED_HUB, vehicles);
+            loans = List.of();
+        } else {
+            Map<String, Integer> demandByHub = new HashMap<>();
+            ordersByHub.forEach((hubId, hubOrders) -> demandByHub.put(hubId, hubOrders.size()));
+            HubVehicleAllocator.Allocation allocation = vehicleAllocator.allocate(activeHubs, demandByHub, vehicles);
+            vehiclesByHub = allocation.vehiclesByHub();
+            loans = allocation.loans();
+        }
+        log.info("🚚 Allocated vehicles: {} ({} loans)", vehiclesByHub.entrySet().stream()
                 .map(e -> e.getKey() + "=" + e.getValue().size())
-                .collect(Collectors.joining(", ")));
+                .collect(Collectors.joining(", ")), loans.size());
 
-        // Step 3: Solve each region in parallel
+        // Step 3: Solve each region in parallel, budget proportional to region size
+        int largestRegion = ordersByHub.values().stream().mapToInt(List::size).max().orElse(0);
         List<CompletableFuture<RegionalSolution>> regionalFutures = new ArrayList<>();
 
-        for (String hubId : ordersByHub.keySet()) {
-            List<OrderResponseDto> hubOrders = ordersByHub.getOrDefault(hubId, List.of());
+        for (Map.Entry<String, List<OrderResponseDto>> region : ordersByHub.entrySet()) {
+            String hubId = region.getKey();
+            List<OrderResponseDto> hubOrders = region.getValue();
             List<FleetVehicleEntity> hubVehicles = vehiclesByHub.getOrDefault(hubId, List.of());
 
-            if (hubOrders.isEmpty()) {
-                log.warn("⚠️ Hub {} has no orders, skipping", hubId);
-                continue;
-            }
-
             if (hubVehicles.isEmpty()) {
-                log.error("❌ Hub {} has orders but NO vehicles! Assigning to default hub", hubId);
-                // TODO: Fallback to nearest hub with vehicles
+                log.error("❌ Hub {} has {} orders but NO vehicles after rebalancing, region not solved",
+                        hubId, hubOrders.size());
+                regionalFutures.add(CompletableFuture.completedFuture(
+                        failedRegion(hubId, Duration.ZERO, "No vehicles available for hub")));
                 continue;
             }
 
-            CompletableFuture<RegionalSolution> future = solveRegion(hubId, hubOrders, hubVehicles, profile);
-            regionalFutures.add(future);
+            Duration budget = regionBudget(hubOrders.size(), largestRegion);
+            regionalFutures.add(CompletableFuture.supplyAsync(
+                    () -> solveRegion(hubId, hubOrders, hubVehicles, profile, budget), regionalSolverPool));
         }
 
         // Step 4: Wait for all regions to complete
@@ -116,8 +158,8 @@ public class RegionalOptimizationService {
                     .sum();
 
             Duration totalDuration = Duration.between(startTime, Instant.now());
-            log.info("✅ Regional optimization complete: {} routes, {} orders, {} ms",
-                    totalRoutesCreated, totalOrdersAssigned, totalDuration.toMillis());
+            log.info("✅ Regional optimization complete: {} routes, {} orders, {} ms wall-clock over {} regions",
+                    totalRoutesCreated, totalOrdersAssigned, totalDuration.toMillis(), solutions.size());
 
             // Record metrics
             metrics.recordOptimizationDuration(totalDuration);
@@ -127,26 +169,29 @@ public class RegionalOptimizationService {
                     .totalRoutesCreated(totalRoutesCreated)
                     .totalOrdersAssigned(totalOrdersAssigned)
                     .duration(totalDuration)
+                    .vehicleLoans(loans)
                     .build();
         });
     }
 
     /**
-     * Solve optimization for a single region/hub
+     * Solve optimization for a single region/hub (runs on regionalSolverPool)
      */
-    @Async("regionalSolverPool")
-    protected CompletableFuture<RegionalSolution> solveRegion(
+    RegionalSolution solveRegion(
             String hubId,
             List<OrderResponseDto> orders,
             List<FleetVehicleEntity> vehicles,
-            OptimizationProfileEntity profile) {
+            OptimizationProfileEntity profile,
+            Duration timeBudget) {
 
         Instant startTime = Instant.now();
-        log.info("🔧 Solving region {}: {} orders, {} vehicles", hubId, orders.size(), vehicles.size());
+        log.info("🔧 Solving region {}: {} orders, {} vehicles, budget {}s",
+                hubId, orders.size(), vehicles.size(), timeBudget.toSeconds());
 
         try {
             // Run Timefold solver for this region
-            VrpOptimizerService.VehicleRoutingSolution solution = vrpOptimizer.calculateRoutes(orders, vehicles, profile);
+            VrpOptimizerService.VehicleRoutingSolution solution = vrpOptimizer.calculateRoutes(orders, vehicles,
+                    profile, timeBudget);
 
             // Create route objects (simplified - would normally create full manifests)
             List<Route> routes = solution.routes().stream()
@@ -163,25 +208,66 @@ public class RegionalOptimizationService {
             metrics.recordRegionalOptimizationDuration(hubId, duration);
             metrics.recordRegionalRoutesCreated(hubId, routes.size());
 
-            return CompletableFuture.completedFuture(RegionalSolution.builder()
+            return RegionalSolution.builder()
                     .hubId(hubId)
                     .routes(routes)
                     .ordersAssigned(orders.size())
                     .duration(duration)
+                    .timeBudget(timeBudget)
                     .success(true)
-                    .build());
+                    .build();
 
         } catch (Exception e) {
             log.error("❌ Region {} optimization FAILED: {}", hubId, e.getMessage(), e);
-            return CompletableFuture.completedFuture(RegionalSolution.builder()
-                    .hubId(hubId)
-                    .routes(List.of())
-                    .ordersAssigned(0)
-                    .duration(Duration.between(startTime, Instant.now()))
-                    .success(false)
-                    .errorMessage(e.getMessage())
-                    .build());
+            return failedRegion(hubId, Duration.between(startTime, Instant.now()), e.getMessage());
+        }
+    }
+
+    /**
+     * Largest region gets the full budget, smaller ones proportionally less
+     * (never below auto-plan.regional-min-budget-seconds)
+     */
+    Duration regionBudget(int regionOrders, int largestRegionOrders) {
+        long totalMillis = autoPlanProperties.getRegionalTimeBudgetSeconds() * 1000L;
+        long minMillis = autoPlanProperties.getRegionalMinBudgetSeconds() * 1000L;
+        long proportional = largestRegionOrders == 0 ? totalMillis
+                : totalMillis * regionOrders / largestRegionOrders;
+        return Duration.ofMillis(Math.min(totalMillis, Math.max(minMillis, proportional)));
+    }
+
+    private static RegionalSolution failedRegion(String hubId, Duration duration, String errorMessage) {
+        return RegionalSolution.builder()
+                .hubId(hubId)
+                .routes(List.of())
+                .ordersAssigned(0)
+                .duration(duration)
+                .success(false)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    /**
+     * Moves UNASSIGNED orders into the active hub with the largest demand (first
+     * active hub when none has orders), so they are solved with that hub's fleet.
+     * Without active hubs everything stays one UNASSIGNED region with the whole fleet.
+     */
+    void mergeUnassigned(Map<String, List<OrderResponseDto>> ordersByHub, List<HubConfiguration> activeHubs) {
+        List<OrderResponseDto> unassigned = ordersByHub.get(UNASSIGNED_HUB);
+        if (unassigned == null || activeHubs.isEmpty()) {
+            return;
         }
+        String fallbackHubId = null;
+        int fallbackDemand = -1;
+        for (HubConfiguration hub : activeHubs) {
+            int demand = ordersByHub.getOrDefault(hub.getId(), List.of()).size();
+            if (demand > fallbackDemand) {
+                fallbackHubId = hub.getId();
+                fallbackDemand = demand;
+            }
+        }
+        ordersByHub.remove(UNASSIGNED_HUB);
+        ordersByHub.computeIfAbsent(fallbackHubId, k -> new ArrayList<>()).addAll(unassigned);
+        log.warn("⚠️ {} orders without a hub assigned to fallback region {}", unassigned.size(), fallbackHubId);
     }
 
     /**
@@ -202,7 +288,7 @@ public class RegionalOptimizationService {
 
             // Find hub for this location
             Optional<HubConfiguration> hub = hubService.findHubForLocation(lat, lon);
-            String hubId = hub.map(HubConfiguration::getId).orElse("UNASSIGNED");
+            String hubId = hub.map(HubConfiguration::getId).orElse(UNASSIGNED_HUB);
 
             ordersByHub.computeIfAbsent(hubId, k -> new ArrayList<>()).add(order);
         }
@@ -210,36 +296,6 @@ public class RegionalOptimizationService {
         return ordersByHub;
     }
 
-    /**
-     * Partition vehicles by hub assignment
-     * 
-     * Note: Assumes FleetVehicleEntity has homeHub field (would need database
-     * migration)
-     * For now, distributes evenly across hubs
-     */
-    private Map<String, List<FleetVehicleEntity>> partitionVehiclesByHub(List<FleetVehicleEntity> vehicles) {
-        Map<String, List<FleetVehicleEntity>> vehiclesByHub = new HashMap<>();
-
-        // TODO: Read from vehicle.homeHub field once DB migration is done
-        // For now, distribute evenly
-        List<HubConfiguration> activeHubs = hubService.getActiveHubs();
-        if (activeHubs.isEmpty()) {
-            log.error("❌ No active hubs configured! Using single region");
-            vehiclesByHub.put("DEFAULT", vehicles);
-            return vehiclesByHub;
-        }
-
-        // Simple round-robin distribution (temporary until vehicle.homeHub is set)
-        int hubIndex = 0;
-        for (FleetVehicleEntity vehicle : vehicles) {
-            String hubId = activeHubs.get(hubIndex % activeHubs.size()).getId();
-            vehiclesByHub.computeIfAbsent(hubId, k -> new ArrayList<>()).add(vehicle);
-            hubIndex++;
-        }
-
-        return vehiclesByHub;
-    }
-
     // ===== DTOs =====
 
     @lombok.Data
@@ -249,6 +305,7 @@ public class RegionalOptimizationService {
         private int totalRoutesCreated;
         private int totalOrdersAssigned;
         private Duration duration;
+        private List<HubVehicleAllocator.Loan> vehicleLoans;
     }
 
     @lombok.Data
@@ -258,6 +315,7 @@ public class RegionalOptimizationService {
         private List<Route> routes;
         private int ordersAssigned;
         private Duration duration;
+        private Duration timeBudget;
         private boolean success;
         private String errorMessage;
     }
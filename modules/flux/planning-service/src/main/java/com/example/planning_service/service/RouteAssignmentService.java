@@ -1,8 +1,10 @@
 package com.example.planning_service.service;
 
 import com.example.planning_service.client.IamClient;
+import com.example.planning_service.config.AppProperties;
 import com.example.planning_service.dto.DriverRouteResponseDto;
 import com.example.planning_service.dto.RouteAssignmentFilterDto;
+import com.example.planning_service.dto.RouteAssignmentKeysetPageDto;
 import com.example.planning_service.dto.RouteAssignmentRequestDto;
 import com.example.planning_service.dto.RouteAssignmentResponseDto;
 import com.example.planning_service.dto.UserInfoDto;
@@ -13,46 +15,87 @@ import com.example.planning_service.repository.CarrierComplianceRepository;
 import com.example.planning_service.repository.OptimizationSolutionRepository;
 import com.example.planning_service.repository.RouteAssignmentRepository;
 import com.example.planning_service.repository.specification.RouteAssignmentSpecification;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.Comparator;
 
 /**
  * Service for route assignment and driver notification via magic links.
  * Handles CRUD operations for route assignments and generates tokens for driver
  * PWA access.
+ *
+ * Magic link tokens and driver names are kept in bounded Caffeine caches
+ * (thread-safe, expire after app.route-assignments.*). Driver names are
+ * resolved once per page: distinct drivers, cached ones first, the rest
+ * fetched from IAM in parallel (iam-lookup-parallelism in flight).
+ * Large listings use keyset paging on (createdAt, id) - see
+ * db/indexes/route-assignment-indexes.sql.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RouteAssignmentService {
 
+    /**
+     * Keyset order - must match the (created_at DESC, id DESC) indexes
+     */
+    static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private static final List<RouteAssignmentEntity.RouteStatus> ACTIVE_STATUSES = List.of(
+            RouteAssignmentEntity.RouteStatus.PUBLISHED, RouteAssignmentEntity.RouteStatus.IN_PROGRESS);
+
     private final OptimizationSolutionRepository solutionRepository;
     private final RouteAssignmentRepository routeAssignmentRepository;
     private final RouteAssignmentSpecification specification;
     private final CarrierComplianceRepository carrierComplianceRepository;
     private final IamClient iamClient;
     private final EmailService emailService;
-    private final Map<String, MagicLinkToken> tokenStore = new HashMap<>();
-    
-    // Cache for driver/vehicle names (5min TTL)
-    private final Map<UUID, CachedUserInfo> driverCache = new HashMap<>();
-    private static final long CACHE_TTL_MS = 5 * 60 * 1000; // 5 minutes
-    
-    private record CachedUserInfo(String name, long timestamp) {
-        boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > CACHE_TTL_MS;
-        }
+    private final AppProperties.RouteAssignments config;
+    private final Executor iamExecutor;
+    private final Cache<String, MagicLinkToken> tokenStore;
+    private final Cache<UUID, String> driverNames;
+
+    public RouteAssignmentService(OptimizationSolutionRepository solutionRepository,
+            RouteAssignmentRepository routeAssignmentRepository,
+            RouteAssignmentSpecification specification,
+            CarrierComplianceRepository carrierComplianceRepository,
+            IamClient iamClient,
+            EmailService emailService,
+            AppProperties appProperties,
+            @Qualifier("optimizationThreadPool") Executor iamExecutor) {
+        this.solutionRepository = solutionRepository;
+        this.routeAssignmentRepository = routeAssignmentRepository;
+        this.specification = specification;
+        this.carrierComplianceRepository = carrierComplianceRepository;
+        this.iamClient = iamClient;
+        this.emailService = emailService;
+        this.config = appProperties.getRouteAssignments();
+        this.iamExecutor = iamExecutor;
+        this.tokenStore = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(config.getMagicLinkTtlHours()))
+                .maximumSize(config.getMaxMagicLinkTokens())
+                .build();
+        this.driverNames = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(config.getDriverNameTtlMinutes()))
+                .maximumSize(config.getDriverNameCacheSize())
+                .build();
     }
 
     // ========== CRUD Operations ==========
@@ -115,20 +158,28 @@ public class RouteAssignmentService {
     }
 
     /**
-     * Get all route assignments with enriched data (DEPRECATED - use findFiltered instead)
-     * This method loads ALL assignments into memory - not suitable for production!
+     * Get all route assignments with enriched data (DEPRECATED - use findFiltered / findAfter instead)
+     * Still returns everything, but reads it in keyset pages of max-page-size
+     * (one IAM round per page) instead of one findAll().
      */
     @Deprecated
     public List<RouteAssignmentResponseDto> getAllRouteAssignments() {
-        return routeAssignmentRepository.findAll()
-                .stream()
-                .map(this::enrichResponse)
-                .collect(Collectors.toList());
+        RouteAssignmentFilterDto all = new RouteAssignmentFilterDto();
+        List<RouteAssignmentResponseDto> assignments = new ArrayList<>();
+        RouteAssignmentKeysetPageDto page = findAfter(all, null, null, config.getMaxPageSize());
+        assignments.addAll(page.getItems());
+        while (page.isHasMore()) {
+            page = findAfter(all, page.getNextCreatedAt(), page.getNextId(), config.getMaxPageSize());
+            assignments.addAll(page.getItems());
+        }
+        return assignments;
     }
 
     /**
      * Get filtered and paginated route assignments.
      * Designed for high-volume scenarios (thousands of orders per day).
+     * Page size is capped at app.route-assignments.max-page-size; id is added
+     * as the last sort key so rows with the same createdAt do not move between pages.
      * 
      * @param filter Filter criteria (status, driver, dates, etc.)
      * @param pageable Pagination parameters (page, size, sort)
@@ -136,8 +187,42 @@ public class RouteAssignmentService {
      */
     public Page<RouteAssignmentResponseDto> findFiltered(RouteAssignmentFilterDto filter, Pageable pageable) {
         Specification<RouteAssignmentEntity> spec = specification.filterBy(filter);
-        Page<RouteAssignmentEntity> entityPage = routeAssignmentRepository.findAll(spec, pageable);
-        return entityPage.map(this::enrichResponse);
+        Page<RouteAssignmentEntity> entityPage = routeAssignmentRepository.findAll(spec, bounded(pageable));
+        Map<UUID, String> names = driverNames(entityPage.getContent());
+        return entityPage.map(entity -> enrichResponse(entity, names));
+    }
+
+    /**
+     * Keyset page: assignments created before the cursor (newest first).
+     * No offset and no count query - cost does not grow with the page number.
+     * 
+     * @param filter Filter criteria (status, driver, dates, etc.)
+     * @param afterCreatedAt createdAt of the last item of the previous page (null = first page)
+     * @param afterId id of the last item of the previous page
+     * @param size Page size (capped at app.route-assignments.max-page-size)
+     */
+    public RouteAssignmentKeysetPageDto findAfter(RouteAssignmentFilterDto filter, Instant afterCreatedAt,
+            UUID afterId, int size) {
+        int limit = Math.max(1, Math.min(size, config.getMaxPageSize()));
+        Specification<RouteAssignmentEntity> spec = specification.filterBy(filter);
+        if (afterCreatedAt != null && afterId != null) {
+            spec = spec.and(specification.createdBefore(afterCreatedAt, afterId));
+        }
+
+        // One extra row tells whether there is a next page
+        List<RouteAssignmentEntity> rows = routeAssignmentRepository.findBy(spec,
+                query -> query.sortBy(KEYSET_SORT).limit(limit + 1).all());
+        boolean hasMore = rows.size() > limit;
+        List<RouteAssignmentEntity> page = hasMore ? rows.subList(0, limit) : rows;
+
+        Map<UUID, String> names = driverNames(page);
+        RouteAssignmentEntity last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return RouteAssignmentKeysetPageDto.builder()
+                .items(page.stream().map(entity -> enrichResponse(entity, names)).collect(Collectors.toList()))
+                .nextCreatedAt(last != null ? last.getCreatedAt() : null)
+                .nextId(last != null ? last.getId() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
@@ -145,7 +230,7 @@ public class RouteAssignmentService {
      */
     public RouteAssignmentResponseDto getRouteAssignmentById(UUID id) {
         return routeAssignmentRepository.findById(id)
-                .map(this::enrichResponse)
+                .map(entity -> enrichResponse(entity, driverNames(List.of(entity))))
                 .orElseThrow(() -> new IllegalArgumentException("Route assignment not found: " + id));
     }
 
@@ -290,9 +375,10 @@ public class RouteAssignmentService {
 
     /**
      * Enrich response DTO with external data (driver/vehicle names)
-     * Fetches real data from IAM service with caching for performance
+     * 
+     * @param names Driver names resolved for the whole page (see driverNames)
      */
-    private RouteAssignmentResponseDto enrichResponse(RouteAssignmentEntity entity) {
+    private RouteAssignmentResponseDto enrichResponse(RouteAssignmentEntity entity, Map<UUID, String> names) {
         RouteAssignmentResponseDto dto = RouteAssignmentResponseDto.builder()
                 .id(entity.getId())
                 .optimizationSolutionId(entity.getOptimizationSolutionId())
@@ -316,8 +402,7 @@ public class RouteAssignmentService {
         
         // Enrich with driver name from IAM service
         if (entity.getDriverId() != null) {
-            String driverName = getDriverName(entity.getDriverId());
-            dto.setDriverName(driverName);
+            dto.setDriverName(names.getOrDefault(entity.getDriverId(), fallbackDriverName(entity.getDriverId())));
         }
 
         // Extract computed fields from routeData
@@ -336,28 +421,62 @@ public class RouteAssignmentService {
     }
 
     /**
-     * Get driver name from IAM service with caching
+     * Driver names of a page: each distinct driver once, cached names first,
+     * the rest fetched from IAM in parallel (at most iam-lookup-parallelism
+     * requests in flight). Failed lookups get the fallback name and are not
+     * cached.
+     */
+    Map<UUID, String> driverNames(Collection<RouteAssignmentEntity> assignments) {
+        Set<UUID> driverIds = new LinkedHashSet<>();
+        for (RouteAssignmentEntity assignment : assignments) {
+            if (assignment.getDriverId() != null) {
+                driverIds.add(assignment.getDriverId());
+            }
+        }
+        if (driverIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, String> names = new HashMap<>(driverNames.getAllPresent(driverIds));
+        List<UUID> missing = driverIds.stream().filter(id -> !names.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return names;
+        }
+
+        Map<UUID, String> fetched = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(missing.size(), Math.max(1, config.getIamLookupParallelism()));
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            futures[w] = CompletableFuture.runAsync(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < missing.size()) {
+                    UUID driverId = missing.get(index);
+                    fetched.put(driverId, fetchDriverName(driverId));
+                }
+            }, iamExecutor);
+        }
+        CompletableFuture.allOf(futures).join();
+
+        names.putAll(fetched);
+        log.debug("Resolved {} driver names ({} from IAM)", names.size(), missing.size());
+        return names;
+    }
+
+    /**
+     * Get driver name from IAM service (cached on success)
      * 
      * @param driverId Driver UUID
      * @return Driver name (username or fullName) or fallback
      */
-    private String getDriverName(UUID driverId) {
-        // Check cache first
-        CachedUserInfo cached = driverCache.get(driverId);
-        if (cached != null && !cached.isExpired()) {
-            return cached.name();
-        }
-
-        // Fetch from IAM service
+    private String fetchDriverName(UUID driverId) {
         try {
             UserInfoDto user = iamClient.getUserById(driverId);
             if (user != null) {
                 String name = user.getFullName() != null && !user.getFullName().isBlank()
                         ? user.getFullName()
-                        : (user.getUsername() != null ? user.getUsername() : "Driver " + driverId.toString().substring(0, 8));
-                
-                // Update cache
-                driverCache.put(driverId, new CachedUserInfo(name, System.currentTimeMillis()));
+                        : (user.getUsername() != null ? user.getUsername() : fallbackDriverName(driverId));
+                driverNames.put(driverId, name);
                 return name;
             }
         } catch (Exception e) {
@@ -365,9 +484,23 @@ public class RouteAssignmentService {
         }
 
         // Fallback
+        return fallbackDriverName(driverId);
+    }
+
+    private static String fallbackDriverName(UUID driverId) {
         return "Driver " + driverId.toString().substring(0, 8);
     }
 
+    private Pageable bounded(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return PageRequest.of(0, config.getMaxPageSize(), KEYSET_SORT);
+        }
+        int size = Math.min(pageable.getPageSize(), config.getMaxPageSize());
+        Sort sort = pageable.getSort().getOrderFor("id") != null ? pageable.getSort()
+                : pageable.getSort().and(Sort.by(Sort.Order.desc("id")));
+        return PageRequest.of(pageable.getPageNumber(), size, sort);
+    }
+
     /**
      * Get driver email from IAM service (for magic link sending)
      * 
@@ -407,7 +540,7 @@ public class RouteAssignmentService {
      */
     public String generateMagicLink(String driverId, String contact, UUID routeId) {
         String token = UUID.randomUUID().toString();
-        Instant expiresAt = Instant.now().plus(24, ChronoUnit.HOURS);
+        Instant expiresAt = Instant.now().plus(config.getMagicLinkTtlHours(), ChronoUnit.HOURS);
 
         MagicLinkToken linkToken = new MagicLinkToken(driverId, routeId, expiresAt);
         tokenStore.put(token, linkToken);
@@ -430,7 +563,7 @@ public class RouteAssignmentService {
      * @return Driver ID if valid, null if expired/invalid
      */
     public String validateToken(String token) {
-        MagicLinkToken linkToken = tokenStore.get(token);
+        MagicLinkToken linkToken = token != null ? tokenStore.getIfPresent(token) : null;
 
         if (linkToken == null) {
             log.warn("Magic link token {} not found", token);
@@ -439,7 +572,7 @@ public class RouteAssignmentService {
 
         if (linkToken.expiresAt.isBefore(Instant.now())) {
             log.warn("Magic link token {} expired at {}", token, linkToken.expiresAt);
-            tokenStore.remove(token);
+            tokenStore.invalidate(token);
             return null;
         }
 
@@ -453,7 +586,7 @@ public class RouteAssignmentService {
      * @return Route assignment ID if token is valid, null otherwise
      */
     public UUID getRouteIdFromToken(String token) {
-        MagicLinkToken linkToken = tokenStore.get(token);
+        MagicLinkToken linkToken = token != null ? tokenStore.getIfPresent(token) : null;
         if (linkToken == null || linkToken.expiresAt.isBefore(Instant.now())) {
             return null;
         }
@@ -468,33 +601,13 @@ public class RouteAssignmentService {
      * @return DriverRouteResponseDto with route data, or null if no active route
      */
     public DriverRouteResponseDto getActiveRouteForDriver(UUID driverId) {
-        List<RouteAssignmentEntity> activeRoutes = routeAssignmentRepository.findByDriverIdAndStatus(
-                driverId, 
-                RouteAssignmentEntity.RouteStatus.PUBLISHED
-        );
-        
-        // Also check IN_PROGRESS routes
-        List<RouteAssignmentEntity> inProgressRoutes = routeAssignmentRepository.findByDriverIdAndStatus(
-                driverId,
-                RouteAssignmentEntity.RouteStatus.IN_PROGRESS
-        );
-        
-        // Combine and get most recent
-        List<RouteAssignmentEntity> allActive = new ArrayList<>();
-        allActive.addAll(activeRoutes);
-        allActive.addAll(inProgressRoutes);
-        
-        if (allActive.isEmpty()) {
-            log.info("No active route found for driver {}", driverId);
-            return null;
-        }
-        
-        // Get most recent route (by createdAt)
-        RouteAssignmentEntity route = allActive.stream()
-                .max(Comparator.comparing(RouteAssignmentEntity::getCreatedAt))
+        // Most recent PUBLISHED / IN_PROGRESS route - one query, newest row only
+        RouteAssignmentEntity route = routeAssignmentRepository
+                .findFirstByDriverIdAndStatusInOrderByCreatedAtDesc(driverId, ACTIVE_STATUSES)
                 .orElse(null);
         
         if (route == null) {
+            log.info("No active route found for driver {}", driverId);
             return null;
         }
         
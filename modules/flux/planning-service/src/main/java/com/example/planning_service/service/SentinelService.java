@@ -1,27 +1,87 @@
 package com.example.planning_service.service;
 
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.entity.LocationPoint;
 import com.example.planning_service.entity.RouteEntity;
 import com.example.planning_service.entity.RouteStopEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
 import com.example.planning_service.repository.RouteRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * ARCHITEKTURA: Sentinel - ETA tras w trakcie realizacji
+ *
+ * - recalculateRouteETA: pojedyncza trasa na żądanie (zawsze przeliczana).
+ * - Sweep (app.sentinel.sweep-interval-millis): żywe trasy z pozycją
+ * kierowcy, równolegle na puli sentinelEtaPool (app.sentinel.parallelism
+ * workerów, każda trasa w osobnej transakcji). Trasa jest żywa, dopóki nie ma
+ * ETA albo któryś przystanek ma okno SLA zamknięte nie dawniej niż
+ * live-route-grace-minutes temu - zakończona trasa zachowuje ostatnią pozycję
+ * kierowcy i bez tego byłaby przeliczana w nieskończoność.
+ *
+ * Sweep pomija trasę, gdy kierowca przesunął się o mniej niż
+ * min-move-meters od pozycji ostatniego przeliczenia (RouteEntity.etaOrigin),
+ * ETA (RouteEntity.etaCalculatedAt) nie jest starsze niż max-eta-age-seconds,
+ * a trasa nie była zmieniana od tego czasu (lastUpdated - np. slotting wstawił
+ * przystanek). Każda przeliczana trasa to jedno zapytanie o kolejne odcinki
+ * (TravelTimeService.calculateLegTravelTimes, n zapytań drogowych zamiast
+ * macierzy n x n).
+ *
+ * Wynik jest zapisywany tylko wtedy, gdy któreś ETA przesunęło się o co
+ * najmniej min-eta-change-seconds (albo trasa nie ma jeszcze ETA lub zmieniła
+ * się od ostatniego przeliczenia) - kierowca jadący zgodnie z planem nie
+ * generuje zapisów ani podbić @Version. Encja jest wtedy nietknięta, więc
+ * dirty checking też nic nie flushuje.
+ * Alert SLA idzie tylko wtedy, gdy przystanek dopiero staje się spóźniony
+ * (poprzednie ETA mieściło się w oknie) - stojący kierowca nie powtarza
+ * alertów przy każdym zapisie.
+ * Błąd jednej trasy (np. konflikt wersji) jest logowany i nie przerywa
+ * sweepu - trasa wróci w następnym.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class SentinelService {
 
+    private static final long SERVICE_MINUTES = 15; // Assume 15 min service time
+
     private final RouteRepository routeRepository;
     private final TravelTimeService travelTimeService;
     private final AlertService alertService;
+    private final AppProperties.Sentinel config;
+    private final OptimizationMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor etaExecutor;
+
+    public SentinelService(RouteRepository routeRepository, TravelTimeService travelTimeService,
+            AlertService alertService, AppProperties appProperties, OptimizationMetrics metrics,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("sentinelEtaPool") Executor etaExecutor) {
+        this.routeRepository = routeRepository;
+        this.travelTimeService = travelTimeService;
+        this.alertService = alertService;
+        this.config = appProperties.getSentinel();
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.etaExecutor = etaExecutor;
+    }
 
     /**
      * Recalculates ETAs for all stops in a route based on current location and
@@ -37,36 +97,178 @@ public class SentinelService {
             return;
         }
 
+        recalculate(route, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${app.sentinel.sweep-interval-millis:60000}",
+            initialDelayString = "${app.sentinel.sweep-interval-millis:60000}")
+    public void sweep() {
+        if (config.isSweepEnabled()) {
+            recalculateActiveRoutes();
+        }
+    }
+
+    /**
+     * Recalculates every live route with a driver position, skipping the ones whose
+     * driver has not moved since the last (recent enough) ETA
+     */
+    public SweepResult recalculateActiveRoutes() {
+        long started = System.nanoTime();
+        List<UUID> routeIds = routeRepository.findLiveIdsWithCurrentLocation(
+                LocalDateTime.now().minusMinutes(config.getLiveRouteGraceMinutes()));
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger recalculated = new AtomicInteger();
+        AtomicInteger unchanged = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int workers = Math.min(routeIds.size(), Math.max(1, config.getParallelism()));
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            futures[w] = CompletableFuture.runAsync(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < routeIds.size()) {
+                    UUID routeId = routeIds.get(index);
+                    try {
+                        switch (transactionTemplate.execute(status -> recalculateIfMoved(routeId))) {
+                            case RECALCULATED -> recalculated.incrementAndGet();
+                            case UNCHANGED -> unchanged.incrementAndGet();
+                            case SKIPPED -> skipped.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.warn("ETA recalculation failed for route {}: {}", routeId, e.getMessage());
+                    }
+                }
+            }, etaExecutor);
+        }
+        CompletableFuture.allOf(futures).join();
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        metrics.recordEtaSweep(recalculated.get(), unchanged.get(), skipped.get(), failed.get(), elapsed);
+        SweepResult result = new SweepResult(routeIds.size(), recalculated.get(), unchanged.get(), skipped.get(),
+                failed.get(), elapsed);
+        log.debug("ETA sweep: {}", result);
+        return result;
+    }
+
+    private Outcome recalculateIfMoved(UUID routeId) {
+        RouteEntity route = routeRepository.findById(routeId).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (route == null || route.getCurrentLocation() == null || !needsRecalculation(route, now)) {
+            return Outcome.SKIPPED;
+        }
+        return recalculate(route, now) ? Outcome.RECALCULATED : Outcome.UNCHANGED;
+    }
+
+    boolean needsRecalculation(RouteEntity route, LocalDateTime now) {
+        Point current = route.getCurrentLocation().getCoordinates();
+        Point origin = route.getEtaOrigin() != null ? route.getEtaOrigin().getCoordinates() : null;
+        if (current == null || origin == null || route.getEtaCalculatedAt() == null || routeChangedSinceEta(route)) {
+            return true;
+        }
+        if (route.getEtaCalculatedAt().isBefore(now.minusSeconds(config.getMaxEtaAgeSeconds()))) {
+            return true;
+        }
+        return DistanceMatrix.haversineMeters(origin.getY(), origin.getX(), current.getY(), current.getX())
+                >= config.getMinMoveMeters();
+    }
+
+    /**
+     * Stops or sequence changed after the stored ETAs were calculated (every route write bumps lastUpdated)
+     */
+    private static boolean routeChangedSinceEta(RouteEntity route) {
+        return route.getLastUpdated() != null && route.getLastUpdated().isAfter(route.getEtaCalculatedAt());
+    }
+
+    /**
+     * @return true when the ETAs changed and were written, false when the route was left untouched
+     */
+    private boolean recalculate(RouteEntity route, LocalDateTime now) {
         List<RouteStopEntity> stops = route.getStops(); // Assuming relation exists
         stops.sort(Comparator.comparing(RouteStopEntity::getSequence));
 
-        LocalDateTime currentTime = LocalDateTime.now();
-        var currentLocation = route.getCurrentLocation();
-
-        for (RouteStopEntity stop : stops) {
-            // Skip completed stops logic would go here (requires status on stop)
+        LocalDateTime currentTime = now;
 
-            Duration travelTime = travelTimeService.calculateTravelTime(currentLocation, stop.getLocation());
-            LocalDateTime arrivalTime = currentTime.plus(travelTime);
+        // One legs request for the whole route instead of one distance lookup per stop
+        List<Duration> legs = travelTimeService.calculateLegTravelTimes(route.getCurrentLocation(),
+                stops.stream().map(RouteStopEntity::getLocation).toList());
 
-            stop.setPredictedArrivalTime(arrivalTime);
+        List<LocalDateTime> arrivals = new ArrayList<>(stops.size());
+        for (int i = 0; i < stops.size(); i++) {
+            // Skip completed stops logic would go here (requires status on stop)
 
-            checkSlaCompliance(route, stop);
+            LocalDateTime arrivalTime = currentTime.plus(legs.get(i));
+            arrivals.add(arrivalTime);
 
             // Advance for next iteration
-            currentTime = arrivalTime.plusMinutes(15); // Assume 15 min service time
-            currentLocation = stop.getLocation();
+            currentTime = arrivalTime.plusMinutes(SERVICE_MINUTES);
+        }
+
+        if (!etaChanged(route, stops, arrivals, currentTime)) {
+            return false;
         }
 
-        route.setLastUpdated(LocalDateTime.now());
+        for (int i = 0; i < stops.size(); i++) {
+            RouteStopEntity stop = stops.get(i);
+            boolean wasLate = isLate(stop);
+            stop.setPredictedArrivalTime(arrivals.get(i));
+            if (!wasLate && isLate(stop)) {
+                alertService.sendSlaViolationAlert(route.getId(), stop.getOrderId(), stop.getPredictedArrivalTime(),
+                        stop.getSlaWindowEnd());
+            }
+        }
+        route.setEtaOrigin(copyOf(route.getCurrentLocation()));
+        route.setEtaCalculatedAt(now);
+        route.setLastUpdated(now);
         route.setPredictedEndTime(currentTime);
         routeRepository.save(route);
+        return true;
     }
 
-    private void checkSlaCompliance(RouteEntity route, RouteStopEntity stop) {
-        if (stop.getSlaWindowEnd() != null && stop.getPredictedArrivalTime().isAfter(stop.getSlaWindowEnd())) {
-            alertService.sendSlaViolationAlert(route.getId(), stop.getOrderId(), stop.getPredictedArrivalTime(),
-                    stop.getSlaWindowEnd());
+    private boolean etaChanged(RouteEntity route, List<RouteStopEntity> stops, List<LocalDateTime> arrivals,
+            LocalDateTime endTime) {
+        if (route.getEtaCalculatedAt() == null || routeChangedSinceEta(route)) {
+            return true;
+        }
+        if (movedBy(route.getPredictedEndTime(), endTime)) {
+            return true;
+        }
+        for (int i = 0; i < stops.size(); i++) {
+            if (movedBy(stops.get(i).getPredictedArrivalTime(), arrivals.get(i))) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    private boolean movedBy(LocalDateTime stored, LocalDateTime recalculated) {
+        return stored == null
+                || Math.abs(Duration.between(stored, recalculated).toSeconds()) >= config.getMinEtaChangeSeconds();
+    }
+
+    private static boolean isLate(RouteStopEntity stop) {
+        return stop.getSlaWindowEnd() != null && stop.getPredictedArrivalTime() != null
+                && stop.getPredictedArrivalTime().isAfter(stop.getSlaWindowEnd());
+    }
+
+    private static LocationPoint copyOf(LocationPoint location) {
+        LocationPoint copy = new LocationPoint();
+        copy.setCoordinates(location.getCoordinates() != null ? (Point) location.getCoordinates().copy() : null);
+        return copy;
+    }
+
+    private enum Outcome {
+        RECALCULATED, UNCHANGED, SKIPPED
+    }
+
+    /**
+     * Outcome of one sweep over active routes
+     *
+     * @param recalculated routes whose new ETAs were written
+     * @param unchanged routes recalculated without a meaningful ETA change (not written)
+     */
+    public record SweepResult(int routes, int recalculated, int unchanged, int skipped, int failed,
+            Duration elapsed) {
     }
 }
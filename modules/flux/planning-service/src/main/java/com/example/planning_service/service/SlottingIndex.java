@@ -0,0 +1,421 @@
+package com.example.planning_service.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ARCHITEKTURA: Indeks slotowania w pamięci (cheapest insertion)
+ *
+ * Każda trasa to niemutowalny RouteState: ładowność i bieżące obciążenie,
+ * przystanki z przyjazdami i oknami czasowymi, długości odcinków oraz forward
+ * slack (o ile można opóźnić przyjazd na przystanek i, nie łamiąc okien od i
+ * do końca trasy). Dzięki temu ocena pozycji wstawienia to O(1): dwie
+ * odległości + porównanie ze slackiem następnego przystanku. Odległość =
+ * cięciwa między wektorami jednostkowymi (jak w HubIndex) - w skali miasta
+ * różnica względem haversine poniżej metra, a w pętli zostaje jeden sqrt.
+ *
+ * - Kandydaci: siatka lat/lon (cellDegrees) -> trasy z przystankiem (lub
+ * startem) w komórce; zapytanie patrzy na searchRings pierścieni wokół
+ * punktu, a gdy nic nie znajdzie - na wszystkie trasy.
+ * - Zatwierdzenie: optymistyczne wersjonowanie. Insertion niesie wersję
+ * stanu, na którym była liczona; commit podmienia stan tylko gdy wersja się
+ * zgadza (compute na ConcurrentHashMap), inaczej zwraca empty i wywołujący
+ * liczy od nowa. Wersja = @Version RouteEntity, więc ten sam numer chroni
+ * zapis w bazie.
+ *
+ * Czasy w sekundach (ta sama skala co LocalDateTime w encjach), odległości w
+ * metrach, czas przejazdu = odległość przy stałej prędkości.
+ */
+public final class SlottingIndex {
+
+    /**
+     * Stop arrival not known yet - timed from the previous stop when the state is built
+     */
+    public static final long UNKNOWN_ARRIVAL = Long.MIN_VALUE;
+
+    private static final long OPEN = Long.MAX_VALUE / 4;
+    private static final double EARTH_RADIUS_METERS = 6_371_000; // same as DistanceMatrix
+
+    private final double cellDegrees;
+    private final int searchRings;
+    private final long serviceSeconds;
+    private final double metersPerSecond;
+
+    private final Map<UUID, RouteState> routes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+    public SlottingIndex(double cellDegrees, int searchRings, long serviceSeconds, double speedKmh) {
+        this.cellDegrees = cellDegrees;
+        this.searchRings = searchRings;
+        this.serviceSeconds = serviceSeconds;
+        this.metersPerSecond = speedKmh * 1000.0 / 3600.0;
+    }
+
+    /**
+     * One stop of a route. Window bounds are null when open.
+     */
+    public record Stop(UUID orderId, double latitude, double longitude, long arrival, Long windowStart,
+            Long windowEnd, double weight) {
+
+        long earliest() {
+            return windowStart != null ? windowStart : -OPEN;
+        }
+
+        long latest() {
+            return windowEnd != null ? windowEnd : OPEN;
+        }
+    }
+
+    /**
+     * Best route and position for a new stop, valid for the route state of {@code version}
+     *
+     * @param position     index the stop is inserted at (0 = first stop)
+     * @param addedMeters  detour the stop adds to the route
+     * @param arrival      arrival at the new stop
+     */
+    public record Insertion(UUID routeId, long version, int position, double addedMeters, long arrival) {
+    }
+
+    /**
+     * Immutable state of one route
+     */
+    public static final class RouteState {
+        private final UUID routeId;
+        private final long version;
+        private final double capacity;
+        private final double load;
+        private final double startLatitude;
+        private final double startLongitude;
+        private final long startTime;
+        private final Stop[] stops;
+        private final double[][] points; // unit vectors, points[0] = start, points[i + 1] = stop i
+        private final double[] legMeters; // legMeters[i] = previous point -> stop i
+        private final long[] departure;
+        private final long[] slack;
+
+        private RouteState(UUID routeId, long version, double capacity, double startLatitude,
+                double startLongitude, long startTime, Stop[] stops, SlottingIndex index) {
+            this.routeId = routeId;
+            this.version = version;
+            this.capacity = capacity;
+            this.startLatitude = startLatitude;
+            this.startLongitude = startLongitude;
+            this.startTime = startTime;
+            this.stops = stops;
+            this.points = new double[stops.length + 1][];
+            this.legMeters = new double[stops.length];
+            this.departure = new long[stops.length];
+            this.slack = new long[stops.length];
+
+            double totalLoad = 0;
+            points[0] = unitVector(startLatitude, startLongitude);
+            for (int i = 0; i < stops.length; i++) {
+                Stop stop = stops[i];
+                points[i + 1] = unitVector(stop.latitude(), stop.longitude());
+                legMeters[i] = meters(points[i], points[i + 1]);
+                departure[i] = Math.max(stop.arrival(), stop.earliest()) + index.serviceSeconds;
+                totalLoad += stop.weight();
+            }
+            this.load = totalLoad;
+
+            // Forward slack: delay at i is absorbed by the wait at i + 1, the rest must fit slack[i + 1]
+            for (int i = stops.length - 1; i >= 0; i--) {
+                long own = stops[i].latest() - stops[i].arrival();
+                if (i + 1 < stops.length) {
+                    long wait = Math.max(0, stops[i + 1].earliest() - stops[i + 1].arrival());
+                    own = Math.min(own, saturatedAdd(slack[i + 1], wait));
+                }
+                slack[i] = own;
+            }
+        }
+
+        public UUID routeId() {
+            return routeId;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public double capacity() {
+            return capacity;
+        }
+
+        public double load() {
+            return load;
+        }
+
+        public List<Stop> stops() {
+            return List.of(stops);
+        }
+
+        long departureBefore(int position) {
+            return position == 0 ? startTime : departure[position - 1];
+        }
+
+        double latitudeBefore(int position) {
+            return position == 0 ? startLatitude : stops[position - 1].latitude();
+        }
+
+        double longitudeBefore(int position) {
+            return position == 0 ? startLongitude : stops[position - 1].longitude();
+        }
+
+        double[] pointBefore(int position) {
+            return points[position];
+        }
+    }
+
+    /**
+     * Route state built from persisted stops (in sequence order). Stops
+     * with UNKNOWN_ARRIVAL are timed from the previous one.
+     *
+     * @param startTime departure from the start point
+     */
+    public RouteState state(UUID routeId, long version, double capacity, double startLatitude, double startLongitude,
+            long startTime, List<Stop> stops) {
+        Stop[] timed = new Stop[stops.size()];
+        long previousDeparture = startTime;
+        double lat = startLatitude;
+        double lon = startLongitude;
+        for (int i = 0; i < timed.length; i++) {
+            Stop stop = stops.get(i);
+            if (stop.arrival() == UNKNOWN_ARRIVAL) {
+                stop = new Stop(stop.orderId(), stop.latitude(), stop.longitude(),
+                        previousDeparture + travelSeconds(lat, lon, stop.latitude(), stop.longitude()),
+                        stop.windowStart(), stop.windowEnd(), stop.weight());
+            }
+            timed[i] = stop;
+            previousDeparture = Math.max(stop.arrival(), stop.earliest()) + serviceSeconds;
+            lat = stop.latitude();
+            lon = stop.longitude();
+        }
+        return new RouteState(routeId, version, capacity, startLatitude, startLongitude, startTime, timed, this);
+    }
+
+    /**
+     * Index a route loaded from the database, unless the index already holds a newer version
+     */
+    public void refresh(RouteState state) {
+        routes.merge(state.routeId(), state, (current, loaded) -> loaded.version() >= current.version()
+                ? loaded
+                : current);
+        register(state);
+    }
+
+    /**
+     * Replace the route state unconditionally (the database is the source of truth again)
+     */
+    public void restore(RouteState state) {
+        routes.put(state.routeId(), state);
+        register(state);
+    }
+
+    /**
+     * Drop routes that are no longer in the database
+     */
+    public void retainAll(Collection<UUID> routeIds) {
+        Set<UUID> keep = new HashSet<>(routeIds);
+        routes.keySet().retainAll(keep);
+        cells.values().forEach(ids -> ids.retainAll(keep));
+    }
+
+    public void remove(UUID routeId) {
+        routes.remove(routeId);
+    }
+
+    public Optional<RouteState> find(UUID routeId) {
+        return Optional.ofNullable(routes.get(routeId));
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * Cheapest feasible insertion of a stop over the candidate routes: capacity
+     * left, the stop's window met and no later stop pushed past its slack.
+     * Ties go to the earlier arrival. Routes near the stop are tried first,
+     * all routes when none of them can take it.
+     */
+    public Optional<Insertion> findBestInsertion(double latitude, double longitude, double weight, Long windowStart,
+            Long windowEnd) {
+        Collection<RouteState> nearby = nearby(latitude, longitude);
+        Insertion best = cheapest(nearby, latitude, longitude, weight, windowStart, windowEnd);
+        if (best == null && nearby.size() < routes.size()) {
+            best = cheapest(routes.values(), latitude, longitude, weight, windowStart, windowEnd);
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Apply an insertion if the route is still at the version it was computed on
+     *
+     * @return the new route state, or empty when the route changed in the meantime
+     */
+    public Optional<RouteState> commit(Insertion insertion, Stop stop) {
+        RouteState[] committed = new RouteState[1];
+        routes.computeIfPresent(insertion.routeId(), (routeId, current) -> {
+            if (current.version() != insertion.version()) {
+                return current;
+            }
+            committed[0] = insert(current, insertion.position(), stop);
+            return committed[0];
+        });
+        if (committed[0] == null) {
+            return Optional.empty();
+        }
+        cells.computeIfAbsent(cell(stop.latitude(), stop.longitude()), key -> ConcurrentHashMap.newKeySet())
+                .add(insertion.routeId());
+        return Optional.of(committed[0]);
+    }
+
+    private Insertion cheapest(Collection<RouteState> candidates, double latitude, double longitude, double weight,
+            Long windowStart, Long windowEnd) {
+        Insertion best = null;
+        for (RouteState route : candidates) {
+            Insertion insertion = bestPosition(route, latitude, longitude, weight, windowStart, windowEnd);
+            if (insertion != null && (best == null || insertion.addedMeters() < best.addedMeters()
+                    || insertion.addedMeters() == best.addedMeters() && insertion.arrival() < best.arrival())) {
+                best = insertion;
+            }
+        }
+        return best;
+    }
+
+    private Insertion bestPosition(RouteState route, double latitude, double longitude, double weight,
+            Long windowStart, Long windowEnd) {
+        if (route.load + weight > route.capacity) {
+            return null;
+        }
+        long earliest = windowStart != null ? windowStart : -OPEN;
+        long latest = windowEnd != null ? windowEnd : OPEN;
+        Stop[] stops = route.stops;
+
+        double[] point = unitVector(latitude, longitude);
+        Insertion best = null;
+        for (int position = 0; position <= stops.length; position++) {
+            double fromPrevious = meters(route.pointBefore(position), point);
+            long arrival = route.departureBefore(position) + seconds(fromPrevious);
+            if (arrival > latest) {
+                // Later positions only arrive later (departures are non-decreasing)
+                break;
+            }
+            double added = fromPrevious;
+            if (position < stops.length) {
+                Stop next = stops[position];
+                double toNext = meters(point, route.points[position + 1]);
+                long push = Math.max(arrival, earliest) + serviceSeconds + seconds(toNext) - next.arrival();
+                if (push > 0 && push > route.slack[position]) {
+                    continue;
+                }
+                added += toNext - route.legMeters[position];
+            }
+            if (best == null || added < best.addedMeters()) {
+                best = new Insertion(route.routeId, route.version, position, added, arrival);
+            }
+        }
+        return best;
+    }
+
+    private RouteState insert(RouteState route, int position, Stop stop) {
+        Stop[] stops = new Stop[route.stops.length + 1];
+        System.arraycopy(route.stops, 0, stops, 0, position);
+        System.arraycopy(route.stops, position, stops, position + 1, route.stops.length - position);
+
+        // Re-time the new stop and push later arrivals forward (waits absorb part of the push)
+        long departure = route.departureBefore(position);
+        double lat = route.latitudeBefore(position);
+        double lon = route.longitudeBefore(position);
+        for (int i = position; i < stops.length; i++) {
+            Stop current = i == position ? stop : stops[i];
+            long arrival = departure + travelSeconds(lat, lon, current.latitude(), current.longitude());
+            if (i > position && arrival <= current.arrival()) {
+                break;
+            }
+            stops[i] = new Stop(current.orderId(), current.latitude(), current.longitude(), arrival,
+                    current.windowStart(), current.windowEnd(), current.weight());
+            departure = Math.max(arrival, current.earliest()) + serviceSeconds;
+            lat = current.latitude();
+            lon = current.longitude();
+        }
+        return new RouteState(route.routeId, route.version + 1, route.capacity, route.startLatitude,
+                route.startLongitude, route.startTime, stops, this);
+    }
+
+    private Collection<RouteState> nearby(double latitude, double longitude) {
+        int row = (int) Math.floor(latitude / cellDegrees);
+        int column = (int) Math.floor(longitude / cellDegrees);
+        Set<UUID> ids = new HashSet<>();
+        for (int dr = -searchRings; dr <= searchRings; dr++) {
+            for (int dc = -searchRings; dc <= searchRings; dc++) {
+                Set<UUID> inCell = cells.get(key(row + dr, column + dc));
+                if (inCell != null) {
+                    ids.addAll(inCell);
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return routes.values();
+        }
+        List<RouteState> candidates = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            RouteState state = routes.get(id);
+            if (state != null) {
+                candidates.add(state);
+            }
+        }
+        return candidates.isEmpty() ? routes.values() : candidates;
+    }
+
+    private void register(RouteState state) {
+        cells.computeIfAbsent(cell(state.startLatitude, state.startLongitude), key -> ConcurrentHashMap.newKeySet())
+                .add(state.routeId());
+        for (Stop stop : state.stops) {
+            cells.computeIfAbsent(cell(stop.latitude(), stop.longitude()), key -> ConcurrentHashMap.newKeySet())
+                    .add(state.routeId());
+        }
+    }
+
+    private long cell(double latitude, double longitude) {
+        return key((int) Math.floor(latitude / cellDegrees), (int) Math.floor(longitude / cellDegrees));
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    long travelSeconds(double lat1, double lon1, double lat2, double lon2) {
+        return seconds(meters(unitVector(lat1, lon1), unitVector(lat2, lon2)));
+    }
+
+    private long seconds(double meters) {
+        return Math.round(meters / metersPerSecond);
+    }
+
+    private static double[] unitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    private static double meters(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz) * EARTH_RADIUS_METERS;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? (a > 0 ? Long.MAX_VALUE : Long.MIN_VALUE) : sum;
+    }
+}
@@ -1,69 +1,261 @@
 package com.example.planning_service.service;
 
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
 import com.example.planning_service.dto.SlottingRequestDto;
 import com.example.planning_service.dto.SlottingResponseDto;
+import com.example.planning_service.entity.LocationPoint;
 import com.example.planning_service.entity.RouteEntity;
 import com.example.planning_service.entity.RouteStopEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
 import com.example.planning_service.repository.RouteRepository;
 import com.example.planning_service.repository.RouteStopRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * ARCHITEKTURA: Slotowanie zamówień na aktywne trasy
+ *
+ * Zapytanie "która trasa i która pozycja" liczy SlottingIndex w pamięci
+ * (cheapest insertion, bez findAll() per request). Zapis:
+ *
+ * 1. commit w indeksie - tylko jeśli trasa jest nadal w wersji, na której
+ * liczyliśmy wstawienie (inaczej liczymy od nowa, max app.slotting.max-attempts),
+ * 2. zapis w bazie w osobnej transakcji - RouteEntity musi mieć tę samą
+ * @Version, a flush podbija ją o 1 (tak samo jak indeks),
+ * 3. gdy baza odrzuci zapis (inna wersja) - stan trasy w indeksie jest
+ * odtwarzany z bazy i liczymy od nowa.
+ *
+ * Kroki 1-3 trzymają lock trasy, więc w indeksie jest co najwyżej jedna
+ * niezapisana zmiana na trasę i odtworzenie z bazy nie gubi cudzych wstawień.
+ * Zapytania (findBestInsertion) locka nie biorą.
+ *
+ * Trasy tworzone / edytowane poza slotowaniem trafiają do indeksu przy
+ * starcie i co app.slotting.refresh-interval-millis.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class SlottingService {
 
+    static final String CAPACITY_PROPERTY = "capacity_kg";
+    static final String WEIGHT_PROPERTY = "weight_kg";
+    static final String VOLUME_PROPERTY = "volume_m3";
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory(new PrecisionModel(), 4326);
+
     private final RouteRepository routeRepository;
     private final RouteStopRepository routeStopRepository;
+    private final AppProperties appProperties;
+    private final OptimizationMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final SlottingIndex index;
+    private final Map<UUID, ReentrantLock> routeLocks = new ConcurrentHashMap<>();
+
+    public SlottingService(RouteRepository routeRepository, RouteStopRepository routeStopRepository,
+            AppProperties appProperties, OptimizationMetrics metrics, PlatformTransactionManager transactionManager) {
+        this.routeRepository = routeRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.appProperties = appProperties;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AppProperties.Slotting slotting = appProperties.getSlotting();
+        this.index = new SlottingIndex(slotting.getCellDegrees(), slotting.getSearchRings(),
+                appProperties.getVrp().getDefaultServiceDurationSeconds(), DistanceMatrix.AVERAGE_SPEED_KMH);
+    }
 
-    // Hardcoded constraints for MVP - later move to Vehicle properties
-    private static final double MAX_WEIGHT_CAPACITY = 2000.0; // kg
+    /**
+     * Reload all routes into the index (newer in-memory versions are kept)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.slotting.refresh-interval-millis:60000}",
+            initialDelayString = "${app.slotting.refresh-interval-millis:60000}")
+    public void refresh() {
+        List<RouteEntity> routes = transactionTemplate.execute(status -> routeRepository.findAllWithStops());
+        long now = epochSeconds(LocalDateTime.now());
+        List<UUID> ids = new ArrayList<>(routes.size());
+        for (RouteEntity route : routes) {
+            index.refresh(toState(route, now));
+            ids.add(route.getId());
+        }
+        index.retainAll(ids);
+        routeLocks.keySet().retainAll(ids);
+        log.debug("Slotting index refreshed: {} routes", ids.size());
+    }
 
-    @Transactional
     public SlottingResponseDto assignOrderToRoute(SlottingRequestDto request) {
-        // 1. Fetch active routes (simplified: all routes for now)
-        List<RouteEntity> activeRoutes = routeRepository.findAll();
-
-        for (RouteEntity route : activeRoutes) {
-            // 2. Calculate current load
-            double currentLoad = calculateCurrentLoad(route);
-
-            // 3. Check Capacity
-            if (currentLoad + request.getWeight() <= MAX_WEIGHT_CAPACITY) {
-                // 4. Assign
-                createStop(route, request);
-                return new SlottingResponseDto(true, route.getId(), "Assigned to route " + route.getId());
+        long started = System.nanoTime();
+        Long windowStart = request.getTimeWindowStart() != null ? epochSeconds(request.getTimeWindowStart()) : null;
+        Long windowEnd = request.getTimeWindowEnd() != null ? epochSeconds(request.getTimeWindowEnd()) : null;
+
+        int maxAttempts = Math.max(1, appProperties.getSlotting().getMaxAttempts());
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Optional<SlottingIndex.Insertion> best = index.findBestInsertion(request.getLat(), request.getLon(),
+                    request.getWeight(), windowStart, windowEnd);
+            if (best.isEmpty()) {
+                metrics.recordSlotting("NO_ROUTE", Duration.ofNanos(System.nanoTime() - started));
+                return SlottingResponseDto.rejected("No suitable route found with capacity and time window.");
+            }
+            SlottingIndex.Insertion insertion = best.get();
+            SlottingIndex.Stop stop = new SlottingIndex.Stop(request.getOrderId(), request.getLat(),
+                    request.getLon(), insertion.arrival(), windowStart, windowEnd, request.getWeight());
+
+            ReentrantLock lock = routeLocks.computeIfAbsent(insertion.routeId(), id -> new ReentrantLock());
+            lock.lock();
+            try {
+                if (index.commit(insertion, stop).isEmpty()) {
+                    metrics.recordSlottingConflict();
+                    continue;
+                }
+                try {
+                    RouteStopEntity saved = transactionTemplate.execute(status -> persist(insertion, request));
+                    metrics.recordSlotting("ASSIGNED", Duration.ofNanos(System.nanoTime() - started));
+                    return new SlottingResponseDto(true, insertion.routeId(),
+                            "Assigned to route " + insertion.routeId(), saved.getSequence(),
+                            saved.getPredictedArrivalTime());
+                } catch (OptimisticLockingFailureException e) {
+                    metrics.recordSlottingConflict();
+                    log.debug("Route {} changed in the database, reloading slotting state: {}",
+                            insertion.routeId(), e.getMessage());
+                    reload(insertion.routeId());
+                } catch (RuntimeException e) {
+                    reload(insertion.routeId());
+                    throw e;
+                }
+            } finally {
+                lock.unlock();
             }
         }
 
-        return new SlottingResponseDto(false, null, "No suitable route found with capacity.");
+        metrics.recordSlotting("CONFLICT", Duration.ofNanos(System.nanoTime() - started));
+        return SlottingResponseDto.rejected("Routes changed concurrently, please retry.");
     }
 
-    private double calculateCurrentLoad(RouteEntity route) {
-        // In a real scenario, this would sum up weight from all linked stops/orders.
-        // For MVP, we'll assume we read a property or it's 0 if new.
-        // Ideally, RouteEntity should cache this or we query the Order Service.
-        // Here we just return a specialized property if it exists, else 0.
-        return 0.0; // Placeholder: assumes empty trucks for MVP testing
-    }
+    /**
+     * Insert the stop at the committed position. The route must still be at
+     * the version the insertion was computed on.
+     */
+    private RouteStopEntity persist(SlottingIndex.Insertion insertion, SlottingRequestDto request) {
+        RouteEntity route = routeRepository.findById(insertion.routeId())
+                .orElseThrow(() -> new ObjectOptimisticLockingFailureException(RouteEntity.class,
+                        insertion.routeId()));
+        if (version(route) != insertion.version()) {
+            throw new ObjectOptimisticLockingFailureException(RouteEntity.class, insertion.routeId());
+        }
+
+        int sequence = insertion.position() + 1;
+        for (RouteStopEntity existing : route.getStops()) {
+            if (existing.getSequence() != null && existing.getSequence() >= sequence) {
+                existing.setSequence(existing.getSequence() + 1);
+            }
+        }
 
-    private void createStop(RouteEntity route, SlottingRequestDto request) {
         RouteStopEntity stop = new RouteStopEntity();
         stop.setRoute(route);
         stop.setOrderId(request.getOrderId());
-        stop.setSequence(route.getStops().size() + 1);
-        stop.setPredictedArrivalTime(LocalDateTime.now().plusHours(1)); // Dummy ETA
+        stop.setSequence(sequence);
+        stop.setLocation(location(request.getLat(), request.getLon()));
+        stop.setPredictedArrivalTime(LocalDateTime.ofEpochSecond(insertion.arrival(), 0, ZoneOffset.UTC));
+        stop.setSlaWindowStart(request.getTimeWindowStart());
+        stop.setSlaWindowEnd(request.getTimeWindowEnd());
+        stop.addProperty(WEIGHT_PROPERTY, request.getWeight());
+        stop.addProperty(VOLUME_PROPERTY, request.getVolume());
+        route.getStops().add(stop);
 
         // Persist
-        routeStopRepository.save(stop);
+        RouteStopEntity saved = routeStopRepository.save(stop);
 
-        // Update route timestamp
+        // Update route timestamp - bumps @Version, concurrent writers of the same version fail on flush
         route.setLastUpdated(LocalDateTime.now());
         routeRepository.save(route);
+        return saved;
+    }
+
+    private void reload(UUID routeId) {
+        long now = epochSeconds(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> routeRepository.findById(routeId)
+                .ifPresentOrElse(route -> index.restore(toState(route, now)),
+                        () -> index.remove(routeId)));
+    }
+
+    SlottingIndex index() {
+        return index;
+    }
+
+    /**
+     * Route entity -> index state. Start = current vehicle position (depot when
+     * unknown) at {@code now}, stops in sequence order.
+     */
+    SlottingIndex.RouteState toState(RouteEntity route, long now) {
+        double startLat = appProperties.getDepot().getLatitude();
+        double startLon = appProperties.getDepot().getLongitude();
+        Point current = route.getCurrentLocation() != null ? route.getCurrentLocation().getCoordinates() : null;
+        if (current != null) {
+            startLat = current.getY();
+            startLon = current.getX();
+        }
+
+        List<RouteStopEntity> ordered = new ArrayList<>(route.getStops());
+        ordered.sort(Comparator.comparing(RouteStopEntity::getSequence,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<SlottingIndex.Stop> stops = new ArrayList<>(ordered.size());
+        double lat = startLat;
+        double lon = startLon;
+        for (RouteStopEntity stop : ordered) {
+            Point point = stop.getLocation() != null ? stop.getLocation().getCoordinates() : null;
+            if (point != null) {
+                lat = point.getY();
+                lon = point.getX();
+            }
+            Number weight = stop.getProperty(WEIGHT_PROPERTY, Number.class);
+            stops.add(new SlottingIndex.Stop(stop.getOrderId(), lat, lon,
+                    stop.getPredictedArrivalTime() != null ? epochSeconds(stop.getPredictedArrivalTime())
+                            : SlottingIndex.UNKNOWN_ARRIVAL,
+                    stop.getSlaWindowStart() != null ? epochSeconds(stop.getSlaWindowStart()) : null,
+                    stop.getSlaWindowEnd() != null ? epochSeconds(stop.getSlaWindowEnd()) : null,
+                    weight != null ? weight.doubleValue() : 0.0));
+        }
+
+        Number capacity = route.getProperty(CAPACITY_PROPERTY, Number.class);
+        return index.state(route.getId(), version(route),
+                capacity != null ? capacity.doubleValue() : appProperties.getSlotting().getDefaultCapacityKg(),
+                startLat, startLon, now, stops);
+    }
+
+    private static long version(RouteEntity route) {
+        return route.getVersion() != null ? route.getVersion() : 0L;
+    }
+
+    private static LocationPoint location(double latitude, double longitude) {
+        LocationPoint location = new LocationPoint();
+        location.setCoordinates(GEOMETRY.createPoint(new Coordinate(longitude, latitude)));
+        return location;
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
     }
 }
@@ -0,0 +1,94 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.dto.VehicleRoutingSolutionDto;
+import com.example.planning_service.entity.OptimizationSolutionEntity;
+import com.example.planning_service.entity.OptimizationSolutionViewEntity;
+import com.example.planning_service.optimization.VrpOptimizerService.VehicleRoutingSolution;
+import com.example.planning_service.repository.OptimizationSolutionRepository;
+import com.example.planning_service.repository.OptimizationSolutionViewRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * ARCHITEKTURA: Zapis i odczyt read modelu rozwiązań (planning_solution_views)
+ *
+ * JSON jest serializowany raz, współdzielonym ObjectMapperem (tym samym co
+ * w Spring MVC - kształt odpowiedzi się nie zmienia). Rozwiązania sprzed read
+ * modelu (brak wiersza w planning_solution_views) są czytane jak dotąd z
+ * planning_solutions.solution_data.
+ *
+ * Każdy zapis nowej wersji rozwiązania (optymalizacja, ręczna edycja w
+ * DispatchService) zapisuje też widok - /latest czyta najnowszy widok.
+ *
+ * Błąd serializacji nie przerywa optymalizacji - rozwiązanie jest już w
+ * planning_solutions, brakuje tylko widoku.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SolutionReadModelService {
+
+    private final OptimizationSolutionViewRepository viewRepository;
+    private final OptimizationSolutionRepository solutionRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Store the response JSON of a persisted solution
+     *
+     * @param fullSolution full Timefold solution, null when the optimizer does not provide one
+     */
+    public void save(OptimizationSolutionEntity solution, VehicleRoutingSolution routes,
+            VehicleRoutingSolutionDto fullSolution) {
+        try {
+            viewRepository.save(OptimizationSolutionViewEntity.builder()
+                    .solutionId(solution.getId())
+                    .createdAt(solution.getCreatedAt())
+                    .routesJson(objectMapper.writeValueAsString(routes))
+                    .fullSolutionJson(fullSolution != null ? objectMapper.writeValueAsString(fullSolution) : null)
+                    .build());
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize solution {} for the read model", solution.getId(), e);
+        }
+    }
+
+    /**
+     * Full solution JSON of the given solution (latest optimizer run when
+     * {@code solutionId} is null - manual edits have no full solution)
+     */
+    public Optional<String> fullSolutionJson(UUID solutionId) {
+        Optional<OptimizationSolutionViewEntity> view = solutionId != null ? viewRepository.findById(solutionId)
+                : viewRepository.findTopByFullSolutionJsonIsNotNullOrderByCreatedAtDesc();
+        return view.map(OptimizationSolutionViewEntity::getFullSolutionJson);
+    }
+
+    /**
+     * Routes of the given solution (latest when {@code solutionId} is null)
+     */
+    public Optional<VehicleRoutingSolution> routes(UUID solutionId) {
+        Optional<OptimizationSolutionViewEntity> view = view(solutionId);
+        if (view.isPresent()) {
+            try {
+                return Optional.of(objectMapper.readValue(view.get().getRoutesJson(), VehicleRoutingSolution.class));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable routes JSON of solution " + view.get().getSolutionId(), e);
+            }
+        }
+
+        Optional<OptimizationSolutionEntity> legacy = solutionId != null ? solutionRepository.findById(solutionId)
+                : solutionRepository.findTopByOrderByCreatedAtDesc();
+        return legacy.map(OptimizationSolutionEntity::getSolutionJson)
+                .filter(Objects::nonNull)
+                .map(json -> objectMapper.convertValue(json, VehicleRoutingSolution.class));
+    }
+
+    private Optional<OptimizationSolutionViewEntity> view(UUID solutionId) {
+        return solutionId != null ? viewRepository.findById(solutionId) : viewRepository.findTopByOrderByCreatedAtDesc();
+    }
+}
@@ -1,59 +1,84 @@
 package com.example.planning_service.service;
 
+import com.example.planning_service.domain.Location;
 import com.example.planning_service.entity.LocationPoint;
+import com.example.planning_service.routing.DistanceProvider;
+import com.example.planning_service.routing.TravelMatrix;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class TravelTimeService {
 
-    @Value("${google.maps.api-key:}")
-    private String googleMapsApiKey;
-
-    private static final double AVERAGE_SPEED_KMH = 50.0; // Fallback speed
+    private final DistanceProvider distanceProvider;
 
     /**
-     * Calculates travel time between two points.
-     * Uses Haversine fallback if Google Maps API key is missing.
+     * Calculates travel time between two points using the configured
+     * DistanceProvider (offline road network, haversine fallback).
      */
     public Duration calculateTravelTime(LocationPoint origin, LocationPoint destination) {
-        if (origin == null || destination == null || origin.getCoordinates() == null
-                || destination.getCoordinates() == null) {
+        if (!hasCoordinates(origin) || !hasCoordinates(destination)) {
             return Duration.ZERO;
         }
 
-        if (googleMapsApiKey != null && !googleMapsApiKey.isEmpty()) {
-            // TODO: Implement Google Maps Distance Matrix API call here
-            log.debug("Google Maps API Key present, but integration not yet implemented. Using Haversine fallback.");
-        }
-
-        return calculateHaversineTravelTime(origin, destination);
+        TravelMatrix matrix = distanceProvider.oneToMany(toLocation(origin), List.of(toLocation(destination)));
+        return Duration.ofSeconds(matrix.getDurationSeconds(0, 0));
     }
 
-    private Duration calculateHaversineTravelTime(LocationPoint origin, LocationPoint destination) {
-        double lat1 = origin.getCoordinates().getY();
-        double lon1 = origin.getCoordinates().getX();
-        double lat2 = destination.getCoordinates().getY();
-        double lon2 = destination.getCoordinates().getX();
+    /**
+     * Travel times of consecutive legs start -> waypoints[0] -> waypoints[1] -> ...
+     * from a single legs request (one road query per leg, not a points x points
+     * matrix). Legs with a missing location take Duration.ZERO (same as
+     * calculateTravelTime).
+     */
+    public List<Duration> calculateLegTravelTimes(LocationPoint start, List<LocationPoint> waypoints) {
+        // Legs touching a missing location are left out; the chain restarts after the gap
+        List<Location> points = new ArrayList<>(waypoints.size() + 1);
+        int[] legIndex = new int[waypoints.size()];
+        LocationPoint previous = start;
+        boolean chained = false; // last entry of points is previous
+        for (int i = 0; i < waypoints.size(); i++) {
+            LocationPoint next = waypoints.get(i);
+            if (hasCoordinates(previous) && hasCoordinates(next)) {
+                if (!chained) {
+                    points.add(toLocation(previous));
+                }
+                points.add(toLocation(next));
+                legIndex[i] = points.size() - 2;
+                chained = true;
+            } else {
+                legIndex[i] = -1;
+                chained = false;
+            }
+            previous = next;
+        }
+
+        TravelMatrix matrix = points.size() > 1 ? distanceProvider.legs(points) : null;
 
-        double distanceKm = haversine(lat1, lon1, lat2, lon2);
-        double hours = distanceKm / AVERAGE_SPEED_KMH;
+        List<Duration> legs = new ArrayList<>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            legs.add(legIndex[i] >= 0
+                    ? Duration.ofSeconds(matrix.getDurationSeconds(0, legIndex[i]))
+                    : Duration.ZERO);
+        }
+        return legs;
+    }
 
-        return Duration.ofMinutes((long) (hours * 60));
+    private static boolean hasCoordinates(LocationPoint point) {
+        return point != null && point.getCoordinates() != null;
     }
 
-    private double haversine(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth in km
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    private static Location toLocation(LocationPoint point) {
+        return Location.builder()
+                .latitude(point.getCoordinates().getY())
+                .longitude(point.getCoordinates().getX())
+                .build();
     }
 }
@@ -1,16 +1,35 @@
 package com.example.planning_service.service;
 
-import com.example.planning_service.entity.PostalCodeRuleEntity;
 import com.example.planning_service.entity.ZoneDefinitionEntity;
 import com.example.planning_service.repository.PostalCodeRuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * ARCHITEKTURA: Postal code -> zone resolution
+ *
+ * Reguły kraju są kompilowane raz do PostalCodeIntervalIndex (posortowane
+ * przedziały, O(log n)) i trzymane per kraj. Rebuild (zmiana reguły przez
+ * PostalCodeRuleChangeListener lub okresowo dla zmian wprost w bazie) buduje
+ * nowy indeks i podmienia go atomowo - lookupy nigdy nie widzą częściowo
+ * zbudowanej struktury i nie są blokowane.
+ *
+ * Zapytanie do bazy i kompilacja idą poza ConcurrentHashMap (compute /
+ * computeIfAbsent trzymałyby lock kubełka, blokując też inne kraje z tego
+ * kubełka) - rebuildy jednego kraju serializuje osobny monitor per kraj, więc
+ * ostatnia podmiana zawsze pochodzi z najpóźniej rozpoczętego odczytu reguł.
+ *
+ * Zastępuje cache per (kraj, kod) - rozmiar indeksu zależy od liczby reguł,
+ * nie od liczby różnych kodów w zamówieniach.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -18,31 +37,87 @@ public class ZoneResolutionService {
 
     private final PostalCodeRuleRepository ruleRepository;
 
+    private final Map<String, PostalCodeIntervalIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, Object> rebuildLocks = new ConcurrentHashMap<>();
+
     /**
      * Resolves a Zone for a given postal code.
-     * Uses string comparison for ranges (lexicographical check works for standard formats like PL "00-000").
+     * Codes are normalized (case, spaces, hyphens), so "00-001" and "00001" resolve alike.
      */
-    @Cacheable("zone-resolution")
     public Optional<ZoneDefinitionEntity> resolveZone(String countryCode, String postalCode) {
         if (countryCode == null || postalCode == null) return Optional.empty();
 
-        // Fetch all rules for the country ordered by priority
-        // In a real high-throughput system, this list should be cached per country.
-        List<PostalCodeRuleEntity> rules = ruleRepository.findAllByCountryCode(countryCode);
+        Optional<ZoneDefinitionEntity> zone = index(countryCode).find(postalCode);
+        if (zone.isPresent()) {
+            log.debug("Resolved PostalCode {} to Zone {}", postalCode, zone.get().getCode());
+        } else {
+            log.debug("No Zone found for PostalCode {} in {}", postalCode, countryCode);
+        }
+        return zone;
+    }
+
+    /**
+     * Bulk lookup for batch planning - one index snapshot for the whole batch.
+     *
+     * @return postal code -> zone in input order; codes without a zone are omitted
+     */
+    public Map<String, ZoneDefinitionEntity> resolveAll(String countryCode, Collection<String> postalCodes) {
+        Map<String, ZoneDefinitionEntity> zones = new LinkedHashMap<>();
+        if (countryCode == null || postalCodes.isEmpty()) return zones;
+
+        PostalCodeIntervalIndex index = index(countryCode);
+        for (String postalCode : postalCodes) {
+            if (postalCode != null && !zones.containsKey(postalCode)) {
+                index.find(postalCode).ifPresent(zone -> zones.put(postalCode, zone));
+            }
+        }
+        log.debug("Resolved {}/{} postal codes in {}", zones.size(), postalCodes.size(), countryCode);
+        return zones;
+    }
+
+    /**
+     * Rebuild the country's index from the repository and swap it in
+     */
+    public void rebuild(String countryCode) {
+        // Readers keep using the old index until the swap
+        synchronized (rebuildLock(countryCode)) {
+            indexes.put(countryCode, compile(countryCode));
+        }
+    }
 
-        for (PostalCodeRuleEntity rule : rules) {
-            String start = rule.getPostalCodeStart();
-            String end = rule.getPostalCodeEnd();
+    /**
+     * Periodic rebuild of loaded countries - picks up rule changes made
+     * directly in the database (bypassing JPA listeners)
+     */
+    @Scheduled(fixedDelayString = "${app.zones.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.zones.rebuild-interval-ms:600000}")
+    public void rebuildAll() {
+        indexes.keySet().forEach(this::rebuild);
+    }
 
-            // Check range: start <= postalCode <= end
-            // String comparison is valid for uniform length codes (e.g. PL 00-000 vs 99-999)
-            if (postalCode.compareTo(start) >= 0 && postalCode.compareTo(end) <= 0) {
-                log.debug("Resolved PostalCode {} to Zone {}", postalCode, rule.getZone().getCode());
-                return Optional.of(rule.getZone());
+    private PostalCodeIntervalIndex index(String countryCode) {
+        PostalCodeIntervalIndex index = indexes.get(countryCode);
+        if (index != null) {
+            return index;
+        }
+        synchronized (rebuildLock(countryCode)) {
+            index = indexes.get(countryCode);
+            if (index == null) {
+                index = compile(countryCode);
+                indexes.put(countryCode, index);
             }
+            return index;
         }
+    }
+
+    private Object rebuildLock(String countryCode) {
+        return rebuildLocks.computeIfAbsent(countryCode, country -> new Object());
+    }
 
-        log.debug("No Zone found for PostalCode {} in {}", postalCode, countryCode);
-        return Optional.empty();
+    private PostalCodeIntervalIndex compile(String countryCode) {
+        PostalCodeIntervalIndex index = PostalCodeIntervalIndex.compile(ruleRepository.findAllByCountryCode(countryCode));
+        log.info("Compiled postal code index for {}: {} rules -> {} intervals",
+                countryCode, index.ruleCount(), index.segmentCount());
+        return index;
     }
 }
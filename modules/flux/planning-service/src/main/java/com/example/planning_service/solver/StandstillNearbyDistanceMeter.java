@@ -0,0 +1,33 @@
+package com.example.planning_service.solver;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.domain.timefold.Location;
+import com.example.planning_service.domain.timefold.RouteStop;
+import com.example.planning_service.domain.timefold.Standstill;
+
+/**
+ * Nearby distance meter for the chained VRP model.
+ * 
+ * Lets nearby selection prefer moves between geographically close stops
+ * (and vehicle depots) instead of wasting evaluations on absurd pairs.
+ * Backed by the solution's DistanceMatrix, falling back to haversine.
+ */
+public class StandstillNearbyDistanceMeter implements NearbyDistanceMeter<RouteStop, Standstill> {
+
+    @Override
+    public double getNearbyDistance(RouteStop origin, Standstill destination) {
+        DistanceMatrix matrix = origin.getDistanceMatrix();
+        if (matrix != null && origin.getLocationIndex() >= 0 && destination.getLocationIndex() >= 0) {
+            return matrix.getDistanceMeters(origin.getLocationIndex(), destination.getLocationIndex());
+        }
+
+        Location from = origin.getLocation();
+        Location to = destination.getLocation();
+        if (from == null || to == null) {
+            return Double.MAX_VALUE;
+        }
+        return DistanceMatrix.haversineMeters(from.getLatitude(), from.getLongitude(),
+                to.getLatitude(), to.getLongitude());
+    }
+}
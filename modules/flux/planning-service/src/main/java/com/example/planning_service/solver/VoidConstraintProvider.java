@@ -1,24 +1,30 @@
 package com.example.planning_service.solver;
 
-import ai.timefold.solver.core.api.score.buildin.hardsoftbigdecimal.HardSoftBigDecimalScore;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.score.stream.Constraint;
 import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
 import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
 import com.example.planning_service.domain.timefold.RouteStop;
-import com.example.planning_service.domain.timefold.Vehicle;
-
-import java.math.BigDecimal;
 
 /**
  * PROFIT FIRST Constraint Provider
  * Defines hard (must-have) and soft (optimization) constraints
  * 
  * Philosophy: Maximize profit while respecting capacity and SLA
+ * 
+ * All arithmetic is fixed-point long (grams, meters, minutes, grosze) so the
+ * solver's hottest loop never allocates. Soft score unit: 1 grosz.
+ * Hard score unit: 1/HARD_SCALE of the original unit (kg over capacity,
+ * minute late, meter of detour) - overloads count in grams and detours in
+ * millimeters, so fractional kilograms rank exactly as with BigDecimal kg,
+ * and the weights between hard constraints stay as they were.
  */
 public class VoidConstraintProvider implements ConstraintProvider {
 
-        private static final BigDecimal FUEL_COST_PER_KM = new BigDecimal("0.50"); // PLN
-        private static final BigDecimal DRIVER_COST_PER_HOUR = new BigDecimal("60.00"); // PLN
+        static final long FUEL_COST_GROSZE_PER_KM = 50; // 0.50 PLN
+        static final long DRIVER_COST_GROSZE_PER_HOUR = 6_000; // 60.00 PLN
+        static final long UNASSIGNED_ORDER_PENALTY_GROSZE = 1_000; // 10.00 PLN
+        static final long HARD_SCALE = 1_000; // 1 hard = 1 g / 0.001 min / 1 mm
 
         @Override
         public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
@@ -44,12 +50,12 @@ public class VoidConstraintProvider implements ConstraintProvider {
                                 .forEach(RouteStop.class)
                                 .groupBy(RouteStop::getVehicle,
                                                 ai.timefold.solver.core.api.score.stream.ConstraintCollectors
-                                                                .sumBigDecimal(RouteStop::getDemandWeight))
-                                .filter((vehicle, totalWeight) -> vehicle != null
-                                                && totalWeight.compareTo(vehicle.getCapacityWeight()) > 0)
-                                .penalizeBigDecimal(HardSoftBigDecimalScore.ONE_HARD,
-                                                (vehicle, totalWeight) -> totalWeight
-                                                                .subtract(vehicle.getCapacityWeight()))
+                                                                .sumLong(RouteStop::getDemandWeightGrams))
+                                .filter((vehicle, totalGrams) -> vehicle != null
+                                                && totalGrams > vehicle.getCapacityWeightGrams())
+                                // Penalty in grams over capacity (1 kg = HARD_SCALE)
+                                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                                                (vehicle, totalGrams) -> totalGrams - vehicle.getCapacityWeightGrams())
                                 .asConstraint("Vehicle capacity (weight) exceeded");
         }
 
@@ -60,22 +66,9 @@ public class VoidConstraintProvider implements ConstraintProvider {
                 return constraintFactory
                                 .forEach(RouteStop.class)
                                 .filter(RouteStop::isLate) // Uses isLate() method from RouteStop
-                                .penalizeBigDecimal(HardSoftBigDecimalScore.ONE_HARD,
-                                                stop -> {
-                                                        // Defensive null check (aligns with RouteStop.isLate logic)
-                                                        if (stop.getOrder() == null
-                                                                        || stop.getOrder().delivery() == null
-                                                                        || stop.getOrder().delivery().sla() == null) {
-                                                                return BigDecimal.ZERO; // No penalty for incomplete
-                                                                                        // data
-                                                        }
-
-                                                        // Penalty proportional to delay minutes
-                                                        long delayMinutes = java.time.Duration.between(
-                                                                        stop.getOrder().delivery().sla(),
-                                                                        stop.getArrivalTime()).toMinutes();
-                                                        return BigDecimal.valueOf(delayMinutes);
-                                                })
+                                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                                                // Penalty proportional to delay minutes (deadline = time window end or order SLA)
+                                                stop -> (stop.getArrivalTime() - stop.getDeadline()) / 60 * HARD_SCALE)
                                 .asConstraint("SLA time window violated");
         }
 
@@ -91,9 +84,10 @@ public class VoidConstraintProvider implements ConstraintProvider {
                                                                 stop -> (long) stop.getDistanceFromPreviousMeters()))
                                 .filter((vehicle, totalMeters) -> vehicle != null && vehicle.getMaxDetourKm() > 0
                                                 && totalMeters > vehicle.getMaxDetourKm() * 1000)
-                                .penalizeBigDecimal(HardSoftBigDecimalScore.ONE_HARD,
-                                                (vehicle, totalMeters) -> BigDecimal.valueOf(
-                                                                totalMeters - (vehicle.getMaxDetourKm() * 1000)))
+                                // Penalty in millimeters over the limit (1 m = HARD_SCALE)
+                                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                                                (vehicle, totalMeters) -> Math.round(
+                                                                (totalMeters - vehicle.getMaxDetourKm() * 1000) * HARD_SCALE))
                                 .asConstraint("Max detour distance exceeded");
         }
 
@@ -110,18 +104,13 @@ public class VoidConstraintProvider implements ConstraintProvider {
                                                 && stop.getVehicle().getAvailableTimeWindowStart() != null
                                                 && stop.getVehicle().getAvailableTimeWindowEnd() != null)
                                 .filter(stop -> {
-                                        java.time.LocalDateTime arrival = stop.getArrivalTime();
-                                        java.time.LocalDateTime windowStart = stop.getVehicle().getAvailableTimeWindowStart();
-                                        java.time.LocalDateTime windowEnd = stop.getVehicle().getAvailableTimeWindowEnd();
-                                        return arrival.isBefore(windowStart) || arrival.isAfter(windowEnd);
-                                })
-                                .penalizeBigDecimal(HardSoftBigDecimalScore.ONE_HARD,
-                                                stop -> {
-                                        java.time.Duration delay = java.time.Duration.between(
-                                                stop.getVehicle().getAvailableTimeWindowEnd(),
-                                                stop.getArrivalTime());
-                                        return BigDecimal.valueOf(Math.max(0, delay.toMinutes()));
+                                        long arrival = stop.getArrivalTime();
+                                        return arrival < stop.getVehicle().getAvailableTimeWindowStart()
+                                                        || arrival > stop.getVehicle().getAvailableTimeWindowEnd();
                                 })
+                                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                                                stop -> Math.max(0L, (stop.getArrivalTime()
+                                                                - stop.getVehicle().getAvailableTimeWindowEnd()) / 60) * HARD_SCALE)
                                 .asConstraint("FixedRoute time window violated");
         }
 
@@ -133,33 +122,31 @@ public class VoidConstraintProvider implements ConstraintProvider {
                 return constraintFactory
                                 .forEach(RouteStop.class)
                                 .filter(stop -> stop.getVehicle() != null) // Only assigned stops
-                                .rewardBigDecimal(HardSoftBigDecimalScore.ONE_SOFT,
-                                                this::calculateStopProfit)
+                                .rewardLong(HardSoftLongScore.ONE_SOFT,
+                                                VoidConstraintProvider::calculateStopProfitGrosze)
                                 .asConstraint("Maximize profit");
         }
 
         /**
-         * Calculate profit for a single stop
+         * Calculate profit for a single stop (grosze)
          * Profit = Revenue - Costs
          */
-        private BigDecimal calculateStopProfit(RouteStop stop) {
+        static long calculateStopProfitGrosze(RouteStop stop) {
                 // Revenue
-                BigDecimal revenue = stop.getOrderValue();
+                long revenue = stop.getOrderValueGrosze();
 
-                // Cost: Fuel
-                double distanceKm = stop.getDistanceFromPreviousMeters() / 1000.0;
-                BigDecimal fuelCost = FUEL_COST_PER_KM.multiply(BigDecimal.valueOf(distanceKm));
+                // Cost: Fuel (rounded half-up to whole grosze)
+                long distanceMeters = (long) stop.getDistanceFromPreviousMeters();
+                long fuelCost = (distanceMeters * FUEL_COST_GROSZE_PER_KM + 500) / 1000;
 
                 // Cost: Driver time
                 long travelTimeMinutes = stop.getTravelTimeMinutes();
-                BigDecimal driverCost = DRIVER_COST_PER_HOUR
-                                .multiply(BigDecimal.valueOf(travelTimeMinutes))
-                                .divide(BigDecimal.valueOf(60), BigDecimal.ROUND_HALF_UP);
+                long driverCost = travelTimeMinutes * DRIVER_COST_GROSZE_PER_HOUR / 60;
 
                 // Profit = Revenue - Costs
-                BigDecimal profit = revenue.subtract(fuelCost).subtract(driverCost);
+                long profit = revenue - fuelCost - driverCost;
 
-                return profit.max(BigDecimal.ZERO); // Never negative reward
+                return Math.max(profit, 0L); // Never negative reward
         }
 
         /**
@@ -169,14 +156,9 @@ public class VoidConstraintProvider implements ConstraintProvider {
                 return constraintFactory
                                 .forEach(RouteStop.class)
                                 .filter(stop -> stop.getVehicle() != null)
-                                .penalizeBigDecimal(HardSoftBigDecimalScore.ONE_SOFT,
-                                                stop -> {
-                                                        double distanceKm = stop.getDistanceFromPreviousMeters()
-                                                                        / 1000.0;
-                                                        return BigDecimal.valueOf(distanceKm).divide(
-                                                                        BigDecimal.valueOf(100),
-                                                                        BigDecimal.ROUND_HALF_UP);
-                                                })
+                                // 0.01 PLN per km = 1 grosz per km
+                                .penalizeLong(HardSoftLongScore.ONE_SOFT,
+                                                stop -> ((long) stop.getDistanceFromPreviousMeters() + 500) / 1000)
                                 .asConstraint("Minimize travel distance");
         }
 
@@ -188,8 +170,8 @@ public class VoidConstraintProvider implements ConstraintProvider {
                 return constraintFactory
                                 .forEach(RouteStop.class)
                                 .filter(stop -> stop.getVehicle() == null)
-                                .penalizeBigDecimal(HardSoftBigDecimalScore.ONE_SOFT,
-                                                stop -> BigDecimal.valueOf(10)) // Penalty per unassigned order
+                                .penalizeLong(HardSoftLongScore.ONE_SOFT,
+                                                stop -> UNASSIGNED_ORDER_PENALTY_GROSZE) // Penalty per unassigned order
                                 .asConstraint("Minimize unassigned orders");
         }
 }
@@ -32,17 +32,20 @@ CREATE INDEX IF NOT EXISTS idx_route_assignment_solution_id
 ON route_assignment(optimization_solution_id) 
 WHERE optimization_solution_id IS NOT NULL;
 
--- Date range queries: Created date (for filtering by date range)
-CREATE INDEX IF NOT EXISTS idx_route_assignment_created_at 
-ON route_assignment(created_at DESC);
+-- Date range queries + keyset paging: Created date with id tiebreak
+-- (ORDER BY created_at DESC, id DESC; WHERE (created_at, id) < (:cursorCreatedAt, :cursorId))
+DROP INDEX IF EXISTS idx_route_assignment_created_at;
+CREATE INDEX IF NOT EXISTS idx_route_assignment_created_id 
+ON route_assignment(created_at DESC, id DESC);
 
 -- Date range queries: Updated date (for change tracking)
 CREATE INDEX IF NOT EXISTS idx_route_assignment_updated_at 
 ON route_assignment(updated_at DESC);
 
--- Composite: Status + Created date (for recent routes by status)
-CREATE INDEX IF NOT EXISTS idx_route_assignment_status_created 
-ON route_assignment(status, created_at DESC);
+-- Composite: Status + Created date + id (recent routes by status, keyset paging by status)
+DROP INDEX IF EXISTS idx_route_assignment_status_created;
+CREATE INDEX IF NOT EXISTS idx_route_assignment_status_created_id 
+ON route_assignment(status, created_at DESC, id DESC);
 
 -- Route name search (partial match, case-insensitive queries)
 -- Using GIN index for text search on route_name
@@ -63,4 +66,5 @@ WHERE status IN ('PUBLISHED', 'IN_PROGRESS');
 -- 1. Partial indexes (WHERE clauses) reduce index size and improve performance
 -- 2. DESC ordering on dates supports "most recent first" queries
 -- 3. GIN index for text search requires pg_trgm extension: CREATE EXTENSION IF NOT EXISTS pg_trgm;
--- 4. Monitor index usage with: SELECT * FROM pg_stat_user_indexes WHERE schemaname = 'public';
+-- 4. Keyset pages (GET /api/planning/assignments/keyset) sort by (created_at, id) to match the indexes above
+-- 5. Monitor index usage with: SELECT * FROM pg_stat_user_indexes WHERE schemaname = 'public';
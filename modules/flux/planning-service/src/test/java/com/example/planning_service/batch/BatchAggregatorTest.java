@@ -0,0 +1,216 @@
+package com.example.planning_service.batch;
+
+import com.example.planning_service.entity.BatchQueueEntryEntity;
+import com.example.planning_service.repository.BatchQueueEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the durable BatchAggregator: priority ordering, claim/ack/release
+ * and startup replay. The repository is mocked; transactions are no-ops.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchAggregator Tests")
+class BatchAggregatorTest {
+
+    @Mock
+    private BatchQueueEntryRepository queueRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new BatchAggregator(queueRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Add should persist the order before indexing it")
+    void testAddPersists() {
+        UUID orderId = UUID.randomUUID();
+
+        aggregator.add(orderId, BatchAggregator.OrderPriority.NORMAL);
+
+        verify(queueRepository).save(argThat(row -> row.getOrderId().equals(orderId)
+                && row.getStatus() == BatchQueueEntryEntity.Status.PENDING));
+        assertThat(aggregator.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Duplicate orders should be ignored")
+    void testDuplicateIgnored() {
+        UUID orderId = UUID.randomUUID();
+
+        aggregator.add(orderId);
+        aggregator.add(orderId);
+
+        verify(queueRepository, times(1)).save(any());
+        assertThat(aggregator.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Claim should take URGENT first, then oldest within priority")
+    void testClaimOrder() {
+        UUID normal1 = UUID.randomUUID();
+        UUID low = UUID.randomUUID();
+        UUID normal2 = UUID.randomUUID();
+        UUID urgent = UUID.randomUUID();
+        aggregator.add(normal1, BatchAggregator.OrderPriority.NORMAL);
+        aggregator.add(low, BatchAggregator.OrderPriority.LOW);
+        aggregator.add(normal2, BatchAggregator.OrderPriority.NORMAL);
+        aggregator.add(urgent, BatchAggregator.OrderPriority.URGENT);
+
+        BatchAggregator.BatchClaim claim = aggregator.claim(3);
+
+        assertThat(claim.orderIds()).containsExactly(urgent, normal1, normal2);
+        assertThat(aggregator.size()).isEqualTo(1);
+        assertThat(aggregator.inFlightSize()).isEqualTo(3);
+        verify(queueRepository).claim(eq(List.of(urgent, normal1, normal2)), eq(claim.claimId()), any(),
+                eq(BatchQueueEntryEntity.Status.PENDING), eq(BatchQueueEntryEntity.Status.CLAIMED));
+    }
+
+    @Test
+    @DisplayName("Claim by priority should leave other priorities queued")
+    void testClaimByPriority() {
+        UUID urgent = UUID.randomUUID();
+        aggregator.add(UUID.randomUUID(), BatchAggregator.OrderPriority.NORMAL);
+        aggregator.add(urgent, BatchAggregator.OrderPriority.URGENT);
+
+        BatchAggregator.BatchClaim claim = aggregator.claim(BatchAggregator.OrderPriority.URGENT, 10);
+
+        assertThat(claim.orderIds()).containsExactly(urgent);
+        assertThat(aggregator.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Ack should delete claimed orders")
+    void testAck() {
+        aggregator.add(UUID.randomUUID());
+        BatchAggregator.BatchClaim claim = aggregator.claim(10);
+
+        aggregator.ack(claim.claimId());
+
+        verify(queueRepository).deleteByClaimId(claim.claimId());
+        assertThat(aggregator.inFlightSize()).isZero();
+        assertThat(aggregator.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Release should requeue orders with their original timestamps")
+    void testReleaseKeepsOrder() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        aggregator.add(first);
+        LocalDateTime oldest = aggregator.getOldestOrderTimestamp();
+        BatchAggregator.BatchClaim claim = aggregator.claim(1);
+        aggregator.add(second);
+
+        aggregator.release(claim.claimId());
+
+        verify(queueRepository).release(claim.claimId(), BatchQueueEntryEntity.Status.PENDING);
+        assertThat(aggregator.getOldestOrderTimestamp()).isEqualTo(oldest);
+        assertThat(aggregator.claim(10).orderIds()).containsExactly(first, second);
+    }
+
+    @Test
+    @DisplayName("Orders in flight should not be re-added")
+    void testInFlightNotReadded() {
+        UUID orderId = UUID.randomUUID();
+        aggregator.add(orderId);
+        aggregator.claim(10);
+
+        aggregator.add(orderId);
+
+        verify(queueRepository, times(1)).save(any());
+        assertThat(aggregator.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Replay should release stale claims and index pending rows")
+    void testReplay() {
+        Instant older = Instant.parse("2026-01-05T20:00:00Z");
+        Instant newer = Instant.parse("2026-01-05T21:00:00Z");
+        UUID urgent = UUID.randomUUID();
+        UUID normal = UUID.randomUUID();
+        when(queueRepository.releaseAllClaims(BatchQueueEntryEntity.Status.PENDING)).thenReturn(1);
+        when(queueRepository.findAllByStatus(BatchQueueEntryEntity.Status.PENDING)).thenReturn(List.of(
+                row(normal, BatchAggregator.OrderPriority.NORMAL, older),
+                row(urgent, BatchAggregator.OrderPriority.URGENT, newer)));
+
+        aggregator.replay();
+
+        assertThat(aggregator.size()).isEqualTo(2);
+        assertThat(aggregator.getOldestOrderTimestamp())
+                .isEqualTo(LocalDateTime.ofInstant(older, ZoneId.systemDefault()));
+        assertThat(aggregator.claim(10).orderIds()).containsExactly(urgent, normal);
+    }
+
+    @Test
+    @DisplayName("Pending view should expose locations without claiming")
+    void testPendingView() {
+        UUID located = UUID.randomUUID();
+        aggregator.add(located, BatchAggregator.OrderPriority.NORMAL, 52.23, 21.01);
+        aggregator.add(UUID.randomUUID());
+
+        List<BatchAggregator.PendingOrder> pending = aggregator.pending(10);
+
+        assertThat(pending).hasSize(2);
+        assertThat(pending.get(0).orderId()).isEqualTo(located);
+        assertThat(pending.get(0).hasLocation()).isTrue();
+        assertThat(pending.get(1).hasLocation()).isFalse();
+        assertThat(aggregator.size()).isEqualTo(2);
+        verify(queueRepository).save(argThat(row -> located.equals(row.getOrderId()) && row.getLatitude() == 52.23));
+    }
+
+    @Test
+    @DisplayName("Claim by IDs should skip orders that are no longer pending")
+    void testClaimByIds() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        aggregator.add(first);
+        aggregator.add(second);
+        aggregator.claim(List.of(first));
+
+        BatchAggregator.BatchClaim claim = aggregator.claim(List.of(first, second, UUID.randomUUID()));
+
+        assertThat(claim.orderIds()).containsExactly(second);
+        assertThat(aggregator.isEmpty()).isTrue();
+        assertThat(aggregator.inFlightSize()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Empty queue should return an empty claim")
+    void testEmptyClaim() {
+        BatchAggregator.BatchClaim claim = aggregator.claim(10);
+
+        assertThat(claim.isEmpty()).isTrue();
+        assertThat(aggregator.getOldestOrderTimestamp()).isNull();
+        verify(queueRepository, never()).claim(any(), any(), any(), any(), any());
+    }
+
+    private static BatchQueueEntryEntity row(UUID orderId, BatchAggregator.OrderPriority priority, Instant enqueuedAt) {
+        return BatchQueueEntryEntity.builder()
+                .orderId(orderId)
+                .priority(priority)
+                .enqueuedAt(enqueuedAt)
+                .status(BatchQueueEntryEntity.Status.PENDING)
+                .build();
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.planning_service.batch;
+
+import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.execution.PlanningExecutionService;
+import com.example.planning_service.repository.BatchQueueEntryRepository;
+import com.example.planning_service.service.HubService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchExecutionPipeline: chunked dispatch, bounded in-flight
+ * solves, backpressure and ack/release per chunk. Uses a real BatchAggregator
+ * over a mocked repository and a manual executor (tasks run when the test says so).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchExecutionPipeline Tests")
+class BatchExecutionPipelineTest {
+
+    @Mock
+    private BatchQueueEntryRepository queueRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private HubService hubService;
+
+    @Mock
+    private PlanningExecutionService planningExecutionService;
+
+    private final Deque<Runnable> submitted = new ArrayDeque<>();
+    private final Executor manualExecutor = submitted::add;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BatchAggregator aggregator;
+    private AutoPlanProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new BatchAggregator(queueRepository, transactionManager);
+        properties = new AutoPlanProperties();
+        properties.setMaxBatchSize(2);
+        properties.setMaxConcurrentSolves(2);
+    }
+
+    @Test
+    @DisplayName("Oversized batch should be dispatched as capped chunks, one claim each")
+    void testChunkedDispatch() {
+        properties.setMaxConcurrentSolves(3);
+        List<UUID> orderIds = addOrders(5);
+
+        BatchExecutionPipeline.DispatchResult result = pipeline(manualExecutor).dispatch(null);
+
+        assertThat(result.dispatchedChunks()).isEqualTo(3);
+        assertThat(result.dispatchedOrders()).isEqualTo(5);
+        assertThat(aggregator.inFlightSize()).isEqualTo(5);
+        runAll();
+        verify(planningExecutionService).executePlanForOrderIds(eq(orderIds.subList(0, 2)), isNull(), eq(BatchSplitter.UNASSIGNED_HUB), eq(0.4));
+        verify(planningExecutionService).executePlanForOrderIds(eq(orderIds.subList(2, 4)), isNull(), eq(BatchSplitter.UNASSIGNED_HUB), eq(0.4));
+        verify(planningExecutionService).executePlanForOrderIds(eq(orderIds.subList(4, 5)), isNull(), eq(BatchSplitter.UNASSIGNED_HUB), eq(0.2));
+        verify(queueRepository, times(3)).deleteByClaimId(any());
+        assertThat(aggregator.inFlightSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Saturated pool should leave remaining chunks in the queue")
+    void testBackpressure() {
+        addOrders(6);
+        BatchExecutionPipeline pipeline = pipeline(manualExecutor);
+
+        BatchExecutionPipeline.DispatchResult first = pipeline.dispatch(null);
+        BatchExecutionPipeline.DispatchResult second = pipeline.dispatch(null);
+
+        assertThat(first.dispatchedChunks()).isEqualTo(2);
+        assertThat(first.deferredOrders()).isEqualTo(2);
+        assertThat(second.dispatchedChunks()).isZero();
+        assertThat(pipeline.hasCapacity()).isFalse();
+        assertThat(pipeline.inFlightSolves()).isEqualTo(2);
+        assertThat(aggregator.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("planning.batch.deferred.orders").counter().count()).isEqualTo(4);
+
+        // The first finished chunk re-dispatches the deferred one - no scheduler run needed
+        runAll();
+
+        assertThat(aggregator.isEmpty()).isTrue();
+        assertThat(aggregator.inFlightSize()).isZero();
+        verify(planningExecutionService, times(3)).executePlanForOrderIds(anyList(), isNull(), any(), anyDouble());
+        assertThat(pipeline.dispatch(null).dispatchedOrders()).isZero();
+    }
+
+    @Test
+    @DisplayName("Without deferred chunks, new orders should wait for the scheduler")
+    void testNoRedispatchWithoutBacklog() {
+        addOrders(2);
+        BatchExecutionPipeline pipeline = pipeline(manualExecutor);
+        pipeline.dispatch(null);
+        addOrders(1);
+
+        runAll();
+
+        assertThat(aggregator.size()).isEqualTo(1);
+        verify(planningExecutionService, times(1)).executePlanForOrderIds(anyList(), isNull(), any(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("Chunks should lease from their own hub with a share of that hub's orders")
+    void testFleetShareIsPerHub() {
+        properties.setMaxConcurrentSolves(3);
+        HubConfiguration north = HubConfiguration.builder().id("north").build();
+        HubConfiguration south = HubConfiguration.builder().id("south").build();
+        when(hubService.findHubForLocation(anyDouble(), anyDouble())).thenAnswer(invocation ->
+                Optional.of(invocation.<Double>getArgument(0) > 52.0 ? north : south));
+        List<UUID> northOrders = addOrders(3, 54.0, 18.0);
+        List<UUID> southOrders = addOrders(1, 50.0, 20.0);
+
+        pipeline(manualExecutor).dispatch(null);
+        runAll();
+
+        verify(planningExecutionService).executePlanForOrderIds(eq(southOrders), isNull(), eq("south"), eq(1.0));
+        verify(planningExecutionService, times(2)).executePlanForOrderIds(
+                argThat(ids -> northOrders.containsAll(ids)), isNull(), eq("north"), doubleThat(share -> share < 1.0));
+    }
+
+    @Test
+    @DisplayName("Failed chunk should be released back to the queue")
+    void testFailureReleases() {
+        addOrders(2);
+        doThrow(new RuntimeException("solver down"))
+                .when(planningExecutionService).executePlanForOrderIds(anyList(), any(), any(), anyDouble());
+        BatchExecutionPipeline pipeline = pipeline(manualExecutor);
+
+        pipeline.dispatch(null);
+        runAll();
+
+        verify(queueRepository).release(any(), any());
+        verify(queueRepository, never()).deleteByClaimId(any());
+        assertThat(aggregator.size()).isEqualTo(2);
+        assertThat(pipeline.hasCapacity()).isTrue();
+        assertThat(meterRegistry.get("planning.batch.latency").tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Orders order-service did not return should go back to the queue after a successful chunk")
+    void testUnplannedOrdersReleased() {
+        List<UUID> orderIds = addOrders(2);
+        when(planningExecutionService.executePlanForOrderIds(anyList(), any(), any(), anyDouble()))
+                .thenReturn(List.of(orderIds.get(1)));
+
+        pipeline(Runnable::run).dispatch(null);
+
+        verify(queueRepository).releaseOrders(any(), eq(List.of(orderIds.get(1))), any());
+        verify(queueRepository).deleteByClaimId(any());
+        assertThat(aggregator.pending(10)).extracting(BatchAggregator.PendingOrder::orderId)
+                .containsExactly(orderIds.get(1));
+        assertThat(aggregator.inFlightSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rejected submission should release the claim and the slot")
+    void testRejectedSubmission() {
+        addOrders(2);
+        BatchExecutionPipeline pipeline = pipeline(task -> {
+            throw new RejectedExecutionException("full");
+        });
+
+        BatchExecutionPipeline.DispatchResult result = pipeline.dispatch(null);
+
+        assertThat(result.dispatchedChunks()).isZero();
+        assertThat(aggregator.size()).isEqualTo(2);
+        assertThat(pipeline.inFlightSolves()).isZero();
+        assertThat(pipeline.hasCapacity()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Successful chunk should record latency and ack")
+    void testSuccessMetrics() {
+        addOrders(1);
+
+        pipeline(Runnable::run).dispatch(null);
+
+        assertThat(meterRegistry.get("planning.batch.latency").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("planning.batch.chunk.size").summary().totalAmount()).isEqualTo(1);
+        assertThat(aggregator.inFlightSize()).isZero();
+    }
+
+    private BatchExecutionPipeline pipeline(Executor executor) {
+        return new BatchExecutionPipeline(aggregator, new BatchSplitter(hubService), planningExecutionService,
+                properties, executor, meterRegistry);
+    }
+
+    private List<UUID> addOrders(int count) {
+        List<UUID> orderIds = new java.util.ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID orderId = UUID.randomUUID();
+            aggregator.add(orderId);
+            orderIds.add(orderId);
+        }
+        return orderIds;
+    }
+
+    private List<UUID> addOrders(int count, double latitude, double longitude) {
+        List<UUID> orderIds = new java.util.ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID orderId = UUID.randomUUID();
+            aggregator.add(orderId, BatchAggregator.OrderPriority.NORMAL, latitude, longitude);
+            orderIds.add(orderId);
+        }
+        return orderIds;
+    }
+
+    private void runAll() {
+        while (!submitted.isEmpty()) {
+            submitted.poll().run();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.planning_service.batch;
+
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.service.HubService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchSplitter: hub grouping, size cap, geographic compactness
+ * and oldest-first chunk order. Hubs: west of 19.5E -> HUB_WEST, east -> HUB_EAST.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchSplitter Tests")
+class BatchSplitterTest {
+
+    @Mock
+    private HubService hubService;
+
+    private BatchSplitter splitter;
+
+    @BeforeEach
+    void setUp() {
+        splitter = new BatchSplitter(hubService);
+    }
+
+    @Test
+    @DisplayName("Chunks should never mix hubs")
+    void testGroupsByHub() {
+        stubHubs();
+        List<BatchAggregator.PendingOrder> orders = List.of(
+                order(52.2, 18.0), order(52.2, 21.0), order(52.3, 18.1), order(52.3, 21.1));
+
+        List<BatchSplitter.BatchChunk> chunks = splitter.split(orders, 100);
+
+        assertThat(chunks).extracting(BatchSplitter.BatchChunk::hubId).containsExactly("HUB_WEST", "HUB_EAST");
+        assertThat(chunks.get(0).orderIds()).containsExactly(orders.get(0).orderId(), orders.get(2).orderId());
+        assertThat(chunks.get(1).orderIds()).containsExactly(orders.get(1).orderId(), orders.get(3).orderId());
+    }
+
+    @Test
+    @DisplayName("Oversized hub groups should be split into balanced chunks within the cap")
+    void testSizeCap() {
+        stubHubs();
+        List<BatchAggregator.PendingOrder> orders = randomOrders(2_001, 18.0, 19.0, 42);
+
+        List<BatchSplitter.BatchChunk> chunks = splitter.split(orders, 1_000);
+
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.size()).isBetween(666, 668));
+        assertThat(chunks.stream().flatMap(chunk -> chunk.orderIds().stream()).collect(Collectors.toSet()))
+                .hasSize(2_001);
+    }
+
+    @Test
+    @DisplayName("Split should cut along the longer axis")
+    void testGeographicSplit() {
+        stubHubs();
+        // Wide east-west strip: chunks should be western and eastern halves
+        List<BatchAggregator.PendingOrder> orders = randomOrders(400, 14.5, 19.0, 7);
+        Map<UUID, BatchAggregator.PendingOrder> byId = orders.stream()
+                .collect(Collectors.toMap(BatchAggregator.PendingOrder::orderId, Function.identity()));
+
+        List<BatchSplitter.BatchChunk> chunks = splitter.split(orders, 200);
+
+        assertThat(chunks).hasSize(2);
+        double[] maxLon = chunks.stream()
+                .mapToDouble(chunk -> chunk.orderIds().stream().mapToDouble(id -> byId.get(id).longitude()).max()
+                        .orElseThrow())
+                .toArray();
+        double[] minLon = chunks.stream()
+                .mapToDouble(chunk -> chunk.orderIds().stream().mapToDouble(id -> byId.get(id).longitude()).min()
+                        .orElseThrow())
+                .toArray();
+        assertThat(Math.min(maxLon[0], maxLon[1])).isLessThanOrEqualTo(Math.max(minLon[0], minLon[1]));
+    }
+
+    @Test
+    @DisplayName("Chunk holding the oldest order should come first")
+    void testOldestChunkFirst() {
+        stubHubs();
+        List<BatchAggregator.PendingOrder> orders = new ArrayList<>(randomOrders(10, 20.0, 21.0, 1));
+        BatchAggregator.PendingOrder oldestWest = order(52.0, 18.0);
+        orders.add(0, oldestWest);
+
+        List<BatchSplitter.BatchChunk> chunks = splitter.split(orders, 100);
+
+        assertThat(chunks.get(0).hubId()).isEqualTo("HUB_WEST");
+        assertThat(chunks.get(0).orderIds()).containsExactly(oldestWest.orderId());
+    }
+
+    @Test
+    @DisplayName("Orders without location should be chunked as UNASSIGNED")
+    void testUnlocatedOrders() {
+        List<BatchAggregator.PendingOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orders.add(new BatchAggregator.PendingOrder(UUID.randomUUID(), BatchAggregator.OrderPriority.NORMAL,
+                    Instant.now(), null, null));
+        }
+
+        List<BatchSplitter.BatchChunk> chunks = splitter.split(orders, 2);
+
+        assertThat(chunks).extracting(BatchSplitter.BatchChunk::size).containsExactly(2, 2, 1);
+        assertThat(chunks).extracting(BatchSplitter.BatchChunk::hubId).containsOnly(BatchSplitter.UNASSIGNED_HUB);
+        verify(hubService, never()).findHubForLocation(anyDouble(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("Non-positive chunk size should be rejected")
+    void testInvalidChunkSize() {
+        assertThatThrownBy(() -> splitter.split(List.of(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(splitter.split(List.of(), 10)).isEmpty();
+    }
+
+    private void stubHubs() {
+        when(hubService.findHubForLocation(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            double lon = invocation.getArgument(1);
+            return Optional.of(HubConfiguration.builder().id(lon < 19.5 ? "HUB_WEST" : "HUB_EAST").build());
+        });
+    }
+
+    private static List<BatchAggregator.PendingOrder> randomOrders(int count, double minLon, double maxLon,
+            long seed) {
+        Random random = new Random(seed);
+        List<BatchAggregator.PendingOrder> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(order(51.9 + random.nextDouble() * 0.5, minLon + random.nextDouble() * (maxLon - minLon)));
+        }
+        return orders;
+    }
+
+    private static BatchAggregator.PendingOrder order(double lat, double lon) {
+        return new BatchAggregator.PendingOrder(UUID.randomUUID(), BatchAggregator.OrderPriority.NORMAL,
+                Instant.now(), lat, lon);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.planning_service.client;
+
+import com.example.danxils_commons.dto.OrderResponseDto;
+import com.example.danxils_commons.enums.OrderStatus;
+import com.example.planning_service.config.AutoPlanProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderBatchFetcher: request count and chunk bounds for a
+ * 10k-order plan, bounded parallelism, result order and failure propagation.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderBatchFetcher Tests")
+class OrderBatchFetcherTest {
+
+    @Mock
+    private OrderServiceClient orderServiceClient;
+
+    private ExecutorService executor;
+    private AutoPlanProperties properties;
+    private OrderBatchFetcher fetcher;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        properties = new AutoPlanProperties();
+        properties.setOrderFetchChunkSize(500);
+        properties.setOrderFetchParallelism(4);
+        fetcher = new OrderBatchFetcher(orderServiceClient, properties, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("10k-order plan should issue 20 bounded batch requests and no backlog query")
+    void testRequestCountFor10kOrders() {
+        List<UUID> orderIds = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID()).toList();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(orderServiceClient.getOrdersBatch(anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                List<UUID> chunk = invocation.getArgument(0);
+                return chunk.stream().map(OrderBatchFetcherTest::order).toList();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        List<OrderResponseDto> orders = fetcher.fetch(orderIds);
+
+        verify(orderServiceClient, times(20)).getOrdersBatch(argThat(chunk -> chunk.size() <= 500));
+        verify(orderServiceClient, never()).queryOrders(any());
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(4);
+        assertThat(orders).extracting(OrderResponseDto::orderId).containsExactlyElementsOf(orderIds);
+    }
+
+    @Test
+    @DisplayName("Duplicate IDs should be requested once")
+    void testDuplicatesRequestedOnce() {
+        UUID orderId = UUID.randomUUID();
+        when(orderServiceClient.getOrdersBatch(List.of(orderId))).thenReturn(List.of(order(orderId)));
+
+        List<OrderResponseDto> orders = fetcher.fetch(List.of(orderId, orderId));
+
+        assertThat(orders).hasSize(1);
+        verify(orderServiceClient, times(1)).getOrdersBatch(anyList());
+    }
+
+    @Test
+    @DisplayName("Failure of one chunk should fail the whole fetch")
+    void testChunkFailurePropagates() {
+        List<UUID> orderIds = IntStream.range(0, 1_200).mapToObj(i -> UUID.randomUUID()).toList();
+        when(orderServiceClient.getOrdersBatch(anyList())).thenAnswer(invocation -> {
+            List<UUID> chunk = invocation.getArgument(0);
+            if (chunk.contains(orderIds.get(1_100))) {
+                throw new IllegalStateException("order-service 503");
+            }
+            return chunk.stream().map(OrderBatchFetcherTest::order).toList();
+        });
+
+        assertThatThrownBy(() -> fetcher.fetch(orderIds))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("order-service 503");
+    }
+
+    @Test
+    @DisplayName("Empty input should not call order-service")
+    void testEmptyInput() {
+        assertThat(fetcher.fetch(List.of())).isEmpty();
+        verifyNoInteractions(orderServiceClient);
+    }
+
+    private static OrderResponseDto order(UUID orderId) {
+        return new OrderResponseDto(orderId, OrderStatus.NEW, null, null, null, null, null, null,
+                List.of(), List.of(), null, null, null, null, null);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.planning_service.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the Caffeine cache manager: weight-based eviction, expiry and
+ * refresh-after-write. Time is driven by a manual ticker, refreshes run on the
+ * calling thread.
+ */
+@DisplayName("CacheConfig Tests")
+class CacheConfigTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+
+    private CacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheProperties();
+        properties.getDefaultSpec().setMaximumWeight(50);
+        properties.getCaches().put("distanceMatrix", spec(100, Duration.ofMinutes(30), null));
+        properties.getCaches().put("zone-resolution", spec(100, Duration.ofHours(24), Duration.ofMinutes(10)));
+    }
+
+    @Test
+    @DisplayName("Cache should evict entries beyond maximum weight")
+    void testEvictionByWeight() {
+        Cache cache = manager(new CountingLoader()).getCache("distanceMatrix");
+
+        IntStream.range(0, 500).forEach(i -> cache.put("cell-" + i, i));
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cache);
+        nativeCache.cleanUp();
+
+        assertThat(nativeCache.estimatedSize()).isLessThanOrEqualTo(100);
+        assertThat(nativeCache.stats().evictionCount()).isGreaterThanOrEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Collections should weigh their element count")
+    void testCollectionsWeighTheirSize() {
+        Cache cache = manager(new CountingLoader()).getCache("distanceMatrix");
+
+        cache.put("a", IntStream.range(0, 60).boxed().toList());
+        cache.put("b", IntStream.range(0, 60).boxed().toList());
+        nativeCache(cache).cleanUp();
+
+        assertThat(nativeCache(cache).estimatedSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Entries should expire after write")
+    void testExpireAfterWrite() {
+        Cache cache = manager(new CountingLoader()).getCache("distanceMatrix");
+        cache.put("cell", 42);
+
+        nanos.addAndGet(Duration.ofMinutes(29).toNanos());
+        assertThat(cache.get("cell", Integer.class)).isEqualTo(42);
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertThat(cache.get("cell")).isNull();
+    }
+
+    @Test
+    @DisplayName("Stale entries should be refreshed through the loader")
+    void testRefreshAfterWrite() {
+        CountingLoader loader = new CountingLoader();
+        Cache cache = manager(loader).getCache("zone-resolution");
+        cache.put("PL|00-001", "WAW-OLD");
+
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertThat(cache.get("PL|00-001", String.class)).isEqualTo("WAW-OLD");
+        assertThat(loader.loads.get()).isZero();
+
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+        cache.get("PL|00-001"); // triggers the refresh, may still return the old value
+        assertThat(cache.get("PL|00-001", String.class)).isEqualTo("WAW-1");
+        assertThat(loader.loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Unlisted caches should use the bounded default spec")
+    void testDefaultSpecForUnlistedCache() {
+        Cache cache = manager(new CountingLoader()).getCache("adHoc");
+
+        IntStream.range(0, 200).forEach(i -> cache.put(i, i));
+        nativeCache(cache).cleanUp();
+
+        assertThat(nativeCache(cache).estimatedSize()).isLessThanOrEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Refresh without a loader should fail fast")
+    void testRefreshRequiresLoader() {
+        assertThatThrownBy(() -> CacheConfig.buildCacheManager(properties, Map.of(), ticker, Runnable::run))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("zone-resolution");
+    }
+
+    @Test
+    @DisplayName("Weigher should count collection, map and array elements")
+    void testWeigh() {
+        assertThat(CacheConfig.weigh("x")).isEqualTo(1);
+        assertThat(CacheConfig.weigh(List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(CacheConfig.weigh(Map.of(1, 1, 2, 2))).isEqualTo(2);
+        assertThat(CacheConfig.weigh(new double[7][7])).isEqualTo(7);
+        assertThat(CacheConfig.weigh(List.of())).isEqualTo(1);
+    }
+
+    private CaffeineCacheManager manager(CountingLoader loader) {
+        return CacheConfig.buildCacheManager(properties, Map.of("zone-resolution", loader), ticker, Runnable::run);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(Cache cache) {
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+
+    private static CacheProperties.Spec spec(long maximumWeight, Duration expireAfterWrite,
+            Duration refreshAfterWrite) {
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaximumWeight(maximumWeight);
+        spec.setExpireAfterWrite(expireAfterWrite);
+        spec.setRefreshAfterWrite(refreshAfterWrite);
+        return spec;
+    }
+
+    private static class CountingLoader implements CacheRefreshLoader {
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public String getCacheName() {
+            return "zone-resolution";
+        }
+
+        @Override
+        public Object load(Object key) {
+            return "WAW-" + loads.incrementAndGet();
+        }
+    }
+}
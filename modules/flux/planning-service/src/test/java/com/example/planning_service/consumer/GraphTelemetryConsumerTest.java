@@ -0,0 +1,175 @@
+package com.example.planning_service.consumer;
+
+import com.example.danxils_commons.event.DriverLocationUpdatedEvent;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.repository.graph.DriverPositionWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for GraphTelemetryConsumer: latest position per driver within a
+ * batch, value formats delivered by the listener container, skipped records
+ * and batch throughput. The Neo4j writer is a mock; tests that write stub it
+ * to report every driver as updated.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GraphTelemetryConsumer Tests")
+class GraphTelemetryConsumerTest {
+
+    private static final String TOPIC = "driver.location.updated";
+    private static final Instant NOW = Instant.parse("2026-03-02T10:00:00Z");
+
+    @Mock
+    private DriverPositionWriter positionWriter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GraphTelemetryConsumer consumer;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new GraphTelemetryConsumer(positionWriter, objectMapper, new OptimizationMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("Only the newest ping per driver should be written")
+    void testLatestPositionPerDriver() {
+        stubWriterUpdatesAll();
+        consumer.consumeDriverLocationUpdates(List.of(
+                record(event("D1", 52.10, 21.10, NOW)),
+                record(event("D1", 52.30, 21.30, NOW.plusSeconds(20))),
+                record(event("D2", 50.00, 19.00, NOW)),
+                record(event("D1", 52.20, 21.20, NOW.plusSeconds(10))),
+                record(event("D2", 50.10, 19.10, null))));
+
+        Map<String, DriverPositionWriter.Position> written = writtenPositions();
+        assertThat(written).containsOnlyKeys("D1", "D2");
+        // Out-of-order ping does not win over a newer one
+        assertThat(written.get("D1").latitude()).isEqualTo(52.30);
+        assertThat(written.get("D1").timestamp()).isEqualTo(NOW.plusSeconds(20));
+        // Without a timestamp the later offset wins
+        assertThat(written.get("D2").latitude()).isEqualTo(50.10);
+    }
+
+    @Test
+    @DisplayName("JSON string, map and event values should all be read")
+    void testValueFormats() throws Exception {
+        stubWriterUpdatesAll();
+        String json = objectMapper.writeValueAsString(event("D1", 52.1, 21.1, NOW));
+        Map<?, ?> map = objectMapper.convertValue(event("D2", 52.2, 21.2, NOW), Map.class);
+
+        consumer.consumeDriverLocationUpdates(List.of(record(json), record(map),
+                record(event("D3", 52.3, 21.3, NOW)), record(json.getBytes())));
+
+        Map<String, DriverPositionWriter.Position> written = writtenPositions();
+        assertThat(written).containsOnlyKeys("D1", "D2", "D3");
+        assertThat(written.get("D1").timestamp()).isEqualTo(NOW);
+        assertThat(written.get("D2").longitude()).isEqualTo(21.2);
+    }
+
+    @Test
+    @DisplayName("Unreadable or incomplete records should be skipped without failing the batch")
+    void testBadRecordsSkipped() {
+        stubWriterUpdatesAll();
+        consumer.consumeDriverLocationUpdates(List.of(
+                record("{not json"),
+                record(42),
+                record(null),
+                record(event(null, 52.0, 21.0, NOW)),
+                record(event("D1", null, 21.0, NOW)),
+                record(event("D2", 52.0, 21.0, NOW))));
+
+        assertThat(writtenPositions()).containsOnlyKeys("D2");
+    }
+
+    @Test
+    @DisplayName("Batch without usable pings should not touch Neo4j")
+    void testEmptyBatch() {
+        consumer.consumeDriverLocationUpdates(List.of(record("{not json")));
+        consumer.consumeDriverLocationUpdates(List.of());
+
+        verify(positionWriter, never()).updatePositions(any());
+        assertThat(meterRegistry.get("graph.telemetry.pings").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("10,000 JSON pings should be coalesced and handed to the writer in well under a second")
+    void testThroughput() throws Exception {
+        stubWriterUpdatesAll();
+        int pings = 10_000;
+        int drivers = 500;
+        int batchSize = 2_000;
+        List<List<ConsumerRecord<String, Object>>> batches = new ArrayList<>();
+        List<ConsumerRecord<String, Object>> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < pings; i++) {
+            batch.add(record(objectMapper.writeValueAsString(event("D" + (i % drivers), 52.0 + i * 1e-6,
+                    21.0 + i * 1e-6, NOW.plusMillis(i)))));
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        long started = System.nanoTime();
+        batches.forEach(consumer::consumeDriverLocationUpdates);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        assertThat(seconds).isLessThan(1.0);
+        verify(positionWriter, times(pings / batchSize))
+                .updatePositions(argThat(positions -> positions.size() == drivers));
+        assertThat(meterRegistry.get("graph.telemetry.pings").counter().count()).isEqualTo(pings);
+        assertThat(meterRegistry.get("graph.telemetry.drivers.written").counter().count())
+                .isEqualTo(drivers * (pings / batchSize));
+    }
+
+    // ===== Helpers =====
+
+    private void stubWriterUpdatesAll() {
+        when(positionWriter.updatePositions(any()))
+                .thenAnswer(invocation -> (long) invocation.<Collection<?>>getArgument(0).size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, DriverPositionWriter.Position> writtenPositions() {
+        ArgumentCaptor<Collection<DriverPositionWriter.Position>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(positionWriter).updatePositions(captor.capture());
+        Map<String, DriverPositionWriter.Position> positions = new HashMap<>();
+        captor.getValue().forEach(position -> positions.put(position.driverId(), position));
+        assertThat(positions).hasSameSizeAs(captor.getValue());
+        return positions;
+    }
+
+    private ConsumerRecord<String, Object> record(Object value) {
+        return new ConsumerRecord<>(TOPIC, (int) (offset % 3), offset++, null, value);
+    }
+
+    private static DriverLocationUpdatedEvent event(String driverId, Double latitude, Double longitude,
+            Instant timestamp) {
+        return DriverLocationUpdatedEvent.builder()
+                .driverId(driverId)
+                .latitude(latitude)
+                .longitude(longitude)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -2,29 +2,48 @@ package com.example.planning_service.controller;
 
 import com.example.planning_service.entity.CarrierComplianceEntity;
 import com.example.planning_service.entity.FleetVehicleEntity;
+import com.example.planning_service.entity.OptimizationSolutionViewEntity;
 import com.example.planning_service.entity.VehicleProfileEntity;
+import com.example.planning_service.mapper.SolutionMapper;
 import com.example.planning_service.repository.CarrierComplianceRepository;
 import com.example.planning_service.repository.FleetVehicleRepository;
+import com.example.planning_service.repository.OptimizationSolutionViewRepository;
 import com.example.planning_service.repository.VehicleProfileRepository;
 import com.example.planning_service.optimization.VrpOptimizerService;
 import com.example.planning_service.client.OrderServiceClient;
+import com.example.planning_service.service.DriverEnrichmentService;
+import com.example.planning_service.service.FleetSnapshotService;
 import com.example.planning_service.service.OptimizationProfileService;
+import com.example.planning_service.service.SolutionReadModelService;
 import com.example.planning_service.dto.OptimizationRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.ArgumentCaptor;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+/**
+ * Compliance / profile filtering with query counts (bulk loads, fleet
+ * snapshot) and the solution read model behind /solution and /latest.
+ */
 @ExtendWith(MockitoExtension.class)
 public class OptimizationControllerComplianceTest {
 
@@ -38,6 +57,10 @@ public class OptimizationControllerComplianceTest {
     private CarrierComplianceRepository carrierComplianceRepository;
     @Mock
     private VehicleProfileRepository vehicleProfileRepository;
+    @Mock
+    private OptimizationSolutionViewRepository solutionViewRepository;
+    @Mock
+    private DriverEnrichmentService driverEnrichmentService;
 
     // Other dependencies required by Controller constructor
     @Mock
@@ -53,45 +76,49 @@ public class OptimizationControllerComplianceTest {
     @Mock
     private com.example.planning_service.service.ManifestService manifestService;
 
-    @InjectMocks
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     private OptimizationController optimizationController;
 
+    @BeforeEach
+    public void setUp() {
+        FleetSnapshotService fleetSnapshotService = new FleetSnapshotService(vehicleRepository,
+                carrierComplianceRepository, vehicleProfileRepository,
+                new CaffeineCacheManager(FleetSnapshotService.CACHE_NAME));
+        SolutionReadModelService solutionReadModelService = new SolutionReadModelService(solutionViewRepository,
+                solutionRepository, objectMapper);
+        optimizationController = new OptimizationController(vrpOptimizerService, orderServiceClient,
+                vehicleRepository, webhookConfigRepository, driverTaskRepository, solutionRepository,
+                communicationLogRepository, optimizationProfileService, manifestService, driverEnrichmentService,
+                fleetSnapshotService, solutionReadModelService, new SolutionMapper(), objectMapper);
+    }
+
     @Test
     public void testOptimizeRoutes_filtersNonCompliantCarriers() {
         // Setup Vehicles
-        FleetVehicleEntity v1 = new FleetVehicleEntity();
-        v1.setId(UUID.randomUUID());
-        v1.setCarrierId("GOOD_CARRIER");
-        v1.setProfileId("PROFILE_VAN");
-        v1.setAvailable(true);
-
-        FleetVehicleEntity v2 = new FleetVehicleEntity();
-        v2.setId(UUID.randomUUID());
-        v2.setCarrierId("BAD_CARRIER");
-        v2.setProfileId("PROFILE_VAN");
-        v2.setAvailable(true);
+        FleetVehicleEntity v1 = vehicle("GOOD_CARRIER", "PROFILE_VAN", true);
+        FleetVehicleEntity v2 = vehicle("BAD_CARRIER", "PROFILE_VAN", true);
 
         when(vehicleRepository.findAllById(any())).thenReturn(Arrays.asList(v1, v2));
 
         // Setup Compliance
         CarrierComplianceEntity c1 = new CarrierComplianceEntity();
+        c1.setCarrierId("GOOD_CARRIER");
         c1.setComplianceStatus("COMPLIANT");
         c1.setIsInsured(true);
-        when(carrierComplianceRepository.findById("GOOD_CARRIER")).thenReturn(Optional.of(c1));
 
         CarrierComplianceEntity c2 = new CarrierComplianceEntity();
+        c2.setCarrierId("BAD_CARRIER");
         c2.setComplianceStatus("SUSPENDED");
         c2.setIsInsured(false);
-        when(carrierComplianceRepository.findById("BAD_CARRIER")).thenReturn(Optional.of(c2));
+        when(carrierComplianceRepository.findAllById(any())).thenReturn(List.of(c1, c2));
 
         // Setup Profile
         VehicleProfileEntity p1 = new VehicleProfileEntity();
+        p1.setId("PROFILE_VAN");
         p1.setMaxCapacityWeight(1000.0);
-        when(vehicleProfileRepository.findById("PROFILE_VAN")).thenReturn(Optional.of(p1));
-
-        // Setup Optimizer Mock Return to avoid NPE in controller
-        when(vrpOptimizerService.calculateRoutes(any(), any(), any()))
-                .thenReturn(new VrpOptimizerService.VehicleRoutingSolution(List.of()));
+        when(vehicleProfileRepository.findAllById(any())).thenReturn(List.of(p1));
+        stubEmptySolution();
 
         // Execute
         OptimizationRequestDto request = new OptimizationRequestDto();
@@ -101,12 +128,188 @@ public class OptimizationControllerComplianceTest {
         optimizationController.optimizeRoutes(request);
 
         // Verify
-        ArgumentCaptor<List<FleetVehicleEntity>> captor = ArgumentCaptor.forClass(List.class);
-        verify(vrpOptimizerService).calculateRoutes(any(), captor.capture(), any());
-
-        List<FleetVehicleEntity> filtered = captor.getValue();
+        List<FleetVehicleEntity> filtered = optimizedFleet();
         assertEquals(1, filtered.size(), "Should have filtered out the non-compliant carrier vehicle");
         assertEquals("GOOD_CARRIER", filtered.get(0).getCarrierId());
         assertEquals(1000.0, filtered.get(0).getCapacityWeight(), "Should have enriched capacity from profile");
+        assertEquals(500.0, v1.getCapacityWeight(), "Profile capacity must not be written to the loaded entity");
+
+        // One bulk query per table, no per-vehicle lookups
+        verify(vehicleRepository, times(1)).findAllById(any());
+        verify(carrierComplianceRepository, times(1)).findAllById(any());
+        verify(vehicleProfileRepository, times(1)).findAllById(any());
+        verify(carrierComplianceRepository, never()).findById(any());
+        verify(vehicleProfileRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testOptimizeRoutes_queryCountIndependentOfFleetSize() {
+        List<FleetVehicleEntity> fleet = new ArrayList<>();
+        List<CarrierComplianceEntity> compliance = new ArrayList<>();
+        for (int c = 0; c < 5; c++) {
+            CarrierComplianceEntity carrier = new CarrierComplianceEntity();
+            carrier.setCarrierId("CARRIER_" + c);
+            carrier.setComplianceStatus("COMPLIANT");
+            carrier.setIsInsured(c != 0); // CARRIER_0 uninsured
+            compliance.add(carrier);
+        }
+        for (int i = 0; i < 200; i++) {
+            fleet.add(vehicle("CARRIER_" + (i % 5), "PROFILE_" + (i % 3), true));
+        }
+        when(vehicleRepository.findAllById(any())).thenReturn(fleet);
+        when(carrierComplianceRepository.findAllById(any())).thenReturn(compliance);
+        stubEmptySolution();
+
+        OptimizationRequestDto request = new OptimizationRequestDto();
+        request.setVehicleIds(fleet.stream().map(FleetVehicleEntity::getId).toList());
+        request.setOrderIds(List.of(UUID.randomUUID()));
+
+        optimizationController.optimizeRoutes(request);
+
+        assertEquals(160, optimizedFleet().size(), "Vehicles of the uninsured carrier should be filtered out");
+        verify(carrierComplianceRepository, times(1)).findAllById(any());
+        verify(vehicleProfileRepository, times(1)).findAllById(any());
+        verifyNoMoreInteractions(carrierComplianceRepository, vehicleProfileRepository);
+    }
+
+    @Test
+    public void testOptimizeRoutes_defaultFleetServedFromSnapshot() {
+        FleetVehicleEntity available = vehicle(null, null, true);
+        FleetVehicleEntity unavailable = vehicle(null, null, false);
+        when(vehicleRepository.findAll()).thenReturn(List.of(available, unavailable));
+        stubEmptySolution();
+
+        OptimizationRequestDto request = new OptimizationRequestDto();
+        request.setOrderIds(List.of(UUID.randomUUID()));
+
+        optimizationController.optimizeRoutes(request);
+        optimizationController.optimizeRoutes(request);
+
+        // Second optimization within the snapshot TTL does not read the fleet again
+        verify(vehicleRepository, times(1)).findAll();
+        verify(vehicleRepository, never()).findAllById(any());
+        verifyNoInteractions(carrierComplianceRepository, vehicleProfileRepository);
+
+        ArgumentCaptor<List<FleetVehicleEntity>> captor = fleetCaptor();
+        verify(vrpOptimizerService, times(2)).calculateRoutes(any(), captor.capture(), any());
+        captor.getAllValues().forEach(vehicles -> assertEquals(List.of(available), vehicles));
+    }
+
+    @Test
+    public void testOptimizeRoutes_storesReadModel() throws Exception {
+        VrpOptimizerService.VehicleRoutingSolution solution = solution();
+        when(vrpOptimizerService.calculateRoutes(any(), any(), any())).thenReturn(solution);
+
+        OptimizationRequestDto request = new OptimizationRequestDto();
+        request.setOrderIds(List.of(UUID.randomUUID()));
+        optimizationController.optimizeRoutes(request);
+
+        ArgumentCaptor<OptimizationSolutionViewEntity> captor = ArgumentCaptor.forClass(
+                OptimizationSolutionViewEntity.class);
+        verify(solutionViewRepository).save(captor.capture());
+        assertEquals(solution, objectMapper.readValue(captor.getValue().getRoutesJson(),
+                VrpOptimizerService.VehicleRoutingSolution.class));
+    }
+
+    @Test
+    public void testGetFullSolution_servedFromReadModelWithoutOptimizing() throws Exception {
+        String json = "{\"problemId\":\"problem-1\",\"score\":\"0hard/-120soft\",\"vehicles\":[],\"stops\":[]}";
+        when(solutionViewRepository.findTopByFullSolutionJsonIsNotNullOrderByCreatedAtDesc())
+                .thenReturn(Optional.of(view(null, json)));
+
+        ResponseEntity<StreamingResponseBody> response = optimizationController.getFullSolution(null);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(json, write(response));
+        verifyNoInteractions(vrpOptimizerService, orderServiceClient, vehicleRepository, solutionRepository);
+    }
+
+    @Test
+    public void testGetLatestOptimization_streamsEnrichedRoutesFromReadModel() throws Exception {
+        VrpOptimizerService.VehicleRoutingSolution solution = solution();
+        when(solutionViewRepository.findTopByOrderByCreatedAtDesc())
+                .thenReturn(Optional.of(view(objectMapper.writeValueAsString(solution), null)));
+        when(driverEnrichmentService.enrichWithDriverAssignments(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<StreamingResponseBody> response = optimizationController.getLatestOptimization();
+
+        assertEquals(solution, objectMapper.readValue(write(response),
+                VrpOptimizerService.VehicleRoutingSolution.class));
+        verify(driverEnrichmentService, times(1)).enrichWithDriverAssignments(solution);
+        verifyNoInteractions(solutionRepository, vrpOptimizerService);
+    }
+
+    @Test
+    public void testGetLatestOptimization_fallsBackToSolutionsWithoutView() throws Exception {
+        VrpOptimizerService.VehicleRoutingSolution solution = solution();
+        com.example.planning_service.entity.OptimizationSolutionEntity entity =
+                com.example.planning_service.entity.OptimizationSolutionEntity.builder()
+                        .id(UUID.randomUUID())
+                        .createdAt(Instant.now())
+                        .solutionJson(objectMapper.convertValue(solution, Object.class))
+                        .build();
+        when(solutionRepository.findTopByOrderByCreatedAtDesc()).thenReturn(Optional.of(entity));
+        when(driverEnrichmentService.enrichWithDriverAssignments(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<StreamingResponseBody> response = optimizationController.getLatestOptimization();
+
+        assertEquals(solution, objectMapper.readValue(write(response),
+                VrpOptimizerService.VehicleRoutingSolution.class));
+    }
+
+    // ===== Helpers =====
+
+    private void stubEmptySolution() {
+        when(vrpOptimizerService.calculateRoutes(any(), any(), any()))
+                .thenReturn(new VrpOptimizerService.VehicleRoutingSolution(List.of()));
+    }
+
+    private static FleetVehicleEntity vehicle(String carrierId, String profileId, boolean available) {
+        FleetVehicleEntity vehicle = new FleetVehicleEntity();
+        vehicle.setId(UUID.randomUUID());
+        vehicle.setName("Vehicle " + vehicle.getId());
+        vehicle.setCapacityWeight(500.0);
+        vehicle.setCapacityVolume(10.0);
+        vehicle.setCarrierId(carrierId);
+        vehicle.setProfileId(profileId);
+        vehicle.setAvailable(available);
+        return vehicle;
+    }
+
+    private static VrpOptimizerService.VehicleRoutingSolution solution() {
+        VrpOptimizerService.VehicleRoutingSolution.Activity activity = new VrpOptimizerService.VehicleRoutingSolution.Activity(
+                UUID.randomUUID(), VrpOptimizerService.VehicleRoutingSolution.ActivityType.DELIVERY,
+                52.23, 21.01, 1_000L, 2_000L);
+        return new VrpOptimizerService.VehicleRoutingSolution(List.of(
+                new VrpOptimizerService.VehicleRoutingSolution.Route(UUID.randomUUID(), List.of(activity),
+                        1234.5, 600_000L)));
+    }
+
+    private static OptimizationSolutionViewEntity view(String routesJson, String fullSolutionJson) {
+        return OptimizationSolutionViewEntity.builder()
+                .solutionId(UUID.randomUUID())
+                .createdAt(Instant.now())
+                .routesJson(routesJson)
+                .fullSolutionJson(fullSolutionJson)
+                .build();
+    }
+
+    private List<FleetVehicleEntity> optimizedFleet() {
+        ArgumentCaptor<List<FleetVehicleEntity>> captor = fleetCaptor();
+        verify(vrpOptimizerService).calculateRoutes(any(), captor.capture(), any());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<FleetVehicleEntity>> fleetCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,90 @@
+package com.example.planning_service.domain.timefold;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for epoch-second arrival time propagation along route chains.
+ */
+@DisplayName("ArrivalTimeUpdatingVariableListener Tests")
+class ArrivalTimeUpdatingVariableListenerTest {
+
+    private static SolutionManager<VehicleRoutingSolution, HardSoftLongScore> solutionManager;
+
+    @BeforeAll
+    static void setUp() {
+        solutionManager = SolutionManager.create(SolverFactory.createFromXmlResource("solverConfig.xml"));
+    }
+
+    @Test
+    @DisplayName("Arrival = previous departure + travel time, seeded from vehicle departure")
+    void testArrivalTimesFollowChain() {
+        VehicleRoutingSolution solution = SyntheticRoutingProblems.generate(60, 3, 11L);
+        SyntheticRoutingProblems.assignRandomly(solution, new Random(11L));
+
+        solutionManager.update(solution);
+
+        for (RouteStop stop : solution.getStops()) {
+            Standstill previous = stop.getPreviousStandstill();
+            long departure = previous instanceof Vehicle vehicle
+                    ? vehicle.getDepartureTime()
+                    : ((RouteStop) previous).getDepartureTime();
+            assertThat(stop.getArrivalTime()).isEqualTo(departure + stop.getTravelTimeSeconds());
+        }
+    }
+
+    @Test
+    @DisplayName("Per-stop service duration should shift every later arrival")
+    void testServiceDurationIsPerStop() {
+        VehicleRoutingSolution solution = SyntheticRoutingProblems.generate(20, 1, 5L);
+        SyntheticRoutingProblems.assignRandomly(solution, new Random(5L));
+        solutionManager.update(solution);
+
+        RouteStop first = solution.getVehicles().get(0).getNextStop();
+        long lastArrivalBefore = lastStop(first).getArrivalTime();
+
+        first.setServiceDurationSeconds(first.getServiceDurationSeconds() + 600);
+        solutionManager.update(solution);
+
+        assertThat(lastStop(first).getArrivalTime()).isEqualTo(lastArrivalBefore + 600);
+    }
+
+    @Test
+    @DisplayName("Scores should be deterministic for identical solutions")
+    void testDeterministicScore() {
+        VehicleRoutingSolution first = SyntheticRoutingProblems.generate(100, 4, 21L);
+        SyntheticRoutingProblems.assignRandomly(first, new Random(21L));
+        HardSoftLongScore firstScore = solutionManager.update(first);
+
+        // Seeded from the fixed vehicle departure, not the wall clock (the old listener used LocalDateTime.now())
+        for (Vehicle vehicle : first.getVehicles()) {
+            RouteStop head = vehicle.getNextStop();
+            if (head != null) {
+                assertThat(head.getArrivalTime())
+                        .isEqualTo(SyntheticRoutingProblems.PLANNING_START + head.getTravelTimeSeconds());
+            }
+        }
+
+        VehicleRoutingSolution second = SyntheticRoutingProblems.generate(100, 4, 21L);
+        SyntheticRoutingProblems.assignRandomly(second, new Random(21L));
+
+        assertThat(solutionManager.update(second)).isEqualTo(firstScore);
+        assertThat(second.getStops()).extracting(RouteStop::getArrivalTime)
+                .containsExactlyElementsOf(first.getStops().stream().map(RouteStop::getArrivalTime).toList());
+    }
+
+    private static RouteStop lastStop(RouteStop stop) {
+        while (stop.getNextStop() != null) {
+            stop = stop.getNextStop();
+        }
+        return stop;
+    }
+}
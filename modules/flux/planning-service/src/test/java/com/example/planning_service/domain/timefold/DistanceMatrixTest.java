@@ -0,0 +1,97 @@
+package com.example.planning_service.domain.timefold;
+
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the precomputed DistanceMatrix used by the Timefold model.
+ */
+@DisplayName("DistanceMatrix Tests")
+class DistanceMatrixTest {
+
+    @Test
+    @DisplayName("Matrix lookups should match the on-the-fly haversine estimate")
+    void testMatrixMatchesHaversine() {
+        VehicleRoutingSolution problem = SyntheticRoutingProblems.generate(200, 5, 42L);
+        List<RouteStop> stops = problem.getStops();
+
+        for (int i = 1; i < stops.size(); i++) {
+            RouteStop previous = stops.get(i - 1);
+            RouteStop stop = stops.get(i);
+            stop.setPreviousStandstill(previous);
+
+            double expected = DistanceMatrix.haversineMeters(previous.getLatitude(), previous.getLongitude(),
+                    stop.getLatitude(), stop.getLongitude()) * DistanceMatrix.DETOUR_FACTOR;
+            assertThat(stop.getDistanceFromPreviousMeters()).isCloseTo(expected, within(0.5));
+
+            stop.setDistanceMatrix(null);
+            assertThat(stop.getDistanceFromPreviousMeters()).isCloseTo(expected, within(1e-9));
+        }
+    }
+
+    @Test
+    @DisplayName("Vehicles sharing a depot should share one location index")
+    void testSharedDepotIsDeduplicated() {
+        VehicleRoutingSolution problem = SyntheticRoutingProblems.generate(10, 4, 7L);
+
+        assertThat(problem.getVehicles())
+                .extracting(Vehicle::getLocationIndex)
+                .containsOnly(0);
+        assertThat(problem.getDistanceMatrix().size()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("Travel time should be derived from the duration matrix")
+    void testTravelTimeFromMatrix() {
+        VehicleRoutingSolution problem = SyntheticRoutingProblems.generate(2, 1, 3L);
+        Vehicle vehicle = problem.getVehicles().get(0);
+        RouteStop stop = problem.getStops().get(0);
+        stop.setPreviousStandstill(vehicle);
+
+        long matrixMinutes = stop.getTravelTimeMinutes();
+        stop.setDistanceMatrix(null);
+        long haversineMinutes = stop.getTravelTimeMinutes();
+
+        assertThat(matrixMinutes).isCloseTo(haversineMinutes, within(1L));
+    }
+
+    /**
+     * Score calculation throughput on a synthetic 1,000-stop problem: the matrix
+     * must not be slower than on-the-fly haversine. Run with -Dplanning.benchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "planning.benchmark", matches = "true")
+    @DisplayName("Score calculation speed on 1,000 stops (matrix vs haversine)")
+    void benchmarkScoreCalculationSpeed() throws Exception {
+        long withMatrix = solveAndMeasure(SyntheticRoutingProblems.generate(1000, 20, 1L));
+
+        VehicleRoutingSolution withoutMatrixProblem = SyntheticRoutingProblems.generate(1000, 20, 1L);
+        withoutMatrixProblem.getVehicles().forEach(v -> v.setDistanceMatrix(null));
+        withoutMatrixProblem.getStops().forEach(s -> s.setDistanceMatrix(null));
+        long withoutMatrix = solveAndMeasure(withoutMatrixProblem);
+
+        assertThat(withoutMatrix).isPositive();
+        assertThat(withMatrix)
+                .as("score calculation speed with matrix (haversine: %d/s)", withoutMatrix)
+                .isGreaterThanOrEqualTo(withoutMatrix);
+    }
+
+    private long solveAndMeasure(VehicleRoutingSolution problem) throws Exception {
+        SolverConfig config = SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(20L));
+        try (SolverManager<VehicleRoutingSolution, String> solverManager = SolverManager.create(config)) {
+            SolverJob<VehicleRoutingSolution, String> job = solverManager.solve(problem.getOptimizationId(), problem);
+            job.getFinalBestSolution();
+            return job.getScoreCalculationSpeed();
+        }
+    }
+}
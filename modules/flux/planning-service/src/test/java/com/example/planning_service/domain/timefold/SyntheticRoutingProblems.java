@@ -0,0 +1,103 @@
+package com.example.planning_service.domain.timefold;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic VRP datasets for tests (fixed seed -> identical problem).
+ * Stops are scattered around Warsaw, all vehicles start at the same depot.
+ */
+public final class SyntheticRoutingProblems {
+
+    private static final double DEPOT_LAT = 52.2297;
+    private static final double DEPOT_LON = 21.0122;
+
+    /**
+     * Fixed planning start (2026-01-05T07:00:00Z) so arrival times are reproducible
+     */
+    public static final long PLANNING_START = 1_767_596_400L;
+
+    private SyntheticRoutingProblems() {
+    }
+
+    public static VehicleRoutingSolution generate(int stopCount, int vehicleCount, long seed) {
+        return generate(stopCount, vehicleCount, seed, 1.2);
+    }
+
+    /**
+     * @param capacityFactor total fleet capacity relative to total demand (below 1.0 forces overloads)
+     */
+    public static VehicleRoutingSolution generate(int stopCount, int vehicleCount, long seed, double capacityFactor) {
+        Random random = new Random(seed);
+
+        List<RouteStop> stops = new ArrayList<>(stopCount);
+        long totalDemandGrams = 0L;
+        for (int i = 0; i < stopCount; i++) {
+            // Whole kilograms, so kg-based and gram-based models are directly comparable
+            long weightGrams = ScaledUnits.kilogramsToGrams(BigDecimal.valueOf(1 + random.nextInt(50)));
+            totalDemandGrams += weightGrams;
+            stops.add(RouteStop.builder()
+                    .id(new UUID(seed, i).toString())
+                    .latitude(DEPOT_LAT + (random.nextDouble() - 0.5) * 0.6)
+                    .longitude(DEPOT_LON + (random.nextDouble() - 0.5) * 0.9)
+                    .demandWeightGrams(weightGrams)
+                    .demandVolumeCm3(0L)
+                    .serviceDurationSeconds(300)
+                    .build());
+        }
+
+        // Capacity per vehicle, rounded up to whole kilograms
+        long capacityKg = (long) Math.ceil(
+                totalDemandGrams * capacityFactor / Math.max(1, vehicleCount) / ScaledUnits.GRAMS_PER_KILOGRAM);
+        long capacityGrams = capacityKg * ScaledUnits.GRAMS_PER_KILOGRAM;
+        List<Vehicle> vehicles = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            vehicles.add(Vehicle.builder()
+                    .id(new UUID(~seed, i).toString())
+                    .name("Vehicle " + i)
+                    .location(Location.builder().latitude(DEPOT_LAT).longitude(DEPOT_LON).build())
+                    .capacityWeightGrams(capacityGrams)
+                    .capacityVolumeCm3(0L)
+                    .departureTime(PLANNING_START)
+                    .shiftStartTime(PLANNING_START)
+                    .shiftEndTime(PLANNING_START + 10 * 3600)
+                    .available(true)
+                    .build());
+        }
+
+        VehicleRoutingSolution problem = new VehicleRoutingSolution();
+        problem.setOptimizationId("synthetic-" + seed);
+        problem.setVehicles(vehicles);
+        problem.setStops(stops);
+        problem.setAllStops(stops);
+        problem.setOrders(List.of());
+        problem.setDepot(vehicles.isEmpty() ? null : vehicles.get(0).getLocation());
+        problem.setDistanceMatrix(DistanceMatrix.build(vehicles, stops));
+        return problem;
+    }
+
+    /**
+     * Chain every stop to a random vehicle in random order (deterministic for a given Random).
+     * Shadow variables are set by hand so the solution can be scored without solving.
+     */
+    public static void assignRandomly(VehicleRoutingSolution solution, Random random) {
+        List<Vehicle> vehicles = solution.getVehicles();
+        Standstill[] tails = vehicles.toArray(new Standstill[0]);
+        vehicles.forEach(vehicle -> vehicle.setNextStop(null));
+
+        List<RouteStop> shuffled = new ArrayList<>(solution.getStops());
+        java.util.Collections.shuffle(shuffled, random);
+        for (RouteStop stop : shuffled) {
+            int vehicleIndex = random.nextInt(vehicles.size());
+            Standstill tail = tails[vehicleIndex];
+            stop.setPreviousStandstill(tail);
+            stop.setVehicle(vehicles.get(vehicleIndex));
+            stop.setNextStop(null);
+            tail.setNextStop(stop);
+            tails[vehicleIndex] = stop;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.planning_service.execution;
+
+import com.example.danxils_commons.dto.OrderResponseDto;
+import com.example.danxils_commons.enums.OrderStatus;
+import com.example.planning_service.client.OrderBatchFetcher;
+import com.example.planning_service.client.OrderServiceClient;
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.entity.FleetVehicleEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.monitoring.SlaAlertService;
+import com.example.planning_service.optimization.VrpOptimizerService;
+import com.example.planning_service.repository.CarrierComplianceRepository;
+import com.example.planning_service.repository.FleetVehicleRepository;
+import com.example.planning_service.repository.OptimizationProfileRepository;
+import com.example.planning_service.repository.RoutePlanRepository;
+import com.example.planning_service.repository.VehicleProfileRepository;
+import com.example.planning_service.service.HubService;
+import com.example.planning_service.service.ManifestService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for batch planning of claimed order IDs: vehicle leases between
+ * parallel chunks of one hub and orders order-service did not return.
+ * Solver and order-service are mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PlanningExecutionService Tests")
+class PlanningExecutionServiceTest {
+
+    private static final String HUB_ID = "WAW";
+
+    @Mock
+    private RoutePlanRepository planRepository;
+
+    @Mock
+    private FleetVehicleRepository vehicleRepository;
+
+    @Mock
+    private OptimizationProfileRepository optimizationProfileRepository;
+
+    @Mock
+    private OrderServiceClient orderServiceClient;
+
+    @Mock
+    private OrderBatchFetcher orderBatchFetcher;
+
+    @Mock
+    private VrpOptimizerService vrpOptimizer;
+
+    @Mock
+    private ManifestService manifestService;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private VehicleProfileRepository vehicleProfileRepository;
+
+    @Mock
+    private CarrierComplianceRepository carrierComplianceRepository;
+
+    @Mock
+    private SlaAlertService slaAlertService;
+
+    @Mock
+    private HubService hubService;
+
+    private PlanningExecutionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PlanningExecutionService(planRepository, vehicleRepository, optimizationProfileRepository,
+                orderServiceClient, orderBatchFetcher, vrpOptimizer, manifestService, kafkaTemplate,
+                new AppProperties(), vehicleProfileRepository, carrierComplianceRepository,
+                new OptimizationMetrics(new SimpleMeterRegistry()), slaAlertService, hubService);
+    }
+
+    @Test
+    @DisplayName("Chunk finding the hub's only vehicle leased should fail instead of succeeding empty")
+    void testCompetingChunksOneVehicleHub() {
+        FleetVehicleEntity vehicle = FleetVehicleEntity.builder()
+                .id(UUID.randomUUID())
+                .homeHubId(HUB_ID)
+                .build();
+        when(vehicleRepository.findAll()).thenReturn(List.of(vehicle));
+        when(hubService.getActiveHubs()).thenReturn(List.of(HubConfiguration.builder().id(HUB_ID).active(true).build()));
+        List<UUID> firstChunk = List.of(UUID.randomUUID());
+        List<UUID> secondChunk = List.of(UUID.randomUUID());
+        when(orderBatchFetcher.fetch(firstChunk)).thenReturn(List.of(order(firstChunk.get(0))));
+
+        // The second chunk starts while the first one still holds the vehicle
+        when(vrpOptimizer.calculateRoutes(anyList(), eq(List.of(vehicle)), isNull())).thenAnswer(invocation -> {
+            assertThatThrownBy(() -> service.executePlanForOrderIds(secondChunk, null, HUB_ID, 0.5))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(HUB_ID);
+            return new VrpOptimizerService.VehicleRoutingSolution(List.of());
+        });
+
+        service.executePlanForOrderIds(firstChunk, null, HUB_ID, 0.5);
+
+        verify(vrpOptimizer).calculateRoutes(anyList(), anyList(), isNull());
+        verify(orderBatchFetcher, never()).fetch(secondChunk);
+    }
+
+    @Test
+    @DisplayName("Orders missing from order-service should come back unplanned, non-NEW ones count as done")
+    void testMissingOrdersUnplanned() {
+        FleetVehicleEntity vehicle = FleetVehicleEntity.builder()
+                .id(UUID.randomUUID())
+                .homeHubId(HUB_ID)
+                .build();
+        when(vehicleRepository.findAll()).thenReturn(List.of(vehicle));
+        when(hubService.getActiveHubs()).thenReturn(List.of(HubConfiguration.builder().id(HUB_ID).active(true).build()));
+        UUID newOrder = UUID.randomUUID();
+        UUID pickedUpOrder = UUID.randomUUID();
+        UUID missingOrder = UUID.randomUUID();
+        List<UUID> orderIds = List.of(newOrder, pickedUpOrder, missingOrder);
+        when(orderBatchFetcher.fetch(orderIds)).thenReturn(List.of(
+                order(newOrder), order(pickedUpOrder, OrderStatus.PICKUP)));
+        when(vrpOptimizer.calculateRoutes(anyList(), anyList(), isNull()))
+                .thenReturn(new VrpOptimizerService.VehicleRoutingSolution(List.of()));
+
+        List<UUID> unplanned = service.executePlanForOrderIds(orderIds, null, HUB_ID, 1.0);
+
+        assertThat(unplanned).containsExactly(missingOrder);
+        verify(vrpOptimizer).calculateRoutes(argThat(orders -> orders.size() == 1
+                && orders.get(0).orderId().equals(newOrder)), anyList(), isNull());
+    }
+
+    private static OrderResponseDto order(UUID orderId) {
+        return order(orderId, OrderStatus.NEW);
+    }
+
+    private static OrderResponseDto order(UUID orderId, OrderStatus status) {
+        return new OrderResponseDto(orderId, status, null, null, null, null, null, null,
+                List.of(), List.of(), null, null, null, null, null);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.planning_service.monitoring;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverJobBuilder;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.timefold.SyntheticRoutingProblems;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for SolverTelemetry on a real (short) Timefold solve: phase split,
+ * time to first feasible, score calculation speed, Micrometer export, bounded
+ * history, thinning of the score curve and solves that fail to start.
+ */
+@DisplayName("SolverTelemetry Tests")
+class SolverTelemetryTest {
+
+    private SolverManager<VehicleRoutingSolution, String> solverManager;
+    private SimpleMeterRegistry meterRegistry;
+    private AppProperties appProperties;
+    private SolverTelemetry telemetry;
+
+    @BeforeEach
+    void setUp() {
+        solverManager = SolverManager.create(SolverConfig.createFromXmlResource("solverConfig.xml"));
+        meterRegistry = new SimpleMeterRegistry();
+        appProperties = new AppProperties();
+        telemetry = new SolverTelemetry(new OptimizationMetrics(meterRegistry), appProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        solverManager.close();
+    }
+
+    @Test
+    @DisplayName("Finished solve should be recorded with phases, score curve and score calculation speed")
+    void testSolveRecorded() throws Exception {
+        VehicleRoutingSolution problem = SyntheticRoutingProblems.generate(40, 3, 7L, 3.0);
+
+        SolveTrace trace = telemetry.start("problem-1", "optimize", "DEFAULT", 40, 3);
+        assertThat(telemetry.activeSolves()).extracting(SolveRecord::problemId).containsExactly("problem-1");
+
+        VehicleRoutingSolution solution = solve("problem-1", problem, trace, Duration.ofMillis(500));
+
+        assertThat(telemetry.activeSolves()).isEmpty();
+        SolveRecord record = telemetry.find("problem-1").orElseThrow();
+        assertThat(record.status()).isEqualTo("FINISHED");
+        assertThat(record.bestScore()).isEqualTo(solution.getScore().toString());
+        assertThat(record.feasible()).isTrue();
+        assertThat(record.timeToFeasibleMillis()).isNotNull().isLessThanOrEqualTo(record.durationMillis());
+        assertThat(record.constructionMillis()).isNotNegative();
+        assertThat(record.localSearchMillis()).isPositive();
+        assertThat(record.constructionMillis() + record.localSearchMillis()).isEqualTo(record.durationMillis());
+        assertThat(record.scoreCalculationCount()).isPositive();
+        assertThat(record.scoreCalculationSpeed()).isPositive();
+        assertThat(record.bestSolutionImprovements()).isPositive();
+
+        // Curve is monotonic in time and ends at the final best score
+        assertThat(record.scoreCurve()).isNotEmpty();
+        assertThat(record.scoreCurve()).extracting(SolveRecord.ScorePoint::elapsedMillis).isSorted();
+        SolveRecord.ScorePoint last = record.scoreCurve().get(record.scoreCurve().size() - 1);
+        assertThat(HardSoftLongScore.of(last.hardScore(), last.softScore())).isEqualTo(solution.getScore());
+    }
+
+    @Test
+    @DisplayName("Finished solve should be exported to Micrometer per kind and profile")
+    void testMetricsExported() throws Exception {
+        SolveTrace trace = telemetry.start("problem-1", "optimize", "DEFAULT", 30, 2);
+        solve("problem-1", SyntheticRoutingProblems.generate(30, 2, 3L, 3.0), trace, Duration.ofMillis(300));
+
+        assertThat(meterRegistry.get("optimization.solver.solves")
+                .tags("kind", "optimize", "profile", "DEFAULT", "outcome", "FINISHED").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("optimization.solver.phase.duration")
+                .tags("phase", "construction_heuristic").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("optimization.solver.phase.duration")
+                .tags("phase", "local_search").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("optimization.solver.time.to.feasible").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("optimization.solver.score.calculation.speed").summary().max()).isPositive();
+        assertThat(meterRegistry.get("optimization.solver.score.calculations").counter().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("History should keep only the newest solves")
+    void testHistoryBounded() {
+        appProperties.getTelemetry().setHistorySize(3);
+
+        for (int i = 1; i <= 5; i++) {
+            SolveTrace trace = telemetry.start("problem-" + i, "replan", "DEFAULT", 0, 0);
+            trace.fail(new IllegalStateException("failure " + i));
+        }
+
+        assertThat(telemetry.recentSolves()).extracting(SolveRecord::problemId)
+                .containsExactly("problem-5", "problem-4", "problem-3");
+        assertThat(telemetry.recentSolves()).extracting(SolveRecord::status).containsOnly("FAILED");
+        assertThat(telemetry.find("problem-1")).isEmpty();
+        assertThat(meterRegistry.get("optimization.solver.solves").tags("outcome", "FAILED").counter().count())
+                .isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Solve that fails to start should be recorded as failed and leave the active solves")
+    @SuppressWarnings("unchecked")
+    void testFailedStartRecorded() {
+        SolverJobBuilder<VehicleRoutingSolution, String> builder = mock(SolverJobBuilder.class);
+        when(builder.run()).thenThrow(new IllegalStateException("problem-1 already solving"));
+        SolveTrace trace = telemetry.start("problem-1", "optimize", "DEFAULT", 10, 1);
+
+        assertThatThrownBy(() -> trace.run(builder)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(telemetry.activeSolves()).isEmpty();
+        SolveRecord record = telemetry.find("problem-1").orElseThrow();
+        assertThat(record.status()).isEqualTo("FAILED");
+        assertThat(record.error()).isEqualTo("problem-1 already solving");
+    }
+
+    @Test
+    @DisplayName("Long score curve should be thinned out to the configured number of points")
+    void testScoreCurveThinned() {
+        appProperties.getTelemetry().setMaxCurvePoints(50);
+        SolveTrace trace = telemetry.start("problem-1", "optimize", "DEFAULT", 0, 0);
+
+        VehicleRoutingSolution best = SyntheticRoutingProblems.generate(0, 0, 1L);
+        best.setStops(new ArrayList<>());
+        for (int i = 0; i < 1_000; i++) {
+            best.setScore(HardSoftLongScore.of(0, -10_000 + i));
+            trace.onBestSolution(best);
+        }
+
+        SolveRecord record = trace.snapshot();
+        assertThat(record.scoreCurve()).hasSizeLessThanOrEqualTo(51);
+        assertThat(record.scoreCurve()).hasSizeGreaterThanOrEqualTo(25);
+        assertThat(record.scoreCurve().get(0).softScore()).isEqualTo(-10_000);
+        assertThat(record.scoreCurve().get(record.scoreCurve().size() - 1).softScore()).isEqualTo(-9_001);
+        assertThat(record.bestSolutionImprovements()).isEqualTo(999);
+    }
+
+    private VehicleRoutingSolution solve(String problemId, VehicleRoutingSolution problem, SolveTrace trace,
+            Duration spentLimit) throws Exception {
+        SolverJobBuilder<VehicleRoutingSolution, String> builder = solverManager.solveBuilder()
+                .withProblemId(problemId)
+                .withProblem(problem)
+                .withConfigOverride(new SolverConfigOverride<VehicleRoutingSolution>()
+                        .withTerminationConfig(new TerminationConfig().withSpentLimit(spentLimit)))
+                .withFirstInitializedSolutionConsumer(trace::onFirstInitializedSolution)
+                .withBestSolutionConsumer(trace::onBestSolution);
+        SolverJob<VehicleRoutingSolution, String> job = trace.run(builder);
+        VehicleRoutingSolution solution = job.getFinalBestSolution();
+        trace.finish(solution);
+        return solution;
+    }
+}
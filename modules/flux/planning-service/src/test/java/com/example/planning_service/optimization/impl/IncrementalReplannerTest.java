@@ -0,0 +1,171 @@
+package com.example.planning_service.optimization.impl;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.domain.timefold.RouteStop;
+import com.example.planning_service.domain.timefold.Standstill;
+import com.example.planning_service.domain.timefold.SyntheticRoutingProblems;
+import com.example.planning_service.domain.timefold.Vehicle;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.monitoring.SolverTelemetry;
+import com.example.planning_service.routing.HaversineDistanceProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for IncrementalReplanner: warm start from the last plan, pinning of the
+ * started / executed prefix, urgent stops inserted within the latency target,
+ * and joining a running re-plan via ProblemChange.
+ */
+@DisplayName("IncrementalReplanner Tests")
+class IncrementalReplannerTest {
+
+    private static final Duration LATENCY_TARGET = Duration.ofSeconds(1);
+
+    private SolverManager<VehicleRoutingSolution, String> solverManager;
+    private IncrementalReplanner replanner;
+    private VehicleRoutingSolution baseline;
+
+    @BeforeEach
+    void setUp() {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        solverManager = SolverManager.create(solverConfig);
+        replanner = new IncrementalReplanner(new SolverProfileRegistry(solverManager, new AppProperties()),
+                new HaversineDistanceProvider(40.0, 1.0),
+                new SolverTelemetry(new OptimizationMetrics(new SimpleMeterRegistry()), new AppProperties()));
+
+        // Random but scored plan (shadow variables up to date), capacity to spare so it is feasible
+        baseline = SyntheticRoutingProblems.generate(60, 4, 11L, 3.0);
+        SyntheticRoutingProblems.assignRandomly(baseline, new Random(11L));
+        SolutionManager.<VehicleRoutingSolution, HardSoftLongScore>create(solverManager).update(baseline);
+    }
+
+    @AfterEach
+    void tearDown() {
+        solverManager.close();
+    }
+
+    @Test
+    @DisplayName("Urgent stops should be assigned within the latency target, started stops kept in place")
+    void testWarmStartKeepsStartedStops() throws Exception {
+        Instant now = Instant.ofEpochSecond(SyntheticRoutingProblems.PLANNING_START + 3600);
+        Map<String, String> startedPredecessors = startedPredecessors(baseline, now.getEpochSecond());
+        List<RouteStop> urgent = List.of(urgentStop(1, 52.25, 21.00), urgentStop(2, 52.20, 21.05));
+
+        IncrementalReplanner.ReplanResult result = replanner
+                .replan(baseline, urgent, Set.of(), now, LATENCY_TARGET)
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(result.latency()).isLessThan(LATENCY_TARGET.plusSeconds(1));
+        assertThat(result.isFeasible()).as("score %s", result.solution().getScore()).isTrue();
+        assertThat(urgent).allSatisfy(stop -> assertThat(result.isAssigned(stop.getId())).isTrue());
+        assertThat(startedPredecessors).isNotEmpty();
+        assertThat(result.pinnedStops()).isEqualTo(startedPredecessors.size());
+
+        Map<String, RouteStop> replanned = new HashMap<>();
+        result.solution().getStops().forEach(stop -> replanned.put(stop.getId(), stop));
+        startedPredecessors.forEach((stopId, predecessorId) -> {
+            assertThat(replanned.get(stopId).isPinned()).isTrue();
+            assertThat(idOf(replanned.get(stopId).getPreviousStandstill())).as("predecessor of %s", stopId)
+                    .isEqualTo(predecessorId);
+        });
+
+        // Baseline is copied, never modified
+        assertThat(baseline.getStops()).hasSize(60).noneMatch(RouteStop::isPinned);
+        assertThat(result.solution()).isNotSameAs(baseline);
+    }
+
+    @Test
+    @DisplayName("Executed stops should pin the whole chain prefix up to them")
+    void testExecutedStopsPinPrefix() {
+        Instant beforeDeparture = Instant.ofEpochSecond(SyntheticRoutingProblems.PLANNING_START - 3600);
+        Vehicle vehicle = baseline.getVehicles().get(0);
+        List<String> chain = new ArrayList<>();
+        for (RouteStop stop = vehicle.getNextStop(); stop != null; stop = stop.getNextStop()) {
+            chain.add(stop.getId());
+        }
+        assertThat(chain).hasSizeGreaterThan(3);
+
+        VehicleRoutingSolution problem = IncrementalReplanner.warmStart(baseline, List.of());
+        int pinned = IncrementalReplanner.pin(problem, Set.of(chain.get(2)), beforeDeparture);
+
+        assertThat(pinned).isEqualTo(3);
+        assertThat(problem.getStops())
+                .filteredOn(RouteStop::isPinned)
+                .extracting(RouteStop::getId)
+                .containsExactlyInAnyOrderElementsOf(chain.subList(0, 3));
+    }
+
+    @Test
+    @DisplayName("Urgent order arriving during a re-plan should join it via ProblemChange")
+    void testSecondUrgentOrderJoinsRunningReplan() throws Exception {
+        Instant now = Instant.ofEpochSecond(SyntheticRoutingProblems.PLANNING_START + 1800);
+        RouteStop first = urgentStop(1, 52.25, 21.00);
+        RouteStop second = urgentStop(2, 52.21, 20.95);
+
+        CompletableFuture<IncrementalReplanner.ReplanResult> firstResult = replanner.replan(baseline,
+                List.of(first), Set.of(), now, LATENCY_TARGET);
+        CompletableFuture<IncrementalReplanner.ReplanResult> secondResult = replanner.replan(baseline,
+                List.of(second), Set.of(), now, LATENCY_TARGET);
+
+        IncrementalReplanner.ReplanResult result = secondResult.get(10, TimeUnit.SECONDS);
+        assertThat(result.isAssigned(first.getId())).isTrue();
+        assertThat(result.isAssigned(second.getId())).isTrue();
+        assertThat(result.solution().getStops()).hasSize(62);
+        assertThat(firstResult.get(10, TimeUnit.SECONDS).isAssigned(first.getId())).isTrue();
+    }
+
+    // ===== Helpers =====
+
+    /**
+     * Stops the vehicle has already left for at {@code now} -> ID of their predecessor
+     */
+    private static Map<String, String> startedPredecessors(VehicleRoutingSolution solution, long now) {
+        Map<String, String> started = new HashMap<>();
+        for (Vehicle vehicle : solution.getVehicles()) {
+            long departure = vehicle.getDepartureTime();
+            Standstill previous = vehicle;
+            for (RouteStop stop = vehicle.getNextStop(); stop != null && departure <= now; stop = stop.getNextStop()) {
+                started.put(stop.getId(), idOf(previous));
+                departure = stop.getDepartureTime();
+                previous = stop;
+            }
+        }
+        return started;
+    }
+
+    private static String idOf(Standstill standstill) {
+        return standstill instanceof Vehicle vehicle ? vehicle.getId() : ((RouteStop) standstill).getId();
+    }
+
+    private static RouteStop urgentStop(int index, double latitude, double longitude) {
+        return RouteStop.builder()
+                .id(new UUID(42L, index).toString())
+                .latitude(latitude)
+                .longitude(longitude)
+                .demandWeightGrams(5_000L)
+                .serviceDurationSeconds(300)
+                .build();
+    }
+}
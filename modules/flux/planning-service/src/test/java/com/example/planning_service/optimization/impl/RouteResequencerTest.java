@@ -0,0 +1,198 @@
+package com.example.planning_service.optimization.impl;
+
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import com.example.planning_service.dto.RouteStopDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for RouteResequencer: grid nearest neighbour gives the same tour as
+ * the full scan, 2-opt / Or-opt only shortens it, fixed stops stay in place,
+ * time windows are never made worse and long routes finish within the cap.
+ * Tour lengths at the ResequenceBenchmark sizes are checked here, the
+ * benchmark itself measures runtime only.
+ */
+@DisplayName("RouteResequencer Tests")
+class RouteResequencerTest {
+
+    private static final double START_LAT = 52.2297;
+    private static final double START_LON = 21.0122;
+
+    @Test
+    @DisplayName("Grid nearest neighbour should match the full-scan nearest neighbour")
+    void testGridNearestNeighbourMatchesFullScan() {
+        List<RouteStopDto> stops = randomStops(200, 1L);
+
+        List<RouteStopDto> grid = resequencer(false).resequence(stops, START_LAT, START_LON);
+
+        assertThat(grid).containsExactlyInAnyOrderElementsOf(stops);
+        assertThat(length(grid)).isCloseTo(length(fullScanNearestNeighbour(stops)), withinPercentage(1));
+    }
+
+    @Test
+    @DisplayName("2-opt / Or-opt should shorten the nearest neighbour tour")
+    void testImprovementShortensTour() {
+        List<RouteStopDto> stops = randomStops(200, 2L);
+
+        double nearestNeighbour = length(resequencer(false).resequence(stops, START_LAT, START_LON));
+        List<RouteStopDto> improved = resequencer(true).resequence(stops, START_LAT, START_LON);
+
+        assertThat(improved).containsExactlyInAnyOrderElementsOf(stops);
+        assertThat(length(improved)).isLessThan(nearestNeighbour * 0.95);
+    }
+
+    @ParameterizedTest(name = "{0} stops")
+    @ValueSource(ints = { 50, 200, 1000 })
+    @DisplayName("At benchmark sizes grid should match the full scan and the 200 ms improvement should shorten it")
+    void testTourLengthAtBenchmarkSizes(int count) {
+        List<RouteStopDto> stops = randomStops(count, 6L);
+        RouteResequencer improving = new RouteResequencer(true, Duration.ofMillis(200), LocalTime.of(8, 0), 300,
+                DistanceMatrix.AVERAGE_SPEED_KMH);
+
+        double fullScan = length(fullScanNearestNeighbour(stops));
+        double grid = length(resequencer(false).resequence(stops, START_LAT, START_LON));
+        List<RouteStopDto> improved = improving.resequence(stops, START_LAT, START_LON);
+
+        assertThat(grid).isCloseTo(fullScan, withinPercentage(1));
+        assertThat(improved).containsExactlyInAnyOrderElementsOf(stops);
+        assertThat(length(improved)).isLessThan(grid);
+    }
+
+    @Test
+    @DisplayName("Fixed stops should keep their positions")
+    void testFixedStopsKeepPositions() {
+        List<RouteStopDto> stops = randomStops(120, 3L);
+        for (int i = 0; i < stops.size(); i += 13) {
+            stops.get(i).setFixed(true);
+        }
+
+        List<RouteStopDto> result = resequencer(true).resequence(stops, START_LAT, START_LON);
+
+        assertThat(result).containsExactlyInAnyOrderElementsOf(stops);
+        for (int i = 0; i < stops.size(); i += 13) {
+            assertThat(result.get(i)).isSameAs(stops.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Improvement should not increase lateness against time windows")
+    void testTimeWindowsNotWorsened() {
+        Random random = new Random(4L);
+        List<RouteStopDto> stops = randomStops(60, 4L);
+        for (RouteStopDto stop : stops) {
+            int hour = 8 + random.nextInt(8);
+            stop.setTimeWindow(String.format("%02d:00-%02d:00", hour, hour + 1));
+        }
+
+        List<RouteStopDto> nearestNeighbour = resequencer(false).resequence(stops, START_LAT, START_LON);
+        List<RouteStopDto> improved = resequencer(true).resequence(stops, START_LAT, START_LON);
+
+        // Resequencer works on a local projection, lateness here on haversine - 1 % slack for the difference
+        assertThat(lateness(improved)).isLessThanOrEqualTo(lateness(nearestNeighbour) * 1.01 + 1);
+        assertThat(length(improved)).isLessThanOrEqualTo(length(nearestNeighbour));
+    }
+
+    @Test
+    @DisplayName("Long route should be resequenced within the time cap")
+    void testTimeCapHonoured() {
+        List<RouteStopDto> stops = randomStops(3_000, 5L);
+        RouteResequencer resequencer = new RouteResequencer(true, Duration.ofMillis(100), LocalTime.of(8, 0), 300,
+                DistanceMatrix.AVERAGE_SPEED_KMH);
+
+        long started = System.nanoTime();
+        List<RouteStopDto> result = resequencer.resequence(stops, START_LAT, START_LON);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(result).hasSize(stops.size());
+        assertThat(elapsedMillis).isLessThan(1_000);
+    }
+
+    @Test
+    @DisplayName("Time windows should be parsed as seconds of day, over midnight when the end is earlier")
+    void testParseTimeWindow() {
+        assertThat(RouteResequencer.parseTimeWindow("09:00-17:00")).containsExactly(9 * 3600, 17 * 3600);
+        assertThat(RouteResequencer.parseTimeWindow("22:00-02:00")).containsExactly(22 * 3600, 26 * 3600);
+        assertThat(RouteResequencer.parseTimeWindow(null)).isNull();
+        assertThat(RouteResequencer.parseTimeWindow("ASAP")).isNull();
+    }
+
+    // ===== Helpers =====
+
+    private static RouteResequencer resequencer(boolean improve) {
+        return new RouteResequencer(improve, Duration.ofSeconds(5), LocalTime.of(8, 0), 300,
+                DistanceMatrix.AVERAGE_SPEED_KMH);
+    }
+
+    private static List<RouteStopDto> randomStops(int count, long seed) {
+        Random random = new Random(seed);
+        List<RouteStopDto> stops = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stops.add(RouteStopDto.builder()
+                    .stopId("STOP-" + i)
+                    .type("DELIVERY")
+                    .lat(START_LAT + (random.nextDouble() - 0.5) * 0.3)
+                    .lon(START_LON + (random.nextDouble() - 0.5) * 0.45)
+                    .build());
+        }
+        return stops;
+    }
+
+    private static double length(List<RouteStopDto> tour) {
+        return RouteResequencer.tourLengthMeters(tour, START_LAT, START_LON);
+    }
+
+    private static List<RouteStopDto> fullScanNearestNeighbour(List<RouteStopDto> stops) {
+        List<RouteStopDto> tour = new ArrayList<>();
+        List<RouteStopDto> remaining = new ArrayList<>(stops);
+        double lat = START_LAT;
+        double lon = START_LON;
+        while (!remaining.isEmpty()) {
+            RouteStopDto nearest = remaining.get(0);
+            for (RouteStopDto candidate : remaining) {
+                if (DistanceMatrix.haversineMeters(lat, lon, candidate.getLat(), candidate.getLon())
+                        < DistanceMatrix.haversineMeters(lat, lon, nearest.getLat(), nearest.getLon())) {
+                    nearest = candidate;
+                }
+            }
+            tour.add(nearest);
+            remaining.remove(nearest);
+            lat = nearest.getLat();
+            lon = nearest.getLon();
+        }
+        return tour;
+    }
+
+    /**
+     * Total seconds late, same model as the resequencer (haversine at average speed, 5 min service)
+     */
+    private static double lateness(List<RouteStopDto> tour) {
+        double metersPerSecond = DistanceMatrix.AVERAGE_SPEED_KMH * 1000.0 / 3600.0;
+        double time = 8 * 3600;
+        double late = 0;
+        double lat = START_LAT;
+        double lon = START_LON;
+        for (RouteStopDto stop : tour) {
+            time += DistanceMatrix.haversineMeters(lat, lon, stop.getLat(), stop.getLon()) / metersPerSecond;
+            int[] window = RouteResequencer.parseTimeWindow(stop.getTimeWindow());
+            if (time < window[0]) {
+                time = window[0];
+            } else if (time > window[1]) {
+                late += time - window[1];
+            }
+            time += 300;
+            lat = stop.getLat();
+            lon = stop.getLon();
+        }
+        return late;
+    }
+}
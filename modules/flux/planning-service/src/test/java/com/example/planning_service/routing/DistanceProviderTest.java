@@ -0,0 +1,156 @@
+package com.example.planning_service.routing;
+
+import com.example.planning_service.config.RoutingProperties;
+import com.example.planning_service.domain.Location;
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the haversine and offline GraphHopper distance providers.
+ * GraphHopper tests are skipped when routing-data cannot be loaded.
+ */
+@DisplayName("DistanceProvider Tests")
+class DistanceProviderTest {
+
+    private static final HaversineDistanceProvider FALLBACK = new HaversineDistanceProvider(40.0, 1.3);
+
+    private static GraphHopperDistanceProvider graphHopper;
+
+    @BeforeAll
+    static void loadGraph() {
+        try {
+            graphHopper = GraphHopperDistanceProvider.load(new RoutingProperties.GraphHopper(), FALLBACK);
+        } catch (RuntimeException e) {
+            graphHopper = null;
+        }
+    }
+
+    @AfterAll
+    static void closeGraph() {
+        if (graphHopper != null) {
+            graphHopper.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Haversine provider should apply detour factor and speed")
+    void testHaversineProvider() {
+        Location warsaw = location(52.2297, 21.0122);
+        Location lodz = location(51.7592, 19.4560);
+
+        TravelMatrix matrix = FALLBACK.oneToMany(warsaw, List.of(warsaw, lodz));
+
+        double straightLine = DistanceMatrix.haversineMeters(52.2297, 21.0122, 51.7592, 19.4560);
+        assertThat(matrix.rows()).isEqualTo(1);
+        assertThat(matrix.getDistanceMeters(0, 0)).isZero();
+        assertThat(matrix.getDistanceMeters(0, 1)).isCloseTo(Math.round(straightLine * 1.3), within(1L));
+        assertThat(matrix.getDurationSeconds(0, 1))
+                .isCloseTo((int) Math.round(straightLine * 1.3 / (40.0 / 3.6)), within(1));
+    }
+
+    @Test
+    @DisplayName("Road matrix should be complete and not shorter than straight line")
+    void testRoadMatrixIsComplete() {
+        assumeTrue(graphHopper != null, "routing-data graph not available");
+        List<Location> points = randomPoints(40, 11L);
+
+        TravelMatrix matrix = graphHopper.manyToMany(points, points);
+
+        for (int from = 0; from < points.size(); from++) {
+            assertThat(matrix.getDistanceMeters(from, from)).isZero();
+            for (int to = 0; to < points.size(); to++) {
+                if (from == to) {
+                    continue;
+                }
+                // Snapping may move each point onto the nearest road, hence the tolerance
+                double straightLine = points.get(from).straightLineDistanceKm(points.get(to)) * 1000;
+                assertThat(matrix.getDistanceMeters(from, to)).isGreaterThanOrEqualTo((long) (straightLine * 0.9));
+                assertThat(matrix.getDurationSeconds(from, to)).isPositive();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("One-to-many should equal the matching many-to-many row")
+    void testOneToManyMatchesManyToManyRow() {
+        assumeTrue(graphHopper != null, "routing-data graph not available");
+        List<Location> points = randomPoints(25, 5L);
+
+        TravelMatrix full = graphHopper.manyToMany(points, points);
+        TravelMatrix row = graphHopper.oneToMany(points.get(3), points);
+
+        for (int to = 0; to < points.size(); to++) {
+            assertThat(row.getDistanceMeters(0, to)).isEqualTo(full.getDistanceMeters(3, to));
+            assertThat(row.getDurationSeconds(0, to)).isEqualTo(full.getDurationSeconds(3, to));
+        }
+    }
+
+    @Test
+    @DisplayName("Legs should equal the consecutive cells of the haversine matrix")
+    void testHaversineLegs() {
+        List<Location> points = randomPoints(6, 3L);
+
+        TravelMatrix full = FALLBACK.manyToMany(points, points);
+        TravelMatrix legs = FALLBACK.legs(points);
+
+        assertThat(legs.rows()).isEqualTo(1);
+        assertThat(legs.columns()).isEqualTo(5);
+        for (int leg = 0; leg < 5; leg++) {
+            assertThat(legs.getDistanceMeters(0, leg)).isEqualTo(full.getDistanceMeters(leg, leg + 1));
+            assertThat(legs.getDurationSeconds(0, leg)).isEqualTo(full.getDurationSeconds(leg, leg + 1));
+        }
+        assertThat(FALLBACK.legs(points.subList(0, 1)).columns()).isZero();
+    }
+
+    @Test
+    @DisplayName("Road legs (CH per pair) should match the tree-based matrix cells")
+    void testRoadLegsMatchMatrix() {
+        assumeTrue(graphHopper != null, "routing-data graph not available");
+        List<Location> points = randomPoints(20, 9L);
+
+        TravelMatrix full = graphHopper.manyToMany(points, points);
+        TravelMatrix legs = graphHopper.legs(points);
+
+        for (int leg = 0; leg < points.size() - 1; leg++) {
+            // Equal-weight paths may differ in length, travel time is what both minimise
+            assertThat(legs.getDurationSeconds(0, leg)).isCloseTo(full.getDurationSeconds(leg, leg + 1), within(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Locations outside the extract should fall back to haversine")
+    void testOutsideExtractFallsBack() {
+        assumeTrue(graphHopper != null, "routing-data graph not available");
+        Location atlantic = location(45.0, -30.0);
+        Location warsaw = location(52.2297, 21.0122);
+
+        TravelMatrix matrix = graphHopper.oneToMany(atlantic, List.of(warsaw));
+        TravelMatrix expected = FALLBACK.oneToMany(atlantic, List.of(warsaw));
+
+        assertThat(matrix.getDistanceMeters(0, 0)).isEqualTo(expected.getDistanceMeters(0, 0));
+    }
+
+    private static List<Location> randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<Location> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(location(52.2297 + (random.nextDouble() - 0.5) * 0.3,
+                    21.0122 + (random.nextDouble() - 0.5) * 0.5));
+        }
+        return points;
+    }
+
+    private static Location location(double latitude, double longitude) {
+        return Location.builder().latitude(latitude).longitude(longitude).build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.planning_service.service;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import com.example.planning_service.config.GatekeeperProperties;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import com.example.planning_service.dto.GatekeeperApprovalRequestDto;
+import com.example.planning_service.dto.GatekeeperApprovalResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for Gatekeeper proposals: a registered plan is applied only on the
+ * dispatcher's approval, at most once, and never when it went stale.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GatekeeperService Tests")
+class GatekeeperServiceTest {
+
+    @Mock
+    private GatekeeperVerdictDispatcher verdictDispatcher;
+
+    private GatekeeperService gatekeeperService;
+
+    @BeforeEach
+    void setUp() {
+        gatekeeperService = new GatekeeperService(new GatekeeperProperties(), verdictDispatcher);
+    }
+
+    @Test
+    @DisplayName("Proposal should always require approval under its registered ID")
+    void testProposalForcesApproval() {
+        VehicleRoutingSolution proposal = solution("replan-1", -1_000);
+        String approvalId = gatekeeperService.registerProposal(proposal, () -> true);
+
+        GatekeeperService.SafetyReport report = gatekeeperService.validateSolution(proposal,
+                solution("opt-0", -1_000), approvalId);
+
+        assertThat(report.isRequiresApproval()).isTrue();
+        assertThat(report.getApprovalId()).isEqualTo(approvalId);
+        verify(verdictDispatcher).submit(argThat(request -> approvalId.equals(request.approvalId())));
+    }
+
+    @Test
+    @DisplayName("Approved proposal should be applied exactly once")
+    void testApprovedProposalApplied() {
+        AtomicInteger applied = new AtomicInteger();
+        String approvalId = gatekeeperService.registerProposal(solution("replan-1", -1_000), () -> {
+            applied.incrementAndGet();
+            return true;
+        });
+
+        GatekeeperApprovalResponseDto first = gatekeeperService.processApproval(decision(approvalId, true));
+        gatekeeperService.processApproval(decision(approvalId, true));
+
+        assertThat(first.isApproved()).isTrue();
+        assertThat(applied).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Rejected proposal should be dropped without applying it")
+    void testRejectedProposalDropped() {
+        AtomicInteger applied = new AtomicInteger();
+        String approvalId = gatekeeperService.registerProposal(solution("replan-1", -1_000), () -> {
+            applied.incrementAndGet();
+            return true;
+        });
+
+        GatekeeperApprovalResponseDto rejected = gatekeeperService.processApproval(decision(approvalId, false));
+        gatekeeperService.processApproval(decision(approvalId, true));
+
+        assertThat(rejected.isApproved()).isFalse();
+        assertThat(applied).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Stale proposal should be reported as not approved")
+    void testStaleProposalNotApplied() {
+        String approvalId = gatekeeperService.registerProposal(solution("replan-1", -1_000), () -> false);
+
+        GatekeeperApprovalResponseDto response = gatekeeperService.processApproval(decision(approvalId, true));
+
+        assertThat(response.isApproved()).isFalse();
+        assertThat(response.getMessage()).contains("nieaktualna");
+    }
+
+    @Test
+    @DisplayName("Approving an expired or unknown proposal should be reported as not approved")
+    void testUnknownProposalNotApproved() {
+        String approvalId = gatekeeperService.registerProposal(solution("replan-1", -1_000), () -> true);
+        gatekeeperService.processApproval(decision(approvalId, false));
+
+        GatekeeperApprovalResponseDto response = gatekeeperService.processApproval(decision(approvalId, true));
+
+        assertThat(response.isApproved()).isFalse();
+        assertThat(response.getMessage()).contains("wygasła");
+    }
+
+    @Test
+    @DisplayName("Regular solution approval should not need a registered proposal")
+    void testRegularApprovalStillApproved() {
+        GatekeeperApprovalResponseDto response = gatekeeperService.processApproval(decision("GK-opt-1-1", true));
+
+        assertThat(response.isApproved()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Proposals of the same solution should get distinct approval IDs")
+    void testDistinctApprovalIds() {
+        VehicleRoutingSolution proposal = solution("replan-1", -1_000);
+
+        assertThat(gatekeeperService.registerProposal(proposal, () -> true))
+                .isNotEqualTo(gatekeeperService.registerProposal(proposal, () -> true));
+    }
+
+    // ===== Helpers =====
+
+    private static GatekeeperApprovalRequestDto decision(String approvalId, boolean approved) {
+        return GatekeeperApprovalRequestDto.builder()
+                .approvalId(approvalId)
+                .approved(approved)
+                .build();
+    }
+
+    private static VehicleRoutingSolution solution(String optimizationId, long softScore) {
+        VehicleRoutingSolution solution = new VehicleRoutingSolution();
+        solution.setOptimizationId(optimizationId);
+        solution.setVehicles(new ArrayList<>());
+        solution.setStops(new ArrayList<>());
+        solution.setScore(HardSoftLongScore.of(0, softScore));
+        return solution;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.planning_service.service;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import com.example.planning_service.config.GatekeeperProperties;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import com.example.planning_service.dto.GatekeeperVerdictDto;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the asynchronous Gatekeeper verdict pipeline against a local n8n
+ * webhook stub with artificial latency: validation never waits for the
+ * webhook, timeouts / 5xx are retried, repeated requests of one optimization
+ * are deduplicated and a full queue falls back at once.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GatekeeperVerdictDispatcher Tests")
+class GatekeeperVerdictDispatcherTest {
+
+    private static final long VERDICT_WAIT_MILLIS = 5_000;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private HttpServer webhookStub;
+    private final AtomicInteger webhookCalls = new AtomicInteger();
+    private final Queue<Integer> stubStatuses = new ConcurrentLinkedQueue<>();
+    private volatile long stubLatencyMillis;
+
+    private GatekeeperProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private GatekeeperVerdictDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        webhookStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        webhookStub.createContext("/webhook/gatekeeper", exchange -> {
+            webhookCalls.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(stubLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Integer status = stubStatuses.poll();
+            byte[] body = "{\"justification\":\"Uzasadnienie AI\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try {
+                if (status != null && status != 200) {
+                    exchange.sendResponseHeaders(status, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            } catch (IOException e) {
+                // client already timed out
+            } finally {
+                exchange.close();
+            }
+        });
+        webhookStub.setExecutor(Executors.newCachedThreadPool());
+        webhookStub.start();
+
+        properties = new GatekeeperProperties();
+        properties.getN8n().getWebhook()
+                .setUrl("http://127.0.0.1:" + webhookStub.getAddress().getPort() + "/webhook/gatekeeper");
+        properties.getVerdict().setReadTimeoutMillis(1_000);
+        properties.getVerdict().setInitialBackoffMillis(20);
+        properties.getVerdict().setMaxBackoffMillis(50);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+        webhookStub.stop(0);
+    }
+
+    @Test
+    @DisplayName("Validation should return at once and the justification arrive later as a verdict")
+    void testValidationDoesNotWaitForWebhook() {
+        stubLatencyMillis = 800;
+        GatekeeperService gatekeeperService = new GatekeeperService(properties, dispatcher());
+
+        long started = System.nanoTime();
+        GatekeeperService.SafetyReport report = gatekeeperService.validateSolution(
+                solution("opt-1", -500), solution("opt-0", -1_000));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(stubLatencyMillis / 2);
+        assertThat(report.isRequiresApproval()).isTrue();
+        assertThat(report.getApprovalId()).isNotNull();
+        assertThat(report.getJustification()).isNull();
+
+        GatekeeperVerdictDto verdict = verdicts(1).get(0);
+        assertThat(verdict.getApprovalId()).isEqualTo(report.getApprovalId());
+        assertThat(verdict.getJustification()).isEqualTo("Uzasadnienie AI");
+        assertThat(verdict.getSource()).isEqualTo("WEBHOOK");
+    }
+
+    @Test
+    @DisplayName("Webhook slower than the read timeout should be retried, then fall back")
+    void testTimeoutRetriedThenFallback() {
+        stubLatencyMillis = 600;
+        properties.getVerdict().setReadTimeoutMillis(100);
+        properties.getVerdict().setMaxAttempts(3);
+
+        dispatcher().submit(request("opt-1", "GK-1", 35.0));
+
+        GatekeeperVerdictDto verdict = verdicts(1).get(0);
+        assertThat(verdict.getSource()).isEqualTo("FALLBACK");
+        assertThat(verdict.getJustification()).contains("Wymagana ręczna weryfikacja");
+        assertThat(webhookCalls).hasValue(3);
+        assertThat(meterRegistry.counter("gatekeeper.webhook.retries", "service", "planning").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Server errors should be retried until the webhook answers")
+    void testServerErrorRetried() {
+        stubLatencyMillis = 50;
+        stubStatuses.add(503);
+        stubStatuses.add(500);
+
+        dispatcher().submit(request("opt-1", "GK-1", 35.0));
+
+        GatekeeperVerdictDto verdict = verdicts(1).get(0);
+        assertThat(verdict.getSource()).isEqualTo("WEBHOOK");
+        assertThat(webhookCalls).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Repeated requests of one optimization should call the webhook once")
+    void testRepeatedRequestsDeduplicated() {
+        stubLatencyMillis = 300;
+        GatekeeperVerdictDispatcher dispatcher = dispatcher();
+
+        dispatcher.submit(request("opt-1", "GK-1", 35.01));
+        awaitWebhookCalls(1); // first request in flight
+        for (int i = 2; i <= 10; i++) {
+            dispatcher.submit(request("opt-1", "GK-" + i, 35.0 + i * 0.01)); // same rounded change
+        }
+
+        List<GatekeeperVerdictDto> verdicts = verdicts(2);
+        assertThat(verdicts).extracting(GatekeeperVerdictDto::getApprovalId).containsExactly("GK-1", "GK-10");
+        assertThat(verdicts).extracting(GatekeeperVerdictDto::getSource).containsExactly("WEBHOOK", "CACHED");
+        assertThat(webhookCalls).hasValue(1);
+        assertThat(meterRegistry.counter("gatekeeper.verdict.skipped", "reason", "superseded", "service", "planning")
+                .count()).isEqualTo(8);
+
+        // Known change later on - answered from the cache, without a webhook call
+        dispatcher.submit(request("opt-1", "GK-11", 35.2));
+        assertThat(verdicts(3).get(2).getSource()).isEqualTo("CACHED");
+        assertThat(webhookCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Full verdict queue should fall back at once instead of blocking the caller")
+    void testFullQueueFallsBack() {
+        stubLatencyMillis = 500;
+        properties.getVerdict().setThreads(1);
+        properties.getVerdict().setQueueCapacity(1);
+        GatekeeperVerdictDispatcher dispatcher = dispatcher();
+
+        dispatcher.submit(request("opt-1", "GK-1", 35.0)); // running
+        dispatcher.submit(request("opt-2", "GK-2", 35.0)); // queued
+        long started = System.nanoTime();
+        dispatcher.submit(request("opt-3", "GK-3", 35.0)); // rejected
+        assertThat((System.nanoTime() - started) / 1_000_000).isLessThan(stubLatencyMillis / 2);
+
+        List<GatekeeperVerdictDto> verdicts = verdicts(3);
+        assertThat(verdicts.get(0).getApprovalId()).isEqualTo("GK-3");
+        assertThat(verdicts.get(0).getSource()).isEqualTo("FALLBACK");
+        assertThat(verdicts).extracting(GatekeeperVerdictDto::getApprovalId).containsExactly("GK-3", "GK-1", "GK-2");
+    }
+
+    // ===== Helpers =====
+
+    private GatekeeperVerdictDispatcher dispatcher() {
+        dispatcher = new GatekeeperVerdictDispatcher(messagingTemplate, properties,
+                new OptimizationMetrics(meterRegistry));
+        return dispatcher;
+    }
+
+    private List<GatekeeperVerdictDto> verdicts(int expected) {
+        // Wait first, capture after - a captor inside a timeout verification collects duplicates
+        verify(messagingTemplate, timeout(VERDICT_WAIT_MILLIS).times(expected))
+                .convertAndSend(eq(GatekeeperVerdictDispatcher.TOPIC), any(GatekeeperVerdictDto.class));
+        ArgumentCaptor<GatekeeperVerdictDto> captor = ArgumentCaptor.forClass(GatekeeperVerdictDto.class);
+        verify(messagingTemplate, times(expected))
+                .convertAndSend(eq(GatekeeperVerdictDispatcher.TOPIC), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private void awaitWebhookCalls(int expected) {
+        long deadline = System.nanoTime() + VERDICT_WAIT_MILLIS * 1_000_000;
+        while (webhookCalls.get() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(webhookCalls).hasValue(expected);
+    }
+
+    private static GatekeeperVerdictDispatcher.VerdictRequest request(String optimizationId, String approvalId,
+            double scoreChangePercent) {
+        return new GatekeeperVerdictDispatcher.VerdictRequest(optimizationId, approvalId, scoreChangePercent,
+                List.of("Znacząca zmiana wyniku"), 4, 60, "0hard/-1000soft", "0hard/-1350soft", System.nanoTime());
+    }
+
+    private static VehicleRoutingSolution solution(String optimizationId, long softScore) {
+        VehicleRoutingSolution solution = new VehicleRoutingSolution();
+        solution.setOptimizationId(optimizationId);
+        solution.setVehicles(new ArrayList<>());
+        solution.setStops(new ArrayList<>());
+        solution.setScore(HardSoftLongScore.of(0, softScore));
+        return solution;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.GoogleMapsProperties;
+import com.example.planning_service.domain.Location;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit tests for the per-cell distance matrix cache in GoogleMapsDistanceService.
+ * The Distance Matrix API is stubbed with MockRestServiceServer; every stubbed
+ * cell is the straight-line distance so results can be compared across calls.
+ */
+@DisplayName("GoogleMapsDistanceService Tests")
+class GoogleMapsDistanceServiceTest {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2026, 1, 5, 23, 0);
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger requestedCells = new AtomicInteger();
+
+    private GoogleMapsDistanceService service;
+    private DistanceCellCache cellCache;
+
+    @BeforeEach
+    void setUp() {
+        GoogleMapsProperties properties = new GoogleMapsProperties();
+        properties.setEnabled(true);
+        properties.setApiKey("test-key");
+
+        RestClient.Builder builder = RestClient.builder();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+        server.expect(ExpectedCount.manyTimes(), method(org.springframework.http.HttpMethod.GET))
+                .andRespond(request -> withSuccess(stubResponse(request.getURI()), MediaType.APPLICATION_JSON)
+                        .createResponse(request));
+
+        cellCache = new DistanceCellCache(new ConcurrentMapCacheManager(DistanceCellCache.CACHE_NAME),
+                properties, new SimpleMeterRegistry());
+        service = new GoogleMapsDistanceService(properties, builder.build(), new ObjectMapper(), cellCache);
+    }
+
+    @Test
+    @DisplayName("Repeated request should be served entirely from cache")
+    void testRepeatedRequestIsCached() {
+        List<Location> locations = locations(4);
+
+        GoogleMapsDistanceService.DistanceMatrixResult first = service.getDistanceMatrix(locations, locations,
+                DEPARTURE);
+        int cellsAfterFirst = requestedCells.get();
+        GoogleMapsDistanceService.DistanceMatrixResult second = service.getDistanceMatrix(locations, locations,
+                DEPARTURE.plusMinutes(5));
+
+        assertThat(cellsAfterFirst).isEqualTo(16);
+        assertThat(requestedCells.get()).isEqualTo(16);
+        assertThat(second.getDistancesMeters()).isDeepEqualTo(first.getDistancesMeters());
+        assertThat(second.isTrafficAware()).isTrue();
+        assertThat(cellCache.hitRatio()).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Adding one location should only fetch its row and column")
+    void testOnlyMissingCellsAreFetched() {
+        List<Location> locations = locations(5);
+        service.getDistanceMatrix(locations, locations, DEPARTURE);
+        requestedCells.set(0);
+
+        List<Location> extended = new ArrayList<>(locations);
+        extended.add(2, location(52.30, 21.10));
+        GoogleMapsDistanceService.DistanceMatrixResult result = service.getDistanceMatrix(extended, extended,
+                DEPARTURE);
+
+        // Row of the new location (6 cells) + its column for the 5 known origins
+        assertThat(requestedCells.get()).isEqualTo(11);
+        for (int i = 0; i < extended.size(); i++) {
+            for (int j = 0; j < extended.size(); j++) {
+                assertThat(result.getDistancesMeters()[i][j])
+                        .isEqualTo(Math.round(extended.get(i).straightLineDistanceKm(extended.get(j)) * 1000));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Different departure bucket should not reuse cells")
+    void testDepartureBucketIsPartOfKey() {
+        List<Location> locations = locations(3);
+
+        service.getDistanceMatrix(locations, locations, DEPARTURE);
+        service.getDistanceMatrix(locations, locations, DEPARTURE.plusHours(2));
+
+        assertThat(requestedCells.get()).isEqualTo(18);
+    }
+
+    @Test
+    @DisplayName("Large matrices should be split into requests within the element limit")
+    void testLargeMatrixIsTiled() {
+        List<Location> origins = locations(30);
+        List<Location> destinations = locations(12);
+
+        service.getDistanceMatrix(origins, destinations, DEPARTURE);
+
+        assertThat(requestedCells.get()).isEqualTo(360);
+        assertThat(requests.get()).isEqualTo(4); // 30 origins / 8 per tile, 12 destinations per tile
+    }
+
+    private String stubResponse(URI uri) {
+        var params = UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+        List<Location> origins = parse(params.getFirst("origins"));
+        List<Location> destinations = parse(params.getFirst("destinations"));
+        requests.incrementAndGet();
+        requestedCells.addAndGet(origins.size() * destinations.size());
+
+        StringBuilder json = new StringBuilder("{\"status\":\"OK\",\"rows\":[");
+        for (int i = 0; i < origins.size(); i++) {
+            json.append(i > 0 ? "," : "").append("{\"elements\":[");
+            for (int j = 0; j < destinations.size(); j++) {
+                long meters = Math.round(origins.get(i).straightLineDistanceKm(destinations.get(j)) * 1000);
+                json.append(j > 0 ? "," : "")
+                        .append("{\"status\":\"OK\",\"distance\":{\"value\":").append(meters)
+                        .append("},\"duration\":{\"value\":").append(meters / 10).append("}}");
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static List<Location> parse(String param) {
+        List<Location> parsed = new ArrayList<>();
+        for (String point : URLDecoder.decode(param, StandardCharsets.UTF_8).split("\\|")) {
+            String[] latLon = point.split(",");
+            parsed.add(location(Double.parseDouble(latLon[0]), Double.parseDouble(latLon[1])));
+        }
+        return parsed;
+    }
+
+    private static List<Location> locations(int count) {
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            locations.add(location(52.2 + i * 0.01, 21.0 + i * 0.013));
+        }
+        return locations;
+    }
+
+    private static Location location(double latitude, double longitude) {
+        return Location.builder().latitude(latitude).longitude(longitude).build();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.domain.HubConfiguration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for HubService / HubIndex: indexed lookups must match the linear
+ * catchment scan + nearest-hub fallback, snapshot is built once, and the hubs
+ * file is hot reloaded only when it changes.
+ */
+@DisplayName("HubService Tests")
+class HubServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Indexed lookups should match the linear scan for random hubs and points")
+    void testIndexMatchesLinearScan() {
+        AutoPlanProperties properties = new AutoPlanProperties();
+        properties.setHubs(randomHubConfigs(200, 42L));
+        HubService hubService = new HubService(properties);
+        List<HubConfiguration> activeHubs = hubService.getActiveHubs();
+
+        Random random = new Random(7L);
+        for (int i = 0; i < 20_000; i++) {
+            // Slightly larger box than the hubs so the nearest-hub fallback is exercised too
+            double lat = 48.0 + random.nextDouble() * 8.0;
+            double lon = 13.0 + random.nextDouble() * 12.0;
+
+            assertThat(hubService.findHubForLocation(lat, lon))
+                    .as("hub for (%s, %s)", lat, lon)
+                    .isEqualTo(linearHubForLocation(activeHubs, lat, lon));
+        }
+    }
+
+    @Test
+    @DisplayName("Overlapping catchments should resolve to the first hub in configuration order")
+    void testOverlappingCatchmentsKeepConfigOrder() {
+        HubIndex index = HubIndex.build(List.of(
+                hub("FIRST", 52.0, 21.0, 50),
+                hub("SECOND", 52.0, 21.0, 80)));
+
+        assertThat(index.findInCatchment(52.1, 21.1)).map(HubConfiguration::getId).contains("FIRST");
+        assertThat(index.findInCatchment(52.6, 21.0)).map(HubConfiguration::getId).contains("SECOND");
+    }
+
+    @Test
+    @DisplayName("Catchments crossing the antimeridian or a pole should still be found")
+    void testAntimeridianAndPole() {
+        HubIndex index = HubIndex.build(List.of(
+                hub("FIJI", -17.0, 179.9, 50),
+                hub("POLE", 89.9, 0.0, 50)));
+
+        assertThat(index.findInCatchment(-17.0, -179.9)).map(HubConfiguration::getId).contains("FIJI");
+        assertThat(index.findInCatchment(89.9, 120.0)).map(HubConfiguration::getId).contains("POLE");
+        assertThat(index.findNearest(-16.0, -179.0)).map(HubConfiguration::getId).contains("FIJI");
+    }
+
+    @Test
+    @DisplayName("Hub snapshot should be built once and shared between calls")
+    void testSnapshotReused() {
+        AutoPlanProperties properties = new AutoPlanProperties();
+        properties.setHubs(randomHubConfigs(10, 1L));
+        HubService hubService = new HubService(properties);
+
+        assertThat(hubService.getActiveHubs()).isSameAs(hubService.getActiveHubs());
+        assertThat(hubService.reloadIfChanged()).isFalse();
+        assertThatThrownBy(() -> hubService.getAllHubs().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Hubs file should be hot reloaded only when it changes, broken file keeps the old index")
+    void testHubsFileHotReload() throws IOException {
+        Path hubsFile = tempDir.resolve("hubs.yml");
+        writeHubs(hubsFile, 1_000, "HUB_WAW");
+        AutoPlanProperties properties = new AutoPlanProperties();
+        properties.setHubsFile(hubsFile.toString());
+        HubService hubService = new HubService(properties);
+
+        assertThat(hubService.getAllHubs()).extracting(HubConfiguration::getId).containsExactly("HUB_WAW");
+        assertThat(hubService.reloadIfChanged()).isFalse();
+
+        writeHubs(hubsFile, 2_000, "HUB_WAW", "HUB_KRK");
+        assertThat(hubService.reloadIfChanged()).isTrue();
+        assertThat(hubService.getAllHubs()).extracting(HubConfiguration::getId).containsExactly("HUB_WAW", "HUB_KRK");
+        assertThat(hubService.getHubById("HUB_KRK")).isPresent();
+
+        Files.writeString(hubsFile, "auto-plan:\n  hubs: [ {{{ not yaml");
+        Files.setLastModifiedTime(hubsFile, FileTime.fromMillis(3_000));
+        assertThat(hubService.reloadIfChanged()).isFalse();
+        assertThat(hubService.getAllHubs()).extracting(HubConfiguration::getId).containsExactly("HUB_WAW", "HUB_KRK");
+    }
+
+    // ===== Helpers =====
+
+    static List<AutoPlanProperties.HubConfig> randomHubConfigs(int count, long seed) {
+        Random random = new Random(seed);
+        List<AutoPlanProperties.HubConfig> hubs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AutoPlanProperties.HubConfig.LocationConfig location = new AutoPlanProperties.HubConfig.LocationConfig();
+            location.setLat(49.0 + random.nextDouble() * 5.8);
+            location.setLon(14.1 + random.nextDouble() * 10.0);
+            AutoPlanProperties.HubConfig hub = new AutoPlanProperties.HubConfig();
+            hub.setId("HUB_" + i);
+            hub.setName("Hub " + i);
+            hub.setLocation(location);
+            hub.setCatchmentRadiusKm(5 + random.nextInt(56));
+            hubs.add(hub);
+        }
+        return hubs;
+    }
+
+    /**
+     * Reference implementation: linear catchment scan, then linear nearest hub
+     */
+    static Optional<HubConfiguration> linearHubForLocation(List<HubConfiguration> activeHubs, double lat, double lon) {
+        HubConfiguration.Location point = HubConfiguration.Location.builder().latitude(lat).longitude(lon).build();
+        Optional<HubConfiguration> inCatchment = activeHubs.stream()
+                .filter(hub -> hub.isWithinCatchmentArea(point))
+                .findFirst();
+        if (inCatchment.isPresent()) {
+            return inCatchment;
+        }
+        return activeHubs.stream().min(Comparator.comparingDouble(hub -> hub.getLocation().distanceToKm(point)));
+    }
+
+    private static HubConfiguration hub(String id, double lat, double lon, double radiusKm) {
+        return HubConfiguration.builder()
+                .id(id)
+                .active(true)
+                .maxVehicles(16)
+                .catchmentRadiusKm(radiusKm)
+                .location(HubConfiguration.Location.builder().latitude(lat).longitude(lon).build())
+                .build();
+    }
+
+    private static void writeHubs(Path file, long modifiedMillis, String... hubIds) throws IOException {
+        StringBuilder yaml = new StringBuilder("auto-plan:\n  hubs:\n");
+        for (int i = 0; i < hubIds.length; i++) {
+            yaml.append("    - id: ").append(hubIds[i]).append('\n')
+                    .append("      name: ").append(hubIds[i]).append('\n')
+                    .append("      type: MAIN_HUB\n")
+                    .append("      catchment-radius-km: 50\n")
+                    .append("      location:\n")
+                    .append("        lat: ").append(52.0 - i).append('\n')
+                    .append("        lon: ").append(21.0 - i).append('\n');
+        }
+        Files.writeString(file, yaml);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.entity.FleetVehicleEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for HubVehicleAllocator: home hub placement, demand-proportional
+ * distribution, nearest-first rebalancing and the one-vehicle minimum.
+ * Hubs: WAW (Warszawa), LDZ (Łódź, ~120 km), GDA (Gdańsk, ~280 km).
+ */
+@DisplayName("HubVehicleAllocator Tests")
+class HubVehicleAllocatorTest {
+
+    private final HubVehicleAllocator allocator = new HubVehicleAllocator();
+
+    private final List<HubConfiguration> hubs = List.of(
+            hub("WAW", 52.23, 21.01),
+            hub("LDZ", 51.76, 19.46),
+            hub("GDA", 54.35, 18.65));
+
+    @Test
+    @DisplayName("Vehicles should stay in their home hub when demand matches")
+    void testHomeHub() {
+        List<FleetVehicleEntity> vehicles = List.of(vehicle("WAW"), vehicle("LDZ"), vehicle("GDA"));
+
+        HubVehicleAllocator.Allocation allocation = allocator.allocate(hubs,
+                Map.of("WAW", 10, "LDZ", 10, "GDA", 10), vehicles);
+
+        assertThat(allocation.vehiclesByHub().get("WAW")).containsExactly(vehicles.get(0));
+        assertThat(allocation.vehiclesByHub().get("LDZ")).containsExactly(vehicles.get(1));
+        assertThat(allocation.vehiclesByHub().get("GDA")).containsExactly(vehicles.get(2));
+        assertThat(allocation.loans()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Vehicles without home hub should follow demand share")
+    void testDemandDistribution() {
+        List<FleetVehicleEntity> vehicles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            vehicles.add(vehicle(null));
+        }
+
+        HubVehicleAllocator.Allocation allocation = allocator.allocate(hubs,
+                Map.of("WAW", 600, "LDZ", 300, "GDA", 100), vehicles);
+
+        assertThat(allocation.vehiclesByHub().get("WAW")).hasSize(6);
+        assertThat(allocation.vehiclesByHub().get("LDZ")).hasSize(3);
+        assertThat(allocation.vehiclesByHub().get("GDA")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Starved hub should borrow idle vehicles from the nearest hub first")
+    void testRebalanceNearestFirst() {
+        List<FleetVehicleEntity> vehicles = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            vehicles.add(vehicle("LDZ"));
+            vehicles.add(vehicle("GDA"));
+        }
+
+        // WAW has all the orders; LDZ (nearer) lends before GDA
+        HubVehicleAllocator.Allocation allocation = allocator.allocate(hubs,
+                Map.of("WAW", 300, "LDZ", 100), vehicles);
+
+        assertThat(allocation.vehiclesByHub().get("WAW")).hasSize(6);
+        assertThat(allocation.vehiclesByHub().get("LDZ")).hasSize(2);
+        assertThat(allocation.vehiclesByHub().get("GDA")).isEmpty();
+        assertThat(allocation.loans()).hasSize(6);
+        assertThat(allocation.loans()).filteredOn(loan -> loan.fromHubId().equals("GDA")).hasSize(4);
+        assertThat(allocation.loans()).allSatisfy(loan -> assertThat(loan.toHubId()).isEqualTo("WAW"));
+    }
+
+    @Test
+    @DisplayName("Hub with orders and no vehicles should always get at least one")
+    void testZeroVehicleHubGetsOne() {
+        List<FleetVehicleEntity> vehicles = List.of(vehicle("WAW"), vehicle("WAW"), vehicle("WAW"));
+
+        HubVehicleAllocator.Allocation allocation = allocator.allocate(hubs,
+                Map.of("WAW", 1_000, "GDA", 1), vehicles);
+
+        assertThat(allocation.vehiclesByHub().get("GDA")).hasSize(1);
+        assertThat(allocation.vehiclesByHub().get("WAW")).hasSize(2);
+        assertThat(allocation.loans()).containsExactly(new HubVehicleAllocator.Loan(
+                allocation.vehiclesByHub().get("GDA").get(0).getId(), "WAW", "GDA"));
+    }
+
+    @Test
+    @DisplayName("No hubs should yield an empty allocation")
+    void testNoHubs() {
+        HubVehicleAllocator.Allocation allocation = allocator.allocate(List.of(), Map.of(), List.of(vehicle(null)));
+
+        assertThat(allocation.vehiclesByHub()).isEmpty();
+        assertThat(allocation.loans()).isEmpty();
+    }
+
+    private static HubConfiguration hub(String id, double lat, double lon) {
+        return HubConfiguration.builder()
+                .id(id)
+                .active(true)
+                .catchmentRadiusKm(50)
+                .location(HubConfiguration.Location.builder().latitude(lat).longitude(lon).build())
+                .build();
+    }
+
+    private static FleetVehicleEntity vehicle(String homeHubId) {
+        return FleetVehicleEntity.builder()
+                .id(UUID.randomUUID())
+                .homeHubId(homeHubId)
+                .build();
+    }
+}
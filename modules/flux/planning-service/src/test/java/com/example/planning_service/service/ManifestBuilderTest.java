@@ -0,0 +1,104 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.entity.ManifestEntity;
+import com.example.planning_service.entity.ManifestRouteEntity;
+import com.example.planning_service.entity.ManifestStatus;
+import com.example.planning_service.optimization.VrpOptimizerService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for ManifestBuilder: sequence from activity order (duplicates
+ * included), real time windows with the vehicle shift as fallback, and the
+ * same address / time text the String.format based mapping produced.
+ */
+@DisplayName("ManifestBuilder Tests")
+class ManifestBuilderTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Warsaw");
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 5);
+
+    private final ManifestBuilder builder = new ManifestBuilder(ZONE,
+            ManifestBuilder.shiftWindow(LocalTime.of(8, 0), LocalTime.of(18, 0)));
+
+    @Test
+    @DisplayName("Routes should be numbered in activity order, also for repeated orders")
+    void testSequenceInActivityOrder() {
+        UUID repeated = UUID.randomUUID();
+        List<VrpOptimizerService.VehicleRoutingSolution.Activity> activities = new ArrayList<>();
+        activities.add(activity(repeated, 52.1, 21.0, at(9, 15), null, null));
+        activities.add(activity(UUID.randomUUID(), 52.2, 21.1, at(9, 40), null, null));
+        activities.add(activity(repeated, 52.1, 21.0, at(10, 5), null, null)); // equal record - indexOf gave 1
+
+        ManifestEntity manifest = builder.build(route(activities), DATE);
+
+        assertThat(manifest.getStatus()).isEqualTo(ManifestStatus.DRAFT);
+        assertThat(manifest.getRoutes()).extracting(ManifestRouteEntity::getSequence).containsExactly(1, 2, 3);
+        assertThat(manifest.getRoutes()).extracting(ManifestRouteEntity::getManifest).containsOnly(manifest);
+        assertThat(manifest.getRoutes()).extracting(ManifestRouteEntity::getEstimatedArrival)
+                .containsExactly("09:15", "09:40", "10:05");
+    }
+
+    @Test
+    @DisplayName("Time window should come from the activity, open sides from the vehicle shift")
+    void testTimeWindowFromSolution() {
+        List<VrpOptimizerService.VehicleRoutingSolution.Activity> activities = List.of(
+                activity(UUID.randomUUID(), 52.1, 21.0, at(10, 0), at(10, 0), at(12, 30)),
+                activity(UUID.randomUUID(), 52.1, 21.0, at(11, 0), null, at(14, 0)),
+                activity(UUID.randomUUID(), 52.1, 21.0, at(12, 0), at(9, 0), null),
+                activity(UUID.randomUUID(), 52.1, 21.0, at(13, 0), null, null));
+
+        ManifestEntity manifest = builder.build(route(activities), DATE);
+
+        assertThat(manifest.getRoutes()).extracting(ManifestRouteEntity::getTimeWindow)
+                .containsExactly("10:00-12:30", "08:00-14:00", "09:00-18:00", "08:00-18:00");
+    }
+
+    @Test
+    @DisplayName("Address should match the previous \"%.6f, %.6f\" text")
+    void testAddressFormat() {
+        double[][] points = { { 52.2297, 21.0122 }, { -33.8688, 151.2093 }, { 0.0000004, -0.5 },
+                { 52.1234565, 21.0000001 }, { 7, -120.000999 }, { -0.0000004, 18.0 } };
+        StringBuilder text = new StringBuilder();
+        for (double[] point : points) {
+            assertThat(ManifestBuilder.formatAddress(text, point[0], point[1]))
+                    .isEqualTo(String.format(Locale.ROOT, "%.6f, %.6f", point[0], point[1]));
+        }
+    }
+
+    @Test
+    @DisplayName("External reference should keep the MAN-yyyyMMdd-XXXX format")
+    void testExternalReference() {
+        UUID vehicleId = UUID.fromString("abcd1234-0000-0000-0000-000000000000");
+
+        assertThat(ManifestBuilder.externalReference(DATE, vehicleId)).isEqualTo("MAN-20260105-ABCD");
+    }
+
+    private static VrpOptimizerService.VehicleRoutingSolution.Route route(
+            List<VrpOptimizerService.VehicleRoutingSolution.Activity> activities) {
+        return new VrpOptimizerService.VehicleRoutingSolution.Route(UUID.randomUUID(), activities, 12_500.0,
+                3_600_000L);
+    }
+
+    private static VrpOptimizerService.VehicleRoutingSolution.Activity activity(UUID orderId, double lat,
+            double lon, long arrival, Long windowStart, Long windowEnd) {
+        return new VrpOptimizerService.VehicleRoutingSolution.Activity(orderId,
+                VrpOptimizerService.VehicleRoutingSolution.ActivityType.DELIVERY, lat, lon, arrival,
+                arrival + 300_000, windowStart, windowEnd);
+    }
+
+    private static long at(int hour, int minute) {
+        return ZonedDateTime.of(DATE, LocalTime.of(hour, minute), ZONE).toInstant().toEpochMilli();
+    }
+}
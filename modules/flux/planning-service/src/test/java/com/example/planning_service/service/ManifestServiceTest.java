@@ -0,0 +1,117 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.entity.ManifestEntity;
+import com.example.planning_service.entity.ManifestRouteEntity;
+import com.example.planning_service.optimization.VrpOptimizerService;
+import com.example.planning_service.repository.ManifestBatchWriter;
+import com.example.planning_service.repository.ManifestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for plan-level manifest creation: every route of the plan is built
+ * in memory and written with a single batch call, never one save() per route.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ManifestService Tests")
+class ManifestServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 5);
+
+    @Mock
+    private ManifestRepository manifestRepository;
+
+    @Mock
+    private ManifestBatchWriter manifestBatchWriter;
+
+    private ManifestService manifestService;
+
+    @BeforeEach
+    void setUp() {
+        manifestService = new ManifestService(manifestRepository, manifestBatchWriter, new AppProperties());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Plan manifests should be written with one batch insert, in route order")
+    void testCreateManifestsForPlanWritesOnce() {
+        List<VrpOptimizerService.VehicleRoutingSolution.Route> routes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            routes.add(route(30));
+        }
+
+        List<ManifestEntity> manifests = manifestService.createManifestsForPlan(routes, DATE);
+
+        ArgumentCaptor<List<ManifestEntity>> written = ArgumentCaptor.forClass(List.class);
+        verify(manifestBatchWriter).insertAll(written.capture());
+        verifyNoInteractions(manifestRepository);
+        assertThat(written.getValue()).isSameAs(manifests).hasSize(500);
+        assertThat(manifests).extracting(ManifestEntity::getVehicleId)
+                .containsExactlyElementsOf(routes.stream().map(r -> r.vehicleId()).toList());
+        assertThat(manifests).allSatisfy(manifest -> assertThat(manifest.getRoutes()).hasSize(30));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Batch writer should issue one manifest batch and one route batch")
+    void testBatchWriterUsesTwoBatches() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ManifestBatchWriter writer = new ManifestBatchWriter(jdbcTemplate);
+        ManifestService service = new ManifestService(manifestRepository, writer, new AppProperties());
+
+        service.createManifestsForPlan(List.of(route(3), route(4)), DATE);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(sql.capture(), rows.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(sql.getAllValues().get(0)).startsWith("INSERT INTO planning_manifests ");
+        assertThat(sql.getAllValues().get(1)).startsWith("INSERT INTO planning_manifest_routes ");
+        assertThat(rows.getAllValues().get(0)).hasSize(2);
+        assertThat(rows.getAllValues().get(1)).hasSize(7)
+                .extracting(row -> ((ManifestRouteEntity) row).getSequence()).containsExactly(1, 2, 3, 1, 2, 3, 4);
+    }
+
+    @Test
+    @DisplayName("Empty plan should not touch the database")
+    void testEmptyPlan() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ManifestService service = new ManifestService(manifestRepository, new ManifestBatchWriter(jdbcTemplate),
+                new AppProperties());
+
+        assertThat(service.createManifestsForPlan(List.of(), DATE)).isEmpty();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static VrpOptimizerService.VehicleRoutingSolution.Route route(int stops) {
+        List<VrpOptimizerService.VehicleRoutingSolution.Activity> activities = new ArrayList<>(stops);
+        long arrival = 1_767_600_000_000L;
+        for (int i = 0; i < stops; i++) {
+            activities.add(new VrpOptimizerService.VehicleRoutingSolution.Activity(UUID.randomUUID(),
+                    VrpOptimizerService.VehicleRoutingSolution.ActivityType.DELIVERY, 52.2 + i * 0.001, 21.0,
+                    arrival, arrival + 300_000));
+            arrival += 900_000;
+        }
+        return new VrpOptimizerService.VehicleRoutingSolution.Route(UUID.randomUUID(), activities, 25_000.0,
+                stops * 900_000L);
+    }
+}
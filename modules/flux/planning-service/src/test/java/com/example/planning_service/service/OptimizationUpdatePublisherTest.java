@@ -0,0 +1,197 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.dto.OptimizationUpdateDto;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OptimizationUpdatePublisher: best solutions are coalesced
+ * between flushes (only the latest snapshot is built and sent), deltas carry
+ * only changed / removed routes, full snapshots are sent first, periodically
+ * and at the end, and concurrent optimizations share the global rate budget.
+ * Flushes are triggered by hand instead of the publisher thread.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OptimizationUpdatePublisher Tests")
+class OptimizationUpdatePublisherTest {
+
+    private static final String OPTIMIZATION_ID = "opt-1";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private AppProperties appProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private OptimizationUpdatePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        appProperties.getBroadcast().setFullSnapshotEvery(3);
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new OptimizationUpdatePublisher(messagingTemplate, appProperties,
+                new OptimizationMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("Snapshots submitted between flushes should be coalesced into the latest one")
+    void testCoalescesIntermediateSnapshots() {
+        AtomicInteger built = new AtomicInteger();
+        for (int i = 0; i < 50; i++) {
+            String score = "0hard/-" + i + "soft";
+            publisher.submit(OPTIMIZATION_ID, () -> {
+                built.incrementAndGet();
+                return update(score, route("A", 1), route("B", 1));
+            });
+        }
+
+        publisher.flush();
+        publisher.flush();
+
+        List<OptimizationUpdateDto> sent = sentUpdates(1);
+        assertThat(built).hasValue(1);
+        assertThat(sent.get(0).getScore()).isEqualTo("0hard/-49soft");
+        assertThat(sent.get(0).isFullSnapshot()).isTrue();
+        assertThat(sent.get(0).getSequence()).isEqualTo(1);
+        assertThat(meterRegistry.counter("optimization.updates.dropped", "service", "planning").count())
+                .isEqualTo(49);
+    }
+
+    @Test
+    @DisplayName("Deltas should contain only changed routes and removed vehicles, with periodic full snapshots")
+    void testDeltasAgainstLastSentSnapshot() {
+        publish(update("s1", route("A", 1), route("B", 1), route("C", 1)));
+        publish(update("s2", route("A", 1), route("B", 2)));
+        publish(update("s2", route("A", 1), route("B", 2))); // nothing changed -> not sent
+        publish(update("s3", route("A", 3), route("B", 2)));
+        publish(update("s4", route("A", 4), route("B", 2))); // 3rd after the full one -> full
+
+        List<OptimizationUpdateDto> sent = sentUpdates(4);
+        assertThat(sent).extracting(OptimizationUpdateDto::getSequence).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(sent).extracting(OptimizationUpdateDto::isFullSnapshot).containsExactly(true, false, false, true);
+
+        assertThat(sent.get(1).getRoutes()).extracting(OptimizationUpdateDto.RouteDto::getVehicleId)
+                .containsExactly("B");
+        assertThat(sent.get(1).getRemovedVehicleIds()).containsExactly("C");
+        assertThat(sent.get(2).getRoutes()).extracting(OptimizationUpdateDto.RouteDto::getVehicleId)
+                .containsExactly("A");
+        assertThat(sent.get(2).getRemovedVehicleIds()).isEmpty();
+        assertThat(sent.get(3).getRoutes()).extracting(OptimizationUpdateDto.RouteDto::getVehicleId)
+                .containsExactly("A", "B");
+    }
+
+    @Test
+    @DisplayName("Final snapshot should be full, win over pending ones and close the stream")
+    void testFinalSnapshotClosesStream() {
+        publish(update("s1", route("A", 1)));
+        publisher.submitFinal(OPTIMIZATION_ID, () -> update("final", route("A", 2)));
+        publisher.submit(OPTIMIZATION_ID, () -> update("late", route("A", 3)));
+        publisher.flush();
+        publisher.submit(OPTIMIZATION_ID, () -> update("after", route("A", 4)));
+        publisher.flush();
+
+        List<OptimizationUpdateDto> sent = sentUpdates(2);
+        assertThat(sent.get(1).getScore()).isEqualTo("final");
+        assertThat(sent.get(1).isFullSnapshot()).isTrue();
+        assertThat(sent.get(1).getOptimizationId()).isEqualTo(OPTIMIZATION_ID);
+    }
+
+    @Test
+    @DisplayName("Failing snapshot should not block other optimizations")
+    void testFailingSnapshotIsolated() {
+        publisher.submit("broken", () -> {
+            throw new IllegalStateException("boom");
+        });
+        publisher.submit(OPTIMIZATION_ID, () -> update("ok", route("A", 1)));
+
+        publisher.flush();
+
+        assertThat(sentUpdates(1).get(0).getOptimizationId()).isEqualTo(OPTIMIZATION_ID);
+    }
+
+    @Test
+    @DisplayName("Concurrent optimizations should share the global budget, least recently updated first")
+    void testGlobalBudgetSharedFairly() {
+        appProperties.getBroadcast().setMaxTotalUpdatesPerSecond(4); // 2 per flush at 2 flushes/s
+        for (int i = 0; i < 5; i++) {
+            publisher.submit("opt-" + i, () -> update("s1", route("A", 1)));
+        }
+        publisher.flush();
+        for (int i = 0; i < 5; i++) {
+            publisher.submit("opt-" + i, () -> update("s2", route("A", 2)));
+        }
+        publisher.flush();
+        publisher.flush();
+
+        List<OptimizationUpdateDto> sent = sentUpdates(6);
+        assertThat(sent).extracting(OptimizationUpdateDto::getOptimizationId)
+                .contains("opt-0", "opt-1", "opt-2", "opt-3", "opt-4");
+        assertThat(sent).filteredOn(OptimizationUpdateDto::isFullSnapshot).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("Final snapshots should go out even above the global budget")
+    void testFinalSnapshotsIgnoreBudget() {
+        appProperties.getBroadcast().setMaxTotalUpdatesPerSecond(2); // 1 per flush
+        for (int i = 0; i < 3; i++) {
+            publisher.submitFinal("opt-" + i, () -> update("final", route("A", 1)));
+        }
+        publisher.submit(OPTIMIZATION_ID, () -> update("s1", route("A", 1)));
+
+        publisher.flush();
+
+        assertThat(sentUpdates(3)).extracting(OptimizationUpdateDto::getOptimizationId)
+                .containsExactlyInAnyOrder("opt-0", "opt-1", "opt-2");
+    }
+
+    // ===== Helpers =====
+
+    private void publish(OptimizationUpdateDto update) {
+        publisher.submit(OPTIMIZATION_ID, () -> update);
+        publisher.flush();
+    }
+
+    private List<OptimizationUpdateDto> sentUpdates(int expected) {
+        ArgumentCaptor<OptimizationUpdateDto> captor = ArgumentCaptor.forClass(OptimizationUpdateDto.class);
+        verify(messagingTemplate, times(expected)).convertAndSend(eq(OptimizationUpdatePublisher.TOPIC),
+                captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static OptimizationUpdateDto update(String score, OptimizationUpdateDto.RouteDto... routes) {
+        OptimizationUpdateDto update = new OptimizationUpdateDto();
+        update.setScore(score);
+        update.setSolverStatus("SOLVING");
+        update.setRoutes(new ArrayList<>(List.of(routes)));
+        return update;
+    }
+
+    /**
+     * Route of the vehicle with {@code stops} stops - different stop counts = changed route
+     */
+    private static OptimizationUpdateDto.RouteDto route(String vehicleId, int stops) {
+        List<OptimizationUpdateDto.PointDto> path = new ArrayList<>();
+        for (int i = 0; i < stops; i++) {
+            path.add(new OptimizationUpdateDto.PointDto(52.0 + i * 0.01, 21.0, "STOP", new UUID(0L, i)));
+        }
+        return new OptimizationUpdateDto.RouteDto(vehicleId, path, "#000000", stops * 1000.0);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.planning_service.service;
+
+import com.example.danxils_commons.dto.OrderResponseDto;
+import com.example.danxils_commons.enums.OrderStatus;
+import com.example.planning_service.config.AutoPlanProperties;
+import com.example.planning_service.domain.HubConfiguration;
+import com.example.planning_service.entity.FleetVehicleEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.optimization.VrpOptimizerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RegionalOptimizationService: regions solved concurrently on
+ * the injected pool, per-region time budgets and starved hubs still solved.
+ * Solver is mocked and sleeps 200 ms per region.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RegionalOptimizationService Tests")
+class RegionalOptimizationServiceTest {
+
+    private static final long SOLVE_MILLIS = 200;
+
+    @Mock
+    private HubService hubService;
+
+    @Mock
+    private VrpOptimizerService vrpOptimizer;
+
+    @Mock
+    private OptimizationMetrics metrics;
+
+    private ExecutorService executor;
+    private AutoPlanProperties properties;
+    private RegionalOptimizationService service;
+
+    private final Map<String, Duration> budgets = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final List<HubConfiguration> hubs = List.of(
+            hub("WAW", 52.23, 21.01),
+            hub("LDZ", 51.76, 19.46),
+            hub("GDA", 54.35, 18.65),
+            hub("KRK", 50.06, 19.94));
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        properties = new AutoPlanProperties();
+        properties.setRegionalTimeBudgetSeconds(60);
+        properties.setRegionalMinBudgetSeconds(5);
+        service = new RegionalOptimizationService(properties, hubService, new HubVehicleAllocator(),
+                vrpOptimizer, metrics, executor);
+
+        when(hubService.getActiveHubs()).thenReturn(hubs);
+        when(hubService.findHubForLocation(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            double lat = invocation.getArgument(0);
+            return hubs.stream().filter(hub -> hub.getLocation().getLatitude() == lat).findFirst();
+        });
+        when(vrpOptimizer.calculateRoutes(anyList(), anyList(), any(), any(Duration.class))).thenAnswer(invocation -> {
+            List<FleetVehicleEntity> fleet = invocation.getArgument(1);
+            String hubId = fleet.get(0).getHomeHubId();
+            budgets.put(hubId, invocation.getArgument(3));
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(SOLVE_MILLIS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new VrpOptimizerService.VehicleRoutingSolution(List.of(new VrpOptimizerService.VehicleRoutingSolution.Route(
+                    fleet.get(0).getId(), List.of(), 0.0, 0L)));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Regions should solve concurrently, faster than solving them one after another")
+    void testRegionsSolveConcurrently() throws Exception {
+        List<OrderResponseDto> orders = new ArrayList<>();
+        List<FleetVehicleEntity> vehicles = new ArrayList<>();
+        for (HubConfiguration hub : hubs) {
+            orders.addAll(orders(hub, 10));
+            vehicles.add(vehicle(hub.getId()));
+        }
+
+        RegionalOptimizationService.RegionalOptimizationResult result = service
+                .executeRegionalOptimization(orders, vehicles, null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getSolutions()).hasSize(4).allMatch(RegionalOptimizationService.RegionalSolution::isSuccess);
+        assertThat(result.getTotalOrdersAssigned()).isEqualTo(40);
+        assertThat(maxInFlight.get()).isGreaterThan(1);
+        // Sequential baseline: 4 regions x SOLVE_MILLIS
+        assertThat(result.getDuration()).isLessThan(Duration.ofMillis(4 * SOLVE_MILLIS));
+        verify(metrics).recordOptimizationDuration(result.getDuration());
+    }
+
+    @Test
+    @DisplayName("Largest region should get the full budget, smaller ones proportionally less")
+    void testPerRegionBudgets() throws Exception {
+        List<OrderResponseDto> orders = new ArrayList<>();
+        orders.addAll(orders(hubs.get(0), 100));
+        orders.addAll(orders(hubs.get(1), 50));
+        orders.addAll(orders(hubs.get(2), 1));
+        List<FleetVehicleEntity> vehicles = List.of(vehicle("WAW"), vehicle("LDZ"), vehicle("GDA"));
+
+        service.executeRegionalOptimization(orders, vehicles, null).get(5, TimeUnit.SECONDS);
+
+        assertThat(budgets).containsEntry("WAW", Duration.ofSeconds(60));
+        assertThat(budgets).containsEntry("LDZ", Duration.ofSeconds(30));
+        assertThat(budgets).containsEntry("GDA", Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Hub with orders but no own vehicles should borrow one and be solved")
+    void testStarvedHubIsSolved() throws Exception {
+        List<OrderResponseDto> orders = new ArrayList<>();
+        orders.addAll(orders(hubs.get(0), 20));
+        orders.addAll(orders(hubs.get(3), 5));
+        List<FleetVehicleEntity> vehicles = List.of(vehicle("WAW"), vehicle("WAW"), vehicle("WAW"));
+
+        RegionalOptimizationService.RegionalOptimizationResult result = service
+                .executeRegionalOptimization(orders, vehicles, null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getSolutions())
+                .extracting(RegionalOptimizationService.RegionalSolution::getHubId)
+                .containsExactlyInAnyOrder("WAW", "KRK");
+        assertThat(result.getSolutions()).allMatch(RegionalOptimizationService.RegionalSolution::isSuccess);
+        assertThat(result.getTotalOrdersAssigned()).isEqualTo(25);
+        assertThat(result.getVehicleLoans()).singleElement()
+                .satisfies(loan -> assertThat(loan.toHubId()).isEqualTo("KRK"));
+    }
+
+    @Test
+    @DisplayName("Orders without a hub should be solved in the fallback region, not fail")
+    void testUnassignedOrdersUseFallbackRegion() throws Exception {
+        HubConfiguration nowhere = hub("NOWHERE", 0.0, 0.0);
+        List<OrderResponseDto> orders = new ArrayList<>();
+        orders.addAll(orders(hubs.get(0), 10));
+        orders.addAll(orders(hubs.get(1), 4));
+        orders.addAll(orders(nowhere, 3));
+        List<FleetVehicleEntity> vehicles = List.of(vehicle("WAW"), vehicle("LDZ"));
+
+        RegionalOptimizationService.RegionalOptimizationResult result = service
+                .executeRegionalOptimization(orders, vehicles, null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getSolutions())
+                .extracting(RegionalOptimizationService.RegionalSolution::getHubId)
+                .containsExactlyInAnyOrder("WAW", "LDZ");
+        assertThat(result.getSolutions()).allMatch(RegionalOptimizationService.RegionalSolution::isSuccess);
+        assertThat(result.getTotalOrdersAssigned()).isEqualTo(17);
+        verify(vrpOptimizer).calculateRoutes(argThat(list -> list.size() == 13), anyList(), any(),
+                any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Failure of one region should not fail the others")
+    void testRegionFailureIsolated() throws Exception {
+        doThrow(new IllegalStateException("solver crashed")).when(vrpOptimizer)
+                .calculateRoutes(argThat(list -> list.size() == 7), anyList(), any(), any(Duration.class));
+        List<OrderResponseDto> orders = new ArrayList<>();
+        orders.addAll(orders(hubs.get(0), 10));
+        orders.addAll(orders(hubs.get(1), 7));
+        List<FleetVehicleEntity> vehicles = List.of(vehicle("WAW"), vehicle("LDZ"));
+
+        RegionalOptimizationService.RegionalOptimizationResult result = service
+                .executeRegionalOptimization(orders, vehicles, null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getSolutions()).filteredOn(RegionalOptimizationService.RegionalSolution::isSuccess)
+                .extracting(RegionalOptimizationService.RegionalSolution::getHubId)
+                .containsExactly("WAW");
+        assertThat(result.getTotalOrdersAssigned()).isEqualTo(10);
+    }
+
+    private static List<OrderResponseDto> orders(HubConfiguration hub, int count) {
+        List<OrderResponseDto> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OrderResponseDto.DeliveryAddressDto delivery = new OrderResponseDto.DeliveryAddressDto(
+                    null, null, null, null, null, null, null, null, null, null,
+                    hub.getLocation().getLatitude(), hub.getLocation().getLongitude(),
+                    null, null, null, null, null, null);
+            orders.add(new OrderResponseDto(UUID.randomUUID(), OrderStatus.NEW, null, null, delivery, null, null,
+                    null, List.of(), List.of(), null, null, null, null, null));
+        }
+        return orders;
+    }
+
+    private static HubConfiguration hub(String id, double lat, double lon) {
+        return HubConfiguration.builder()
+                .id(id)
+                .active(true)
+                .catchmentRadiusKm(50)
+                .location(HubConfiguration.Location.builder().latitude(lat).longitude(lon).build())
+                .build();
+    }
+
+    private static FleetVehicleEntity vehicle(String homeHubId) {
+        return FleetVehicleEntity.builder()
+                .id(UUID.randomUUID())
+                .homeHubId(homeHubId)
+                .build();
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.client.IamClient;
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.dto.RouteAssignmentFilterDto;
+import com.example.planning_service.dto.RouteAssignmentKeysetPageDto;
+import com.example.planning_service.dto.RouteAssignmentResponseDto;
+import com.example.planning_service.dto.UserInfoDto;
+import com.example.planning_service.entity.RouteAssignmentEntity;
+import com.example.planning_service.repository.CarrierComplianceRepository;
+import com.example.planning_service.repository.OptimizationSolutionRepository;
+import com.example.planning_service.repository.RouteAssignmentRepository;
+import com.example.planning_service.repository.specification.RouteAssignmentSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for RouteAssignmentService: driver names resolved once per page
+ * (cache + IAM), bounded page size, keyset cursor and magic link tokens
+ * under concurrent access. IAM lookups run on a direct executor.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RouteAssignmentService Tests")
+class RouteAssignmentServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T10:00:00Z");
+
+    @Mock
+    private OptimizationSolutionRepository solutionRepository;
+    @Mock
+    private RouteAssignmentRepository routeAssignmentRepository;
+    @Mock
+    private RouteAssignmentSpecification specification;
+    @Mock
+    private CarrierComplianceRepository carrierComplianceRepository;
+    @Mock
+    private IamClient iamClient;
+    @Mock
+    private EmailService emailService;
+    @Mock(answer = Answers.RETURNS_SELF)
+    private FluentQuery.FetchableFluentQuery<RouteAssignmentEntity> fluentQuery;
+
+    private RouteAssignmentService service;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getRouteAssignments().setMaxPageSize(100);
+        appProperties.getRouteAssignments().setIamLookupParallelism(4);
+
+        service = new RouteAssignmentService(solutionRepository, routeAssignmentRepository, specification,
+                carrierComplianceRepository, iamClient, emailService, appProperties, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Each driver on a page should be looked up in IAM once, then served from cache")
+    void testDriverNamesBatchedPerPage() {
+        stubFilter();
+        stubIamNames();
+        UUID driverA = UUID.randomUUID();
+        UUID driverB = UUID.randomUUID();
+        List<RouteAssignmentEntity> rows = List.of(
+                assignment(driverA, NOW), assignment(driverA, NOW.minusSeconds(1)),
+                assignment(driverB, NOW.minusSeconds(2)), assignment(null, NOW.minusSeconds(3)));
+        when(routeAssignmentRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(rows));
+
+        Page<RouteAssignmentResponseDto> first = service.findFiltered(new RouteAssignmentFilterDto(),
+                PageRequest.of(0, 20));
+        service.findFiltered(new RouteAssignmentFilterDto(), PageRequest.of(0, 20));
+
+        verify(iamClient, times(1)).getUserById(driverA);
+        verify(iamClient, times(1)).getUserById(driverB);
+        assertThat(first.getContent()).extracting(RouteAssignmentResponseDto::getDriverName)
+                .containsExactly("Name " + driverA.toString().substring(0, 4),
+                        "Name " + driverA.toString().substring(0, 4),
+                        "Name " + driverB.toString().substring(0, 4), null);
+    }
+
+    @Test
+    @DisplayName("Failed IAM lookups should fall back to a placeholder and be retried later")
+    void testFailedLookupNotCached() {
+        UUID driver = UUID.randomUUID();
+        when(iamClient.getUserById(driver)).thenThrow(new RuntimeException("IAM down"));
+        when(routeAssignmentRepository.findById(any()))
+                .thenAnswer(invocation -> Optional.of(assignment(driver, NOW)));
+
+        RouteAssignmentResponseDto dto = service.getRouteAssignmentById(UUID.randomUUID());
+        service.getRouteAssignmentById(UUID.randomUUID());
+
+        assertThat(dto.getDriverName()).isEqualTo("Driver " + driver.toString().substring(0, 8));
+        verify(iamClient, times(2)).getUserById(driver);
+    }
+
+    @Test
+    @DisplayName("Page size should be capped and id added as tiebreak sort")
+    void testPageSizeCapped() {
+        stubFilter();
+        when(routeAssignmentRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        service.findFiltered(new RouteAssignmentFilterDto(),
+                PageRequest.of(3, 10_000, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(routeAssignmentRepository).findAll(any(Specification.class), captor.capture());
+        assertThat(captor.getValue().getPageSize()).isEqualTo(100);
+        assertThat(captor.getValue().getPageNumber()).isEqualTo(3);
+        assertThat(captor.getValue().getSort()).isEqualTo(RouteAssignmentService.KEYSET_SORT);
+    }
+
+    @Test
+    @DisplayName("Keyset page should fetch one extra row and return the cursor of the last item")
+    @SuppressWarnings("unchecked")
+    void testKeysetPage() {
+        stubFilter();
+        stubIamNames();
+        when(specification.createdBefore(any(), any())).thenReturn((root, query, cb) -> null);
+        UUID driver = UUID.randomUUID();
+        List<RouteAssignmentEntity> rows = List.of(assignment(driver, NOW), assignment(driver, NOW.minusSeconds(1)),
+                assignment(driver, NOW.minusSeconds(2)));
+        when(fluentQuery.all()).thenReturn(rows);
+        when(routeAssignmentRepository.findBy(any(Specification.class), any(Function.class)))
+                .thenAnswer(invocation -> invocation.<Function<FluentQuery.FetchableFluentQuery<RouteAssignmentEntity>, ?>>getArgument(1)
+                        .apply(fluentQuery));
+
+        UUID cursorId = UUID.randomUUID();
+        RouteAssignmentKeysetPageDto page = service.findAfter(new RouteAssignmentFilterDto(), NOW.plusSeconds(5),
+                cursorId, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getNextCreatedAt()).isEqualTo(rows.get(1).getCreatedAt());
+        assertThat(page.getNextId()).isEqualTo(rows.get(1).getId());
+        verify(specification).createdBefore(NOW.plusSeconds(5), cursorId);
+        verify(fluentQuery).sortBy(RouteAssignmentService.KEYSET_SORT);
+        verify(fluentQuery).limit(3);
+        verify(iamClient, times(1)).getUserById(driver);
+    }
+
+    @Test
+    @DisplayName("Last keyset page should report no more rows")
+    @SuppressWarnings("unchecked")
+    void testKeysetLastPage() {
+        stubFilter();
+        when(fluentQuery.all()).thenReturn(List.of(assignment(null, NOW)));
+        when(routeAssignmentRepository.findBy(any(Specification.class), any(Function.class)))
+                .thenAnswer(invocation -> invocation.<Function<FluentQuery.FetchableFluentQuery<RouteAssignmentEntity>, ?>>getArgument(1)
+                        .apply(fluentQuery));
+
+        RouteAssignmentKeysetPageDto page = service.findAfter(new RouteAssignmentFilterDto(), null, null, 20);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.isHasMore()).isFalse();
+        verify(specification, never()).createdBefore(any(), any());
+        verify(iamClient, never()).getUserById(any());
+    }
+
+    @Test
+    @DisplayName("Magic link tokens generated and validated concurrently should all resolve")
+    void testConcurrentTokens() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String driverId = "driver-" + t;
+                futures.add(pool.submit(() -> {
+                    List<String> mismatches = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        String url = service.generateMagicLink(driverId, null, UUID.randomUUID());
+                        String token = url.substring(url.indexOf("token=") + "token=".length());
+                        if (!driverId.equals(service.validateToken(token))
+                                || service.getRouteIdFromToken(token) == null) {
+                            mismatches.add(token);
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            for (Future<List<String>> future : futures) {
+                assertThat(future.get()).isEmpty();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(service.validateToken("unknown")).isNull();
+        assertThat(service.validateToken(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Active route should be read with a single newest-first query")
+    void testActiveRouteSingleQuery() {
+        UUID driver = UUID.randomUUID();
+        when(routeAssignmentRepository.findFirstByDriverIdAndStatusInOrderByCreatedAtDesc(eq(driver), anyCollection()))
+                .thenReturn(Optional.empty());
+
+        assertThat(service.getActiveRouteForDriver(driver)).isNull();
+        verify(routeAssignmentRepository).findFirstByDriverIdAndStatusInOrderByCreatedAtDesc(driver,
+                List.of(RouteAssignmentEntity.RouteStatus.PUBLISHED, RouteAssignmentEntity.RouteStatus.IN_PROGRESS));
+        verify(routeAssignmentRepository, never()).findByDriverIdAndStatus(any(), any());
+    }
+
+    // ===== Helpers =====
+
+    private void stubFilter() {
+        when(specification.filterBy(any())).thenReturn((root, query, cb) -> null);
+    }
+
+    private void stubIamNames() {
+        when(iamClient.getUserById(any())).thenAnswer(invocation -> {
+            UserInfoDto user = new UserInfoDto();
+            user.setFullName("Name " + invocation.<UUID>getArgument(0).toString().substring(0, 4));
+            return user;
+        });
+    }
+
+    private static RouteAssignmentEntity assignment(UUID driverId, Instant createdAt) {
+        return RouteAssignmentEntity.builder()
+                .id(UUID.randomUUID())
+                .driverId(driverId)
+                .routeName("Route")
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.entity.LocationPoint;
+import com.example.planning_service.entity.RouteEntity;
+import com.example.planning_service.entity.RouteStopEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.repository.RouteRepository;
+import com.example.planning_service.routing.HaversineDistanceProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for SentinelService: ETA chain of a single route, skipping routes
+ * whose driver has not moved, writes only for changed ETAs, one SLA alert per
+ * late stop, parallel sweep over many routes and failures isolated per route. Routes live in a mocked repository; travel times come
+ * from the haversine provider.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SentinelService Tests")
+class SentinelServiceTest {
+
+    private static final double LAT = 52.2297;
+    private static final double LON = 21.0122;
+    private static final GeometryFactory GEOMETRY = new GeometryFactory();
+
+    @Mock
+    private RouteRepository routeRepository;
+
+    @Mock
+    private AlertService alertService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<UUID, RouteEntity> routes = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private AppProperties appProperties;
+    private TravelTimeService travelTimeService;
+    private SentinelService sentinelService;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        when(routeRepository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(routes.get(invocation.getArgument(0))));
+        when(routeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        travelTimeService = spy(new TravelTimeService(new HaversineDistanceProvider(40.0, 1.3)));
+        sentinelService = new SentinelService(routeRepository, travelTimeService, alertService, appProperties,
+                new OptimizationMetrics(meterRegistry), transactionManager, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Arrival times should chain legs and service time in stop sequence order")
+    void testRouteEtaChain() {
+        RouteEntity route = route(new Random(1L), 3);
+        Map<Integer, RouteStopEntity> bySequence = route.getStops().stream()
+                .collect(Collectors.toMap(RouteStopEntity::getSequence, Function.identity()));
+        Collections.reverse(route.getStops());
+        routes.put(route.getId(), route);
+
+        LocalDateTime before = LocalDateTime.now();
+        sentinelService.recalculateRouteETA(route.getId());
+
+        verify(travelTimeService, times(1)).calculateLegTravelTimes(any(), anyList());
+        LocalDateTime first = bySequence.get(1).getPredictedArrivalTime();
+        LocalDateTime second = bySequence.get(2).getPredictedArrivalTime();
+        LocalDateTime third = bySequence.get(3).getPredictedArrivalTime();
+        assertThat(first).isAfterOrEqualTo(before);
+        assertThat(second).isAfterOrEqualTo(first.plusMinutes(15));
+        assertThat(third).isAfterOrEqualTo(second.plusMinutes(15));
+        assertThat(route.getPredictedEndTime()).isEqualTo(third.plusMinutes(15));
+        assertThat(route.getEtaOrigin().getCoordinates()).isEqualTo(route.getCurrentLocation().getCoordinates());
+    }
+
+    @Test
+    @DisplayName("Sweep should skip routes whose driver moved less than the threshold since a recent ETA")
+    void testSkipStationaryRoutes() {
+        stubLiveRoutes();
+        appProperties.getSentinel().setMinMoveMeters(100.0);
+        Random random = new Random(2L);
+        RouteEntity stationary = route(random, 5);
+        RouteEntity moved = route(random, 5);
+        RouteEntity stale = route(random, 5);
+        List.of(stationary, moved, stale).forEach(route -> routes.put(route.getId(), route));
+        assertThat(sentinelService.recalculateActiveRoutes().recalculated()).isEqualTo(3);
+
+        // ~30 m, ~550 m and ~0 m moves; the last one has an ETA older than max-eta-age
+        moveBy(stationary, 0.0003);
+        moveBy(moved, 0.005);
+        backdateEta(stale, appProperties.getSentinel().getMaxEtaAgeSeconds() + 1);
+        clearInvocations(travelTimeService);
+
+        SentinelService.SweepResult result = sentinelService.recalculateActiveRoutes();
+
+        assertThat(result.routes()).isEqualTo(3);
+        assertThat(result.recalculated() + result.unchanged()).isEqualTo(2);
+        assertThat(result.skipped()).isEqualTo(1);
+        verify(travelTimeService, never()).calculateLegTravelTimes(same(stationary.getCurrentLocation()), anyList());
+        verify(travelTimeService).calculateLegTravelTimes(same(moved.getCurrentLocation()), anyList());
+        verify(travelTimeService).calculateLegTravelTimes(same(stale.getCurrentLocation()), anyList());
+    }
+
+    @Test
+    @DisplayName("Recalculated ETAs should be written only when they moved by at least min-eta-change")
+    void testUnchangedEtaNotSaved() {
+        stubLiveRoutes();
+        long maxAge = appProperties.getSentinel().getMaxEtaAgeSeconds();
+        RouteEntity route = route(new Random(6L), 5);
+        routes.put(route.getId(), route);
+        sentinelService.recalculateActiveRoutes();
+        clearInvocations(routeRepository);
+
+        // Stale, but the stored ETAs still hold (driver on plan)
+        backdateEta(route, maxAge + 1);
+        LocalDateTime calculatedAt = route.getEtaCalculatedAt();
+        SentinelService.SweepResult result = sentinelService.recalculateActiveRoutes();
+
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(result.recalculated()).isZero();
+        verify(routeRepository, never()).save(any());
+        assertThat(route.getEtaCalculatedAt()).isEqualTo(calculatedAt);
+
+        // Stored ETAs 5 minutes too early - driver stood still since they were calculated
+        route.getStops().forEach(stop -> stop.setPredictedArrivalTime(stop.getPredictedArrivalTime().minusMinutes(5)));
+        route.setPredictedEndTime(route.getPredictedEndTime().minusMinutes(5));
+        result = sentinelService.recalculateActiveRoutes();
+
+        assertThat(result.recalculated()).isEqualTo(1);
+        verify(routeRepository).save(route);
+        assertThat(route.getEtaCalculatedAt()).isAfter(calculatedAt);
+    }
+
+    @Test
+    @DisplayName("Route changed after its last ETA should be recalculated even when the driver has not moved")
+    void testRouteChangeForcesRecalculation() {
+        stubLiveRoutes();
+        RouteEntity route = route(new Random(7L), 3);
+        routes.put(route.getId(), route);
+        sentinelService.recalculateActiveRoutes();
+        clearInvocations(travelTimeService, routeRepository);
+
+        // Slotting inserted a stop (with its own ETA) and bumped lastUpdated
+        RouteStopEntity inserted = stop(route, 4, new Random(8L));
+        inserted.setPredictedArrivalTime(route.getPredictedEndTime());
+        route.getStops().add(inserted);
+        route.setLastUpdated(route.getEtaCalculatedAt().plusSeconds(1));
+
+        SentinelService.SweepResult result = sentinelService.recalculateActiveRoutes();
+
+        assertThat(result.recalculated()).isEqualTo(1);
+        verify(travelTimeService).calculateLegTravelTimes(any(), argThat(stops -> stops.size() == 4));
+        verify(routeRepository).save(route);
+        assertThat(route.getPredictedEndTime()).isAfter(inserted.getPredictedArrivalTime());
+    }
+
+    @Test
+    @DisplayName("Stationary driver past an SLA window should be alerted once over repeated sweeps")
+    void testStationaryDriverAlertedOnce() {
+        stubLiveRoutes();
+        long maxAge = appProperties.getSentinel().getMaxEtaAgeSeconds();
+        RouteEntity route = route(new Random(9L), 3);
+        RouteStopEntity late = route.getStops().get(0);
+        late.setSlaWindowEnd(LocalDateTime.now().minusHours(1));
+        routes.put(route.getId(), route);
+
+        for (int sweep = 0; sweep < 4; sweep++) {
+            if (sweep > 0) {
+                // max-eta-age later, driver in the same place: every stored ETA slipped by that much
+                backdateEta(route, maxAge + 1);
+                route.getStops().forEach(stop -> stop.setPredictedArrivalTime(
+                        stop.getPredictedArrivalTime().minusSeconds(maxAge + 1)));
+                route.setPredictedEndTime(route.getPredictedEndTime().minusSeconds(maxAge + 1));
+            }
+            assertThat(sentinelService.recalculateActiveRoutes().recalculated()).isEqualTo(1);
+        }
+
+        verify(routeRepository, times(4)).save(route);
+        verify(alertService, times(1)).sendSlaViolationAlert(eq(route.getId()), eq(late.getOrderId()), any(), any());
+        verify(routeRepository, times(4)).findLiveIdsWithCurrentLocation(argThat(cutoff -> cutoff.isBefore(
+                LocalDateTime.now().minusMinutes(appProperties.getSentinel().getLiveRouteGraceMinutes() - 1))));
+    }
+
+    @Test
+    @DisplayName("Manual recalculation should ignore the movement threshold")
+    void testManualRecalculationForced() {
+        RouteEntity route = route(new Random(3L), 2);
+        routes.put(route.getId(), route);
+        sentinelService.recalculateRouteETA(route.getId());
+        sentinelService.recalculateRouteETA(route.getId());
+
+        verify(travelTimeService, times(2)).calculateLegTravelTimes(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("A failing route should be counted and not stop the rest of the sweep")
+    void testFailureIsolated() {
+        stubLiveRoutes();
+        Random random = new Random(4L);
+        for (int i = 0; i < 20; i++) {
+            RouteEntity route = route(random, 4);
+            routes.put(route.getId(), route);
+        }
+        UUID broken = routes.keySet().iterator().next();
+        when(routeRepository.save(argThat((RouteEntity route) -> route != null && broken.equals(route.getId()))))
+                .thenThrow(new OptimisticLockingFailureException("version changed"));
+
+        SentinelService.SweepResult result = sentinelService.recalculateActiveRoutes();
+
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.recalculated()).isEqualTo(19);
+        assertThat(meterRegistry.get("sentinel.eta.routes").tag("outcome", "failed").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Parallel sweep over 2,000 routes should recalculate every route exactly once")
+    void testParallelSweep() {
+        stubLiveRoutes();
+        appProperties.getSentinel().setParallelism(8);
+        Random random = new Random(5L);
+        for (int i = 0; i < 2_000; i++) {
+            RouteEntity route = route(random, 25);
+            routes.put(route.getId(), route);
+        }
+
+        SentinelService.SweepResult result = sentinelService.recalculateActiveRoutes();
+
+        assertThat(result.recalculated()).isEqualTo(2_000);
+        assertThat(result.failed()).isZero();
+        verify(travelTimeService, times(2_000)).calculateLegTravelTimes(any(), anyList());
+        verify(routeRepository, times(2_000)).save(any());
+        assertThat(routes.values()).allSatisfy(route -> {
+            assertThat(route.getPredictedEndTime()).isNotNull();
+            assertThat(route.getStops()).allSatisfy(stop -> assertThat(stop.getPredictedArrivalTime()).isNotNull());
+        });
+    }
+
+    // ===== Helpers =====
+
+    private void stubLiveRoutes() {
+        when(routeRepository.findLiveIdsWithCurrentLocation(any())).thenAnswer(invocation -> new ArrayList<>(routes.keySet()));
+    }
+
+    private static RouteEntity route(Random random, int stopCount) {
+        RouteEntity route = new RouteEntity();
+        route.setId(UUID.randomUUID());
+        route.setCurrentLocation(point(LAT + (random.nextDouble() - 0.5) * 0.3, LON + (random.nextDouble() - 0.5) * 0.45));
+        List<RouteStopEntity> stops = new ArrayList<>(stopCount);
+        for (int i = 1; i <= stopCount; i++) {
+            stops.add(stop(route, i, random));
+        }
+        route.setStops(stops);
+        return route;
+    }
+
+    private static RouteStopEntity stop(RouteEntity route, int sequence, Random random) {
+        RouteStopEntity stop = new RouteStopEntity();
+        stop.setId(UUID.randomUUID());
+        stop.setRoute(route);
+        stop.setSequence(sequence);
+        stop.setOrderId(UUID.randomUUID());
+        stop.setLocation(point(LAT + (random.nextDouble() - 0.5) * 0.3, LON + (random.nextDouble() - 0.5) * 0.45));
+        return stop;
+    }
+
+    private static LocationPoint point(double lat, double lon) {
+        LocationPoint point = new LocationPoint();
+        point.setCoordinates(GEOMETRY.createPoint(new Coordinate(lon, lat)));
+        return point;
+    }
+
+    /**
+     * As if the stored ETAs (and the last route write) happened {@code seconds} earlier
+     */
+    private static void backdateEta(RouteEntity route, long seconds) {
+        route.setEtaCalculatedAt(route.getEtaCalculatedAt().minusSeconds(seconds));
+        route.setLastUpdated(route.getLastUpdated().minusSeconds(seconds));
+    }
+
+    private static void moveBy(RouteEntity route, double degreesLat) {
+        Point coordinates = route.getCurrentLocation().getCoordinates();
+        route.setCurrentLocation(point(coordinates.getY() + degreesLat, coordinates.getX()));
+    }
+}
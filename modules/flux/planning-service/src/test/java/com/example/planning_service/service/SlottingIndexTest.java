@@ -0,0 +1,172 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.domain.timefold.DistanceMatrix;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for SlottingIndex: cheapest insertion position, capacity and time
+ * window feasibility (forward slack), optimistic commit and query latency.
+ */
+@DisplayName("SlottingIndex Tests")
+class SlottingIndexTest {
+
+    private static final double LAT = 52.2297;
+    private static final double LON = 21.0122;
+    private static final long START = 8 * 3600; // 08:00 of day 0, seconds
+    private static final double KM_LAT = 1 / 111.2; // ~1 km north
+
+    private final SlottingIndex index = new SlottingIndex(0.05, 1, 300, DistanceMatrix.AVERAGE_SPEED_KMH);
+
+    @Test
+    @DisplayName("Stop on the way between two stops should be inserted between them")
+    void testCheapestPosition() {
+        UUID routeId = route(2000, stop(2, null, null, 0), stop(4, null, null, 0), stop(6, null, null, 0));
+
+        SlottingIndex.Insertion insertion = index.findBestInsertion(LAT + 3 * KM_LAT, LON, 10, null, null)
+                .orElseThrow();
+
+        assertThat(insertion.routeId()).isEqualTo(routeId);
+        assertThat(insertion.position()).isEqualTo(1);
+        assertThat(insertion.addedMeters()).isCloseTo(0.0, within(1.0));
+    }
+
+    @Test
+    @DisplayName("Route without capacity left should be skipped")
+    void testCapacity() {
+        UUID full = route(100, stop(1, null, null, 95));
+        UUID free = route(2000, stop(20, null, null, 0));
+
+        SlottingIndex.Insertion insertion = index.findBestInsertion(LAT + KM_LAT, LON, 10, null, null)
+                .orElseThrow();
+
+        assertThat(insertion.routeId()).isEqualTo(free).isNotEqualTo(full);
+        assertThat(index.findBestInsertion(LAT + KM_LAT, LON, 5_000, null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Insertion should not push a later stop past its window")
+    void testSlackRespected() {
+        // Second stop has no spare time: anything before it would make it late
+        SlottingIndex.RouteState state = index.state(UUID.randomUUID(), 0, 2000, LAT, LON, START,
+                List.of(stop(2, null, null, 0), stop(4, null, null, 0)));
+        long tightEnd = state.stops().get(1).arrival();
+        index.refresh(index.state(state.routeId(), 0, 2000, LAT, LON, START,
+                List.of(stop(2, null, null, 0), stop(4, null, tightEnd, 0))));
+
+        SlottingIndex.Insertion insertion = index.findBestInsertion(LAT + 3 * KM_LAT, LON + 0.01, 10, null, null)
+                .orElseThrow();
+
+        assertThat(insertion.position()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Stop window should be met or the position rejected")
+    void testOwnWindow() {
+        route(2000, stop(2, null, null, 0), stop(40, null, null, 0));
+
+        // Closes before the vehicle can reach it from any position
+        assertThat(index.findBestInsertion(LAT + KM_LAT, LON, 10, null, START + 30)).isEmpty();
+
+        // Opens late - waiting is allowed when the next stop has slack
+        SlottingIndex.Insertion insertion = index.findBestInsertion(LAT + KM_LAT, LON, 10, START + 3600, null)
+                .orElseThrow();
+        assertThat(insertion.arrival()).isLessThan(START + 3600);
+    }
+
+    @Test
+    @DisplayName("Commit should apply only on the version the insertion was computed on")
+    void testOptimisticCommit() {
+        UUID routeId = route(2000, stop(2, null, null, 10), stop(6, null, null, 10));
+        SlottingIndex.Insertion insertion = index.findBestInsertion(LAT + 4 * KM_LAT, LON, 25, null, null)
+                .orElseThrow();
+        SlottingIndex.Stop stop = new SlottingIndex.Stop(UUID.randomUUID(), LAT + 4 * KM_LAT, LON,
+                insertion.arrival(), null, null, 25);
+
+        Optional<SlottingIndex.RouteState> committed = index.commit(insertion, stop);
+        Optional<SlottingIndex.RouteState> stale = index.commit(insertion, stop);
+
+        assertThat(committed).isPresent();
+        assertThat(stale).isEmpty();
+        SlottingIndex.RouteState state = index.find(routeId).orElseThrow();
+        assertThat(state.version()).isEqualTo(1);
+        assertThat(state.load()).isEqualTo(45);
+        assertThat(state.stops()).extracting(SlottingIndex.Stop::weight).containsExactly(10.0, 25.0, 10.0);
+        assertThat(state.stops()).extracting(SlottingIndex.Stop::arrival).isSorted();
+    }
+
+    @Test
+    @DisplayName("Refresh should keep a newer in-memory version")
+    void testRefreshKeepsNewerVersion() {
+        UUID routeId = route(2000, stop(2, null, null, 0));
+        SlottingIndex.Insertion insertion = index.findBestInsertion(LAT + 3 * KM_LAT, LON, 5, null, null)
+                .orElseThrow();
+        index.commit(insertion, new SlottingIndex.Stop(UUID.randomUUID(), LAT + 3 * KM_LAT, LON,
+                insertion.arrival(), null, null, 5));
+
+        index.refresh(index.state(routeId, 0, 2000, LAT, LON, START, List.of(stop(2, null, null, 0))));
+
+        assertThat(index.find(routeId).orElseThrow().stops()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Order far from every route should still be slotted")
+    void testFallbackToAllRoutes() {
+        UUID routeId = route(2000, stop(1, null, null, 0));
+
+        assertThat(index.findBestInsertion(LAT + 2.0, LON + 2.0, 10, null, null)
+                .map(SlottingIndex.Insertion::routeId)).contains(routeId);
+    }
+
+    @Test
+    @DisplayName("Best insertion over 200 routes x 30 stops should take well under a millisecond")
+    void testQueryLatency() {
+        Random random = new Random(7L);
+        for (int r = 0; r < 200; r++) {
+            List<SlottingIndex.Stop> stops = new ArrayList<>();
+            for (int s = 0; s < 30; s++) {
+                stops.add(new SlottingIndex.Stop(UUID.randomUUID(), LAT + (random.nextDouble() - 0.5) * 0.4,
+                        LON + (random.nextDouble() - 0.5) * 0.6, SlottingIndex.UNKNOWN_ARRIVAL, null, null, 20));
+            }
+            index.refresh(index.state(UUID.randomUUID(), 0, 2000, LAT, LON, START, stops));
+        }
+
+        int queries = 10_000;
+        long started = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            if (index.findBestInsertion(LAT + (random.nextDouble() - 0.5) * 0.4,
+                    LON + (random.nextDouble() - 0.5) * 0.6, 10, null, null).isPresent()) {
+                found++;
+            }
+        }
+        double averageMillis = (System.nanoTime() - started) / 1e6 / queries;
+
+        assertThat(found).isEqualTo(queries);
+        assertThat(averageMillis).isLessThan(1.0);
+    }
+
+    // ===== Helpers =====
+
+    private UUID route(double capacity, SlottingIndex.Stop... stops) {
+        UUID routeId = UUID.randomUUID();
+        index.refresh(index.state(routeId, 0, capacity, LAT, LON, START, List.of(stops)));
+        return routeId;
+    }
+
+    /**
+     * Stop {@code km} kilometres north of the start, timed from the previous one
+     */
+    private static SlottingIndex.Stop stop(double km, Long windowStart, Long windowEnd, double weight) {
+        return new SlottingIndex.Stop(UUID.randomUUID(), LAT + km * KM_LAT, LON, SlottingIndex.UNKNOWN_ARRIVAL,
+                windowStart, windowEnd, weight);
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.planning_service.service;
+
+import com.example.planning_service.config.AppProperties;
+import com.example.planning_service.dto.SlottingRequestDto;
+import com.example.planning_service.dto.SlottingResponseDto;
+import com.example.planning_service.entity.LocationPoint;
+import com.example.planning_service.entity.RouteEntity;
+import com.example.planning_service.entity.RouteStopEntity;
+import com.example.planning_service.monitoring.OptimizationMetrics;
+import com.example.planning_service.repository.RouteRepository;
+import com.example.planning_service.repository.RouteStopRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for SlottingService against an in-memory route store that behaves
+ * like JPA optimistic locking (save fails when the version moved on): a
+ * 1,000-request concurrent load, conflicts with writers outside the index
+ * and window rejections. Transactions are no-ops.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SlottingService Tests")
+class SlottingServiceTest {
+
+    private static final double LAT = 52.2297;
+    private static final double LON = 21.0122;
+    private static final GeometryFactory GEOMETRY = new GeometryFactory();
+
+    @Mock
+    private RouteRepository routeRepository;
+
+    @Mock
+    private RouteStopRepository routeStopRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final RouteStore store = new RouteStore();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AppProperties appProperties;
+    private SlottingService slottingService;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        when(routeRepository.findAllWithStops()).thenAnswer(invocation -> store.all());
+        slottingService = new SlottingService(routeRepository, routeStopRepository, appProperties,
+                new OptimizationMetrics(meterRegistry), transactionManager);
+    }
+
+    @Test
+    @DisplayName("1,000 concurrent slot requests should fill routes up to capacity without lost or duplicate stops")
+    void testConcurrentSlotRequests() throws Exception {
+        // Generous retries so only capacity decides; 40 routes x 20 slots of 100 kg = 800 assignable
+        appProperties.getSlotting().setMaxAttempts(100);
+        stubStoreWrites();
+        Random random = new Random(11L);
+        for (int i = 0; i < 40; i++) {
+            store.add(route(i % 2 == 0 ? 2000.0 : null, LAT + (random.nextDouble() - 0.5) * 0.3,
+                    LON + (random.nextDouble() - 0.5) * 0.45));
+        }
+        slottingService.refresh();
+
+        int requests = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SlottingResponseDto>> futures = new ArrayList<>(requests);
+        List<SlottingRequestDto> sent = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            SlottingRequestDto request = request(LAT + (random.nextDouble() - 0.5) * 0.3,
+                    LON + (random.nextDouble() - 0.5) * 0.45, 100);
+            sent.add(request);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return slottingService.assignOrderToRoute(request);
+            }));
+        }
+        start.countDown();
+        List<SlottingResponseDto> responses = new ArrayList<>(requests);
+        for (Future<SlottingResponseDto> future : futures) {
+            responses.add(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        long assigned = responses.stream().filter(SlottingResponseDto::isSuccess).count();
+        assertThat(assigned).isEqualTo(800);
+        assertThat(responses).filteredOn(response -> !response.isSuccess())
+                .extracting(SlottingResponseDto::getMessage).containsOnly(
+                        "No suitable route found with capacity and time window.");
+
+        Set<UUID> storedOrders = new HashSet<>();
+        for (RouteEntity route : store.all()) {
+            List<Integer> sequences = route.getStops().stream().map(RouteStopEntity::getSequence).sorted().toList();
+            double load = route.getStops().stream()
+                    .mapToDouble(stop -> stop.getProperty(SlottingService.WEIGHT_PROPERTY, Number.class).doubleValue())
+                    .sum();
+            assertThat(load).isLessThanOrEqualTo(2000.0);
+            assertThat(sequences).containsExactlyElementsOf(
+                    IntStream.rangeClosed(1, sequences.size()).boxed().toList());
+            route.getStops().forEach(stop -> assertThat(storedOrders.add(stop.getOrderId())).isTrue());
+
+            SlottingIndex.RouteState state = slottingService.index().find(route.getId()).orElseThrow();
+            assertThat(state.version()).isEqualTo(route.getVersion());
+            assertThat(state.load()).isEqualTo(load);
+            assertThat(state.stops()).extracting(SlottingIndex.Stop::orderId).containsExactlyElementsOf(
+                    route.getStops().stream().sorted(Comparator.comparing(RouteStopEntity::getSequence))
+                            .map(RouteStopEntity::getOrderId).toList());
+        }
+        assertThat(storedOrders).hasSize(800);
+        for (int i = 0; i < requests; i++) {
+            assertThat(storedOrders.contains(sent.get(i).getOrderId())).isEqualTo(responses.get(i).isSuccess());
+        }
+    }
+
+    @Test
+    @DisplayName("Route changed outside the index should be reloaded and the insertion recomputed")
+    void testExternalChangeReloaded() {
+        stubStoreWrites();
+        RouteEntity route = route(2000.0, LAT, LON);
+        store.add(route);
+        slottingService.refresh();
+
+        // Another instance adds a stop: database version moves on, the index does not know yet
+        RouteEntity external = store.find(route.getId()).orElseThrow();
+        external.getStops().add(stop(external, UUID.randomUUID(), 1, LAT + 0.01, LON, 300.0));
+        store.save(external);
+
+        SlottingResponseDto response = slottingService.assignOrderToRoute(request(LAT + 0.02, LON, 100));
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getSequence()).isEqualTo(2);
+        assertThat(store.find(route.getId()).orElseThrow().getStops()).hasSize(2);
+        assertThat(slottingService.index().find(route.getId()).orElseThrow().load()).isEqualTo(400.0);
+        assertThat(meterRegistry.get("slotting.conflicts").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Order whose window has already closed should be rejected")
+    void testClosedWindowRejected() {
+        store.add(route(2000.0, LAT, LON));
+        slottingService.refresh();
+        SlottingRequestDto request = request(LAT + 0.01, LON, 100);
+        request.setTimeWindowEnd(LocalDateTime.now().minusHours(1));
+
+        SlottingResponseDto response = slottingService.assignOrderToRoute(request);
+
+        assertThat(response.isSuccess()).isFalse();
+        verify(routeRepository, never()).save(any());
+    }
+
+    // ===== Helpers =====
+
+    private void stubStoreWrites() {
+        when(routeRepository.findById(any())).thenAnswer(invocation -> store.find(invocation.getArgument(0)));
+        when(routeRepository.save(any())).thenAnswer(invocation -> store.save(invocation.getArgument(0)));
+        when(routeStopRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static SlottingRequestDto request(double lat, double lon, double weight) {
+        SlottingRequestDto request = new SlottingRequestDto();
+        request.setOrderId(UUID.randomUUID());
+        request.setLat(lat);
+        request.setLon(lon);
+        request.setWeight(weight);
+        return request;
+    }
+
+    private static RouteEntity route(Double capacity, double lat, double lon) {
+        RouteEntity route = new RouteEntity();
+        route.setId(UUID.randomUUID());
+        route.setVersion(0L);
+        LocationPoint location = new LocationPoint();
+        location.setCoordinates(GEOMETRY.createPoint(new Coordinate(lon, lat)));
+        route.setCurrentLocation(location);
+        if (capacity != null) {
+            route.addProperty(SlottingService.CAPACITY_PROPERTY, capacity);
+        }
+        return route;
+    }
+
+    private static RouteStopEntity stop(RouteEntity route, UUID orderId, int sequence, double lat, double lon,
+            double weight) {
+        RouteStopEntity stop = new RouteStopEntity();
+        stop.setId(UUID.randomUUID());
+        stop.setRoute(route);
+        stop.setOrderId(orderId);
+        stop.setSequence(sequence);
+        LocationPoint location = new LocationPoint();
+        location.setCoordinates(GEOMETRY.createPoint(new Coordinate(lon, lat)));
+        stop.setLocation(location);
+        stop.addProperty(SlottingService.WEIGHT_PROPERTY, weight);
+        return stop;
+    }
+
+    /**
+     * Committed route rows: reads return detached copies, save fails like a
+     * JPA @Version check when the copy is stale and bumps the version otherwise
+     */
+    private static final class RouteStore {
+        private final Map<UUID, RouteEntity> rows = new ConcurrentHashMap<>();
+
+        void add(RouteEntity route) {
+            rows.put(route.getId(), copy(route));
+        }
+
+        synchronized List<RouteEntity> all() {
+            return rows.values().stream().map(RouteStore::copy).toList();
+        }
+
+        synchronized Optional<RouteEntity> find(UUID id) {
+            return Optional.ofNullable(rows.get(id)).map(RouteStore::copy);
+        }
+
+        synchronized RouteEntity save(RouteEntity route) {
+            RouteEntity committed = rows.get(route.getId());
+            if (!committed.getVersion().equals(route.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(RouteEntity.class, route.getId());
+            }
+            RouteEntity next = copy(route);
+            next.setVersion(route.getVersion() + 1);
+            rows.put(route.getId(), next);
+            return next;
+        }
+
+        private static RouteEntity copy(RouteEntity source) {
+            RouteEntity route = new RouteEntity();
+            route.setId(source.getId());
+            route.setVersion(source.getVersion());
+            route.setCurrentLocation(source.getCurrentLocation());
+            route.setLastUpdated(source.getLastUpdated());
+            route.setProperties(new HashMap<>(source.getProperties()));
+            for (RouteStopEntity sourceStop : source.getStops()) {
+                RouteStopEntity stop = new RouteStopEntity();
+                stop.setId(sourceStop.getId());
+                stop.setRoute(route);
+                stop.setOrderId(sourceStop.getOrderId());
+                stop.setSequence(sourceStop.getSequence());
+                stop.setLocation(sourceStop.getLocation());
+                stop.setPredictedArrivalTime(sourceStop.getPredictedArrivalTime());
+                stop.setSlaWindowStart(sourceStop.getSlaWindowStart());
+                stop.setSlaWindowEnd(sourceStop.getSlaWindowEnd());
+                stop.setProperties(new HashMap<>(sourceStop.getProperties()));
+                route.getStops().add(stop);
+            }
+            return route;
+        }
+    }
+}
@@ -13,19 +13,32 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
  * Comprehensive unit tests for ZoneResolutionService.
- * Tests Polish postal code resolution (XX-XXX format).
+ * Tests Polish postal code resolution (XX-XXX format) and randomized
+ * equivalence of the compiled interval index with the linear scan.
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("ZoneResolutionService Tests")
@@ -210,18 +223,228 @@ class ZoneResolutionServiceTest {
     }
 
     @Test
-    @DisplayName("Should use cache for repeated lookups")
+    @DisplayName("Should compile rules once per country for repeated lookups")
     void testCacheUsage() {
         // Arrange
         when(ruleRepository.findAllByCountryCode("PL")).thenReturn(testRules);
 
-        // Act - Call twice with same parameters
+        // Act - Call twice with same and different parameters
         zoneResolutionService.resolveZone("PL", "00-001");
         zoneResolutionService.resolveZone("PL", "00-001");
+        zoneResolutionService.resolveZone("PL", "30-500");
 
-        // Assert - Repository should be called twice (cache is applied at Spring level)
-        // Note: Cache behavior verification requires integration test
-        verify(ruleRepository, times(2)).findAllByCountryCode("PL");
+        // Assert - Rules loaded once, lookups served from the compiled index
+        verify(ruleRepository, times(1)).findAllByCountryCode("PL");
+    }
+
+    @Test
+    @DisplayName("Should pick up changed rules after rebuild")
+    void testRebuildSwapsIndex() {
+        // Arrange
+        PostalCodeRuleEntity newRule = PostalCodeRuleEntity.builder()
+                .id(UUID.randomUUID())
+                .postalCodeStart("05-000")
+                .postalCodeEnd("05-999")
+                .zone(warsawZone)
+                .priority(3)
+                .build();
+        when(ruleRepository.findAllByCountryCode("PL"))
+                .thenReturn(testRules)
+                .thenReturn(List.of(newRule, testRules.get(1)));
+        assertThat(zoneResolutionService.resolveZone("PL", "05-100")).isEmpty();
+
+        // Act
+        zoneResolutionService.rebuild("PL");
+
+        // Assert
+        assertThat(zoneResolutionService.resolveZone("PL", "05-100")).contains(warsawZone);
+        assertThat(zoneResolutionService.resolveZone("PL", "00-001")).isEmpty();
+        assertThat(zoneResolutionService.resolveZone("PL", "30-500")).contains(krakowZone);
+    }
+
+    @Test
+    @DisplayName("Slow rebuild should not block lookups of the same or another country")
+    void testRebuildDoesNotBlockLookups() throws Exception {
+        // Arrange - the second PL read hangs until released
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(ruleRepository.findAllByCountryCode("DE")).thenReturn(List.of());
+        when(ruleRepository.findAllByCountryCode("PL"))
+                .thenReturn(testRules)
+                .thenAnswer(invocation -> {
+                    rebuildStarted.countDown();
+                    release.await();
+                    return List.of(testRules.get(1));
+                });
+        zoneResolutionService.resolveZone("PL", "00-001");
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> rebuild = pool.submit(() -> zoneResolutionService.rebuild("PL"));
+            assertThat(rebuildStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act & Assert - old PL index served, DE compiled while PL rebuild is in flight
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertThat(zoneResolutionService.resolveZone("PL", "00-001")).contains(warsawZone);
+                assertThat(zoneResolutionService.resolveZone("DE", "10115")).isEmpty();
+            });
+
+            release.countDown();
+            rebuild.get(5, TimeUnit.SECONDS);
+            assertThat(zoneResolutionService.resolveZone("PL", "00-001")).isEmpty();
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should resolve a batch of postal codes with one rule load")
+    void testResolveAll() {
+        // Arrange
+        when(ruleRepository.findAllByCountryCode("PL")).thenReturn(testRules);
+
+        // Act
+        Map<String, ZoneDefinitionEntity> zones = zoneResolutionService.resolveAll("PL",
+                Arrays.asList("30-500", "99-999", "00-001", null, "30-500"));
+
+        // Assert - Input order kept, unresolved and null codes omitted
+        assertThat(zones.keySet()).containsExactly("30-500", "00-001");
+        assertThat(zones.get("30-500")).isEqualTo(krakowZone);
+        assertThat(zones.get("00-001")).isEqualTo(warsawZone);
+        verify(ruleRepository, times(1)).findAllByCountryCode("PL");
+    }
+
+    @Test
+    @DisplayName("Should normalize postal code formats (hyphen, spaces, case)")
+    void testNormalizedFormats() {
+        // Arrange
+        when(ruleRepository.findAllByCountryCode("PL")).thenReturn(testRules);
+
+        // Act & Assert
+        assertThat(zoneResolutionService.resolveZone("PL", "00001")).contains(warsawZone);
+        assertThat(zoneResolutionService.resolveZone("PL", "30 500")).contains(krakowZone);
+        assertThat(zoneResolutionService.resolveZone("PL", "05000")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Randomized: compiled index should match the linear scan (PL XX-XXX)")
+    void testRandomizedEquivalencePolishFormat() {
+        Random random = new Random(42L);
+        for (int round = 0; round < 20; round++) {
+            List<PostalCodeRuleEntity> rules = randomRules(random, 5 + random.nextInt(300),
+                    () -> polishCode(random));
+            PostalCodeIntervalIndex index = PostalCodeIntervalIndex.compile(rules);
+
+            for (int i = 0; i < 2_000; i++) {
+                String code = polishCode(random);
+                assertThat(index.find(code)).as("round %d, code %s", round, code)
+                        .isEqualTo(linearFindZone(rules, code));
+            }
+            // Every rule boundary and its neighbours
+            for (PostalCodeRuleEntity rule : rules) {
+                for (String code : List.of(rule.getPostalCodeStart(), rule.getPostalCodeEnd())) {
+                    int value = Integer.parseInt(code.replace("-", ""));
+                    for (int delta = -1; delta <= 1; delta++) {
+                        String neighbour = polishCode(Math.floorMod(value + delta, 100_000));
+                        assertThat(index.find(neighbour)).as("round %d, boundary %s", round, neighbour)
+                                .isEqualTo(linearFindZone(rules, neighbour));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Randomized: compiled index should match the linear scan (NL 9999 AA)")
+    void testRandomizedEquivalenceAlphanumericFormat() {
+        Random random = new Random(7L);
+        for (int round = 0; round < 20; round++) {
+            List<PostalCodeRuleEntity> rules = randomRules(random, 5 + random.nextInt(200),
+                    () -> dutchCode(random));
+            PostalCodeIntervalIndex index = PostalCodeIntervalIndex.compile(rules);
+
+            for (int i = 0; i < 2_000; i++) {
+                String code = dutchCode(random);
+                assertThat(index.find(code)).as("round %d, code %s", round, code)
+                        .isEqualTo(linearFindZone(rules, code));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Codes outside the encodable alphabet should fall back to the linear scan")
+    void testUnencodableCodesFallBack() {
+        List<PostalCodeRuleEntity> rules = List.of(
+                rule("A/100", "A/199", warsawZone),
+                rule("00-000", "99-999", krakowZone));
+        PostalCodeIntervalIndex index = PostalCodeIntervalIndex.compile(rules);
+
+        for (String code : List.of("A/150", "A/200", "12-345", "ĄĘ-123", "1234567890123")) {
+            assertThat(index.find(code)).as(code).isEqualTo(linearFindZone(rules, code));
+        }
+    }
+
+    // ===== Helpers =====
+
+    /**
+     * Reference: previous linear algorithm (first matching rule in repository order,
+     * string comparison)
+     */
+    private static Optional<ZoneDefinitionEntity> linearFindZone(List<PostalCodeRuleEntity> rules, String postalCode) {
+        for (PostalCodeRuleEntity rule : rules) {
+            if (postalCode.compareTo(rule.getPostalCodeStart()) >= 0
+                    && postalCode.compareTo(rule.getPostalCodeEnd()) <= 0) {
+                return Optional.of(rule.getZone());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Random (possibly overlapping, occasionally inverted) rules, ordered like the
+     * repository (priority DESC)
+     */
+    private static List<PostalCodeRuleEntity> randomRules(Random random, int count, Supplier<String> codes) {
+        List<PostalCodeRuleEntity> rules = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String a = codes.get();
+            String b = random.nextInt(20) == 0 ? a : codes.get();
+            boolean inverted = random.nextInt(50) == 0;
+            boolean ordered = a.compareTo(b) <= 0;
+            ZoneDefinitionEntity zone = ZoneDefinitionEntity.builder()
+                    .id(UUID.randomUUID())
+                    .code("Z" + i)
+                    .countryCode("XX")
+                    .build();
+            PostalCodeRuleEntity rule = rule(ordered != inverted ? a : b, ordered != inverted ? b : a, zone);
+            rule.setPriority(random.nextInt(10));
+            rules.add(rule);
+        }
+        rules.sort(Comparator.comparing(PostalCodeRuleEntity::getPriority).reversed());
+        return rules;
+    }
+
+    private static PostalCodeRuleEntity rule(String start, String end, ZoneDefinitionEntity zone) {
+        return PostalCodeRuleEntity.builder()
+                .id(UUID.randomUUID())
+                .postalCodeStart(start)
+                .postalCodeEnd(end)
+                .zone(zone)
+                .priority(1)
+                .build();
+    }
+
+    private static String polishCode(Random random) {
+        return polishCode(random.nextInt(100_000));
+    }
+
+    private static String polishCode(int value) {
+        return String.format("%02d-%03d", value / 1000, value % 1000);
+    }
+
+    private static String dutchCode(Random random) {
+        return String.format("%04d %c%c", 1000 + random.nextInt(9000),
+                (char) ('A' + random.nextInt(26)), (char) ('A' + random.nextInt(26)));
     }
 
     @Test
@@ -0,0 +1,218 @@
+package com.example.planning_service.solver;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftbigdecimal.HardSoftBigDecimalScore;
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import com.example.planning_service.domain.timefold.RouteStop;
+import com.example.planning_service.domain.timefold.ScaledUnits;
+import com.example.planning_service.domain.timefold.SyntheticRoutingProblems;
+import com.example.planning_service.domain.timefold.Vehicle;
+import com.example.planning_service.domain.timefold.VehicleRoutingSolution;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Regression suite for the fixed-point score model.
+ *
+ * Scores random solutions of generated datasets with the current (long, grosze)
+ * VoidConstraintProvider and with a reference implementation of the previous
+ * BigDecimal model, and checks that both rank every pair of solutions the same
+ * way and that the hard score is the old one times HARD_SCALE. Datasets cover
+ * whole and fractional (gram-resolution) weights, SLA deadlines and detour
+ * limits in fractional kilometers.
+ */
+@DisplayName("Fixed-point score model regression")
+class ScaledScoreRegressionTest {
+
+    private static final int SOLUTIONS_PER_DATASET = 25;
+
+    private static SolutionManager<VehicleRoutingSolution, HardSoftLongScore> solutionManager;
+
+    @BeforeAll
+    static void setUp() {
+        solutionManager = SolutionManager.create(SolverFactory.createFromXmlResource("solverConfig.xml"));
+    }
+
+    @ParameterizedTest(name = "{0} stops, {1} vehicles, seed {2}, capacity x{3}, fractional kg {4}, SLA {5}, detour {6}")
+    @CsvSource({
+            "50, 3, 1, 1.2, false, false, false",
+            "50, 3, 2, 0.8, false, false, false",
+            "120, 6, 3, 1.0, false, false, false",
+            "200, 10, 4, 0.6, false, false, false",
+            "50, 3, 5, 0.8, true, false, false",
+            "200, 10, 6, 0.6, true, false, false",
+            "120, 6, 7, 1.2, false, true, false",
+            "120, 6, 8, 1.2, false, false, true",
+            "200, 10, 9, 0.7, true, true, true"
+    })
+    @DisplayName("Both models should rank random solutions identically")
+    void testIdenticalRanking(int stops, int vehicles, long seed, double capacityFactor, boolean fractionalWeights,
+            boolean deadlines, boolean detourLimits) {
+        Random random = new Random(seed);
+        List<HardSoftLongScore> scaledScores = new ArrayList<>();
+        List<HardSoftBigDecimalScore> legacyScores = new ArrayList<>();
+
+        for (int i = 0; i < SOLUTIONS_PER_DATASET; i++) {
+            VehicleRoutingSolution solution = SyntheticRoutingProblems.generate(stops, vehicles, seed, capacityFactor);
+            // Same dataset for every solution of the parameter row, only the assignment is random
+            Random dataset = new Random(~seed);
+            if (fractionalWeights) {
+                withFractionalWeights(solution, capacityFactor, dataset);
+            }
+            if (deadlines) {
+                withDeadlines(solution, dataset);
+            }
+            if (detourLimits) {
+                withDetourLimits(solution, dataset);
+            }
+            SyntheticRoutingProblems.assignRandomly(solution, random);
+
+            scaledScores.add(solutionManager.update(solution));
+            legacyScores.add(LegacyBigDecimalScore.calculate(solution));
+        }
+
+        for (int i = 0; i < SOLUTIONS_PER_DATASET; i++) {
+            for (int j = i + 1; j < SOLUTIONS_PER_DATASET; j++) {
+                assertThat(Integer.signum(scaledScores.get(i).compareTo(scaledScores.get(j))))
+                        .as("ranking of solution %d vs %d (scaled %s/%s, legacy %s/%s)", i, j,
+                                scaledScores.get(i), scaledScores.get(j), legacyScores.get(i), legacyScores.get(j))
+                        .isEqualTo(Integer.signum(legacyScores.get(i).compareTo(legacyScores.get(j))));
+            }
+            assertThat(scaledScores.get(i).hardScore())
+                    .isEqualTo(legacyScores.get(i).hardScore()
+                            .multiply(BigDecimal.valueOf(VoidConstraintProvider.HARD_SCALE)).longValueExact());
+        }
+    }
+
+    @Test
+    @DisplayName("Overloads differing by a fraction of a kilogram should not tie")
+    void testFractionalOverloadRanking() {
+        VehicleRoutingSolution lighter = SyntheticRoutingProblems.generate(2, 1, 11L);
+        VehicleRoutingSolution heavier = SyntheticRoutingProblems.generate(2, 1, 11L);
+        for (VehicleRoutingSolution solution : List.of(lighter, heavier)) {
+            solution.getVehicles().get(0).setCapacityWeightGrams(10_000L);
+            solution.getStops().get(0).setDemandWeightGrams(6_000L);
+        }
+        // 0.2 kg vs 0.9 kg over capacity - the same "started kilogram"
+        lighter.getStops().get(1).setDemandWeightGrams(4_200L);
+        heavier.getStops().get(1).setDemandWeightGrams(4_900L);
+        SyntheticRoutingProblems.assignRandomly(lighter, new Random(1L));
+        SyntheticRoutingProblems.assignRandomly(heavier, new Random(1L));
+
+        HardSoftLongScore lighterScore = solutionManager.update(lighter);
+        HardSoftLongScore heavierScore = solutionManager.update(heavier);
+
+        assertThat(lighterScore.hardScore()).isEqualTo(-200L);
+        assertThat(heavierScore.hardScore()).isEqualTo(-900L);
+        assertThat(lighterScore).isGreaterThan(heavierScore);
+        assertThat(LegacyBigDecimalScore.calculate(lighter)).isGreaterThan(LegacyBigDecimalScore.calculate(heavier));
+    }
+
+    // ===== Dataset variants =====
+
+    /**
+     * Gram-resolution weights (0.5 - 50 kg) and capacity not rounded to whole kilograms
+     */
+    private static void withFractionalWeights(VehicleRoutingSolution solution, double capacityFactor, Random random) {
+        long totalGrams = 0L;
+        for (RouteStop stop : solution.getStops()) {
+            stop.setDemandWeightGrams(500L + random.nextInt(49_500));
+            totalGrams += stop.getDemandWeightGrams();
+        }
+        long capacityGrams = (long) (totalGrams * capacityFactor / solution.getVehicles().size()) + 137L;
+        solution.getVehicles().forEach(vehicle -> vehicle.setCapacityWeightGrams(capacityGrams));
+    }
+
+    /**
+     * Deadlines 30 min - 4 h after planning start on half of the stops
+     */
+    private static void withDeadlines(VehicleRoutingSolution solution, Random random) {
+        for (RouteStop stop : solution.getStops()) {
+            if (random.nextBoolean()) {
+                stop.setMaxEndTime(SyntheticRoutingProblems.PLANNING_START + 1_800L + random.nextInt(12_600));
+            }
+        }
+    }
+
+    /**
+     * Detour limits of 5 - 30 km in quarter kilometers (exact in binary, so the
+     * BigDecimal reference has no rounding noise)
+     */
+    private static void withDetourLimits(VehicleRoutingSolution solution, Random random) {
+        solution.getVehicles().forEach(vehicle -> vehicle.setMaxDetourKm(5.0 + random.nextInt(100) * 0.25));
+    }
+
+    /**
+     * Reference implementation of the BigDecimal score model that
+     * VoidConstraintProvider used before the fixed-point conversion
+     * (hard: kilograms over capacity, minutes late, meters over the detour limit).
+     */
+    private static final class LegacyBigDecimalScore {
+
+        private static final BigDecimal FUEL_COST_PER_KM = new BigDecimal("0.50");
+        private static final BigDecimal DRIVER_COST_PER_HOUR = new BigDecimal("60.00");
+
+        static HardSoftBigDecimalScore calculate(VehicleRoutingSolution solution) {
+            BigDecimal hard = BigDecimal.ZERO;
+            BigDecimal soft = BigDecimal.ZERO;
+
+            Map<Vehicle, BigDecimal> weightPerVehicle = new HashMap<>();
+            Map<Vehicle, Long> metersPerVehicle = new HashMap<>();
+            for (RouteStop stop : solution.getStops()) {
+                if (stop.isLate()) {
+                    hard = hard.subtract(BigDecimal.valueOf(Duration.ofSeconds(
+                            stop.getArrivalTime() - stop.getDeadline()).toMinutes()));
+                }
+                if (stop.getVehicle() == null) {
+                    soft = soft.subtract(BigDecimal.valueOf(10));
+                    continue;
+                }
+                weightPerVehicle.merge(stop.getVehicle(),
+                        ScaledUnits.gramsToKilograms(stop.getDemandWeightGrams()), BigDecimal::add);
+                metersPerVehicle.merge(stop.getVehicle(), (long) stop.getDistanceFromPreviousMeters(), Long::sum);
+                soft = soft.add(profit(stop)).subtract(distancePenalty(stop));
+            }
+            for (Map.Entry<Vehicle, BigDecimal> entry : weightPerVehicle.entrySet()) {
+                BigDecimal capacity = ScaledUnits.gramsToKilograms(entry.getKey().getCapacityWeightGrams());
+                if (entry.getValue().compareTo(capacity) > 0) {
+                    hard = hard.subtract(entry.getValue().subtract(capacity));
+                }
+            }
+            for (Map.Entry<Vehicle, Long> entry : metersPerVehicle.entrySet()) {
+                double maxDetourKm = entry.getKey().getMaxDetourKm();
+                if (maxDetourKm > 0 && entry.getValue() > maxDetourKm * 1000) {
+                    hard = hard.subtract(BigDecimal.valueOf(entry.getValue() - maxDetourKm * 1000));
+                }
+            }
+            return HardSoftBigDecimalScore.of(hard, soft);
+        }
+
+        private static BigDecimal profit(RouteStop stop) {
+            double distanceKm = stop.getDistanceFromPreviousMeters() / 1000.0;
+            BigDecimal fuelCost = FUEL_COST_PER_KM.multiply(BigDecimal.valueOf(distanceKm));
+            BigDecimal driverCost = DRIVER_COST_PER_HOUR
+                    .multiply(BigDecimal.valueOf(stop.getTravelTimeMinutes()))
+                    .divide(BigDecimal.valueOf(60), java.math.RoundingMode.HALF_UP);
+            return stop.getOrderValue().subtract(fuelCost).subtract(driverCost).max(BigDecimal.ZERO);
+        }
+
+        private static BigDecimal distancePenalty(RouteStop stop) {
+            double distanceKm = stop.getDistanceFromPreviousMeters() / 1000.0;
+            return BigDecimal.valueOf(distanceKm).divide(BigDecimal.valueOf(100), java.math.RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.order_service.controller;
 
 import com.example.danxils_commons.dto.OrderQueryRequestDto;
 import com.example.order_service.model.dto.OrderResponseDto;
+import com.example.order_service.model.dto.PlanningOrderProjection;
 import com.example.order_service.entity.ClientEntity;
 import com.example.order_service.entity.OrderEntity;
 import com.example.order_service.mapper.OrderMapper;
@@ -37,15 +38,16 @@ public class InternalController {
     }
 
     @PostMapping("/batch")
-    @Operation(summary = "Get multiple orders by IDs")
-    public ResponseEntity<List<OrderResponseDto>> getOrdersBatch(@RequestBody List<UUID> orderIds) {
+    @Operation(summary = "Get multiple orders by IDs (planning projection, max 10000 IDs)")
+    public ResponseEntity<List<com.example.danxils_commons.dto.OrderResponseDto>> getOrdersBatch(
+            @RequestBody List<UUID> orderIds) {
         if (orderIds == null || orderIds.isEmpty()) {
             return ResponseEntity.ok(java.util.Collections.emptyList());
         }
-        // findOrdersByIds is valid as per OrderService update
-        List<OrderEntity> orders = orderService.findOrdersByIds(orderIds);
-        List<OrderResponseDto> dtos = orders.stream()
-                .map(orderMapper::mapToResponseDto)
+        // Chunked IN query with a flat projection - no entity graph is loaded
+        List<com.example.danxils_commons.dto.OrderResponseDto> dtos = orderService.findPlanningOrdersByIds(orderIds)
+                .stream()
+                .map(PlanningOrderProjection::toOrderResponseDto)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
     }
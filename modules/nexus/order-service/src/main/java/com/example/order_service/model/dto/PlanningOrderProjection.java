@@ -0,0 +1,92 @@
+package com.example.order_service.model.dto;
+
+import com.example.danxils_commons.dto.AddressDto;
+import com.example.danxils_commons.dto.OrderResponseDto;
+import com.example.danxils_commons.dto.PackageDto;
+import com.example.danxils_commons.enums.OrderStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ARCHITEKTURA: Płaska projekcja zlecenia dla planowania tras
+ * (/api/internal/orders/batch).
+ *
+ * Wypełniana bezpośrednio przez JPQL constructor expression - jedno zapytanie
+ * z left joinami na adresy i paczkę, bez ładowania encji, properties (JSONB),
+ * assetów i ePoD. Zawiera tylko pola, których potrzebuje solver: lokalizacje,
+ * okna czasowe, wagę/objętość.
+ */
+public record PlanningOrderProjection(
+        UUID orderId,
+        OrderStatus status,
+        String pickupCustomerName,
+        String pickupStreet,
+        String pickupStreetNumber,
+        String pickupPostalCode,
+        String pickupCity,
+        String pickupCountry,
+        Double pickupLat,
+        Double pickupLon,
+        String deliveryCustomerName,
+        String deliveryStreet,
+        String deliveryStreetNumber,
+        String deliveryPostalCode,
+        String deliveryCity,
+        String deliveryCountry,
+        Double deliveryLat,
+        Double deliveryLon,
+        Instant deliverySla,
+        String deliveryRoute,
+        String deliveryRoutePart,
+        String deliveryType,
+        String barcode1,
+        Integer colli,
+        Double weight,
+        Double volume,
+        Double length,
+        Double width,
+        Double height,
+        Boolean adr,
+        Instant pickupTimeFrom,
+        Instant pickupTimeTo,
+        Instant deliveryTimeFrom,
+        Instant deliveryTimeTo) {
+
+    /**
+     * Mapuje na kanoniczny kontrakt danxils-commons, który konsumuje
+     * planning-service (pola spoza projekcji pozostają null).
+     */
+    public OrderResponseDto toOrderResponseDto() {
+        AddressDto pickup = AddressDto.builder()
+                .customerName(pickupCustomerName)
+                .street(pickupStreet)
+                .streetNumber(pickupStreetNumber)
+                .postalCode(pickupPostalCode)
+                .city(pickupCity)
+                .country(pickupCountry)
+                .lat(pickupLat)
+                .lon(pickupLon)
+                .build();
+
+        OrderResponseDto.DeliveryAddressDto delivery = new OrderResponseDto.DeliveryAddressDto(
+                deliveryCustomerName, null, deliveryStreet, deliveryStreetNumber, deliveryPostalCode,
+                deliveryCity, deliveryCountry, null, null, null, deliveryLat, deliveryLon, deliverySla,
+                deliveryRoute, deliveryRoutePart, deliveryType, null, null);
+
+        PackageDto aPackage = PackageDto.builder()
+                .barcode1(barcode1)
+                .colli(colli)
+                .weight(weight)
+                .volume(volume)
+                .length(length)
+                .width(width)
+                .height(height)
+                .adr(adr)
+                .build();
+
+        return new OrderResponseDto(orderId, status, null, pickup, delivery, aPackage, null, null,
+                List.of(), List.of(), null, pickupTimeFrom, pickupTimeTo, deliveryTimeFrom, deliveryTimeTo);
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.order_service.repository;
 
 import com.example.order_service.entity.OrderEntity;
+import com.example.order_service.model.dto.PlanningOrderProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,4 +19,22 @@ public interface OrderRepository extends JpaRepository<OrderEntity, UUID>, JpaSp
 
     // Legacy support
     List<OrderEntity> findByStatus(com.example.danxils_commons.enums.OrderStatus status);
+
+    /**
+     * Planning projection for one chunk of IDs (callers keep the IN list
+     * bounded, see OrderService.findPlanningOrdersByIds)
+     */
+    @Query("select new com.example.order_service.model.dto.PlanningOrderProjection("
+            + "o.id, o.status, "
+            + "p.customerName, p.street, p.streetNumber, p.postalCode, p.city, p.country, p.lat, p.lon, "
+            + "d.customerName, d.street, d.streetNumber, d.postalCode, d.city, d.country, d.lat, d.lon, "
+            + "d.sla, d.route, d.routePart, d.type, "
+            + "k.barcode1, k.colli, k.weight, k.volume, k.length, k.width, k.height, k.adr, "
+            + "o.pickupTimeFrom, o.pickupTimeTo, o.deliveryTimeFrom, o.deliveryTimeTo) "
+            + "from OrderEntity o "
+            + "left join o.pickupAddress p "
+            + "left join o.deliveryAddress d "
+            + "left join o.packageDetails k "
+            + "where o.id in :orderIds")
+    List<PlanningOrderProjection> findPlanningProjectionsByIdIn(@Param("orderIds") Collection<UUID> orderIds);
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ import com.example.order_service.entity.ClientEntity;
 import com.example.order_service.entity.OrderEntity;
 import com.example.order_service.entity.OutboxEventEntity;
 import com.example.order_service.entity.PackageEntity;
+import com.example.order_service.model.dto.PlanningOrderProjection;
 import com.example.order_service.repository.ClientRepository;
 import com.example.order_service.repository.OrderRepository;
 import com.example.order_service.repository.OutboxEventRepository;
@@ -28,6 +29,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -42,6 +45,16 @@ public class OrderService {
     private final OrderSpecification orderSpecification;
     private final OutboxEventRepository outboxEventRepository;
 
+    /**
+     * Max IDs per IN query (bounded page size for /api/internal/orders/batch)
+     */
+    static final int BATCH_QUERY_CHUNK_SIZE = 1000;
+
+    /**
+     * Max IDs accepted in one /api/internal/orders/batch request
+     */
+    static final int MAX_BATCH_REQUEST_SIZE = 10_000;
+
     @Transactional
     public OrderEntity createOrder(CreateOrderRequestDto request) {
         log.info("Creating order for customer: {}", request.getCustomerId());
@@ -206,6 +219,28 @@ public class OrderService {
         return orderRepository.findAllById(orderIds);
     }
 
+    /**
+     * Planning fetch: distinct IDs, one projection query per chunk of at most
+     * BATCH_QUERY_CHUNK_SIZE IDs (bounded IN list, no entity hydration).
+     * Requests above MAX_BATCH_REQUEST_SIZE are rejected - callers split them.
+     */
+    @Transactional(readOnly = true)
+    public List<PlanningOrderProjection> findPlanningOrdersByIds(List<UUID> orderIds) {
+        List<UUID> distinctIds = List.copyOf(new LinkedHashSet<>(orderIds));
+        if (distinctIds.size() > MAX_BATCH_REQUEST_SIZE) {
+            throw new IllegalArgumentException("Batch request too large: " + distinctIds.size()
+                    + " order IDs (max " + MAX_BATCH_REQUEST_SIZE + ")");
+        }
+
+        List<PlanningOrderProjection> orders = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += BATCH_QUERY_CHUNK_SIZE) {
+            orders.addAll(orderRepository.findPlanningProjectionsByIdIn(
+                    distinctIds.subList(from, Math.min(distinctIds.size(), from + BATCH_QUERY_CHUNK_SIZE))));
+        }
+        log.debug("Fetched {} planning projections for {} requested IDs", orders.size(), distinctIds.size());
+        return orders;
+    }
+
     @Transactional
     public OrderEntity assignDriver(UUID orderId, AssignDriverRequestDto request, String username) {
         log.info("Assigning driver {} to order {} by user {}", request.getDriverId(), orderId, username);
@@ -0,0 +1,124 @@
+package com.example.order_service.service;
+
+import com.example.danxils_commons.enums.OrderStatus;
+import com.example.order_service.model.dto.PlanningOrderProjection;
+import com.example.order_service.repository.ClientRepository;
+import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.repository.OutboxEventRepository;
+import com.example.order_service.repository.specification.OrderSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceBatchFetchTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private OrderSpecification orderSpecification;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, clientRepository, orderSpecification, outboxEventRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findPlanningOrdersByIds_shouldIssueOneQueryPerChunk_for10kOrders() {
+        // Given
+        List<UUID> orderIds = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID()).toList();
+        when(orderRepository.findPlanningProjectionsByIdIn(any())).thenAnswer(invocation -> {
+            Collection<UUID> chunk = invocation.getArgument(0);
+            return chunk.stream().map(OrderServiceBatchFetchTest::projection).toList();
+        });
+
+        // When
+        List<PlanningOrderProjection> orders = orderService.findPlanningOrdersByIds(orderIds);
+
+        // Then
+        ArgumentCaptor<Collection<UUID>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(orderRepository, times(10)).findPlanningProjectionsByIdIn(chunks.capture());
+        verify(orderRepository, never()).findAll();
+        verify(orderRepository, never()).findAllById(any());
+        assertTrue(chunks.getAllValues().stream().allMatch(chunk -> chunk.size() <= OrderService.BATCH_QUERY_CHUNK_SIZE));
+        assertEquals(10_000, orders.size());
+        assertEquals(new HashSet<>(orderIds),
+                new HashSet<>(orders.stream().map(PlanningOrderProjection::orderId).toList()));
+    }
+
+    @Test
+    void findPlanningOrdersByIds_shouldQueryDuplicatesOnce() {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.findPlanningProjectionsByIdIn(List.of(orderId))).thenReturn(List.of(projection(orderId)));
+
+        // When
+        List<PlanningOrderProjection> orders = orderService.findPlanningOrdersByIds(List.of(orderId, orderId));
+
+        // Then
+        assertEquals(1, orders.size());
+        verify(orderRepository, times(1)).findPlanningProjectionsByIdIn(any());
+    }
+
+    @Test
+    void findPlanningOrdersByIds_shouldRejectOversizedRequests() {
+        List<UUID> orderIds = new ArrayList<>();
+        for (int i = 0; i <= OrderService.MAX_BATCH_REQUEST_SIZE; i++) {
+            orderIds.add(UUID.randomUUID());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.findPlanningOrdersByIds(orderIds));
+        verify(orderRepository, never()).findPlanningProjectionsByIdIn(any());
+    }
+
+    @Test
+    void toOrderResponseDto_shouldCarryPlanningFields() {
+        UUID orderId = UUID.randomUUID();
+
+        var dto = projection(orderId).toOrderResponseDto();
+
+        assertEquals(orderId, dto.orderId());
+        assertEquals(52.23, dto.delivery().lat());
+        assertEquals(21.01, dto.delivery().lon());
+        assertEquals(12.5, dto.aPackage().getWeight());
+        assertEquals(0.04, dto.aPackage().getVolume());
+    }
+
+    private static PlanningOrderProjection projection(UUID orderId) {
+        return new PlanningOrderProjection(orderId, OrderStatus.NEW,
+                "Sender", "Prosta", "1", "00-001", "Warszawa", "PL", 52.2, 21.0,
+                "Receiver", "Długa", "2", "00-002", "Warszawa", "PL", 52.23, 21.01,
+                null, null, null, null,
+                "BC1", 1, 12.5, 0.04, 0.4, 0.3, 0.3, false,
+                null, null, null, null);
+    }
+}
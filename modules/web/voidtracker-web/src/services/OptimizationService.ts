@@ -2,11 +2,30 @@ import { Client, StompSubscription } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 
 export interface OptimizationUpdateDto {
+    optimizationId: string;
     score: string;
     solverStatus: string;
     requiresApproval: boolean;
     warnings: string[];
+    approvalId?: string;
+    scoreChangePercent?: number;
+    /** Empty until the verdict for approvalId arrives on /topic/gatekeeper-verdicts */
+    justification?: string;
+    /** Consecutive per optimizationId; a gap means a missed delta - wait for the next full snapshot */
+    sequence: number;
+    /** true: routes = all routes; false: routes = changed routes only */
+    fullSnapshot: boolean;
     routes: RouteDto[];
+    removedVehicleIds: string[];
+}
+
+export interface GatekeeperVerdictDto {
+    optimizationId: string;
+    approvalId: string;
+    justification: string;
+    scoreChangePercent: number;
+    warnings: string[];
+    source: 'WEBHOOK' | 'FALLBACK' | 'CACHED';
 }
 
 export interface RouteDto {
@@ -29,7 +48,9 @@ export interface PointDto {
 class OptimizationService {
     private client: Client;
     private subscription: StompSubscription | null = null;
+    private verdictSubscription: StompSubscription | null = null;
     private onUpdateCallback: ((update: OptimizationUpdateDto) => void) | null = null;
+    private onVerdictCallback: ((verdict: GatekeeperVerdictDto) => void) | null = null;
 
     constructor() {
         // Use relative path to leverage Vite proxy
@@ -73,8 +94,10 @@ class OptimizationService {
         };
     }
 
-    public connect(onUpdate: (update: OptimizationUpdateDto) => void) {
+    public connect(onUpdate: (update: OptimizationUpdateDto) => void,
+                   onVerdict?: (verdict: GatekeeperVerdictDto) => void) {
         this.onUpdateCallback = onUpdate;
+        this.onVerdictCallback = onVerdict ?? null;
         try {
             this.client.activate();
         } catch (e) {
@@ -87,6 +110,10 @@ class OptimizationService {
             this.subscription.unsubscribe();
             this.subscription = null;
         }
+        if (this.verdictSubscription) {
+            this.verdictSubscription.unsubscribe();
+            this.verdictSubscription = null;
+        }
         this.client.deactivate();
         console.log("Disconnected from Timefold WebSocket");
     }
@@ -102,6 +129,14 @@ class OptimizationService {
                 }
             });
             console.log("Subscribed to /topic/optimization-updates");
+
+            if (this.onVerdictCallback) {
+                this.verdictSubscription = this.client.subscribe('/topic/gatekeeper-verdicts', (message) => {
+                    if (message.body && this.onVerdictCallback) {
+                        this.onVerdictCallback(JSON.parse(message.body));
+                    }
+                });
+            }
         }
     }
 }